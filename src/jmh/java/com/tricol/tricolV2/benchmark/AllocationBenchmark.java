@@ -0,0 +1,91 @@
+package com.tricol.tricolV2.benchmark;
+
+import com.tricol.tricolV2.benchmark.support.StandIns;
+import com.tricol.tricolV2.config.AppProperties;
+import com.tricol.tricolV2.entity.CommandeFournisseur;
+import com.tricol.tricolV2.entity.LigneCommandeFournisseur;
+import com.tricol.tricolV2.entity.Produit;
+import com.tricol.tricolV2.repository.MouvementStockRepository;
+import com.tricol.tricolV2.repository.ProduitRepository;
+import com.tricol.tricolV2.service.MouvementStockServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Boucle d'allocation de MouvementStockServiceImpl.createEntriesForCommande (CUMP), repositories
+ * remplacés par des doublures en mémoire: seul le coût de planification et de construction des sorties
+ * est mesuré, sans aller-retour base.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class AllocationBenchmark {
+
+    private static final int CANDIDATS_PAR_NOM = 3;
+
+    @Param({"10", "100"})
+    int lignes;
+
+    private MouvementStockServiceImpl service;
+    private CommandeFournisseur commande;
+
+    @Setup
+    public void setUp() {
+        List<Produit> catalogue = new ArrayList<>();
+        long id = 1;
+        for (int n = 0; n < lignes; n++) {
+            for (int c = 0; c < CANDIDATS_PAR_NOM; c++) {
+                Produit p = new Produit();
+                p.setId(id++);
+                p.setNom("Produit-" + n);
+                p.setPrixUnitaire(new BigDecimal("12.50"));
+                // Stock du premier candidat insuffisant: chaque ligne se répartit sur deux produits
+                p.setStockActuel(new BigDecimal(c == 0 ? "3" : "1000000"));
+                catalogue.add(p);
+            }
+        }
+        Map<String, List<Produit>> parNom = catalogue.stream()
+                .collect(Collectors.groupingBy(p -> p.getNom().toLowerCase(Locale.ROOT)));
+
+        ProduitRepository produitRepository = StandIns.repository(ProduitRepository.class, Map.of(
+                "findAllocationCandidates", args -> ((Collection<?>) args[0]).stream()
+                        .flatMap(nom -> parNom.getOrDefault((String) nom, List.of()).stream())
+                        .collect(Collectors.toList()),
+                // Le stock n'est pas décrémenté: chaque invocation repart du même état
+                "decrementerStocks", args -> List.of()));
+        MouvementStockRepository mouvementRepository = StandIns.repository(MouvementStockRepository.class, Map.of(
+                "saveAll", args -> args[0]));
+
+        service = new MouvementStockServiceImpl(mouvementRepository, produitRepository, new AppProperties(), null,
+                new SimpleMeterRegistry());
+
+        commande = new CommandeFournisseur();
+        commande.setId(1L);
+        List<LigneCommandeFournisseur> lignesCommande = new ArrayList<>();
+        for (int n = 0; n < lignes; n++) {
+            LigneCommandeFournisseur ligne = new LigneCommandeFournisseur();
+            ligne.setProduit(parNom.get("produit-" + n).get(0));
+            ligne.setQuantite(new BigDecimal("5"));
+            lignesCommande.add(ligne);
+        }
+        commande.setLignes(lignesCommande);
+    }
+
+    @Benchmark
+    public CommandeFournisseur allouer() {
+        service.createEntriesForCommande(commande);
+        return commande;
+    }
+}
@@ -0,0 +1,92 @@
+package com.tricol.tricolV2.benchmark;
+
+import com.tricol.tricolV2.benchmark.support.StandIns;
+import com.tricol.tricolV2.config.CacheConfig;
+import com.tricol.tricolV2.dto.ProduitCatalogue;
+import com.tricol.tricolV2.entity.CommandeFournisseur;
+import com.tricol.tricolV2.entity.LigneCommandeFournisseur;
+import com.tricol.tricolV2.entity.Produit;
+import com.tricol.tricolV2.repository.ProduitRepository;
+import com.tricol.tricolV2.service.CommandeFournisseurServiceImpl;
+import com.tricol.tricolV2.service.ProduitCatalogueCache;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.cache.CacheManager;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * CommandeFournisseurServiceImpl.bindProduitsAndCompute: résolution des produits via le cache catalogue
+ * (chaud) et calcul des montants de ligne.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class BindProduitsBenchmark {
+
+    @Param({"10", "100"})
+    int lignes;
+
+    private MethodHandle bindProduitsAndCompute;
+    private CommandeFournisseurServiceImpl service;
+    private CommandeFournisseur commande;
+
+    @Setup
+    public void setUp() throws Exception {
+        Map<Long, ProduitCatalogue> catalogue = new HashMap<>();
+        for (long id = 1; id <= lignes; id++) {
+            catalogue.put(id, new ProduitCatalogue(id, "Produit-" + id, "desc", "cat", new BigDecimal("7.35"), 0L));
+        }
+        ProduitRepository produitRepository = StandIns.repository(ProduitRepository.class, Map.of(
+                "findCatalogueByIdIn", args -> ((Collection<?>) args[0]).stream()
+                        .map(catalogue::get)
+                        .collect(Collectors.toList()),
+                "getReferenceById", args -> {
+                    Produit reference = new Produit();
+                    reference.setId((Long) args[0]);
+                    return reference;
+                }));
+
+        CacheManager cacheManager = new CacheConfig().cacheManager(Duration.ofMinutes(1), Duration.ofMinutes(10), 10_000);
+        ((InitializingBean) cacheManager).afterPropertiesSet();
+        ProduitCatalogueCache produitCatalogueCache = new ProduitCatalogueCache(cacheManager, produitRepository);
+
+        service = new CommandeFournisseurServiceImpl(null, null, produitRepository, null, null, null,
+                produitCatalogueCache, null);
+        bindProduitsAndCompute = MethodHandles.privateLookupIn(CommandeFournisseurServiceImpl.class, MethodHandles.lookup())
+                .findVirtual(CommandeFournisseurServiceImpl.class, "bindProduitsAndCompute",
+                        MethodType.methodType(void.class, CommandeFournisseur.class));
+
+        commande = new CommandeFournisseur();
+        List<LigneCommandeFournisseur> lignesCommande = new ArrayList<>();
+        for (long id = 1; id <= lignes; id++) {
+            Produit produit = new Produit();
+            produit.setId(id);
+            LigneCommandeFournisseur ligne = new LigneCommandeFournisseur();
+            ligne.setProduit(produit);
+            ligne.setQuantite(BigDecimal.valueOf(id % 9 + 1));
+            lignesCommande.add(ligne);
+        }
+        commande.setLignes(lignesCommande);
+    }
+
+    @Benchmark
+    public BigDecimal bind() throws Throwable {
+        bindProduitsAndCompute.invokeExact(service, commande);
+        return commande.getMontantTotal();
+    }
+}
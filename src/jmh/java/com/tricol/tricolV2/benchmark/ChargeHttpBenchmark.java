@@ -0,0 +1,129 @@
+package com.tricol.tricolV2.benchmark;
+
+import com.tricol.tricolV2.TricolV2Application;
+import com.tricol.tricolV2.entity.Fournisseur;
+import com.tricol.tricolV2.repository.FournisseurRepository;
+import com.tricol.tricolV2.service.ImportService;
+import com.tricol.tricolV2.util.ImportFormat;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test de charge HTTP de bout en bout (Tomcat, services, H2 en mémoire) en threads plateforme puis avec le
+ * profil {@code virtual}: débit et percentiles (p99 du mode SampleTime) de {@code GET /api/v2/produits/paged}
+ * et de la création de commande, sous {@code @Threads} clients concurrents. Le profil virtual n'a d'effet
+ * que sur une JVM 21+ ({@code JAVA_HOME} d'un JDK 21 pour lancer Maven); sur Java 17 les deux modes sont
+ * identiques. Le pool HikariCP est le même dans les deux modes.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Threads(64)
+public class ChargeHttpBenchmark {
+
+    private static final int PRODUITS = 2000;
+    private static final int LIGNES_PAR_COMMANDE = 5;
+
+    @Param({"plateforme", "virtual"})
+    String threads;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String base;
+    private long fournisseurId;
+    private long premierProduit;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        if ("virtual".equals(threads) && Runtime.version().feature() < 21) {
+            System.out.println("\nJava " + Runtime.version().feature()
+                    + ": threads virtuels indisponibles, le profil virtual est mesuré en threads plateforme");
+        }
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(TricolV2Application.class);
+        if ("virtual".equals(threads)) {
+            builder.profiles("virtual");
+        }
+        // Arguments de ligne de commande: prioritaires sur application.yml, contrairement à properties()
+        context = builder.run("--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:charge_" + threads + ";DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.hikari.maximum-pool-size=30",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN");
+        base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/v2";
+
+        Fournisseur fournisseur = new Fournisseur();
+        fournisseur.setAdresse("1 rue de la Charge");
+        fournisseur.setSociete("Charge SARL");
+        fournisseur.setContact("Contact");
+        fournisseur.setEmail("charge@tricol.ma");
+        fournisseur.setTelephone("0600000000");
+        fournisseur.setVille("Casablanca");
+        fournisseur.setIce("ICE500000001");
+        fournisseurId = context.getBean(FournisseurRepository.class).save(fournisseur).getId();
+
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < PRODUITS; i++) {
+            ndjson.append("{\"nom\":\"Produit charge ").append(i)
+                    .append("\",\"prixUnitaire\":").append(1 + i % 50)
+                    .append(",\"categorie\":\"Charge\",\"stockActuel\":1000}\n");
+        }
+        context.getBean(ImportService.class).importerProduits(
+                new ByteArrayInputStream(ndjson.toString().getBytes(StandardCharsets.UTF_8)), ImportFormat.NDJSON);
+        premierProduit = context.getBean(JdbcTemplate.class)
+                .queryForObject("select min(id) from produit", Long.class);
+
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int produitsPagines() throws IOException, InterruptedException {
+        int page = ThreadLocalRandom.current().nextInt(PRODUITS / 20);
+        return envoyer(HttpRequest.newBuilder(URI.create(base + "/produits/paged?page=" + page + "&size=20")).GET(), 200);
+    }
+
+    @Benchmark
+    public int creationCommande() throws IOException, InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        StringBuilder lignes = new StringBuilder();
+        for (int i = 0; i < LIGNES_PAR_COMMANDE; i++) {
+            lignes.append(i == 0 ? "" : ",")
+                    .append("{\"produitId\":").append(premierProduit + random.nextInt(PRODUITS))
+                    .append(",\"quantite\":").append(1 + random.nextInt(10)).append('}');
+        }
+        String corps = "{\"dateCommande\":\"2024-01-15T10:00:00\",\"statut\":\"EN_ATTENTE\",\"fournisseurId\":"
+                + fournisseurId + ",\"lignes\":[" + lignes + "]}";
+        return envoyer(HttpRequest.newBuilder(URI.create(base + "/commandes-fournisseur"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(corps)), 201);
+    }
+
+    private int envoyer(HttpRequest.Builder requete, int statutAttendu) throws IOException, InterruptedException {
+        HttpResponse<byte[]> reponse = client.send(requete.build(), HttpResponse.BodyHandlers.ofByteArray());
+        if (reponse.statusCode() != statutAttendu) {
+            throw new IllegalStateException("HTTP " + reponse.statusCode() + ": "
+                    + new String(reponse.body(), StandardCharsets.UTF_8));
+        }
+        return reponse.body().length;
+    }
+}
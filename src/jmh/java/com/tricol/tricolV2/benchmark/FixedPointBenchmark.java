@@ -0,0 +1,106 @@
+package com.tricol.tricolV2.benchmark;
+
+import com.tricol.tricolV2.util.FixedPoint;
+import com.tricol.tricolV2.util.ValorisationUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CUMP et totaux de commande: calcul BigDecimal d'origine contre virgule fixe (ValorisationUtil, et API
+ * {@code long} pour les appelants qui gardent des valeurs mises à l'échelle). Le taux d'allocation se lit
+ * avec le profileur GC: {@code -Djmh.includes=FixedPointBenchmark -Djmh.args="-prof gc"}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class FixedPointBenchmark {
+
+    private static final int VALEURS = 1024;
+    private static final int LIGNES = 50;
+
+    private BigDecimal[] quantites;
+    private BigDecimal[] couts;
+    private long[] quantitesEchelonnees;
+    private long[] coutsEchelonnes;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        quantites = new BigDecimal[VALEURS];
+        couts = new BigDecimal[VALEURS];
+        quantitesEchelonnees = new long[VALEURS];
+        coutsEchelonnes = new long[VALEURS];
+        for (int i = 0; i < VALEURS; i++) {
+            quantites[i] = BigDecimal.valueOf(1 + random.nextInt(5000), 2);
+            couts[i] = BigDecimal.valueOf(100 + random.nextInt(90000), 2);
+            quantitesEchelonnees[i] = FixedPoint.versLong(quantites[i], FixedPoint.ECHELLE_QUANTITE);
+            coutsEchelonnes[i] = FixedPoint.versLong(couts[i], FixedPoint.ECHELLE_COUT_MOYEN);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALEURS)
+    public BigDecimal cumpBigDecimal() {
+        BigDecimal quantite = BigDecimal.ZERO;
+        BigDecimal cump = BigDecimal.ZERO;
+        for (int i = 0; i < VALEURS; i++) {
+            BigDecimal totalCost = cump.multiply(quantite).add(couts[i].multiply(quantites[i]));
+            BigDecimal totalQty = quantite.add(quantites[i]);
+            cump = totalCost.divide(totalQty, 4, RoundingMode.HALF_UP).setScale(4, RoundingMode.HALF_UP);
+            quantite = totalQty;
+        }
+        return cump;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALEURS)
+    public BigDecimal cumpValorisationUtil() {
+        BigDecimal quantite = BigDecimal.ZERO;
+        BigDecimal cump = BigDecimal.ZERO;
+        for (int i = 0; i < VALEURS; i++) {
+            cump = ValorisationUtil.calculateCump(quantite, cump, quantites[i], couts[i]);
+            quantite = quantite.add(quantites[i]);
+        }
+        return cump;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALEURS)
+    public long cumpEchelonne() {
+        long quantite = 0L;
+        long cump = 0L;
+        for (int i = 0; i < VALEURS; i++) {
+            cump = ValorisationUtil.calculateCumpScaled(quantite, cump, quantitesEchelonnees[i], coutsEchelonnes[i]);
+            quantite += quantitesEchelonnees[i];
+        }
+        return cump;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LIGNES)
+    public BigDecimal totalCommandeBigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < LIGNES; i++) {
+            total = total.add(couts[i].multiply(quantites[i]).setScale(2, RoundingMode.HALF_UP));
+        }
+        return total.setScale(2, RoundingMode.HALF_UP);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LIGNES)
+    public BigDecimal totalCommandeVirguleFixe() {
+        long centimes = 0L;
+        for (int i = 0; i < LIGNES; i++) {
+            BigDecimal montant = ValorisationUtil.montantLigne(couts[i], quantites[i]);
+            centimes = Math.addExact(centimes, FixedPoint.versLong(montant, FixedPoint.ECHELLE_MONTANT));
+        }
+        return FixedPoint.versBigDecimal(centimes, FixedPoint.ECHELLE_MONTANT);
+    }
+}
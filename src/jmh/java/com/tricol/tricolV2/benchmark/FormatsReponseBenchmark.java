@@ -0,0 +1,84 @@
+package com.tricol.tricolV2.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.tricol.tricolV2.dto.MouvementStockDTO;
+import com.tricol.tricolV2.entity.enums.TypeMouvement;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Page de 1 000 mouvements de stock (GET /api/v2/mouvements?size=1000) sérialisée en JSON, CBOR et Smile avec
+ * la configuration Jackson de Spring Boot (dates ISO). La taille de chaque format est affichée au démarrage.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class FormatsReponseBenchmark {
+
+    private static final int LIGNES = 1000;
+
+    @Param({"JSON", "CBOR", "SMILE"})
+    String format;
+
+    private ObjectMapper mapper;
+    private Page<MouvementStockDTO> page;
+    private byte[] corps;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        mapper = switch (format) {
+            case "CBOR" -> builder.factory(new CBORFactory()).build();
+            case "SMILE" -> builder.factory(new SmileFactory()).build();
+            default -> builder.build();
+        };
+
+        SplittableRandom random = new SplittableRandom(24);
+        LocalDateTime debut = LocalDateTime.of(2025, 1, 1, 8, 0);
+        List<MouvementStockDTO> mouvements = new ArrayList<>(LIGNES);
+        for (int i = 0; i < LIGNES; i++) {
+            boolean entree = random.nextInt(3) > 0;
+            mouvements.add(MouvementStockDTO.builder()
+                    .id(100_000L + i)
+                    .dateMouvement(debut.plusMinutes(37L * i))
+                    .type(entree ? TypeMouvement.ENTREE : TypeMouvement.SORTIE)
+                    .quantite(BigDecimal.valueOf(1 + random.nextInt(500), 2))
+                    .coutUnitaire(BigDecimal.valueOf(100 + random.nextInt(1_000_000), 4))
+                    .produitId(1L + random.nextInt(5000))
+                    .commandeId(entree ? 1L + random.nextInt(20_000) : null)
+                    .commentaire(entree ? "Réception commande fournisseur" : "Sortie atelier")
+                    .build());
+        }
+        page = new PageImpl<>(mouvements, PageRequest.of(0, LIGNES), 250_000);
+        corps = mapper.writeValueAsBytes(page);
+        System.out.println(format + ": " + corps.length + " octets pour " + LIGNES + " mouvements");
+    }
+
+    @Benchmark
+    public byte[] serialiser() throws IOException {
+        return mapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public Object deserialiser() throws IOException {
+        return mapper.readTree(corps);
+    }
+}
@@ -0,0 +1,132 @@
+package com.tricol.tricolV2.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Historique des mouvements d'un produit, page 1 contre page 10 000: LIMIT/OFFSET (getByProduit) contre
+ * pagination par clé (scrollByProduit), sur H2 en mémoire avec l'index (produit_id, date_mouvement, id).
+ * Ordre ascendant: H2 ne parcourt pas un index à l'envers, MySQL sert l'ordre descendant de la même façon.
+ * La borne {@code date_mouvement >= ?} reproduit la plage que l'optimiseur de MySQL déduit seul du prédicat
+ * {@code date > ? or (date = ? and id > ?)} généré par Spring Data; H2 ne la déduit pas et parcourrait l'index.
+ * OPTIMIZE_REUSE_RESULTS=FALSE: sans cela H2 renvoie le résultat précédent d'une requête identique.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class KeysetPaginationBenchmark {
+
+    private static final int TAILLE = 20;
+    private static final long PRODUIT = 7;
+
+    @Param({"1", "10000"})
+    int page;
+
+    private Connection connexion;
+    private PreparedStatement parOffset;
+    private PreparedStatement parCle;
+    private Timestamp curseurDate;
+    private long curseurId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        int lignes = (page + 1) * TAILLE;
+        connexion = DriverManager.getConnection("jdbc:h2:mem:keyset_" + page + ";DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE");
+        try (Statement st = connexion.createStatement()) {
+            st.execute("create table mouvement_stock (id bigint primary key, produit_id bigint not null, "
+                    + "date_mouvement timestamp not null, quantite decimal(15,2) not null)");
+            st.execute("create index idx_mouvement_produit_date on mouvement_stock (produit_id, date_mouvement, id)");
+        }
+        LocalDateTime debut = LocalDateTime.of(2020, 1, 1, 0, 0);
+        try (PreparedStatement insert = connexion.prepareStatement("insert into mouvement_stock values (?, ?, ?, 1)")) {
+            long id = 1;
+            for (int i = 0; i < lignes; i++) {
+                // Le bruit d'un autre produit entre chaque mouvement du produit mesuré
+                for (long produit : new long[]{PRODUIT, PRODUIT + 1}) {
+                    insert.setLong(1, id++);
+                    insert.setLong(2, produit);
+                    insert.setTimestamp(3, Timestamp.valueOf(debut.plusMinutes(i)));
+                    insert.addBatch();
+                }
+                if (i % 5000 == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+
+        parOffset = connexion.prepareStatement("select id, date_mouvement, quantite from mouvement_stock "
+                + "where produit_id = ? order by date_mouvement, id limit ? offset ?");
+        parCle = connexion.prepareStatement("select id, date_mouvement, quantite from mouvement_stock "
+                + "where produit_id = ? and date_mouvement >= ? and (date_mouvement > ? or id > ?) "
+                + "order by date_mouvement, id limit ?");
+
+        // Curseur = dernière ligne de la page précédente, tel que renvoyé par nextCursor
+        if (page > 1) {
+            parOffset.setLong(1, PRODUIT);
+            parOffset.setInt(2, 1);
+            parOffset.setInt(3, (page - 1) * TAILLE - 1);
+            try (ResultSet rs = parOffset.executeQuery()) {
+                rs.next();
+                curseurId = rs.getLong(1);
+                curseurDate = rs.getTimestamp(2);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement st = connexion.createStatement()) {
+            st.execute("drop all objects");
+        }
+        connexion.close();
+    }
+
+    @Benchmark
+    public void offset(Blackhole bh) throws SQLException {
+        parOffset.setLong(1, PRODUIT);
+        parOffset.setInt(2, TAILLE);
+        parOffset.setInt(3, (page - 1) * TAILLE);
+        consommer(parOffset, bh);
+    }
+
+    @Benchmark
+    public void keyset(Blackhole bh) throws SQLException {
+        if (page == 1) {
+            parOffset.setLong(1, PRODUIT);
+            parOffset.setInt(2, TAILLE);
+            parOffset.setInt(3, 0);
+            consommer(parOffset, bh);
+            return;
+        }
+        parCle.setLong(1, PRODUIT);
+        parCle.setTimestamp(2, curseurDate);
+        parCle.setTimestamp(3, curseurDate);
+        parCle.setLong(4, curseurId);
+        parCle.setInt(5, TAILLE);
+        consommer(parCle, bh);
+    }
+
+    private static void consommer(PreparedStatement requete, Blackhole bh) throws SQLException {
+        try (ResultSet rs = requete.executeQuery()) {
+            while (rs.next()) {
+                bh.consume(rs.getLong(1));
+                bh.consume(rs.getTimestamp(2));
+                bh.consume(rs.getBigDecimal(3));
+            }
+        }
+    }
+}
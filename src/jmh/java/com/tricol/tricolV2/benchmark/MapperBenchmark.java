@@ -0,0 +1,104 @@
+package com.tricol.tricolV2.benchmark;
+
+import com.tricol.tricolV2.dto.CommandeFournisseurDTO;
+import com.tricol.tricolV2.dto.ProduitDTO;
+import com.tricol.tricolV2.entity.CommandeFournisseur;
+import com.tricol.tricolV2.entity.Fournisseur;
+import com.tricol.tricolV2.entity.LigneCommandeFournisseur;
+import com.tricol.tricolV2.entity.Produit;
+import com.tricol.tricolV2.entity.enums.StatutCommande;
+import com.tricol.tricolV2.mapper.CommandeFournisseurMapper;
+import com.tricol.tricolV2.mapper.CommandeFournisseurMapperImpl;
+import com.tricol.tricolV2.mapper.LigneCommandeMapperImpl;
+import com.tricol.tricolV2.mapper.ProduitMapper;
+import com.tricol.tricolV2.mapper.ProduitMapperImpl;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mappers MapStruct générés: produit (entité <-> DTO) et commande avec ses lignes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MapperBenchmark {
+
+    @Param({"20"})
+    int lignes;
+
+    private ProduitMapper produitMapper;
+    private CommandeFournisseurMapper commandeMapper;
+    private Produit produit;
+    private ProduitDTO produitDTO;
+    private CommandeFournisseur commande;
+    private CommandeFournisseurDTO commandeDTO;
+
+    @Setup
+    public void setUp() {
+        produitMapper = new ProduitMapperImpl();
+        commandeMapper = new CommandeFournisseurMapperImpl();
+        // Injection normalement faite par Spring (componentModel = "spring")
+        ReflectionTestUtils.setField(commandeMapper, "ligneCommandeMapper", new LigneCommandeMapperImpl());
+
+        produit = new Produit();
+        produit.setId(1L);
+        produit.setNom("Vis inox");
+        produit.setDescription("Vis inox A2 4x40");
+        produit.setCategorie("Quincaillerie");
+        produit.setPrixUnitaire(new BigDecimal("0.35"));
+        produit.setStockActuel(new BigDecimal("1200"));
+        produit.setCoutUnitaireMoyen(new BigDecimal("0.3120"));
+        produitDTO = produitMapper.toDTO(produit);
+
+        Fournisseur fournisseur = new Fournisseur();
+        fournisseur.setId(1L);
+        commande = new CommandeFournisseur();
+        commande.setId(1L);
+        commande.setDateCommande(LocalDateTime.of(2025, 1, 15, 10, 0));
+        commande.setStatut(StatutCommande.VALIDEE);
+        commande.setFournisseur(fournisseur);
+        commande.setMontantTotal(new BigDecimal("420.00"));
+        List<LigneCommandeFournisseur> lignesCommande = new ArrayList<>();
+        for (long i = 1; i <= lignes; i++) {
+            LigneCommandeFournisseur ligne = new LigneCommandeFournisseur();
+            ligne.setId(i);
+            ligne.setProduit(produit);
+            ligne.setCommande(commande);
+            ligne.setQuantite(new BigDecimal("60"));
+            ligne.setPrixUnitaire(new BigDecimal("0.35"));
+            ligne.setMontantLigne(new BigDecimal("21.00"));
+            lignesCommande.add(ligne);
+        }
+        commande.setLignes(lignesCommande);
+        commandeDTO = commandeMapper.toDTO(commande);
+    }
+
+    @Benchmark
+    public ProduitDTO produitToDTO() {
+        return produitMapper.toDTO(produit);
+    }
+
+    @Benchmark
+    public Produit produitToEntity() {
+        return produitMapper.toEntity(produitDTO);
+    }
+
+    @Benchmark
+    public CommandeFournisseurDTO commandeToDTO() {
+        return commandeMapper.toDTO(commande);
+    }
+
+    @Benchmark
+    public CommandeFournisseur commandeToEntity() {
+        return commandeMapper.toEntity(commandeDTO);
+    }
+}
@@ -0,0 +1,105 @@
+package com.tricol.tricolV2.benchmark;
+
+import com.tricol.tricolV2.util.IndexTrigrammes;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recherche par sous-chaîne dans le nom de 1 000 000 produits, première page de 20 et total: index de
+ * trigrammes en mémoire (searchByNom) contre {@code lower(nom) like '%q%'} avec count sur H2 en mémoire
+ * (findByNomContainingIgnoreCase), qui parcourt toute la table à chaque frappe. Requêtes: une désignation
+ * sélective, un mot fréquent (~1 produit sur 40) et une référence numérique.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RechercheTrigrammesBenchmark {
+
+    private static final int PRODUITS = 1_000_000;
+    private static final int TAILLE = 20;
+
+    private static final String[] TYPES = {"Vis", "Écrou", "Boulon", "Rondelle", "Cheville", "Goujon", "Rivet",
+            "Clou", "Tige filetée", "Équerre", "Charnière", "Collier", "Agrafe", "Piton", "Crochet", "Manchon",
+            "Raccord", "Coude", "Bride", "Joint", "Gaine", "Câble", "Chaîne", "Mousqueton", "Serre-câble",
+            "Tirefond", "Platine", "Patte", "Taquet", "Butée", "Ressort", "Goupille", "Clavette", "Entretoise",
+            "Douille", "Embout", "Foret", "Mèche", "Disque", "Lame"};
+    private static final String[] MATIERES = {"acier", "inox", "laiton", "zingué", "galvanisé", "nylon", "cuivre",
+            "aluminium", "bronze", "PVC", "fonte", "titane", "carbone", "polyamide", "bichromaté", "noir",
+            "chromé", "nickelé", "plastique", "bois"};
+
+    @Param({"ecrou laiton m12", "cheville", "ref 42424"})
+    String requete;
+
+    private IndexTrigrammes index;
+    private Connection connexion;
+    private PreparedStatement page;
+    private PreparedStatement total;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        index = new IndexTrigrammes();
+        connexion = DriverManager.getConnection("jdbc:h2:mem:recherche;DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE");
+        try (Statement st = connexion.createStatement()) {
+            st.execute("create table if not exists produit (id bigint primary key, nom varchar(255) not null)");
+            st.execute("create index if not exists idx_produit_nom on produit (nom)");
+            st.execute("delete from produit");
+        }
+        SplittableRandom random = new SplittableRandom(21);
+        try (PreparedStatement insert = connexion.prepareStatement("insert into produit values (?, ?)")) {
+            for (int id = 1; id <= PRODUITS; id++) {
+                String nom = TYPES[random.nextInt(TYPES.length)] + " " + MATIERES[random.nextInt(MATIERES.length)]
+                        + " M" + (2 + 2 * random.nextInt(12)) + " x " + (10 + 5 * random.nextInt(30))
+                        + " ref " + (100000 + random.nextInt(900000));
+                index.indexer(id, nom);
+                insert.setLong(1, id);
+                insert.setString(2, nom);
+                insert.addBatch();
+                if (id % 10_000 == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        page = connexion.prepareStatement("select id, nom from produit where lower(nom) like ? limit ?");
+        total = connexion.prepareStatement("select count(*) from produit where lower(nom) like ?");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connexion.close();
+    }
+
+    @Benchmark
+    public IndexTrigrammes.Resultat indexTrigrammes() {
+        return index.rechercher(requete, 0, TAILLE);
+    }
+
+    @Benchmark
+    public long likeSql(Blackhole bh) throws SQLException {
+        String motif = "%" + requete + "%";
+        page.setString(1, motif);
+        page.setInt(2, TAILLE);
+        try (ResultSet rs = page.executeQuery()) {
+            while (rs.next()) {
+                bh.consume(rs.getString(2));
+            }
+        }
+        total.setString(1, motif);
+        try (ResultSet rs = total.executeQuery()) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.tricol.tricolV2.benchmark;
+
+import com.tricol.tricolV2.benchmark.support.StandIns;
+import com.tricol.tricolV2.config.AppProperties;
+import com.tricol.tricolV2.dto.RevalorisationDTO;
+import com.tricol.tricolV2.entity.enums.StatutRevalorisation;
+import com.tricol.tricolV2.repository.MouvementStockRepository;
+import com.tricol.tricolV2.repository.MouvementStockRepositoryCustomImpl;
+import com.tricol.tricolV2.repository.ProduitRepository;
+import com.tricol.tricolV2.repository.ProduitRepositoryCustomImpl;
+import com.tricol.tricolV2.service.RevalorisationServiceImpl;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Revalorisation CUMP complète (RevalorisationServiceImpl, requêtes JDBC réelles) sur un ledger H2 en
+ * mémoire de {@code mouvements} mouvements répartis sur {@code produits} produits, selon le parallélisme
+ * du pool fork-join. Le débit (mouvements/s) extrapole la durée sur un ledger de 50 M mouvements.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+public class RevalorisationBenchmark {
+
+    private static final LocalDateTime DEBUT = LocalDateTime.of(2015, 1, 1, 0, 0);
+
+    @Param({"2000000"})
+    int mouvements;
+
+    @Param({"2000"})
+    int produits;
+
+    @Param({"1", "4"})
+    int parallelisme;
+
+    private JdbcConnectionPool dataSource;
+    private ForkJoinPool pool;
+    private RevalorisationServiceImpl service;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        dataSource = JdbcConnectionPool.create("jdbc:h2:mem:revalorisation_" + mouvements
+                + ";DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE", "sa", "");
+        dataSource.setMaxConnections(parallelisme + 2);
+        try (Connection connexion = dataSource.getConnection(); Statement st = connexion.createStatement()) {
+            st.execute("create table produit (id bigint primary key, cout_unitaire_moyen decimal(19,4), "
+                    + "version bigint not null)");
+            st.execute("create table mouvement_stock (id bigint primary key, produit_id bigint not null, "
+                    + "date_mouvement timestamp not null, type varchar(20) not null, "
+                    + "quantite decimal(15,2) not null, cout_unitaire decimal(15,2) not null)");
+            st.execute("create index idx_mouvement_produit_date on mouvement_stock (produit_id, date_mouvement)");
+            try (PreparedStatement insert = connexion.prepareStatement("insert into produit values (?, 0, 0)")) {
+                for (int p = 1; p <= produits; p++) {
+                    insert.setLong(1, p);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+
+            Random random = new Random(42);
+            try (PreparedStatement insert = connexion.prepareStatement(
+                    "insert into mouvement_stock values (?, ?, ?, ?, ?, ?)")) {
+                for (int i = 1; i <= mouvements; i++) {
+                    boolean entree = random.nextInt(3) != 0;
+                    insert.setLong(1, i);
+                    insert.setLong(2, 1 + random.nextInt(produits));
+                    insert.setTimestamp(3, Timestamp.valueOf(DEBUT.plusSeconds(i * 10L)));
+                    insert.setString(4, entree ? "ENTREE" : "SORTIE");
+                    insert.setBigDecimal(5, BigDecimal.valueOf(1 + random.nextInt(20)));
+                    insert.setBigDecimal(6, BigDecimal.valueOf(100 + random.nextInt(900), 2));
+                    insert.addBatch();
+                    if (i % 10_000 == 0) {
+                        insert.executeBatch();
+                    }
+                }
+                insert.executeBatch();
+            }
+        }
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        ProduitRepositoryCustomImpl produitsJdbc = new ProduitRepositoryCustomImpl(jdbcTemplate);
+        MouvementStockRepositoryCustomImpl ledgerJdbc = new MouvementStockRepositoryCustomImpl(jdbcTemplate);
+        @SuppressWarnings("unchecked")
+        ProduitRepository produitRepository = StandIns.repository(ProduitRepository.class, Map.of(
+                "findAllIds", args -> jdbcTemplate.queryForList("select id from produit order by id", Long.class),
+                "majCoutsUnitairesMoyens", args -> produitsJdbc.majCoutsUnitairesMoyens(
+                        (Map<Long, BigDecimal>) args[0], (Long) args[1], (Integer) args[2])));
+        MouvementStockRepository mouvementRepository = StandIns.repository(MouvementStockRepository.class, Map.of(
+                "parcourirLedger", args -> ledgerJdbc.parcourirLedger((Long) args[0], (Long) args[1], (Long) args[2],
+                        (MouvementStockRepository.LigneHandler) args[3]),
+                "dernierIdMouvement", args -> ledgerJdbc.dernierIdMouvement()));
+
+        pool = new ForkJoinPool(parallelisme);
+        service = new RevalorisationServiceImpl(produitRepository, mouvementRepository, new AppProperties(),
+                pool, 500, 500);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        RevalorisationDTO etat = service.getEtat().orElseThrow();
+        System.out.printf("%n%d mouvements/s -> 50 M mouvements en ~%s min%n", etat.getMouvementsParSeconde(),
+                BigDecimal.valueOf(50_000_000L).divide(BigDecimal.valueOf(Math.max(1, etat.getMouvementsParSeconde()) * 60L),
+                        1, RoundingMode.HALF_UP));
+        pool.shutdownNow();
+        try (Connection connexion = dataSource.getConnection(); Statement st = connexion.createStatement()) {
+            st.execute("drop all objects");
+        }
+        dataSource.dispose();
+    }
+
+    @Benchmark
+    public RevalorisationDTO revaloriser() throws InterruptedException {
+        service.lancer();
+        RevalorisationDTO etat;
+        while ((etat = service.getEtat().orElseThrow()).getStatut() == StatutRevalorisation.EN_COURS) {
+            Thread.sleep(5);
+        }
+        if (etat.getStatut() == StatutRevalorisation.ECHEC) {
+            throw new IllegalStateException(etat.getErreur());
+        }
+        return etat;
+    }
+}
@@ -0,0 +1,145 @@
+package com.tricol.tricolV2.benchmark;
+
+import com.tricol.tricolV2.util.ValorisationUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stock d'un produit à une date passée: rejeu complet du ledger contre point de contrôle le plus proche
+ * plus la queue de mouvements (StockSnapshotServiceImpl.stockAt), mêmes requêtes et même rejeu CUMP,
+ * sur H2 en mémoire. Ledger de 10 M mouvements: -p mouvements=10000000 (prévoir ~4 Go de tas).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class StockAtBenchmark {
+
+    private static final long PRODUIT = 1;
+    private static final int INTERVALLE = 10_000;
+    private static final LocalDateTime DEBUT = LocalDateTime.of(2015, 1, 1, 0, 0);
+
+    @Param({"1000000"})
+    int mouvements;
+
+    private Connection connexion;
+    private PreparedStatement ledger;
+    private PreparedStatement snapshot;
+    private Timestamp date;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connexion = DriverManager.getConnection("jdbc:h2:mem:ledger_" + mouvements + ";DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE");
+        try (Statement st = connexion.createStatement()) {
+            st.execute("create table mouvement_stock (id bigint primary key, produit_id bigint not null, "
+                    + "date_mouvement timestamp not null, type varchar(20) not null, "
+                    + "quantite decimal(15,2) not null, cout_unitaire decimal(15,2) not null)");
+            st.execute("create index idx_mouvement_produit_date on mouvement_stock (produit_id, date_mouvement)");
+            st.execute("create table stock_snapshot (id bigint auto_increment primary key, produit_id bigint not null, "
+                    + "date_snapshot timestamp not null, quantite decimal(19,2) not null, "
+                    + "cout_unitaire_moyen decimal(19,4) not null, "
+                    + "constraint uk_stock_snapshot_produit_date unique (produit_id, date_snapshot))");
+        }
+
+        Random random = new Random(42);
+        BigDecimal quantite = BigDecimal.ZERO;
+        BigDecimal cump = BigDecimal.ZERO;
+        try (PreparedStatement insert = connexion.prepareStatement("insert into mouvement_stock values (?, ?, ?, ?, ?, ?)");
+             PreparedStatement insertSnapshot = connexion.prepareStatement(
+                     "insert into stock_snapshot (produit_id, date_snapshot, quantite, cout_unitaire_moyen) values (?, ?, ?, ?)")) {
+            for (int i = 1; i <= mouvements; i++) {
+                boolean entree = quantite.signum() == 0 || random.nextInt(3) != 0;
+                BigDecimal q = BigDecimal.valueOf(1 + random.nextInt(20));
+                BigDecimal cout = BigDecimal.valueOf(100 + random.nextInt(900), 2);
+                if (entree) {
+                    cump = ValorisationUtil.calculateCump(quantite, cump, q, cout);
+                    quantite = quantite.add(q);
+                } else {
+                    q = q.min(quantite);
+                    quantite = quantite.subtract(q);
+                }
+                Timestamp t = Timestamp.valueOf(DEBUT.plusSeconds(i * 10L));
+                insert.setLong(1, i);
+                insert.setLong(2, PRODUIT);
+                insert.setTimestamp(3, t);
+                insert.setString(4, entree ? "ENTREE" : "SORTIE");
+                insert.setBigDecimal(5, q);
+                insert.setBigDecimal(6, cout);
+                insert.addBatch();
+                if (i % INTERVALLE == 0) {
+                    insert.executeBatch();
+                    insertSnapshot.setLong(1, PRODUIT);
+                    insertSnapshot.setTimestamp(2, t);
+                    insertSnapshot.setBigDecimal(3, quantite);
+                    insertSnapshot.setBigDecimal(4, cump);
+                    insertSnapshot.executeUpdate();
+                }
+            }
+            insert.executeBatch();
+        }
+
+        // Date interrogée: aux trois quarts du ledger, en milieu d'intervalle
+        date = Timestamp.valueOf(DEBUT.plusSeconds((mouvements * 3L / 4 + INTERVALLE / 2) * 10L));
+        ledger = connexion.prepareStatement("select type, quantite, cout_unitaire from mouvement_stock "
+                + "where produit_id = ? and date_mouvement > ? and date_mouvement <= ? order by date_mouvement, id");
+        ledger.setFetchSize(500);
+        snapshot = connexion.prepareStatement("select date_snapshot, quantite, cout_unitaire_moyen from stock_snapshot "
+                + "where produit_id = ? and date_snapshot <= ? order by date_snapshot desc limit 1");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement st = connexion.createStatement()) {
+            st.execute("drop all objects");
+        }
+        connexion.close();
+    }
+
+    @Benchmark
+    public BigDecimal[] rejeuComplet() throws SQLException {
+        return rejouer(Timestamp.valueOf(DEBUT), BigDecimal.ZERO, BigDecimal.ZERO);
+    }
+
+    @Benchmark
+    public BigDecimal[] snapshotEtQueue() throws SQLException {
+        snapshot.setLong(1, PRODUIT);
+        snapshot.setTimestamp(2, date);
+        try (ResultSet rs = snapshot.executeQuery()) {
+            if (!rs.next()) {
+                return rejeuComplet();
+            }
+            return rejouer(rs.getTimestamp(1), rs.getBigDecimal(2), rs.getBigDecimal(3));
+        }
+    }
+
+    private BigDecimal[] rejouer(Timestamp depuis, BigDecimal quantite, BigDecimal cump) throws SQLException {
+        ledger.setLong(1, PRODUIT);
+        ledger.setTimestamp(2, depuis);
+        ledger.setTimestamp(3, date);
+        try (ResultSet rs = ledger.executeQuery()) {
+            while (rs.next()) {
+                BigDecimal q = rs.getBigDecimal(2);
+                if ("ENTREE".equals(rs.getString(1))) {
+                    cump = ValorisationUtil.calculateCump(quantite, cump, q, rs.getBigDecimal(3));
+                    quantite = quantite.add(q);
+                } else {
+                    quantite = quantite.subtract(q);
+                }
+            }
+        }
+        return new BigDecimal[]{quantite, cump};
+    }
+}
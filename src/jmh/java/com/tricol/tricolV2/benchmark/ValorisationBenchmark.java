@@ -0,0 +1,100 @@
+package com.tricol.tricolV2.benchmark;
+
+import com.tricol.tricolV2.util.FifoLayers;
+import com.tricol.tricolV2.util.ValorisationUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CUMP (ValorisationUtil.calculateCump) contre couches FIFO (FifoLayers): coût d'une entrée suivie d'une
+ * sortie sur un stock de {@code couches} lots, et rejeu d'un historique complet.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ValorisationBenchmark {
+
+    private static final int MOUVEMENTS = 1024;
+
+    @Param({"16", "256"})
+    int couches;
+
+    private BigDecimal[] quantites;
+    private BigDecimal[] couts;
+    private int curseur;
+
+    private BigDecimal quantiteCump;
+    private BigDecimal coutCump;
+    private FifoLayers fifo;
+    private long prochainLot;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        quantites = new BigDecimal[MOUVEMENTS];
+        couts = new BigDecimal[MOUVEMENTS];
+        for (int i = 0; i < MOUVEMENTS; i++) {
+            quantites[i] = BigDecimal.valueOf(1 + random.nextInt(50));
+            couts[i] = BigDecimal.valueOf(100 + random.nextInt(900), 2);
+        }
+
+        quantiteCump = BigDecimal.ZERO;
+        coutCump = BigDecimal.ZERO;
+        fifo = new FifoLayers();
+        for (int i = 0; i < couches; i++) {
+            quantiteCump = quantiteCump.add(quantites[i % MOUVEMENTS]);
+            coutCump = ValorisationUtil.calculateCump(quantiteCump, coutCump, quantites[i % MOUVEMENTS], couts[i % MOUVEMENTS]);
+            fifo.ajouter(prochainLot++, quantites[i % MOUVEMENTS], couts[i % MOUVEMENTS]);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal cumpEntreeSortie() {
+        int i = curseur++ & (MOUVEMENTS - 1);
+        coutCump = ValorisationUtil.calculateCump(quantiteCump, coutCump, quantites[i], couts[i]);
+        // La sortie ne change pas le CUMP, seulement la quantité: le stock reste constant
+        return coutCump;
+    }
+
+    @Benchmark
+    public BigDecimal fifoEntreeSortie() {
+        int i = curseur++ & (MOUVEMENTS - 1);
+        fifo.ajouter(prochainLot++, quantites[i], couts[i]);
+        fifo.consommer(quantites[i]);
+        return fifo.coutUnitaireMoyen();
+    }
+
+    @Benchmark
+    public BigDecimal cumpRejeu() {
+        BigDecimal quantite = BigDecimal.ZERO;
+        BigDecimal cout = BigDecimal.ZERO;
+        for (int i = 0; i < MOUVEMENTS; i++) {
+            if ((i & 3) == 3) {
+                quantite = quantite.subtract(quantites[i].min(quantite));
+            } else {
+                cout = ValorisationUtil.calculateCump(quantite, cout, quantites[i], couts[i]);
+                quantite = quantite.add(quantites[i]);
+            }
+        }
+        return cout;
+    }
+
+    @Benchmark
+    public BigDecimal fifoRejeu() {
+        FifoLayers layers = new FifoLayers();
+        for (int i = 0; i < MOUVEMENTS; i++) {
+            if ((i & 3) == 3) {
+                layers.consommer(quantites[i]);
+            } else {
+                layers.ajouter((long) i, quantites[i], couts[i]);
+            }
+        }
+        return layers.coutUnitaireMoyen();
+    }
+}
@@ -0,0 +1,33 @@
+package com.tricol.tricolV2.benchmark.support;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Doublures en mémoire des repositories Spring Data: seules les méthodes fournies répondent, toute autre
+ * lève une exception pour qu'un benchmark ne mesure jamais un appel inattendu.
+ */
+public final class StandIns {
+
+    private StandIns() {
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> T repository(Class<T> type, Map<String, Function<Object[], Object>> methodes) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Function<Object[], Object> impl = methodes.get(method.getName());
+            if (impl != null) {
+                return impl.apply(args);
+            }
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> type.getSimpleName() + "StandIn";
+                };
+            }
+            throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+        });
+    }
+}
@@ -0,0 +1,41 @@
+package com.tricol.tricolV2.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String PRODUIT_COUNT = "produitCount";
+    public static final String PRODUIT_CATALOGUE = "produitCatalogue";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${app.cache.produit-count-ttl:30s}") Duration produitCountTtl,
+                                     @Value("${app.cache.produit-catalogue-ttl:10m}") Duration produitCatalogueTtl,
+                                     @Value("${app.cache.produit-catalogue-max-size:10000}") long produitCatalogueMaxSize) {
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(
+                new CaffeineCache(PRODUIT_COUNT, Caffeine.newBuilder()
+                        .expireAfterWrite(produitCountTtl)
+                        .maximumSize(10)
+                        .recordStats()
+                        .build()),
+                new CaffeineCache(PRODUIT_CATALOGUE, Caffeine.newBuilder()
+                        .expireAfterWrite(produitCatalogueTtl)
+                        .maximumSize(produitCatalogueMaxSize)
+                        .recordStats()
+                        .build())
+        ));
+        return cacheManager;
+    }
+}
@@ -0,0 +1,23 @@
+package com.tricol.tricolV2.config;
+
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Cache de second niveau sur JCache avec un gestionnaire Caffeine propre à chaque SessionFactory. Le
+ * gestionnaire par défaut est un singleton de la JVM: deux contextes Spring (tests, redémarrage à chaud)
+ * partageraient alors leurs régions et se serviraient des entités d'une autre base. Pour une URI ni
+ * {@code file:} ni {@code classpath:}, Caffeine lit les régions dans application.conf; Hibernate ferme le
+ * gestionnaire avec la SessionFactory.
+ */
+public class CaffeineRegionFactory extends JCacheRegionFactory {
+
+    @Override
+    protected URI getUri(SessionFactoryOptions settings, Map<String, Object> properties) {
+        return URI.create("tricol:" + UUID.randomUUID());
+    }
+}
@@ -0,0 +1,77 @@
+package com.tricol.tricolV2.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.handler.MappedInterceptor;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache HTTP des listes (GET sans id et /paged): {@code Cache-Control} avec max-age court et
+ * stale-while-revalidate, et ETag calculé sur le corps sérialisé pour répondre 304 sans renvoyer la page.
+ * Les ressources unitaires (GET /{id}) portent leur propre ETag, tiré de la colonne version et du format
+ * négocié, posé par les contrôleurs. Les exports en flux ne sont pas concernés: le filtre mettrait tout le
+ * fichier en mémoire.
+ */
+@Configuration
+public class HttpCacheConfig {
+
+    static final String[] LISTES = {
+            "/api/v2/produits", "/api/v2/produits/paged",
+            "/api/v2/fournisseurs", "/api/v2/fournisseurs/paged",
+            "/api/v2/commandes-fournisseur", "/api/v2/commandes-fournisseur/paged"
+    };
+
+    @Bean
+    public MappedInterceptor cacheListesInterceptor(
+            @Value("${app.http.listes-max-age:5s}") Duration maxAge,
+            @Value("${app.http.listes-stale-while-revalidate:30s}") Duration staleWhileRevalidate) {
+        String cacheControl = CacheControl.maxAge(maxAge.toSeconds(), TimeUnit.SECONDS)
+                .staleWhileRevalidate(staleWhileRevalidate.toSeconds(), TimeUnit.SECONDS)
+                .getHeaderValue();
+        HandlerInterceptor interceptor = new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                // Les POST partagent ces chemins: seule la lecture est cachable
+                if (HttpMethod.GET.matches(request.getMethod())) {
+                    response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+                }
+                return true;
+            }
+        };
+        return new MappedInterceptor(LISTES, interceptor);
+    }
+
+    // JSON, CBOR ou Smile selon Accept: un cache partagé doit garder une copie par format
+    @Bean
+    public MappedInterceptor varyAcceptInterceptor() {
+        HandlerInterceptor interceptor = new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                if (HttpMethod.GET.matches(request.getMethod())) {
+                    response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+                }
+                return true;
+            }
+        };
+        return new MappedInterceptor(new String[]{"/api/**"}, interceptor);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> etagListesFilter() {
+        FilterRegistrationBean<ShallowEtagHeaderFilter> registration =
+                new FilterRegistrationBean<>(new ShallowEtagHeaderFilter());
+        registration.addUrlPatterns(LISTES);
+        return registration;
+    }
+}
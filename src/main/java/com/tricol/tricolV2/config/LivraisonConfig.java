@@ -0,0 +1,33 @@
+package com.tricol.tricolV2.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class LivraisonConfig {
+
+    public static final String LIVRAISON_EXECUTOR = "livraisonExecutor";
+
+    // Pool borné: au-delà de la file, les jobs restent EN_ATTENTE en base et sont repris par le balayage.
+    // Avec les threads virtuels (Java 21) les workers sont virtuels, mais leur nombre reste borné: il limite
+    // les connexions JDBC prises par les livraisons.
+    @Bean(name = LIVRAISON_EXECUTOR)
+    public ThreadPoolTaskExecutor livraisonExecutor(@Value("${app.livraison.workers:4}") int workers,
+                                                    @Value("${app.livraison.queue-capacity:100}") int queueCapacity,
+                                                    @Value("${spring.threads.virtual.enabled:false}") boolean virtuels) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("livraison-");
+        if (virtuels && Runtime.version().feature() >= 21) {
+            executor.setThreadFactory(new VirtualThreadTaskExecutor("livraison-").getVirtualThreadFactory());
+        }
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
@@ -0,0 +1,45 @@
+package com.tricol.tricolV2.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chronomètre les appels aux mappers MapStruct (timer {@code tricol.mapper}, tags mapper et méthode).
+ * Les implémentations étant générées, le point de coupe porte sur les interfaces du package mapper;
+ * un timer est résolu une seule fois par méthode.
+ */
+@Aspect
+public class MapperMetricsAspect {
+
+    private final MeterRegistry registry;
+    private final Map<Method, Timer> timers = new ConcurrentHashMap<>();
+
+    public MapperMetricsAspect(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("execution(* com.tricol.tricolV2.mapper.*Mapper.*(..))")
+    public Object chronometrer(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer timer = timers.computeIfAbsent(((MethodSignature) joinPoint.getSignature()).getMethod(),
+                methode -> Timer.builder("tricol.mapper")
+                        .description("Conversion entité/DTO")
+                        .tag("mapper", methode.getDeclaringClass().getSimpleName())
+                        .tag("methode", methode.getName())
+                        .register(registry));
+        long debut = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            timer.record(System.nanoTime() - debut, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.tricol.tricolV2.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Formats binaires servis sur {@code Accept: application/cbor} ou {@code application/x-jackson-smile}, pour
+ * tous les DTO, pages et curseurs compris. Les mappers partent du builder Jackson de Spring Boot: mêmes
+ * modules et options que le JSON (dates ISO, énumérations). Ces convertisseurs remplacent ceux que Spring MVC
+ * crée par défaut, à la même place: JSON reste servi sans Accept ou pour {@code *}{@code /*}.
+ */
+@Configuration
+public class MessageConvertersConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
@@ -0,0 +1,37 @@
+package com.tricol.tricolV2.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.handler.MappedInterceptor;
+
+/**
+ * Métriques applicatives en complément de celles d'Actuator (HTTP, HikariCP, statistiques Hibernate, caches):
+ * durée des mappers MapStruct et nombre d'ordres SQL par requête HTTP. Les timers de la couche service sont
+ * posés par {@code @Timed} (management.observations.annotations.enabled).
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MapperMetricsAspect mapperMetricsAspect(MeterRegistry registry) {
+        return new MapperMetricsAspect(registry);
+    }
+
+    @Bean
+    public SqlParRequeteInspector sqlParRequeteInspector(MeterRegistry registry) {
+        return new SqlParRequeteInspector(registry);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlParRequeteHibernate(SqlParRequeteInspector inspector) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+    }
+
+    @Bean
+    public MappedInterceptor sqlParRequeteInterceptor(SqlParRequeteInspector inspector) {
+        return new MappedInterceptor(new String[]{"/api/**"}, inspector);
+    }
+}
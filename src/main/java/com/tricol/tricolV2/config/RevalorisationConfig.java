@@ -0,0 +1,19 @@
+package com.tricol.tricolV2.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ForkJoinPool;
+
+@Configuration
+public class RevalorisationConfig {
+
+    public static final String REVALORISATION_POOL = "revalorisationPool";
+
+    // Chaque partition en cours tient une connexion JDBC: le parallélisme doit rester sous la taille du pool Hikari
+    @Bean(name = REVALORISATION_POOL, destroyMethod = "shutdownNow")
+    public ForkJoinPool revalorisationPool(@Value("${app.stock.revalorisation.parallelisme:4}") int parallelisme) {
+        return new ForkJoinPool(parallelisme);
+    }
+}
@@ -0,0 +1,10 @@
+package com.tricol.tricolV2.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Balayage des livraisons asynchrones et points de contrôle du stock
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
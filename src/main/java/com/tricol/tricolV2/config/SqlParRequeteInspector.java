@@ -0,0 +1,58 @@
+package com.tricol.tricolV2.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Compte les ordres SQL préparés par Hibernate pendant une requête HTTP et les publie dans la distribution
+ * {@code tricol.http.sql} (tags method et uri). Le compteur est porté par le thread de la requête: les
+ * ordres émis par un autre thread (livraison asynchrone, revalorisation) ou par JdbcTemplate ne sont pas
+ * comptés.
+ */
+public class SqlParRequeteInspector implements StatementInspector, HandlerInterceptor {
+
+    private static final ThreadLocal<int[]> COMPTEUR = new ThreadLocal<>();
+
+    private final MeterRegistry registry;
+
+    public SqlParRequeteInspector(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        int[] compteur = COMPTEUR.get();
+        if (compteur != null) {
+            compteur[0]++;
+        }
+        return sql;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        COMPTEUR.set(new int[1]);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        int[] compteur = COMPTEUR.get();
+        COMPTEUR.remove();
+        if (compteur == null) {
+            return;
+        }
+        Object uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        DistributionSummary.builder("tricol.http.sql")
+                .description("Ordres SQL préparés par requête HTTP")
+                .tag("method", request.getMethod())
+                .tag("uri", uri == null ? "UNKNOWN" : uri.toString())
+                .register(registry)
+                .record(compteur[0]);
+    }
+}
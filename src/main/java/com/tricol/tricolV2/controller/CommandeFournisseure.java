@@ -1,17 +1,29 @@
 package com.tricol.tricolV2.controller;
 
 import com.tricol.tricolV2.dto.CommandeFournisseurDTO;
+import com.tricol.tricolV2.dto.LivraisonJobDTO;
 import com.tricol.tricolV2.entity.enums.StatutCommande;
 import com.tricol.tricolV2.exception.NotFoundException;
 import com.tricol.tricolV2.service.CommandeFournisseurService;
+import com.tricol.tricolV2.service.ExportService;
+import com.tricol.tricolV2.service.LivraisonService;
+import com.tricol.tricolV2.util.ExportFormat;
+import com.tricol.tricolV2.util.ResponseFormat;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
@@ -23,9 +35,14 @@ import java.util.Map;
 public class CommandeFournisseure {
 
     private final CommandeFournisseurService service;
+    private final ExportService exportService;
+    private final LivraisonService livraisonService;
 
-    public CommandeFournisseure(CommandeFournisseurService service) {
+    public CommandeFournisseure(CommandeFournisseurService service, ExportService exportService,
+                                LivraisonService livraisonService) {
         this.service = service;
+        this.exportService = exportService;
+        this.livraisonService = livraisonService;
     }
 
     @Operation(
@@ -51,15 +68,44 @@ public class CommandeFournisseure {
 
     @Operation(
             summary = "Mettre à jour le statut d'une commande",
-            description = "Permet de changer le statut d'une commande fournisseur (EN_ATTENTE, EN_COURS, LIVREE, ANNULEE)"
+            description = "Permet de changer le statut d'une commande fournisseur (EN_ATTENTE, EN_COURS, LIVREE, ANNULEE). "
+                    + "En mode livraison asynchrone, LIVREE enregistre un job de livraison et répond 202"
     )
     @PutMapping("/{id}/statut")
-    public ResponseEntity<CommandeFournisseurDTO> updateStatut(@PathVariable("id") Long id,
-                                                               @RequestParam("value") StatutCommande statut) {
+    public ResponseEntity<?> updateStatut(@PathVariable("id") Long id,
+                                          @RequestParam("value") StatutCommande statut) {
+        if (statut == StatutCommande.LIVREE && livraisonService.isAsyncEnabled()) {
+            return accepted(livraisonService.planifier(id));
+        }
         CommandeFournisseurDTO updated = service.updateStatut(id, statut);
         return ResponseEntity.ok(updated);
     }
 
+    @Operation(
+            summary = "Consulter la livraison d'une commande",
+            description = "Retourne l'état du job de livraison asynchrone (EN_ATTENTE, EN_COURS, TERMINEE, ECHEC)"
+    )
+    @GetMapping("/{id}/livraison")
+    public ResponseEntity<LivraisonJobDTO> getLivraison(@PathVariable("id") Long id) {
+        LivraisonJobDTO job = livraisonService.getJob(id)
+                .orElseThrow(() -> new NotFoundException("Aucune livraison trouvée pour la commande : " + id));
+        return ResponseEntity.ok(job);
+    }
+
+    @Operation(
+            summary = "Lancer ou relancer la livraison d'une commande",
+            description = "Idempotent: renvoie le job existant, ou réarme un job en échec"
+    )
+    @PostMapping("/{id}/livraison")
+    public ResponseEntity<LivraisonJobDTO> planifierLivraison(@PathVariable("id") Long id) {
+        return accepted(livraisonService.planifier(id));
+    }
+
+    private ResponseEntity<LivraisonJobDTO> accepted(LivraisonJobDTO job) {
+        URI location = URI.create("/api/v2/commandes-fournisseur/" + job.getCommandeId() + "/livraison");
+        return ResponseEntity.accepted().location(location).body(job);
+    }
+
     @Operation(
             summary = "Supprimer une commande fournisseur",
             description = "Permet de supprimer définitivement une commande fournisseur de la base de données"
@@ -72,13 +118,23 @@ public class CommandeFournisseure {
 
     @Operation(
             summary = "Récupérer une commande par son ID",
-            description = "Permet de récupérer les détails complets d'une commande fournisseur en utilisant son identifiant"
+            description = "Permet de récupérer les détails complets d'une commande fournisseur en utilisant son identifiant. "
+                    + "La réponse porte un ETag tiré de la version de la commande et du format négocié (JSON, "
+                    + "CBOR, Smile); avec If-None-Match, un client à jour reçoit un 304 sans corps"
     )
     @GetMapping("/{id}")
-    public ResponseEntity<CommandeFournisseurDTO> getById(@PathVariable("id") Long id) {
+    public ResponseEntity<CommandeFournisseurDTO> getById(@PathVariable("id") Long id, WebRequest request) {
+        // 304 avant de charger la commande et ses lignes
+        ResponseFormat format = ResponseFormat.fromAccept(request.getHeader(HttpHeaders.ACCEPT));
+        String etag = service.getVersion(id)
+                .map(format::etag)
+                .orElseThrow(() -> new NotFoundException("Commande non trouvée avec l'id : " + id));
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
         CommandeFournisseurDTO dto = service.getById(id)
                 .orElseThrow(() -> new NotFoundException("Commande non trouvée avec l'id : " + id));
-        return ResponseEntity.ok(dto);
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(dto);
     }
 
     @Operation(
@@ -94,6 +150,21 @@ public class CommandeFournisseure {
         return ResponseEntity.ok(list);
     }
 
+    @Operation(
+            summary = "Exporter les commandes fournisseurs en flux",
+            description = "Exporte les commandes fournisseurs au format NDJSON (une ligne JSON par enregistrement) ou CSV, lus par curseur et écrits directement dans la réponse"
+    )
+    @GetMapping("/export")
+    public void export(@RequestParam(value = "format", defaultValue = "ndjson") String format,
+                       HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat = ExportFormat.from(format);
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"commandes." + exportFormat.getExtension() + "\"");
+        exportService.exportCommandes(exportFormat, response.getOutputStream());
+    }
+
     @Operation(
             summary = "Récupérer les commandes avec pagination",
             description = "Permet de récupérer les commandes fournisseurs de manière paginée avec contrôle du nombre d'éléments par page"
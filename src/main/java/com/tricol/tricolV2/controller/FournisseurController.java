@@ -1,12 +1,23 @@
 package com.tricol.tricolV2.controller;
 
 import com.tricol.tricolV2.dto.FournisseurDTO;
+import com.tricol.tricolV2.dto.FournisseurSuggestion;
+import com.tricol.tricolV2.dto.ImportRapportDTO;
 import com.tricol.tricolV2.exception.NotFoundException;
+import com.tricol.tricolV2.service.ExportService;
 import com.tricol.tricolV2.service.FournisseurServiceImpl;
+import com.tricol.tricolV2.service.ImportService;
+import com.tricol.tricolV2.util.ExportFormat;
+import com.tricol.tricolV2.util.ImportFormat;
+import com.tricol.tricolV2.util.ResponseFormat;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -14,8 +25,12 @@ import java.util.Map;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 
 @RestController
@@ -24,19 +39,33 @@ import org.springframework.web.bind.annotation.*;
 public class FournisseurController {
 
     private final FournisseurServiceImpl fournisseurService;
-    public FournisseurController(FournisseurServiceImpl fournisseurService){
+    private final ExportService exportService;
+    private final ImportService importService;
+    public FournisseurController(FournisseurServiceImpl fournisseurService, ExportService exportService,
+                                 ImportService importService){
         this.fournisseurService =fournisseurService;
+        this.exportService = exportService;
+        this.importService = importService;
     }
 
     @Operation(
             summary = "Récupérer un fournisseur par son ID",
-            description = "Permet de récupérer les détails complets d'un fournisseur en utilisant son identifiant"
+            description = "Permet de récupérer les détails complets d'un fournisseur en utilisant son identifiant. "
+                    + "La réponse porte un ETag tiré de la version du fournisseur et du format négocié (JSON, "
+                    + "CBOR, Smile); avec If-None-Match, un client à jour reçoit un 304 sans corps"
     )
     @GetMapping("/{id}")
-    public ResponseEntity<FournisseurDTO>getFournisseurById(@PathVariable("id") Long id){
+    public ResponseEntity<FournisseurDTO>getFournisseurById(@PathVariable("id") Long id, WebRequest request){
+        ResponseFormat format = ResponseFormat.fromAccept(request.getHeader(HttpHeaders.ACCEPT));
+        String etag = fournisseurService.getFournisseurVersion(id)
+                .map(format::etag)
+                .orElseThrow(()->new NotFoundException("Fournisseur non trouvé avec l'id : " + id));
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
        FournisseurDTO dto = fournisseurService.getFournisseurById(id)
                .orElseThrow(()->new NotFoundException("Fournisseur non trouvé avec l'id : " + id));
-        return ResponseEntity.ok(dto);
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(dto);
     }
 
     @Operation(
@@ -51,6 +80,18 @@ public class FournisseurController {
         return ResponseEntity.status(201).body(dto);
     }
 
+    @Operation(
+            summary = "Importer des fournisseurs en masse",
+            description = "Importe un tableau JSON, du NDJSON ou un CSV avec en-tête, lu en flux et inséré par lots. "
+                    + "Les ICE déjà connus ou en double dans le fichier sont rejetés. Retourne un rapport avec l'erreur "
+                    + "de chaque enregistrement rejeté"
+    )
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, "application/x-ndjson", "text/csv"})
+    public ResponseEntity<ImportRapportDTO> importerFournisseurs(HttpServletRequest request) throws IOException {
+        ImportFormat format = ImportFormat.fromContentType(request.getContentType());
+        return ResponseEntity.ok(importService.importerFournisseurs(request.getInputStream(), format));
+    }
+
     @Operation(
             summary = "Modifier un fournisseur",
             description = "Permet de mettre à jour les informations d'un fournisseur existant"
@@ -74,6 +115,21 @@ public class FournisseurController {
         return  ResponseEntity.ok(fournisseurs);
     }
 
+    @Operation(
+            summary = "Exporter les fournisseurs en flux",
+            description = "Exporte les fournisseurs au format NDJSON (une ligne JSON par enregistrement) ou CSV, lus par curseur et écrits directement dans la réponse"
+    )
+    @GetMapping("/export")
+    public void export(@RequestParam(value = "format", defaultValue = "ndjson") String format,
+                       HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat = ExportFormat.from(format);
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"fournisseurs." + exportFormat.getExtension() + "\"");
+        exportService.exportFournisseurs(exportFormat, response.getOutputStream());
+    }
+
     @Operation(
             summary = "Récupérer les fournisseurs avec pagination",
             description = "Permet de récupérer les fournisseurs de manière paginée avec contrôle du nombre d'éléments par page"
@@ -112,6 +168,18 @@ public class FournisseurController {
         return ResponseEntity.ok(fournisseurDTOList);
     }
 
+    @Operation(
+            summary = "Suggérer des fournisseurs (autocomplétion)",
+            description = "Renvoie au plus limit fournisseurs (id, société, ICE) dont la société, la ville ou l'ICE, "
+                    + "ou l'un de leurs mots, commence par q, sans casse ni accents. Servi depuis un trie en mémoire "
+                    + "tenu à jour à chaque écriture; une liste vide n'est pas une erreur"
+    )
+    @GetMapping("/suggest")
+    public ResponseEntity<List<FournisseurSuggestion>> suggest(@RequestParam("q") String q,
+                                                               @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        return ResponseEntity.ok(fournisseurService.suggest(q, limit));
+    }
+
     @Operation(
             summary = "Rechercher les fournisseurs par ville",
             description = "Permet de rechercher les fournisseurs en filtrant par la ville"
@@ -1,5 +1,6 @@
 package com.tricol.tricolV2.controller;
 
+import com.tricol.tricolV2.dto.CursorPage;
 import com.tricol.tricolV2.dto.MouvementStockDTO;
 import com.tricol.tricolV2.entity.enums.TypeMouvement;
 import com.tricol.tricolV2.service.MouvementStockService;
@@ -59,5 +60,47 @@ public class MouvementStockController {
     public Page<MouvementStockDTO> byType(@RequestParam TypeMouvement type, @ParameterObject Pageable pageable) {
         return mouvementService.getByType(type, pageable);
     }
-}
 
+    @Operation(
+            summary = "Parcourir les mouvements de stock par curseur",
+            description = "Pagination par clé (dateMouvement, id) du plus récent au plus ancien: passer nextCursor dans after pour la page suivante. Temps constant quelle que soit la profondeur, sans comptage total"
+    )
+    @GetMapping("/cursor")
+    public CursorPage<MouvementStockDTO> scroll(@RequestParam(required = false) String after,
+                                                @RequestParam(defaultValue = "50") int limit) {
+        return mouvementService.scroll(after, limit);
+    }
+
+    @Operation(
+            summary = "Parcourir les mouvements d'un produit par curseur",
+            description = "Pagination par clé (dateMouvement, id) des mouvements d'un produit spécifique"
+    )
+    @GetMapping("/by-produit/cursor")
+    public CursorPage<MouvementStockDTO> scrollByProduit(@RequestParam Long produitId,
+                                                         @RequestParam(required = false) String after,
+                                                         @RequestParam(defaultValue = "50") int limit) {
+        return mouvementService.scrollByProduit(produitId, after, limit);
+    }
+
+    @Operation(
+            summary = "Parcourir les mouvements d'une commande par curseur",
+            description = "Pagination par clé (dateMouvement, id) des mouvements associés à une commande fournisseur"
+    )
+    @GetMapping("/by-commande/cursor")
+    public CursorPage<MouvementStockDTO> scrollByCommande(@RequestParam Long commandeId,
+                                                          @RequestParam(required = false) String after,
+                                                          @RequestParam(defaultValue = "50") int limit) {
+        return mouvementService.scrollByCommande(commandeId, after, limit);
+    }
+
+    @Operation(
+            summary = "Parcourir les mouvements d'un type par curseur",
+            description = "Pagination par clé (dateMouvement, id) des mouvements filtrés par type (ENTREE, SORTIE, AJUSTEMENT)"
+    )
+    @GetMapping("/by-type/cursor")
+    public CursorPage<MouvementStockDTO> scrollByType(@RequestParam TypeMouvement type,
+                                                      @RequestParam(required = false) String after,
+                                                      @RequestParam(defaultValue = "50") int limit) {
+        return mouvementService.scrollByType(type, after, limit);
+    }
+}
@@ -1,18 +1,38 @@
 package com.tricol.tricolV2.controller;
 
+import com.tricol.tricolV2.dto.ImportRapportDTO;
 import com.tricol.tricolV2.dto.ProduitDTO;
+import com.tricol.tricolV2.dto.ProduitVersionne;
+import com.tricol.tricolV2.dto.StockAtDTO;
 import com.tricol.tricolV2.exception.NotFoundException;
+import com.tricol.tricolV2.service.ExportService;
+import com.tricol.tricolV2.service.ImportService;
 import com.tricol.tricolV2.service.ProduitService;
+import com.tricol.tricolV2.service.StockSnapshotService;
+import com.tricol.tricolV2.util.ExportFormat;
+import com.tricol.tricolV2.util.ImportFormat;
+import com.tricol.tricolV2.util.ResponseFormat;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/v2/produits")
@@ -20,9 +40,16 @@ import java.util.List;
 public class ProduitController {
 
     private final ProduitService produitService;
+    private final ExportService exportService;
+    private final StockSnapshotService stockSnapshotService;
+    private final ImportService importService;
 
-    public ProduitController(ProduitService produitService) {
+    public ProduitController(ProduitService produitService, ExportService exportService,
+                             StockSnapshotService stockSnapshotService, ImportService importService) {
         this.produitService = produitService;
+        this.exportService = exportService;
+        this.stockSnapshotService = stockSnapshotService;
+        this.importService = importService;
     }
 
     @Operation(
@@ -35,6 +62,18 @@ public class ProduitController {
         return ResponseEntity.status(201).body(dto);
     }
 
+    @Operation(
+            summary = "Importer des produits en masse",
+            description = "Importe un tableau JSON, du NDJSON ou un CSV avec en-tête (nom, description, prixUnitaire, "
+                    + "categorie, stockActuel), lu en flux et inséré par lots. Retourne un rapport avec l'erreur de "
+                    + "chaque enregistrement rejeté"
+    )
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, "application/x-ndjson", "text/csv"})
+    public ResponseEntity<ImportRapportDTO> importerProduits(HttpServletRequest request) throws IOException {
+        ImportFormat format = ImportFormat.fromContentType(request.getContentType());
+        return ResponseEntity.ok(importService.importerProduits(request.getInputStream(), format));
+    }
+
     @Operation(
             summary = "Modifier un produit",
             description = "Permet de mettre à jour les informations d'un produit existant"
@@ -57,13 +96,38 @@ public class ProduitController {
 
     @Operation(
             summary = "Récupérer un produit par son ID",
-            description = "Permet de récupérer les détails complets d'un produit en utilisant son identifiant"
+            description = "Permet de récupérer les détails complets d'un produit en utilisant son identifiant. "
+                    + "La réponse porte un ETag tiré de la version du produit et du format négocié (JSON, "
+                    + "CBOR, Smile); avec If-None-Match, un client à jour reçoit un 304 sans corps"
     )
     @GetMapping("/{id}")
-    public ResponseEntity<ProduitDTO> getProduitById(@PathVariable("id") Long id) {
-        ProduitDTO dto = produitService.getProduitById(id)
+    public ResponseEntity<ProduitDTO> getProduitById(@PathVariable("id") Long id, WebRequest request,
+                                                     HttpServletResponse response) {
+        // Seules la version et l'entrée catalogue en cache sont lues avant le 304
+        ResponseFormat format = ResponseFormat.fromAccept(request.getHeader(HttpHeaders.ACCEPT));
+        String etag = produitService.getProduitVersion(id)
+                .map(format::etag)
                 .orElseThrow(() -> new NotFoundException("Produit non trouvé avec l'id : " + id));
-        return ResponseEntity.ok(dto);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        // checkNotModified a posé l'ETag de la pré-lecture: il est remplacé par celui des données du corps
+        ProduitVersionne produit = produitService.getProduitVersionne(id)
+                .orElseThrow(() -> new NotFoundException("Produit non trouvé avec l'id : " + id));
+        response.setHeader(HttpHeaders.ETAG, "\"" + format.etag(produit.version()) + "\"");
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(produit.produit());
+    }
+
+    @Operation(
+            summary = "Stock d'un produit à une date",
+            description = "Quantité et CUMP d'un produit à la date donnée (ISO, ex. 2025-01-31T23:59:59), "
+                    + "calculés depuis le point de contrôle le plus proche et les mouvements qui le suivent"
+    )
+    @GetMapping("/{id}/stock-at")
+    public ResponseEntity<StockAtDTO> getStockAt(@PathVariable("id") Long id,
+                                                 @RequestParam("date")
+                                                 @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime date) {
+        return ResponseEntity.ok(stockSnapshotService.stockAt(id, date));
     }
 
     @Operation(
@@ -79,10 +143,48 @@ public class ProduitController {
         return ResponseEntity.ok(produits);
     }
 
+    @Operation(
+            summary = "Exporter les produits en flux",
+            description = "Exporte les produits au format NDJSON (une ligne JSON par enregistrement) ou CSV, lus par curseur et écrits directement dans la réponse"
+    )
+    @GetMapping("/export")
+    public void export(@RequestParam(value = "format", defaultValue = "ndjson") String format,
+                       HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat = ExportFormat.from(format);
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"produits." + exportFormat.getExtension() + "\"");
+        exportService.exportProduits(exportFormat, response.getOutputStream());
+    }
+
+    @Operation(
+            summary = "Compter les produits",
+            description = "Retourne le nombre total de produits (valeur mise en cache quelques secondes, invalidée à chaque écriture)"
+    )
     @GetMapping("/countProduit")
     public Long coutProduit(){
         return produitService.cout();
     }
+
+    @Operation(
+            summary = "Compter les produits par catégorie",
+            description = "Retourne le nombre de produits de chaque catégorie, calculé par un GROUP BY et mis en cache comme le total"
+    )
+    @GetMapping("/countProduit/categories")
+    public ResponseEntity<Map<String, Long>> coutProduitParCategorie() {
+        return ResponseEntity.ok(produitService.countByCategorie());
+    }
+
+    @Operation(
+            summary = "Statistiques du cache catalogue produits",
+            description = "Retourne les compteurs hit/miss, le taux de succès, les chargements, les évictions et la taille estimée du cache catalogue"
+    )
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> catalogueCacheStats() {
+        return ResponseEntity.ok(produitService.catalogueCacheStats());
+    }
+
     @Operation(
             summary = "Récupérer les produits avec pagination",
             description = "Permet de récupérer les produits de manière paginée avec contrôle du nombre d'éléments par page"
@@ -0,0 +1,49 @@
+package com.tricol.tricolV2.controller;
+
+import com.tricol.tricolV2.dto.RevalorisationDTO;
+import com.tricol.tricolV2.exception.NotFoundException;
+import com.tricol.tricolV2.service.RevalorisationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+
+@RestController
+@RequestMapping("/api/v2/revalorisation")
+@Tag(name = "Revalorisation", description = "API pour le recalcul en masse du CUMP des produits")
+public class RevalorisationController {
+
+    private final RevalorisationService revalorisationService;
+
+    public RevalorisationController(RevalorisationService revalorisationService) {
+        this.revalorisationService = revalorisationService;
+    }
+
+    @Operation(
+            summary = "Lancer une revalorisation CUMP du catalogue",
+            description = "Recalcule le coût unitaire moyen de tous les produits à partir de leurs mouvements, "
+                    + "en parallèle par partitions de produits. Répond 202; une seule revalorisation à la fois"
+    )
+    @PostMapping
+    public ResponseEntity<RevalorisationDTO> lancer() {
+        RevalorisationDTO etat = revalorisationService.lancer();
+        return ResponseEntity.accepted().location(URI.create("/api/v2/revalorisation")).body(etat);
+    }
+
+    @Operation(
+            summary = "Suivre la revalorisation",
+            description = "Avancement et métriques de la dernière revalorisation (produits traités, mouvements lus, "
+                    + "débit, produits ignorés car modifiés pendant le job)"
+    )
+    @GetMapping
+    public ResponseEntity<RevalorisationDTO> getEtat() {
+        RevalorisationDTO etat = revalorisationService.getEtat()
+                .orElseThrow(() -> new NotFoundException("Aucune revalorisation n'a été lancée"));
+        return ResponseEntity.ok(etat);
+    }
+}
@@ -0,0 +1,68 @@
+package com.tricol.tricolV2.controller;
+
+import com.tricol.tricolV2.dto.StatsDTO;
+import com.tricol.tricolV2.dto.StatsFournisseurDTO;
+import com.tricol.tricolV2.dto.StatsMensuelleDTO;
+import com.tricol.tricolV2.dto.StatsStatutDTO;
+import com.tricol.tricolV2.entity.enums.StatutCommande;
+import com.tricol.tricolV2.service.StatsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v2/stats")
+@Tag(name = "Statistiques", description = "Agrégats des commandes fournisseurs calculés en base")
+public class StatsController {
+
+    private final StatsService statsService;
+
+    public StatsController(StatsService statsService) {
+        this.statsService = statsService;
+    }
+
+    @Operation(
+            summary = "Montant des commandes par fournisseur",
+            description = "Nombre et montant total des commandes de chaque fournisseur, du plus gros au plus petit, "
+                    + "éventuellement filtrés par statut"
+    )
+    @GetMapping("/fournisseurs")
+    public ResponseEntity<StatsDTO<StatsFournisseurDTO>> parFournisseur(
+            @RequestParam(required = false) StatutCommande statut) {
+        return ResponseEntity.ok(statsService.parFournisseur(statut));
+    }
+
+    @Operation(
+            summary = "Commandes par statut",
+            description = "Nombre et montant total des commandes pour chaque statut"
+    )
+    @GetMapping("/statuts")
+    public ResponseEntity<StatsDTO<StatsStatutDTO>> parStatut() {
+        return ResponseEntity.ok(statsService.parStatut());
+    }
+
+    @Operation(
+            summary = "Volume mensuel des commandes",
+            description = "Nombre et montant des commandes par mois, pour tous les fournisseurs ou un seul"
+    )
+    @GetMapping("/mensuel")
+    public ResponseEntity<StatsDTO<StatsMensuelleDTO>> mensuel(@RequestParam(required = false) Long fournisseurId) {
+        return ResponseEntity.ok(statsService.mensuel(fournisseurId));
+    }
+
+    @Operation(
+            summary = "Recalculer les statistiques",
+            description = "Recalcule immédiatement la table d'agrégats, sans attendre le rafraîchissement périodique"
+    )
+    @PostMapping("/rafraichir")
+    public ResponseEntity<Map<String, Integer>> rafraichir() {
+        return ResponseEntity.ok(Map.of("lignes", statsService.rafraichir()));
+    }
+}
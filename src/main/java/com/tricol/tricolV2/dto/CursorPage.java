@@ -0,0 +1,18 @@
+package com.tricol.tricolV2.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    /** Curseur opaque à renvoyer dans {@code after} pour obtenir la page suivante, null sur la dernière page. */
+    private String nextCursor;
+}
@@ -0,0 +1,7 @@
+package com.tricol.tricolV2.dto;
+
+/**
+ * Projection minimale d'un fournisseur pour l'autocomplétion: servie depuis la mémoire, sans accès à la base.
+ */
+public record FournisseurSuggestion(Long id, String societe, String ice) {
+}
@@ -0,0 +1,14 @@
+package com.tricol.tricolV2.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportErreurDTO {
+    // Position de l'enregistrement dans le flux, à partir de 1 (hors en-tête CSV)
+    private long ligne;
+    private String message;
+}
@@ -0,0 +1,19 @@
+package com.tricol.tricolV2.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportRapportDTO {
+    private long lignesLues;
+    private long importees;
+    private long rejetees;
+    private List<ImportErreurDTO> erreurs;
+}
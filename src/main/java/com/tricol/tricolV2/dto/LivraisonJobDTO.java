@@ -0,0 +1,23 @@
+package com.tricol.tricolV2.dto;
+
+import com.tricol.tricolV2.entity.enums.StatutLivraison;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LivraisonJobDTO {
+    private Long id;
+    private Long commandeId;
+    private StatutLivraison statut;
+    private int tentatives;
+    private String derniereErreur;
+    private LocalDateTime dateCreation;
+    private LocalDateTime dateMaj;
+}
@@ -0,0 +1,12 @@
+package com.tricol.tricolV2.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Attributs catalogue d'un produit, stables dans le temps et donc mis en cache.
+ * Le stock et le CUMP n'en font volontairement pas partie: ils sont toujours lus en base.
+ * {@code version} est celle de la ligne lue: elle entre dans l'ETag des réponses bâties sur cette entrée.
+ */
+public record ProduitCatalogue(Long id, String nom, String description, String categorie, BigDecimal prixUnitaire,
+                               Long version) {
+}
@@ -0,0 +1,12 @@
+package com.tricol.tricolV2.dto;
+
+/**
+ * Produit accompagné de la version de ce qui a servi à le bâtir: stock lu en base et entrée du cache
+ * catalogue. Deux réponses de même version ont le même contenu.
+ */
+public record ProduitVersionne(ProduitDTO produit, String version) {
+
+    public static String version(long versionStock, long versionCatalogue) {
+        return versionStock + "." + versionCatalogue;
+    }
+}
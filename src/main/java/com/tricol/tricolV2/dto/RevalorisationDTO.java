@@ -0,0 +1,30 @@
+package com.tricol.tricolV2.dto;
+
+import com.tricol.tricolV2.entity.enums.StatutRevalorisation;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RevalorisationDTO {
+    private StatutRevalorisation statut;
+    private LocalDateTime dateDebut;
+    private LocalDateTime dateFin;
+    private int parallelisme;
+    // Borne haute du ledger rejoué: les mouvements postérieurs au lancement ne sont pas lus
+    private long dernierMouvement;
+    private long produitsTotal;
+    private long produitsTraites;
+    private long produitsMisAJour;
+    // Produits ayant reçu un mouvement pendant le job, laissés à leur CUMP courant
+    private long produitsIgnores;
+    private long mouvementsLus;
+    private long mouvementsParSeconde;
+    private String erreur;
+}
@@ -0,0 +1,17 @@
+package com.tricol.tricolV2.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatsDTO<T> {
+    /** Date du dernier recalcul de la table d'agrégats, null tant qu'aucune commande n'a été agrégée. */
+    private LocalDateTime calculeLe;
+    private List<T> lignes;
+}
@@ -0,0 +1,19 @@
+package com.tricol.tricolV2.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StatsFournisseurDTO {
+    private Long fournisseurId;
+    private String societe;
+    private long nombreCommandes;
+    private BigDecimal montantTotal;
+}
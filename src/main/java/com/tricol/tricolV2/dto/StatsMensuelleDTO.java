@@ -0,0 +1,19 @@
+package com.tricol.tricolV2.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StatsMensuelleDTO {
+    private int annee;
+    private int mois;
+    private long nombreCommandes;
+    private BigDecimal montantTotal;
+}
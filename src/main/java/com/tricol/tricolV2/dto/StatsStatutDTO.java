@@ -0,0 +1,19 @@
+package com.tricol.tricolV2.dto;
+
+import com.tricol.tricolV2.entity.enums.StatutCommande;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StatsStatutDTO {
+    private StatutCommande statut;
+    private long nombreCommandes;
+    private BigDecimal montantTotal;
+}
@@ -0,0 +1,23 @@
+package com.tricol.tricolV2.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockAtDTO {
+    private Long produitId;
+    private LocalDateTime date;
+    private BigDecimal quantite;
+    private BigDecimal coutUnitaireMoyen;
+    // Point de contrôle utilisé (null si aucun) et nombre de mouvements rejoués après lui
+    private LocalDateTime dateSnapshot;
+    private long mouvementsRejoues;
+}
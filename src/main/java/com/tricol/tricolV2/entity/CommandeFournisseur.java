@@ -2,6 +2,7 @@ package com.tricol.tricolV2.entity;
 
 import com.tricol.tricolV2.entity.enums.StatutCommande;
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 
 import lombok.*;
 
@@ -18,7 +19,8 @@ import java.util.List;
 public class CommandeFournisseur {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "commande_fournisseur_seq")
+    @SequenceGenerator(name = "commande_fournisseur_seq", sequenceName = "commande_fournisseur_seq", allocationSize = 50)
     private Long id;
 
     private LocalDateTime dateCommande;
@@ -28,11 +30,16 @@ public class CommandeFournisseur {
 
     private BigDecimal montantTotal;
 
-    @ManyToOne
+    @Version
+    private Long version;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "fournisseur_id", nullable = false)
     private Fournisseur fournisseur;
 
+    // Les lignes d'une page de commandes sont chargées en une seule requête IN au lieu d'une par commande
     @OneToMany(mappedBy = "commande", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 100)
     private List<LigneCommandeFournisseur> lignes;
 
     @OneToMany(mappedBy = "commande", orphanRemoval = true)
@@ -4,17 +4,23 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.List;
 
 @Entity
+// Lu à chaque création ou modification de commande et rarement modifié: servi par le cache de second niveau
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "fournisseur")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Fournisseur {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "fournisseur_seq")
+    @SequenceGenerator(name = "fournisseur_seq", sequenceName = "fournisseur_seq", allocationSize = 50)
     private Long id;
 
     @Column(length = 255)
@@ -38,6 +44,9 @@ public class Fournisseur {
     @Column(length = 15, unique = true, nullable = false)
     private String ice;
 
+    @Version
+    private Long version;
+
     @OneToMany(mappedBy = "fournisseur", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<CommandeFournisseur> commandes;
 }
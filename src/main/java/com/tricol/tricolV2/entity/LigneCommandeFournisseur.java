@@ -16,7 +16,8 @@ import java.math.BigDecimal;
 public class LigneCommandeFournisseur {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ligne_commande_fournisseur_seq")
+    @SequenceGenerator(name = "ligne_commande_fournisseur_seq", sequenceName = "ligne_commande_fournisseur_seq", allocationSize = 50)
     private Long id;
 
     private BigDecimal quantite;
@@ -25,11 +26,11 @@ public class LigneCommandeFournisseur {
 
     private BigDecimal montantLigne;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "produit_id", nullable = false)
     private Produit produit;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "commande_id", nullable = false)
     private CommandeFournisseur commande;
 }
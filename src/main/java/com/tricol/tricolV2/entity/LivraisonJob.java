@@ -0,0 +1,42 @@
+package com.tricol.tricolV2.entity;
+
+import com.tricol.tricolV2.entity.enums.StatutLivraison;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outbox des livraisons asynchrones: une ligne par commande, écrite dans la même transaction que
+ * la demande de livraison puis consommée par le pool de workers.
+ */
+@Entity
+@Table(name = "livraison_job")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LivraisonJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "livraison_job_seq")
+    @SequenceGenerator(name = "livraison_job_seq", sequenceName = "livraison_job_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "commande_id", nullable = false, unique = true)
+    private Long commandeId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private StatutLivraison statut;
+
+    private int tentatives;
+
+    @Column(length = 500)
+    private String derniereErreur;
+
+    private LocalDateTime dateCreation;
+
+    private LocalDateTime dateMaj;
+}
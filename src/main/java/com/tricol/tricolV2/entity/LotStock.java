@@ -0,0 +1,40 @@
+package com.tricol.tricolV2.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Couche FIFO persistée: un lot par mouvement d'entrée, dont la quantité restante décroît au fil des sorties.
+ */
+@Entity
+@Table(name = "lot_stock")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LotStock {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "lot_stock_seq")
+    @SequenceGenerator(name = "lot_stock_seq", sequenceName = "lot_stock_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "produit_id", nullable = false)
+    private Long produitId;
+
+    @Column(nullable = false)
+    private LocalDateTime dateEntree;
+
+    @Column(nullable = false)
+    private BigDecimal quantiteInitiale;
+
+    @Column(nullable = false)
+    private BigDecimal quantiteRestante;
+
+    @Column(nullable = false)
+    private BigDecimal coutUnitaire;
+}
@@ -1,11 +1,15 @@
 package com.tricol.tricolV2.entity;
 
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Locale;
 
 @Entity
 @Data
@@ -15,11 +19,19 @@ import java.util.List;
 public class Produit {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "produit_seq")
+    @SequenceGenerator(name = "produit_seq", sequenceName = "produit_seq", allocationSize = 50)
     private Long id;
 
     private String nom;
 
+    // Colonne générée lower(nom), indexée avec stock_actuel pour findAllocationCandidates. Jamais lue depuis
+    // l'entité: getNomMinuscule() la recalcule depuis nom, sans relecture après INSERT qui casserait les lots d'import
+    @Column(insertable = false, updatable = false)
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private String nomMinuscule;
+
     private String description;
 
     private BigDecimal prixUnitaire;
@@ -30,9 +42,16 @@ public class Produit {
 
     private BigDecimal coutUnitaireMoyen;
 
+    @Version
+    private Long version;
+
     @OneToMany(mappedBy = "produit", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<MouvementStock> mouvements;
 
     @OneToMany(mappedBy = "produit", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<LigneCommandeFournisseur> lignesCommande;
+
+    public String getNomMinuscule() {
+        return nom == null ? null : nom.toLowerCase(Locale.ROOT);
+    }
 }
@@ -0,0 +1,38 @@
+package com.tricol.tricolV2.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Point de contrôle du stock d'un produit: quantité et CUMP après application de tous ses mouvements
+ * dont la date est inférieure ou égale à {@code dateSnapshot}.
+ */
+@Entity
+@Table(name = "stock_snapshot")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_snapshot_seq")
+    @SequenceGenerator(name = "stock_snapshot_seq", sequenceName = "stock_snapshot_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "produit_id", nullable = false)
+    private Long produitId;
+
+    @Column(nullable = false)
+    private LocalDateTime dateSnapshot;
+
+    @Column(nullable = false)
+    private BigDecimal quantite;
+
+    @Column(nullable = false)
+    private BigDecimal coutUnitaireMoyen;
+}
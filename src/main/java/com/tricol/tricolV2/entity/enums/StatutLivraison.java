@@ -0,0 +1,8 @@
+package com.tricol.tricolV2.entity.enums;
+
+public enum StatutLivraison {
+    EN_ATTENTE ,
+    EN_COURS ,
+    TERMINEE ,
+    ECHEC
+}
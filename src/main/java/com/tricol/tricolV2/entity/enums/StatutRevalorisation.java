@@ -0,0 +1,7 @@
+package com.tricol.tricolV2.entity.enums;
+
+public enum StatutRevalorisation {
+    EN_COURS ,
+    TERMINEE ,
+    ECHEC
+}
@@ -7,6 +7,7 @@ import org.mapstruct.AfterMapping;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
+import org.mapstruct.Named;
 
 @Mapper(componentModel = "spring", uses = {LigneCommandeMapper.class})
 public interface CommandeFournisseurMapper {
@@ -14,12 +15,19 @@ public interface CommandeFournisseurMapper {
     @Mapping(target = "fournisseur.id", source = "fournisseurId")
     @Mapping(target = "lignes", source = "lignes")
     @Mapping(target = "mouvementsStock", ignore = true)
+    @Mapping(target = "version", ignore = true)
     CommandeFournisseur toEntity(CommandeFournisseurDTO dto);
 
     @Mapping(target = "fournisseurId", source = "fournisseur.id")
     @Mapping(target = "lignes", source = "lignes")
     CommandeFournisseurDTO toDTO(CommandeFournisseur entity);
 
+    // En-tête seul (export CSV): la collection des lignes n'est pas chargée
+    @Named("sansLignes")
+    @Mapping(target = "fournisseurId", source = "fournisseur.id")
+    @Mapping(target = "lignes", ignore = true)
+    CommandeFournisseurDTO toDTOSansLignes(CommandeFournisseur entity);
+
     @AfterMapping
     default void ensureFournisseur(@MappingTarget CommandeFournisseur entity, CommandeFournisseurDTO dto) {
         if (entity.getFournisseur() == null && dto.getFournisseurId() != null) {
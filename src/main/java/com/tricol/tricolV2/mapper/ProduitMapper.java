@@ -12,6 +12,7 @@ public interface ProduitMapper {
 
     @Mapping(target = "mouvements", ignore = true)
     @Mapping(target = "lignesCommande", ignore = true)
+    @Mapping(target = "version", ignore = true)
     Produit toEntity(ProduitDTO dto);
 
     ProduitDTO toDTO(Produit produit);
@@ -3,15 +3,25 @@ package com.tricol.tricolV2.repository;
 import com.tricol.tricolV2.entity.CommandeFournisseur;
 import com.tricol.tricolV2.entity.Fournisseur;
 import com.tricol.tricolV2.entity.enums.StatutCommande;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface CommandeFournisseurRepository extends JpaRepository<CommandeFournisseur, Long> {
+public interface CommandeFournisseurRepository extends JpaRepository<CommandeFournisseur, Long>, CommandeFournisseurRepositoryCustom {
 
     List<CommandeFournisseur> findByFournisseur(Fournisseur fournisseur);
     List<CommandeFournisseur> findByStatut(StatutCommande statut);
@@ -20,5 +30,25 @@ public interface CommandeFournisseurRepository extends JpaRepository<CommandeFou
     List<CommandeFournisseur> findByMontantTotalBetween(BigDecimal min, BigDecimal max);
     Page<CommandeFournisseur> findByStatut(StatutCommande statut, Pageable pageable);
     Page<CommandeFournisseur> findByFournisseur_SocieteContainingIgnoreCase(String societe, Pageable pageable);
+    Page<CommandeFournisseur> findByFournisseur_IdIn(Collection<Long> fournisseurIds, Pageable pageable);
     Page<CommandeFournisseur> findByDateCommandeBetween(LocalDateTime start, LocalDateTime end, Pageable pageable);
+
+    // Les lignes (côté inverse) n'incrémentent pas la version: une modification force l'incrément au commit
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    @Query("select c from CommandeFournisseur c where c.id = :id")
+    Optional<CommandeFournisseur> findForUpdateById(@Param("id") Long id);
+
+    // Livraison: les produits des lignes sont lus avec la commande, pas un proxy par ligne à l'allocation
+    @Query("select distinct c from CommandeFournisseur c left join fetch c.lignes l left join fetch l.produit where c.id = :id")
+    Optional<CommandeFournisseur> findAvecLignesEtProduitsById(@Param("id") Long id);
+
+    @Query("select c.version from CommandeFournisseur c where c.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select c from CommandeFournisseur c order by c.id")
+    Stream<CommandeFournisseur> streamAll();
 }
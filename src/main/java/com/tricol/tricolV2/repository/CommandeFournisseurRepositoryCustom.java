@@ -0,0 +1,32 @@
+package com.tricol.tricolV2.repository;
+
+import com.tricol.tricolV2.dto.StatsFournisseurDTO;
+import com.tricol.tricolV2.dto.StatsMensuelleDTO;
+import com.tricol.tricolV2.dto.StatsStatutDTO;
+import com.tricol.tricolV2.entity.enums.StatutCommande;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface CommandeFournisseurRepositoryCustom {
+
+    /**
+     * Recalcule la table stats_commande depuis commande_fournisseur (un INSERT ... SELECT ... GROUP BY par
+     * fournisseur, mois et statut). À appeler dans une transaction: les lecteurs voient l'ancien contenu
+     * jusqu'au commit.
+     *
+     * @return le nombre de lignes d'agrégat écrites
+     */
+    int rafraichirStats(LocalDateTime calculeLe);
+
+    Optional<LocalDateTime> statsCalculeesLe();
+
+    /** Nombre et montant des commandes par fournisseur, montant décroissant; {@code statut} null: tous. */
+    List<StatsFournisseurDTO> statsParFournisseur(StatutCommande statut);
+
+    List<StatsStatutDTO> statsParStatut();
+
+    /** Volume mensuel chronologique; {@code fournisseurId} null: tous les fournisseurs. */
+    List<StatsMensuelleDTO> statsMensuelles(Long fournisseurId);
+}
@@ -0,0 +1,95 @@
+package com.tricol.tricolV2.repository;
+
+import com.tricol.tricolV2.dto.StatsFournisseurDTO;
+import com.tricol.tricolV2.dto.StatsMensuelleDTO;
+import com.tricol.tricolV2.dto.StatsStatutDTO;
+import com.tricol.tricolV2.entity.enums.StatutCommande;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public class CommandeFournisseurRepositoryCustomImpl implements CommandeFournisseurRepositoryCustom {
+
+    private static final String VIDER_STATS_SQL = "DELETE FROM stats_commande";
+
+    // YEAR/MONTH existent sous la même forme en MySQL et en H2
+    private static final String REMPLIR_STATS_SQL =
+            "INSERT INTO stats_commande (fournisseur_id, annee, mois, statut, nombre_commandes, montant_total, calcule_le) " +
+            "SELECT fournisseur_id, YEAR(date_commande), MONTH(date_commande), statut, COUNT(*), SUM(montant_total), ? " +
+            "FROM commande_fournisseur " +
+            "GROUP BY fournisseur_id, YEAR(date_commande), MONTH(date_commande), statut";
+
+    private static final String PAR_FOURNISSEUR_SQL =
+            "SELECT s.fournisseur_id, f.societe, SUM(s.nombre_commandes), SUM(s.montant_total) " +
+            "FROM stats_commande s JOIN fournisseur f ON f.id = s.fournisseur_id %s" +
+            "GROUP BY s.fournisseur_id, f.societe " +
+            "ORDER BY SUM(s.montant_total) DESC, s.fournisseur_id";
+
+    private static final String PAR_STATUT_SQL =
+            "SELECT statut, SUM(nombre_commandes), SUM(montant_total) FROM stats_commande " +
+            "GROUP BY statut ORDER BY statut";
+
+    private static final String MENSUEL_SQL =
+            "SELECT annee, mois, SUM(nombre_commandes), SUM(montant_total) FROM stats_commande " +
+            "%s" +
+            "GROUP BY annee, mois ORDER BY annee, mois";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CommandeFournisseurRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int rafraichirStats(LocalDateTime calculeLe) {
+        jdbcTemplate.update(VIDER_STATS_SQL);
+        return jdbcTemplate.update(REMPLIR_STATS_SQL, Timestamp.valueOf(calculeLe));
+    }
+
+    @Override
+    public Optional<LocalDateTime> statsCalculeesLe() {
+        Timestamp calculeLe = jdbcTemplate.queryForObject("SELECT MAX(calcule_le) FROM stats_commande", Timestamp.class);
+        return Optional.ofNullable(calculeLe).map(Timestamp::toLocalDateTime);
+    }
+
+    @Override
+    public List<StatsFournisseurDTO> statsParFournisseur(StatutCommande statut) {
+        RowMapper<StatsFournisseurDTO> mapper = (rs, i) -> StatsFournisseurDTO.builder()
+                .fournisseurId(rs.getLong(1))
+                .societe(rs.getString(2))
+                .nombreCommandes(rs.getLong(3))
+                .montantTotal(rs.getBigDecimal(4))
+                .build();
+        if (statut == null) {
+            return jdbcTemplate.query(PAR_FOURNISSEUR_SQL.formatted(""), mapper);
+        }
+        return jdbcTemplate.query(PAR_FOURNISSEUR_SQL.formatted("WHERE s.statut = ? "), mapper, statut.name());
+    }
+
+    @Override
+    public List<StatsStatutDTO> statsParStatut() {
+        return jdbcTemplate.query(PAR_STATUT_SQL, (rs, i) -> StatsStatutDTO.builder()
+                .statut(StatutCommande.valueOf(rs.getString(1)))
+                .nombreCommandes(rs.getLong(2))
+                .montantTotal(rs.getBigDecimal(3))
+                .build());
+    }
+
+    @Override
+    public List<StatsMensuelleDTO> statsMensuelles(Long fournisseurId) {
+        RowMapper<StatsMensuelleDTO> mapper = (rs, i) -> StatsMensuelleDTO.builder()
+                .annee(rs.getInt(1))
+                .mois(rs.getInt(2))
+                .nombreCommandes(rs.getLong(3))
+                .montantTotal(rs.getBigDecimal(4))
+                .build();
+        if (fournisseurId == null) {
+            return jdbcTemplate.query(MENSUEL_SQL.formatted(""), mapper);
+        }
+        return jdbcTemplate.query(MENSUEL_SQL.formatted("WHERE fournisseur_id = ? "), mapper, fournisseurId);
+    }
+}
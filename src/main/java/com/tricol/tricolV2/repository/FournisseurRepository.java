@@ -2,15 +2,40 @@ package com.tricol.tricolV2.repository;
 
 import com.tricol.tricolV2.entity.Fournisseur;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 
 public interface FournisseurRepository extends JpaRepository<Fournisseur ,Long> {
 
     List<Fournisseur> findBySocieteContainingIgnoreCase(String societe);
     List<Fournisseur> findByVille(String ville);
+    // Cache de requêtes: l'id trouvé est mis en cache, l'entité vient ensuite du cache de second niveau
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Fournisseur> findByIce(String ice);
 
+    // ETag de GET /{id}: servi par le cache de requêtes jusqu'à la prochaine écriture sur fournisseur
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("select f.version from Fournisseur f where f.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Query("select f.ice from Fournisseur f where f.ice in :ices")
+    List<String> findExistingIces(@Param("ices") Collection<String> ices);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select f from Fournisseur f order by f.id")
+    Stream<Fournisseur> streamAll();
+
 }
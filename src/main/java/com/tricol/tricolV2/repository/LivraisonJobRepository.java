@@ -0,0 +1,50 @@
+package com.tricol.tricolV2.repository;
+
+import com.tricol.tricolV2.entity.LivraisonJob;
+import com.tricol.tricolV2.entity.enums.StatutLivraison;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface LivraisonJobRepository extends JpaRepository<LivraisonJob, Long> {
+
+    Optional<LivraisonJob> findByCommandeId(Long commandeId);
+
+    List<LivraisonJob> findTop100ByStatutAndDateMajBeforeOrderByIdAsc(StatutLivraison statut, LocalDateTime avant);
+
+    // Prise en charge conditionnelle: un seul worker (y compris sur une autre instance) obtient 1
+    @Modifying
+    @Query("update LivraisonJob j set j.statut = com.tricol.tricolV2.entity.enums.StatutLivraison.EN_COURS, " +
+            "j.tentatives = j.tentatives + 1, j.dateMaj = :maintenant " +
+            "where j.id = :id and j.statut = com.tricol.tricolV2.entity.enums.StatutLivraison.EN_ATTENTE")
+    int reclamer(@Param("id") Long id, @Param("maintenant") LocalDateTime maintenant);
+
+    @Modifying
+    @Query("update LivraisonJob j set j.statut = :statut, j.derniereErreur = :erreur, j.dateMaj = :maintenant " +
+            "where j.id = :id")
+    int marquer(@Param("id") Long id, @Param("statut") StatutLivraison statut,
+                @Param("erreur") String erreur, @Param("maintenant") LocalDateTime maintenant);
+
+    // Worker interrompu (arrêt, crash): le job est rejoué tant qu'il lui reste des tentatives
+    @Modifying
+    @Query("update LivraisonJob j set j.statut = com.tricol.tricolV2.entity.enums.StatutLivraison.EN_ATTENTE, " +
+            "j.dateMaj = :maintenant " +
+            "where j.statut = com.tricol.tricolV2.entity.enums.StatutLivraison.EN_COURS and j.dateMaj < :avant " +
+            "and j.tentatives < :max")
+    int libererBloques(@Param("avant") LocalDateTime avant, @Param("max") int max,
+                       @Param("maintenant") LocalDateTime maintenant);
+
+    // Un job qui a interrompu son worker à chaque tentative passe en échec au lieu d'être rejoué sans fin
+    @Modifying
+    @Query("update LivraisonJob j set j.statut = com.tricol.tricolV2.entity.enums.StatutLivraison.ECHEC, " +
+            "j.derniereErreur = :erreur, j.dateMaj = :maintenant " +
+            "where j.statut = com.tricol.tricolV2.entity.enums.StatutLivraison.EN_COURS and j.dateMaj < :avant " +
+            "and j.tentatives >= :max")
+    int abandonnerBloques(@Param("avant") LocalDateTime avant, @Param("max") int max,
+                          @Param("erreur") String erreur, @Param("maintenant") LocalDateTime maintenant);
+}
@@ -0,0 +1,30 @@
+package com.tricol.tricolV2.repository;
+
+import com.tricol.tricolV2.entity.LotStock;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public interface LotStockRepository extends JpaRepository<LotStock, Long> {
+
+    // Lots encore ouverts d'un produit, du plus ancien au plus récent (idx_lot_stock_produit)
+    @Query("select l from LotStock l where l.produitId = :produitId and l.quantiteRestante > 0 order by l.id")
+    List<LotStock> findOuverts(@Param("produitId") Long produitId);
+
+    // Même lecture en verrouillant les lots: lecture courante, y compris sous REPEATABLE READ (MySQL)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select l from LotStock l where l.produitId = :produitId and l.quantiteRestante > 0 order by l.id")
+    List<LotStock> findOuvertsVerrouilles(@Param("produitId") Long produitId);
+
+    // Écriture conditionnelle: 0 si une autre transaction a déjà consommé le lot
+    @Modifying
+    @Query("update LotStock l set l.quantiteRestante = l.quantiteRestante - :quantite " +
+            "where l.id = :id and l.quantiteRestante >= :quantite")
+    int consommer(@Param("id") Long id, @Param("quantite") BigDecimal quantite);
+}
@@ -2,14 +2,53 @@ package com.tricol.tricolV2.repository;
 
 import com.tricol.tricolV2.entity.MouvementStock;
 import com.tricol.tricolV2.entity.enums.TypeMouvement;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
-public interface MouvementStockRepository extends JpaRepository<MouvementStock, Long> {
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+public interface MouvementStockRepository extends JpaRepository<MouvementStock, Long>, MouvementStockRepositoryCustom {
     Page<MouvementStock> findByProduit_Id(Long produitId, Pageable pageable);
     Page<MouvementStock> findByCommande_Id(Long commandeId, Pageable pageable);
     Page<MouvementStock> findByType(TypeMouvement type, Pageable pageable);
 
+    // Pagination par clé (keyset): pas d'OFFSET ni de COUNT(*), coût constant quelle que soit la profondeur
+    Window<MouvementStock> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+    Window<MouvementStock> findByProduit_Id(Long produitId, ScrollPosition position, Sort sort, Limit limit);
+    Window<MouvementStock> findByCommande_Id(Long commandeId, ScrollPosition position, Sort sort, Limit limit);
+    Window<MouvementStock> findByType(TypeMouvement type, ScrollPosition position, Sort sort, Limit limit);
+
     boolean existsByCommande_Id(Long commandeId);
+
+    // Mouvements d'un produit dans l'intervalle ]depuis, jusqua], dans l'ordre de rejeu (idx_mouvement_produit_date)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select m.dateMouvement as dateMouvement, m.type as type, m.quantite as quantite, " +
+            "m.coutUnitaire as coutUnitaire from MouvementStock m " +
+            "where m.produit.id = :produitId and m.dateMouvement > :depuis and m.dateMouvement <= :jusqua " +
+            "order by m.dateMouvement, m.id")
+    Stream<LigneLedger> streamLedger(@Param("produitId") Long produitId,
+                                     @Param("depuis") LocalDateTime depuis,
+                                     @Param("jusqua") LocalDateTime jusqua);
+
+    interface LigneLedger {
+        LocalDateTime getDateMouvement();
+        TypeMouvement getType();
+        BigDecimal getQuantite();
+        BigDecimal getCoutUnitaire();
+    }
 }
@@ -0,0 +1,25 @@
+package com.tricol.tricolV2.repository;
+
+import com.tricol.tricolV2.entity.enums.TypeMouvement;
+
+import java.math.BigDecimal;
+
+public interface MouvementStockRepositoryCustom {
+
+    /**
+     * Parcourt en flux, via JDBC, les mouvements des produits d'id compris entre {@code produitMin} et
+     * {@code produitMax} (inclus) et d'id au plus {@code mouvementMax}, dans l'ordre
+     * {@code (produit_id, date_mouvement, id)} servi par idx_mouvement_produit_date.
+     *
+     * @return le nombre de mouvements lus
+     */
+    long parcourirLedger(long produitMin, long produitMax, long mouvementMax, LigneHandler handler);
+
+    /** Id du dernier mouvement enregistré, 0 si le ledger est vide. */
+    long dernierIdMouvement();
+
+    @FunctionalInterface
+    interface LigneHandler {
+        void ligne(long produitId, TypeMouvement type, BigDecimal quantite, BigDecimal coutUnitaire);
+    }
+}
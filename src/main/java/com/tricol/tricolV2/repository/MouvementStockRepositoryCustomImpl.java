@@ -0,0 +1,46 @@
+package com.tricol.tricolV2.repository;
+
+import com.tricol.tricolV2.entity.enums.TypeMouvement;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+
+public class MouvementStockRepositoryCustomImpl implements MouvementStockRepositoryCustom {
+
+    private static final String LEDGER_SQL =
+            "SELECT produit_id, type, quantite, cout_unitaire FROM mouvement_stock " +
+            "WHERE produit_id BETWEEN ? AND ? AND id <= ? " +
+            "ORDER BY produit_id, date_mouvement, id";
+
+    // Lecture par curseur côté serveur (useCursorFetch=true sur MySQL): mémoire bornée quel que soit le ledger
+    private static final int FETCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MouvementStockRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public long parcourirLedger(long produitMin, long produitMax, long mouvementMax, LigneHandler handler) {
+        long[] lus = new long[1];
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(LEDGER_SQL);
+            ps.setFetchSize(FETCH_SIZE);
+            ps.setLong(1, produitMin);
+            ps.setLong(2, produitMax);
+            ps.setLong(3, mouvementMax);
+            return ps;
+        }, rs -> {
+            handler.ligne(rs.getLong(1), TypeMouvement.valueOf(rs.getString(2)), rs.getBigDecimal(3), rs.getBigDecimal(4));
+            lus[0]++;
+        });
+        return lus[0];
+    }
+
+    @Override
+    public long dernierIdMouvement() {
+        Long id = jdbcTemplate.queryForObject("SELECT MAX(id) FROM mouvement_stock", Long.class);
+        return id == null ? 0L : id;
+    }
+}
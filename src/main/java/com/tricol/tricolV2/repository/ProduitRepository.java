@@ -1,14 +1,24 @@
 package com.tricol.tricolV2.repository;
 
+import com.tricol.tricolV2.dto.ProduitCatalogue;
 import com.tricol.tricolV2.entity.Produit;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface ProduitRepository extends JpaRepository<Produit, Long> {
+public interface ProduitRepository extends JpaRepository<Produit, Long>, ProduitRepositoryCustom {
 
     Page<Produit> findByNomContainingIgnoreCase(String nom, Pageable pageable);
     Page<Produit> findByCategorieContainingIgnoreCase(String categorie, Pageable pageable);
@@ -16,5 +26,46 @@ public interface ProduitRepository extends JpaRepository<Produit, Long> {
     List<Produit> findByStockActuelLessThan(BigDecimal stockMin);
     List<Produit> findByStockActuelGreaterThan(BigDecimal stockMax);
 
-    List<Produit> findByNomIgnoreCaseAndStockActuelGreaterThanOrderByStockActuelDesc(String nom, BigDecimal minStock);
+    @Query("select p.categorie as categorie, count(p) as total from Produit p group by p.categorie order by p.categorie")
+    List<CategorieCount> countByCategorie();
+
+    // nomMinuscule = lower(nom), colonne générée (idx_produit_nom_minuscule_stock)
+    @Query("select p from Produit p where p.nomMinuscule in :noms and p.stockActuel > 0 order by p.stockActuel desc")
+    List<Produit> findAllocationCandidates(@Param("noms") Collection<String> noms);
+
+    @Modifying
+    @Query("update versioned Produit p set p.coutUnitaireMoyen = :cout where p.id = :id")
+    int majCoutUnitaireMoyen(@Param("id") Long id, @Param("cout") BigDecimal cout);
+
+    @Query("select p.version from Produit p where p.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Query("select p.id from Produit p order by p.id")
+    List<Long> findAllIds();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select p from Produit p order by p.id")
+    Stream<Produit> streamAll();
+
+    @Query("select new com.tricol.tricolV2.dto.ProduitCatalogue(p.id, p.nom, p.description, p.categorie, p.prixUnitaire, p.version) " +
+            "from Produit p where p.id in :ids")
+    List<ProduitCatalogue> findCatalogueByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select p.stockActuel as stockActuel, p.coutUnitaireMoyen as coutUnitaireMoyen, p.version as version " +
+            "from Produit p where p.id = :id")
+    Optional<StockCourant> findStockById(@Param("id") Long id);
+
+    interface StockCourant {
+        BigDecimal getStockActuel();
+        BigDecimal getCoutUnitaireMoyen();
+        Long getVersion();
+    }
+
+    interface CategorieCount {
+        String getCategorie();
+        Long getTotal();
+    }
 }
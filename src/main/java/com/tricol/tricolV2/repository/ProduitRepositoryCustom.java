@@ -0,0 +1,31 @@
+package com.tricol.tricolV2.repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+public interface ProduitRepositoryCustom {
+
+    /**
+     * Décrémente le stock de chaque produit en un seul batch JDBC, sous la forme
+     * {@code stock_actuel = stock_actuel - ? WHERE stock_actuel >= ?}.
+     *
+     * @return les ids des produits dont le stock était insuffisant au moment de l'écriture
+     */
+    List<Long> decrementerStocks(Map<Long, BigDecimal> quantitesParProduit);
+
+    /**
+     * Écrit le coût unitaire moyen de chaque produit par batchs JDBC de {@code tailleBatch}. Un produit ayant
+     * reçu un mouvement d'id supérieur à {@code mouvementMax} n'est pas modifié: son CUMP a déjà été
+     * recalculé par l'écriture qui a créé ce mouvement.
+     *
+     * @return le nombre de produits mis à jour
+     */
+    int majCoutsUnitairesMoyens(Map<Long, BigDecimal> coutsParProduit, long mouvementMax, int tailleBatch);
+
+    /**
+     * Verrouille la ligne du produit ({@code SELECT ... FOR UPDATE}) jusqu'à la fin de la transaction, par
+     * JDBC pour ne pas déclencher de flush Hibernate.
+     */
+    void verrouiller(Long id);
+}
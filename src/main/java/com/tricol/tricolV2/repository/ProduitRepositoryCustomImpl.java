@@ -0,0 +1,78 @@
+package com.tricol.tricolV2.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class ProduitRepositoryCustomImpl implements ProduitRepositoryCustom {
+
+    private static final String DECREMENT_SQL =
+            "UPDATE produit SET stock_actuel = stock_actuel - ?, version = version + 1 " +
+            "WHERE id = ? AND stock_actuel >= ?";
+
+    private static final String MAJ_CUMP_SQL =
+            "UPDATE produit SET cout_unitaire_moyen = ?, version = version + 1 " +
+            "WHERE id = ? AND NOT EXISTS (SELECT 1 FROM mouvement_stock m WHERE m.produit_id = ? AND m.id > ?)";
+
+    private static final String VERROU_SQL = "SELECT id FROM produit WHERE id = ? FOR UPDATE";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProduitRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<Long> decrementerStocks(Map<Long, BigDecimal> quantitesParProduit) {
+        if (quantitesParProduit.isEmpty()) {
+            return List.of();
+        }
+
+        List<Map.Entry<Long, BigDecimal>> entrees = new ArrayList<>(quantitesParProduit.entrySet());
+        List<Object[]> params = new ArrayList<>(entrees.size());
+        for (Map.Entry<Long, BigDecimal> e : entrees) {
+            params.add(new Object[]{e.getValue(), e.getKey(), e.getValue()});
+        }
+
+        int[] resultats = jdbcTemplate.batchUpdate(DECREMENT_SQL, params);
+
+        List<Long> refuses = new ArrayList<>();
+        for (int i = 0; i < resultats.length; i++) {
+            if (resultats[i] == 0) {
+                refuses.add(entrees.get(i).getKey());
+            }
+        }
+        return refuses;
+    }
+
+    @Override
+    public int majCoutsUnitairesMoyens(Map<Long, BigDecimal> coutsParProduit, long mouvementMax, int tailleBatch) {
+        if (coutsParProduit.isEmpty()) {
+            return 0;
+        }
+
+        List<Map.Entry<Long, BigDecimal>> entrees = new ArrayList<>(coutsParProduit.entrySet());
+        int majs = 0;
+        for (int[] lot : jdbcTemplate.batchUpdate(MAJ_CUMP_SQL, entrees, tailleBatch, (ps, e) -> {
+            ps.setBigDecimal(1, e.getValue());
+            ps.setLong(2, e.getKey());
+            ps.setLong(3, e.getKey());
+            ps.setLong(4, mouvementMax);
+        })) {
+            for (int n : lot) {
+                // SUCCESS_NO_INFO (-2) quand le driver réécrit le batch sans compter les lignes
+                majs += n == Statement.SUCCESS_NO_INFO ? 1 : n;
+            }
+        }
+        return majs;
+    }
+
+    @Override
+    public void verrouiller(Long id) {
+        jdbcTemplate.queryForList(VERROU_SQL, Long.class, id);
+    }
+}
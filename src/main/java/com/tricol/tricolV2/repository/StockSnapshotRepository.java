@@ -0,0 +1,17 @@
+package com.tricol.tricolV2.repository;
+
+import com.tricol.tricolV2.entity.StockSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface StockSnapshotRepository extends JpaRepository<StockSnapshot, Long> {
+
+    Optional<StockSnapshot> findFirstByProduitIdAndDateSnapshotLessThanEqualOrderByDateSnapshotDesc(Long produitId,
+                                                                                                   LocalDateTime date);
+
+    Optional<StockSnapshot> findFirstByProduitIdOrderByDateSnapshotDesc(Long produitId);
+
+    long countByProduitId(Long produitId);
+}
@@ -15,6 +15,7 @@ public interface CommandeFournisseurService {
     CommandeFournisseurDTO update(Long id, CommandeFournisseurDTO dto);
     void delete(Long id);
     Optional<CommandeFournisseurDTO> getById(Long id);
+    Optional<Long> getVersion(Long id);
     List<CommandeFournisseurDTO> getAll();
     Page<CommandeFournisseurDTO> getPaged(Pageable pageable);
 
@@ -1,10 +1,10 @@
 package com.tricol.tricolV2.service;
 
 import com.tricol.tricolV2.dto.CommandeFournisseurDTO;
+import com.tricol.tricolV2.dto.ProduitCatalogue;
 import com.tricol.tricolV2.entity.CommandeFournisseur;
 import com.tricol.tricolV2.entity.Fournisseur;
 import com.tricol.tricolV2.entity.LigneCommandeFournisseur;
-import com.tricol.tricolV2.entity.Produit;
 import com.tricol.tricolV2.entity.enums.StatutCommande;
 import com.tricol.tricolV2.exception.NotFoundException;
 import com.tricol.tricolV2.mapper.CommandeFournisseurMapper;
@@ -12,6 +12,10 @@ import com.tricol.tricolV2.mapper.LigneCommandeMapper;
 import com.tricol.tricolV2.repository.CommandeFournisseurRepository;
 import com.tricol.tricolV2.repository.FournisseurRepository;
 import com.tricol.tricolV2.repository.ProduitRepository;
+import com.tricol.tricolV2.util.FixedPoint;
+import com.tricol.tricolV2.util.ValorisationUtil;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -20,36 +24,50 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 public class CommandeFournisseurServiceImpl implements CommandeFournisseurService {
 
+    // Au-delà, la liste IN serait plus coûteuse que le LIKE sur la jointure
+    private static final int MAX_FOURNISSEURS_INDEX = 1000;
+
     private final CommandeFournisseurRepository commandeRepository;
     private final FournisseurRepository fournisseurRepository;
     private final ProduitRepository produitRepository;
     private final CommandeFournisseurMapper commandeMapper;
     private final LigneCommandeMapper ligneMapper;
     private final MouvementStockService mouvementStockService;
+    private final ProduitCatalogueCache produitCatalogueCache;
+    private final ObjectProvider<RechercheTexteIndex> rechercheIndex;
 
     public CommandeFournisseurServiceImpl(CommandeFournisseurRepository commandeRepository,
                                           FournisseurRepository fournisseurRepository,
                                           ProduitRepository produitRepository,
                                           CommandeFournisseurMapper commandeMapper,
                                           LigneCommandeMapper ligneMapper,
-                                          MouvementStockService mouvementStockService) {
+                                          MouvementStockService mouvementStockService,
+                                          ProduitCatalogueCache produitCatalogueCache,
+                                          ObjectProvider<RechercheTexteIndex> rechercheIndex) {
         this.commandeRepository = commandeRepository;
         this.fournisseurRepository = fournisseurRepository;
         this.produitRepository = produitRepository;
         this.commandeMapper = commandeMapper;
         this.ligneMapper = ligneMapper;
         this.mouvementStockService = mouvementStockService;
+        this.produitCatalogueCache = produitCatalogueCache;
+        this.rechercheIndex = rechercheIndex;
     }
 
 
     @Override
+    @Transactional
+    @Timed(value = "tricol.commande", extraTags = {"operation", "creation"})
     public CommandeFournisseurDTO create(CommandeFournisseurDTO dto) {
         Fournisseur fournisseur = fournisseurRepository.findById(dto.getFournisseurId())
                 .orElseThrow(() -> new NotFoundException("Fournisseur non trouvé avec l'id : " + dto.getFournisseurId()));
@@ -71,8 +89,10 @@ public class CommandeFournisseurServiceImpl implements CommandeFournisseurServic
     }
 
     @Override
+    @Transactional
+    @Timed(value = "tricol.commande", extraTags = {"operation", "modification"})
     public CommandeFournisseurDTO update(Long id, CommandeFournisseurDTO dto) {
-        CommandeFournisseur existing = commandeRepository.findById(id)
+        CommandeFournisseur existing = commandeRepository.findForUpdateById(id)
                 .orElseThrow(() -> new NotFoundException("Commande non trouvée avec l'id : " + id));
 
         if (dto.getFournisseurId() != null) {
@@ -84,15 +104,21 @@ public class CommandeFournisseurServiceImpl implements CommandeFournisseurServic
         existing.setDateCommande(dto.getDateCommande());
         existing.setStatut(dto.getStatut());
 
-        // reset lines and rebuild
-        existing.getLignes().clear();
         List<LigneCommandeFournisseur> lignes = dto.getLignes().stream()
                 .map(ligneMapper::toEntity)
                 .peek(l -> l.setCommande(existing))
                 .collect(Collectors.toList());
-        existing.getLignes().addAll(lignes);
 
-        bindProduitsAndCompute(existing);
+        // Produits résolus avant de rattacher les lignes: la requête du cache catalogue déclenche un flush,
+        // qui échouerait sur les références produit encore non résolues (Produit versionné)
+        CommandeFournisseur calcul = new CommandeFournisseur();
+        calcul.setLignes(lignes);
+        bindProduitsAndCompute(calcul);
+        existing.setMontantTotal(calcul.getMontantTotal());
+
+        // reset lines and rebuild
+        existing.getLignes().clear();
+        existing.getLignes().addAll(lignes);
 
         CommandeFournisseur updated = commandeRepository.save(existing);
         return commandeMapper.toDTO(updated);
@@ -106,24 +132,33 @@ public class CommandeFournisseurServiceImpl implements CommandeFournisseurServic
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<CommandeFournisseurDTO> getById(Long id) {
         return commandeRepository.findById(id).map(commandeMapper::toDTO);
     }
 
     @Override
+    public Optional<Long> getVersion(Long id) {
+        return commandeRepository.findVersionById(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<CommandeFournisseurDTO> getAll() {
         return commandeRepository.findAll().stream().map(commandeMapper::toDTO).collect(Collectors.toList());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<CommandeFournisseurDTO> getPaged(Pageable pageable) {
         return commandeRepository.findAll(pageable).map(commandeMapper::toDTO);
     }
 
     @Override
     @Transactional
+    @Timed(value = "tricol.commande", extraTags = {"operation", "statut"})
     public CommandeFournisseurDTO updateStatut(Long id, StatutCommande statut) {
-        CommandeFournisseur existing = commandeRepository.findById(id)
+        CommandeFournisseur existing = commandeRepository.findAvecLignesEtProduitsById(id)
                 .orElseThrow(() -> new NotFoundException("Commande non trouvée avec l'id : " + id));
         boolean wasLivree = existing.getStatut() == StatutCommande.LIVREE;
         if (!wasLivree && statut == StatutCommande.LIVREE) {
@@ -139,38 +174,82 @@ public class CommandeFournisseurServiceImpl implements CommandeFournisseurServic
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<CommandeFournisseurDTO> searchByStatut(StatutCommande statut, Pageable pageable) {
         return commandeRepository.findByStatut(statut, pageable).map(commandeMapper::toDTO);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<CommandeFournisseurDTO> searchByFournisseurSociete(String societe, Pageable pageable) {
+        RechercheTexteIndex index = rechercheIndex.getIfAvailable();
+        Optional<List<Long>> fournisseurs = index == null ? Optional.empty()
+                : index.fournisseursParSociete(societe, MAX_FOURNISSEURS_INDEX);
+        if (fournisseurs.isPresent()) {
+            return fournisseurs.get().isEmpty() ? Page.empty(pageable)
+                    : commandeRepository.findByFournisseur_IdIn(fournisseurs.get(), pageable).map(commandeMapper::toDTO);
+        }
         return commandeRepository.findByFournisseur_SocieteContainingIgnoreCase(societe, pageable)
                 .map(commandeMapper::toDTO);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<CommandeFournisseurDTO> searchByDateBetween(LocalDateTime start, LocalDateTime end, Pageable pageable) {
         return commandeRepository.findByDateCommandeBetween(start, end, pageable)
                 .map(commandeMapper::toDTO);
     }
 
     private void bindProduitsAndCompute(CommandeFournisseur commande) {
-        BigDecimal total = BigDecimal.ZERO;
-        if (commande.getLignes() != null) {
+        long totalCentimes = 0L;
+        boolean totalExact = true;
+        if (commande.getLignes() != null && !commande.getLignes().isEmpty()) {
+            // Tous les produits distincts de la commande sont résolus en un seul appel au catalogue
+            // (une seule requête pour les absents du cache)
+            Set<Long> produitIds = commande.getLignes().stream()
+                    .map(ligne -> ligne.getProduit().getId())
+                    .collect(Collectors.toCollection(LinkedHashSet::new));
+            Map<Long, ProduitCatalogue> produits = produitCatalogueCache.getAll(produitIds);
+
+            List<Long> manquants = produitIds.stream()
+                    .filter(id -> !produits.containsKey(id))
+                    .collect(Collectors.toList());
+            if (manquants.size() == 1) {
+                throw new NotFoundException("Produit non trouvé avec l'id : " + manquants.get(0));
+            }
+            if (!manquants.isEmpty()) {
+                throw new NotFoundException("Produits non trouvés avec les ids : " + manquants);
+            }
+
             for (LigneCommandeFournisseur ligne : commande.getLignes()) {
-                Produit produit = produitRepository.findById(ligne.getProduit().getId())
-                        .orElseThrow(() -> new NotFoundException("Produit non trouvé avec l'id : " + ligne.getProduit().getId()));
-                ligne.setProduit(produit);
+                ProduitCatalogue produit = produits.get(ligne.getProduit().getId());
+                // Référence sans chargement: seule la clé étrangère est écrite
+                ligne.setProduit(produitRepository.getReferenceById(produit.id()));
 
-                BigDecimal qte = ligne.getQuantite() == null ? BigDecimal.ZERO : ligne.getQuantite();
-                BigDecimal pu = produit.getPrixUnitaire() == null ? BigDecimal.ZERO : produit.getPrixUnitaire();
+                BigDecimal pu = produit.prixUnitaire() == null ? BigDecimal.ZERO : produit.prixUnitaire();
                 ligne.setPrixUnitaire(pu);
-                BigDecimal montantLigne = pu.multiply(qte).setScale(2, RoundingMode.HALF_UP);
+                BigDecimal montantLigne = ValorisationUtil.montantLigne(pu, ligne.getQuantite());
                 ligne.setMontantLigne(montantLigne);
-                total = total.add(montantLigne);
+                if (totalExact) {
+                    try {
+                        totalCentimes = Math.addExact(totalCentimes,
+                                FixedPoint.versLong(montantLigne, FixedPoint.ECHELLE_MONTANT));
+                    } catch (ArithmeticException e) {
+                        totalExact = false;
+                    }
+                }
             }
         }
-        commande.setMontantTotal(total.setScale(2, RoundingMode.HALF_UP));
+        commande.setMontantTotal(totalExact
+                ? FixedPoint.versBigDecimal(totalCentimes, FixedPoint.ECHELLE_MONTANT)
+                : sommeMontants(commande.getLignes()));
+    }
+
+    // Repli hors capacité d'un long (en centimes)
+    private BigDecimal sommeMontants(List<LigneCommandeFournisseur> lignes) {
+        return lignes.stream()
+                .map(LigneCommandeFournisseur::getMontantLigne)
+                .reduce(BigDecimal.ZERO, BigDecimal::add)
+                .setScale(2, RoundingMode.HALF_UP);
     }
 }
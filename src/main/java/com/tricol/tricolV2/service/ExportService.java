@@ -0,0 +1,15 @@
+package com.tricol.tricolV2.service;
+
+import com.tricol.tricolV2.util.ExportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface ExportService {
+
+    void exportProduits(ExportFormat format, OutputStream out) throws IOException;
+
+    void exportFournisseurs(ExportFormat format, OutputStream out) throws IOException;
+
+    void exportCommandes(ExportFormat format, OutputStream out) throws IOException;
+}
@@ -0,0 +1,131 @@
+package com.tricol.tricolV2.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.tricol.tricolV2.dto.CommandeFournisseurDTO;
+import com.tricol.tricolV2.dto.FournisseurDTO;
+import com.tricol.tricolV2.dto.LigneCommandeDTO;
+import com.tricol.tricolV2.dto.ProduitDTO;
+import com.tricol.tricolV2.entity.CommandeFournisseur;
+import com.tricol.tricolV2.mapper.CommandeFournisseurMapper;
+import com.tricol.tricolV2.mapper.FournisseurMapper;
+import com.tricol.tricolV2.mapper.ProduitMapper;
+import com.tricol.tricolV2.repository.CommandeFournisseurRepository;
+import com.tricol.tricolV2.repository.FournisseurRepository;
+import com.tricol.tricolV2.repository.ProduitRepository;
+import com.tricol.tricolV2.util.ExportFormat;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Exports en flux: les lignes sont lues par un curseur JDBC (fetch size fixe) et converties par les mappers
+ * MapStruct par lots de {@value #TAILLE_LOT}, puis écrites directement sur la sortie. Le contexte de
+ * persistance est vidé après chaque lot pour ne pas grossir avec le volume exporté. Les lignes des commandes
+ * d'un lot sont chargées ensemble par une requête IN (@BatchSize de même taille), et pas du tout en CSV.
+ */
+@Service
+public class ExportServiceImpl implements ExportService {
+
+    private static final int TAILLE_LOT = 100;
+
+    private final ProduitRepository produitRepository;
+    private final FournisseurRepository fournisseurRepository;
+    private final CommandeFournisseurRepository commandeRepository;
+    private final ProduitMapper produitMapper;
+    private final FournisseurMapper fournisseurMapper;
+    private final CommandeFournisseurMapper commandeMapper;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final CsvMapper csvMapper;
+
+    public ExportServiceImpl(ProduitRepository produitRepository,
+                             FournisseurRepository fournisseurRepository,
+                             CommandeFournisseurRepository commandeRepository,
+                             ProduitMapper produitMapper,
+                             FournisseurMapper fournisseurMapper,
+                             CommandeFournisseurMapper commandeMapper,
+                             EntityManager entityManager,
+                             ObjectMapper objectMapper) {
+        this.produitRepository = produitRepository;
+        this.fournisseurRepository = fournisseurRepository;
+        this.commandeRepository = commandeRepository;
+        this.produitMapper = produitMapper;
+        this.fournisseurMapper = fournisseurMapper;
+        this.commandeMapper = commandeMapper;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.csvMapper = CsvMapper.builder()
+                .addModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                // Les lignes de commande ne tiennent pas dans une colonne CSV: seul l'en-tête est exporté
+                .addMixIn(CommandeFournisseurDTO.class, CommandeCsvMixIn.class)
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportProduits(ExportFormat format, OutputStream out) throws IOException {
+        write(produitRepository.streamAll(), produitMapper::toDTO, ProduitDTO.class, format, out);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportFournisseurs(ExportFormat format, OutputStream out) throws IOException {
+        write(fournisseurRepository.streamAll(), fournisseurMapper::toDTO, FournisseurDTO.class, format, out);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportCommandes(ExportFormat format, OutputStream out) throws IOException {
+        Function<CommandeFournisseur, CommandeFournisseurDTO> mapper = format == ExportFormat.CSV
+                ? commandeMapper::toDTOSansLignes
+                : commandeMapper::toDTO;
+        write(commandeRepository.streamAll(), mapper, CommandeFournisseurDTO.class, format, out);
+    }
+
+    private <E, D> void write(Stream<E> source, Function<E, D> mapper, Class<D> type,
+                              ExportFormat format, OutputStream out) throws IOException {
+        try (Stream<E> rows = source;
+             SequenceWriter writer = writerFor(type, format).writeValues(out)) {
+            Iterator<E> it = rows.iterator();
+            List<E> lot = new ArrayList<>(TAILLE_LOT);
+            while (it.hasNext()) {
+                lot.add(it.next());
+                if (lot.size() == TAILLE_LOT || !it.hasNext()) {
+                    // Lot encore attaché: le premier accès à une collection paresseuse charge celles de tout le lot
+                    for (E entity : lot) {
+                        writer.write(mapper.apply(entity));
+                    }
+                    lot.clear();
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+
+    private ObjectWriter writerFor(Class<?> type, ExportFormat format) {
+        if (format == ExportFormat.CSV) {
+            return csvMapper.writer(csvMapper.schemaFor(type).withHeader());
+        }
+        return objectMapper.writerFor(type).withRootValueSeparator("\n");
+    }
+
+    private abstract static class CommandeCsvMixIn {
+        @JsonIgnore
+        abstract List<LigneCommandeDTO> getLignes();
+    }
+}
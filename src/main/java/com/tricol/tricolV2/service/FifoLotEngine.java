@@ -0,0 +1,233 @@
+package com.tricol.tricolV2.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.tricol.tricolV2.entity.LotStock;
+import com.tricol.tricolV2.exception.BusinessException;
+import com.tricol.tricolV2.repository.LotStockRepository;
+import com.tricol.tricolV2.repository.ProduitRepository;
+import com.tricol.tricolV2.util.FifoLayers;
+import com.tricol.tricolV2.util.FifoLayers.Tranche;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Valorisation FIFO par couches de lots. Les couches ouvertes d'un produit sont chargées depuis lot_stock
+ * puis gardées en mémoire pour au plus {@code app.stock.fifo-max-produits} produits; chaque entrée insère un
+ * lot et chaque sortie ne met à jour que les lots qu'elle consomme.
+ * <p>
+ * Une transaction travaille sur sa propre copie des couches, prise après avoir verrouillé la ligne du produit:
+ * les opérations FIFO d'un même produit sont sérialisées jusqu'au commit, et une consommation annulée n'est
+ * jamais vue d'une autre transaction. La copie partage les lots de l'état publié ({@link FifoLayers#copie()}
+ * en O(1)): une sortie ne coûte que les couches qu'elle consomme. La copie n'est publiée qu'après le commit. Chaque copie porte un ticket
+ * pris sous le verrou, dans l'ordre des commits du produit: une copie plus ancienne que l'état publié, ou que
+ * le plancher relevé par une invalidation ou une éviction, n'est pas publiée. La base reste la référence: un
+ * conflit détecté par l'écriture conditionnelle invalide les couches du produit, rechargées au prochain accès.
+ */
+@Component
+public class FifoLotEngine {
+
+    private final LotStockRepository lotRepository;
+    private final ProduitRepository produitRepository;
+    private final Cache<Long, Publication> couches;
+    private final AtomicLong tickets = new AtomicLong();
+    // Une copie de ticket inférieur n'est plus publiée sur une entrée absente
+    private final AtomicLong plancher = new AtomicLong();
+
+    public FifoLotEngine(LotStockRepository lotRepository,
+                         ProduitRepository produitRepository,
+                         @Value("${app.stock.fifo-max-produits:10000}") long maxProduits) {
+        this.lotRepository = lotRepository;
+        this.produitRepository = produitRepository;
+        this.couches = Caffeine.newBuilder()
+                .maximumSize(maxProduits)
+                .evictionListener((Long produitId, Publication publication, RemovalCause cause) -> {
+                    if (publication != null) {
+                        relever(publication.ticket());
+                    }
+                })
+                .build();
+    }
+
+    public void entree(Long produitId, BigDecimal quantite, BigDecimal coutUnitaire, LocalDateTime date) {
+        if (quantite == null || quantite.signum() <= 0) {
+            return;
+        }
+        BigDecimal cout = coutUnitaire == null ? BigDecimal.ZERO : coutUnitaire;
+        LotStock lot = lotRepository.save(LotStock.builder()
+                .produitId(produitId)
+                .dateEntree(date)
+                .quantiteInitiale(quantite)
+                .quantiteRestante(quantite)
+                .coutUnitaire(cout)
+                .build());
+
+        Travail travail = travail();
+        if (travail == null) {
+            invalider(produitId);
+            return;
+        }
+        Copie copie = travail.copies.get(produitId);
+        if (copie != null) {
+            copie.layers.ajouter(lot.getId(), quantite, cout);
+            copie.modifiee = true;
+        } else {
+            // Pas de verrou ici (import de produits neufs): la copie éventuelle sera relue en base
+            travail.entreesSansCopie.add(produitId);
+        }
+    }
+
+    /**
+     * Consomme {@code quantite} depuis les lots les plus anciens. Les tranches renvoyées peuvent couvrir
+     * moins que la quantité demandée si le produit a du stock antérieur aux lots (reprise d'historique).
+     */
+    public List<Tranche> sortie(Long produitId, BigDecimal quantite) {
+        Travail travail = travail();
+        if (travail == null) {
+            throw new IllegalStateException("Une sortie FIFO doit s'exécuter dans une transaction");
+        }
+        Copie copie = copie(travail, produitId);
+        List<Tranche> tranches = copie.layers.consommer(quantite);
+        copie.modifiee = true;
+
+        for (Tranche tranche : tranches) {
+            if (lotRepository.consommer(tranche.lotId(), tranche.quantite()) == 0) {
+                travail.copies.remove(produitId);
+                invalider(produitId);
+                throw new BusinessException("Les lots du produit " + produitId
+                        + " ont été modifiés par une autre opération. Veuillez réessayer.");
+            }
+        }
+        return tranches;
+    }
+
+    public BigDecimal coutUnitaireMoyen(Long produitId) {
+        Travail travail = travail();
+        if (travail != null) {
+            return copie(travail, produitId).layers.coutUnitaireMoyen();
+        }
+        Publication publication = couches.getIfPresent(produitId);
+        return (publication != null ? publication.layers() : charger(lotRepository.findOuverts(produitId)))
+                .coutUnitaireMoyen();
+    }
+
+    public void invalider(Long produitId) {
+        relever(tickets.incrementAndGet());
+        couches.invalidate(produitId);
+    }
+
+    private Copie copie(Travail travail, Long produitId) {
+        Copie copie = travail.copies.get(produitId);
+        if (copie != null) {
+            return copie;
+        }
+        produitRepository.verrouiller(produitId);
+        long ticket = tickets.incrementAndGet();
+        // Un lot inséré plus tôt dans la transaction n'est pas dans l'état publié
+        boolean entreeSansCopie = travail.entreesSansCopie.remove(produitId);
+        Publication publication = entreeSansCopie ? null : couches.getIfPresent(produitId);
+        copie = publication != null
+                ? new Copie(publication.layers().copie(), ticket, false)
+                : new Copie(charger(lotRepository.findOuvertsVerrouilles(produitId)), ticket, true);
+        copie.modifiee = entreeSansCopie;
+        travail.copies.put(produitId, copie);
+        return copie;
+    }
+
+    private FifoLayers charger(List<LotStock> lots) {
+        FifoLayers layers = new FifoLayers();
+        lots.forEach(lot -> layers.ajouter(lot.getId(), lot.getQuantiteRestante(), lot.getCoutUnitaire()));
+        return layers;
+    }
+
+    private void publier(Long produitId, Copie copie) {
+        couches.asMap().compute(produitId, (id, actuelle) -> {
+            if (actuelle != null) {
+                return actuelle.ticket() > copie.ticket ? actuelle : new Publication(copie.ticket, copie.layers);
+            }
+            return copie.ticket >= plancher.get() ? new Publication(copie.ticket, copie.layers) : null;
+        });
+    }
+
+    private void relever(long ticket) {
+        plancher.accumulateAndGet(ticket, Math::max);
+    }
+
+    private Travail travail() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || !TransactionSynchronizationManager.isActualTransactionActive()) {
+            return null;
+        }
+        Travail travail = (Travail) TransactionSynchronizationManager.getResource(this);
+        if (travail == null) {
+            travail = new Travail();
+            TransactionSynchronizationManager.bindResource(this, travail);
+            TransactionSynchronizationManager.registerSynchronization(travail);
+        }
+        return travail;
+    }
+
+    // État publié, jamais modifié ensuite: les transactions en prennent une copie
+    private record Publication(long ticket, FifoLayers layers) {
+    }
+
+    private static final class Copie {
+
+        private final FifoLayers layers;
+        private final long ticket;
+        private final boolean rechargee;
+        private boolean modifiee;
+
+        private Copie(FifoLayers layers, long ticket, boolean rechargee) {
+            this.layers = layers;
+            this.ticket = ticket;
+            this.rechargee = rechargee;
+        }
+    }
+
+    // Copies d'une transaction, publiées après son commit et abandonnées à l'annulation
+    private final class Travail implements TransactionSynchronization {
+
+        private final Map<Long, Copie> copies = new HashMap<>();
+        private final Set<Long> entreesSansCopie = new HashSet<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            // Jusqu'à la publication, le prochain détenteur du verrou relit la base
+            copies.forEach((produitId, copie) -> {
+                if (copie.modifiee) {
+                    relever(copie.ticket);
+                    couches.invalidate(produitId);
+                }
+            });
+            entreesSansCopie.forEach(couches::invalidate);
+        }
+
+        @Override
+        public void afterCommit() {
+            copies.forEach((produitId, copie) -> {
+                if (copie.modifiee || copie.rechargee) {
+                    publier(produitId, copie);
+                }
+            });
+            entreesSansCopie.forEach(FifoLotEngine.this::invalider);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(FifoLotEngine.this);
+        }
+    }
+}
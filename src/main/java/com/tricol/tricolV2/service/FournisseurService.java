@@ -1,6 +1,7 @@
 package com.tricol.tricolV2.service;
 
 import com.tricol.tricolV2.dto.FournisseurDTO;
+import com.tricol.tricolV2.dto.FournisseurSuggestion;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -13,9 +14,11 @@ public interface FournisseurService {
     FournisseurDTO updateFournisseur(Long id, FournisseurDTO dto);
     void deleteFournisseur(Long id);
     Optional<FournisseurDTO> getFournisseurById(Long id);
+    Optional<Long> getFournisseurVersion(Long id);
     List<FournisseurDTO> getAllFournisseurs();
     List<FournisseurDTO> searchBySociete(String societe);
     List<FournisseurDTO> searchByVille(String ville);
     Optional<FournisseurDTO> searchByIce(String ice);
     Page<FournisseurDTO> getFournisseurs(Pageable pageable);
+    List<FournisseurSuggestion> suggest(String q, int limit);
 }
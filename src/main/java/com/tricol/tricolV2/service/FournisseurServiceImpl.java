@@ -1,7 +1,9 @@
 package com.tricol.tricolV2.service;
 
 import com.tricol.tricolV2.dto.FournisseurDTO;
+import com.tricol.tricolV2.dto.FournisseurSuggestion;
 import com.tricol.tricolV2.entity.Fournisseur;
+import com.tricol.tricolV2.exception.BusinessException;
 import com.tricol.tricolV2.exception.NotFoundException;
 import com.tricol.tricolV2.mapper.FournisseurMapper;
 import com.tricol.tricolV2.repository.FournisseurRepository;
@@ -17,12 +19,17 @@ import java.util.stream.Collectors;
 @Service
 public class FournisseurServiceImpl implements FournisseurService {
 
+    private static final int MAX_SUGGESTIONS = 50;
+
     private final FournisseurRepository fournisseurRepository;
     private final FournisseurMapper fournisseurMapper;
+    private final FournisseurSuggestions fournisseurSuggestions;
 
-    public FournisseurServiceImpl (FournisseurRepository fournisseurRepository , FournisseurMapper fournisseurMapper){
+    public FournisseurServiceImpl (FournisseurRepository fournisseurRepository , FournisseurMapper fournisseurMapper,
+                                   FournisseurSuggestions fournisseurSuggestions){
         this.fournisseurRepository = fournisseurRepository;
         this.fournisseurMapper = fournisseurMapper;
+        this.fournisseurSuggestions = fournisseurSuggestions;
     }
     @Override
     public FournisseurDTO addFournisseur(FournisseurDTO dto) {
@@ -62,6 +69,10 @@ public class FournisseurServiceImpl implements FournisseurService {
                 .map(fournisseurMapper::toDTO);
     }
     @Override
+    public Optional<Long> getFournisseurVersion(Long id){
+        return fournisseurRepository.findVersionById(id);
+    }
+    @Override
     public List<FournisseurDTO>getAllFournisseurs(){
         return fournisseurRepository.findAll().stream()
                 .map(fournisseurMapper::toDTO).collect(Collectors.toList());
@@ -86,5 +97,12 @@ public class FournisseurServiceImpl implements FournisseurService {
         return fournisseurRepository.findAll(pageable)
                 .map(fournisseurMapper::toDTO);
     }
+    @Override
+    public List<FournisseurSuggestion> suggest(String q, int limit){
+        if (limit < 1 || limit > MAX_SUGGESTIONS) {
+            throw new BusinessException("Le nombre de suggestions doit être compris entre 1 et " + MAX_SUGGESTIONS);
+        }
+        return fournisseurSuggestions.suggerer(q, limit);
+    }
 
 }
@@ -0,0 +1,179 @@
+package com.tricol.tricolV2.service;
+
+import com.tricol.tricolV2.dto.FournisseurSuggestion;
+import com.tricol.tricolV2.entity.Fournisseur;
+import com.tricol.tricolV2.util.IndexTrigrammes;
+import com.tricol.tricolV2.util.TriePrefixes;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Autocomplétion des fournisseurs: trie de préfixes sur la société et la ville (texte entier et suite de
+ * chaque mot) et sur l'ICE, avec la projection {@link FournisseurSuggestion} de chaque fournisseur en mémoire.
+ * Chargé au démarrage, ou au premier appel s'il le précède, puis mis à jour après le commit de chaque
+ * création, modification ou suppression, imports en masse compris. Les lectures ne prennent aucun verrou;
+ * les écritures, et le chargement, sont sérialisées.
+ */
+@Component
+public class FournisseurSuggestions {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TriePrefixes trie = new TriePrefixes();
+    private final ConcurrentHashMap<Long, Entree> entrees = new ConcurrentHashMap<>();
+    private final ReentrantLock ecriture = new ReentrantLock();
+    private volatile boolean charge;
+
+    private record Entree(FournisseurSuggestion suggestion, Set<String> termes) {
+    }
+
+    public FournisseurSuggestions(EntityManagerFactory entityManagerFactory, JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        EventListenerRegistry registre = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        Synchronisation synchronisation = new Synchronisation();
+        registre.appendListeners(EventType.POST_COMMIT_INSERT, synchronisation);
+        registre.appendListeners(EventType.POST_COMMIT_UPDATE, synchronisation);
+        registre.appendListeners(EventType.POST_COMMIT_DELETE, synchronisation);
+    }
+
+    // Verrou tenu pendant toute la lecture: un commit concurrent est appliqué après, jamais écrasé
+    @EventListener(ApplicationReadyEvent.class)
+    public void charger() {
+        ecriture.lock();
+        try {
+            if (charge) {
+                return;
+            }
+            jdbcTemplate.query("SELECT id, societe, ville, ice FROM fournisseur", rs -> {
+                indexer(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4));
+            });
+            charge = true;
+        } finally {
+            ecriture.unlock();
+        }
+    }
+
+    public List<FournisseurSuggestion> suggerer(String q, int limite) {
+        if (!charge) {
+            charger();
+        }
+        String prefixe = q == null ? "" : IndexTrigrammes.normaliser(q);
+        if (prefixe.isEmpty()) {
+            return List.of();
+        }
+        return trie.rechercher(prefixe, limite).stream()
+                .map(entrees::get)
+                .filter(Objects::nonNull)
+                .map(Entree::suggestion)
+                .toList();
+    }
+
+    private void indexer(long id, String societe, String ville, String ice) {
+        ecriture.lock();
+        try {
+            Set<String> termes = new LinkedHashSet<>();
+            ajouterMots(termes, societe);
+            ajouterMots(termes, ville);
+            if (ice != null) {
+                termes.add(IndexTrigrammes.normaliser(ice));
+            }
+            Entree ancienne = entrees.put(id, new Entree(new FournisseurSuggestion(id, societe, ice), termes));
+            if (ancienne != null) {
+                ancienne.termes().stream().filter(t -> !termes.contains(t)).forEach(t -> trie.retirer(t, id));
+            }
+            termes.forEach(t -> trie.ajouter(t, id));
+        } finally {
+            ecriture.unlock();
+        }
+    }
+
+    private void retirer(long id) {
+        ecriture.lock();
+        try {
+            Entree ancienne = entrees.remove(id);
+            if (ancienne != null) {
+                ancienne.termes().forEach(t -> trie.retirer(t, id));
+            }
+        } finally {
+            ecriture.unlock();
+        }
+    }
+
+    // "Atlas Fer Casablanca" -> "atlas fer casablanca", "fer casablanca", "casablanca"
+    private static void ajouterMots(Set<String> termes, String texte) {
+        if (texte == null) {
+            return;
+        }
+        String normalise = IndexTrigrammes.normaliser(texte);
+        if (normalise.isEmpty()) {
+            return;
+        }
+        termes.add(normalise);
+        for (int i = normalise.indexOf(' '); i >= 0; i = normalise.indexOf(' ', i + 1)) {
+            termes.add(normalise.substring(i + 1));
+        }
+    }
+
+    private final class Synchronisation
+            implements PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+        // Hibernate notifie chaque listener post-commit dès qu'un seul d'entre eux réclame l'entité
+        @Override
+        public void onPostInsert(PostInsertEvent event) {
+            if (event.getEntity() instanceof Fournisseur f) {
+                indexer(f.getId(), f.getSociete(), f.getVille(), f.getIce());
+            }
+        }
+
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            if (event.getEntity() instanceof Fournisseur f) {
+                indexer(f.getId(), f.getSociete(), f.getVille(), f.getIce());
+            }
+        }
+
+        @Override
+        public void onPostDelete(PostDeleteEvent event) {
+            if (event.getEntity() instanceof Fournisseur) {
+                retirer(((Number) event.getId()).longValue());
+            }
+        }
+
+        @Override
+        public boolean requiresPostCommitHandling(EntityPersister persister) {
+            return persister.getMappedClass() == Fournisseur.class;
+        }
+
+        @Override
+        public void onPostInsertCommitFailed(PostInsertEvent event) {
+        }
+
+        @Override
+        public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        }
+
+        @Override
+        public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.tricol.tricolV2.service;
+
+import com.tricol.tricolV2.dto.ImportRapportDTO;
+import com.tricol.tricolV2.util.ImportFormat;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface ImportService {
+    ImportRapportDTO importerProduits(InputStream in, ImportFormat format) throws IOException;
+
+    ImportRapportDTO importerFournisseurs(InputStream in, ImportFormat format) throws IOException;
+}
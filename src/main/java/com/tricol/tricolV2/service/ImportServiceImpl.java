@@ -0,0 +1,267 @@
+package com.tricol.tricolV2.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DatabindException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.tricol.tricolV2.config.AppProperties;
+import com.tricol.tricolV2.config.CacheConfig;
+import com.tricol.tricolV2.dto.FournisseurDTO;
+import com.tricol.tricolV2.dto.ImportErreurDTO;
+import com.tricol.tricolV2.dto.ImportRapportDTO;
+import com.tricol.tricolV2.dto.ProduitDTO;
+import com.tricol.tricolV2.entity.Fournisseur;
+import com.tricol.tricolV2.entity.MouvementStock;
+import com.tricol.tricolV2.entity.Produit;
+import com.tricol.tricolV2.entity.enums.TypeMouvement;
+import com.tricol.tricolV2.mapper.FournisseurMapper;
+import com.tricol.tricolV2.mapper.ProduitMapper;
+import com.tricol.tricolV2.repository.FournisseurRepository;
+import com.tricol.tricolV2.util.ImportFormat;
+import com.tricol.tricolV2.util.ValorisationUtil;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Imports en masse: le flux (tableau JSON, NDJSON ou CSV avec en-tête) est lu enregistrement par
+ * enregistrement, validé par lots de {@code app.import.taille-lot} puis inséré lot par lot dans sa propre
+ * transaction. Les ids séquence (pooled-lo) permettent à Hibernate d'envoyer les INSERT en batch JDBC.
+ * Un enregistrement invalide est rejeté seul; un lot refusé par la base est rejeté entier.
+ */
+@Service
+public class ImportServiceImpl implements ImportService {
+
+    private final FournisseurRepository fournisseurRepository;
+    private final ProduitMapper produitMapper;
+    private final FournisseurMapper fournisseurMapper;
+    private final Validator validator;
+    private final EntityManager entityManager;
+    private final AppProperties appProperties;
+    private final FifoLotEngine fifoLotEngine;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final CsvMapper csvMapper;
+    private final int tailleLot;
+
+    public ImportServiceImpl(FournisseurRepository fournisseurRepository,
+                             ProduitMapper produitMapper,
+                             FournisseurMapper fournisseurMapper,
+                             Validator validator,
+                             EntityManager entityManager,
+                             AppProperties appProperties,
+                             FifoLotEngine fifoLotEngine,
+                             PlatformTransactionManager transactionManager,
+                             ObjectMapper objectMapper,
+                             @Value("${app.import.taille-lot:500}") int tailleLot) {
+        this.fournisseurRepository = fournisseurRepository;
+        this.produitMapper = produitMapper;
+        this.fournisseurMapper = fournisseurMapper;
+        this.validator = validator;
+        this.entityManager = entityManager;
+        this.appProperties = appProperties;
+        this.fifoLotEngine = fifoLotEngine;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.csvMapper = CsvMapper.builder()
+                .enable(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+                .enable(CsvParser.Feature.TRIM_SPACES)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .build();
+        this.tailleLot = tailleLot;
+    }
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.PRODUIT_COUNT, allEntries = true)
+    public ImportRapportDTO importerProduits(InputStream in, ImportFormat format) throws IOException {
+        return importer(lire(in, format, ProduitDTO.class), (lot, rapport) -> { }, this::insererProduits);
+    }
+
+    @Override
+    public ImportRapportDTO importerFournisseurs(InputStream in, ImportFormat format) throws IOException {
+        Set<String> icesVus = new HashSet<>();
+        return importer(lire(in, format, FournisseurDTO.class),
+                (lot, rapport) -> controlerIces(lot, rapport, icesVus), this::insererFournisseurs);
+    }
+
+    private <D> MappingIterator<D> lire(InputStream in, ImportFormat format, Class<D> type) throws IOException {
+        if (format == ImportFormat.CSV) {
+            return csvMapper.readerFor(type).with(CsvSchema.emptySchema().withHeader()).readValues(in);
+        }
+        return objectMapper.readerFor(type).readValues(in);
+    }
+
+    private <D> ImportRapportDTO importer(MappingIterator<D> source,
+                                          BiConsumer<List<Ligne<D>>, Rapport> controles,
+                                          Consumer<List<D>> insertion) throws IOException {
+        Rapport rapport = new Rapport();
+        List<Ligne<D>> lot = new ArrayList<>(tailleLot);
+        try (MappingIterator<D> lignes = source) {
+            long numero = 0;
+            while (true) {
+                try {
+                    if (!lignes.hasNextValue()) {
+                        break;
+                    }
+                    numero++;
+                    lot.add(new Ligne<>(numero, lignes.nextValue()));
+                } catch (DatabindException e) {
+                    // Valeur non convertible (nombre invalide...): l'itérateur se resynchronise sur l'enregistrement suivant
+                    rapport.rejeter(numero, e.getOriginalMessage());
+                } catch (JsonProcessingException e) {
+                    // Syntaxe illisible: impossible de retrouver le début de l'enregistrement suivant
+                    rapport.rejeter(numero == 0 ? 1 : numero, "Contenu illisible, import interrompu : " + e.getOriginalMessage());
+                    break;
+                }
+                if (lot.size() == tailleLot) {
+                    traiterLot(lot, controles, insertion, rapport);
+                    lot = new ArrayList<>(tailleLot);
+                }
+            }
+            rapport.lignesLues = numero;
+        }
+        traiterLot(lot, controles, insertion, rapport);
+        return rapport.toDTO();
+    }
+
+    private <D> void traiterLot(List<Ligne<D>> lot,
+                                BiConsumer<List<Ligne<D>>, Rapport> controles,
+                                Consumer<List<D>> insertion,
+                                Rapport rapport) {
+        List<Ligne<D>> valides = new ArrayList<>(lot.size());
+        for (Ligne<D> ligne : lot) {
+            Set<ConstraintViolation<D>> violations = validator.validate(ligne.dto());
+            if (violations.isEmpty()) {
+                valides.add(ligne);
+            } else {
+                rapport.rejeter(ligne.numero(), violations.stream()
+                        .map(v -> v.getPropertyPath() + " : " + v.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+            }
+        }
+        controles.accept(valides, rapport);
+        valides.removeIf(ligne -> rapport.estRejetee(ligne.numero()));
+        if (valides.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    insertion.accept(valides.stream().map(Ligne::dto).collect(Collectors.toList())));
+            rapport.importees += valides.size();
+        } catch (RuntimeException e) {
+            String cause = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            valides.forEach(ligne -> rapport.rejeter(ligne.numero(), "Lot non enregistré : " + cause));
+        }
+    }
+
+    private void controlerIces(List<Ligne<FournisseurDTO>> lot, Rapport rapport, Set<String> icesVus) {
+        Set<String> existants = new HashSet<>(fournisseurRepository.findExistingIces(
+                lot.stream().map(l -> l.dto().getIce()).collect(Collectors.toSet())));
+        for (Ligne<FournisseurDTO> ligne : lot) {
+            String ice = ligne.dto().getIce();
+            if (existants.contains(ice) || !icesVus.add(ice)) {
+                rapport.rejeter(ligne.numero(), "ice : Le code ICE doit être unique");
+            }
+        }
+    }
+
+    private void insererProduits(List<ProduitDTO> dtos) {
+        LocalDateTime maintenant = LocalDateTime.now();
+        boolean fifo = appProperties.getValuationMethod() == AppProperties.ValuationMethod.FIFO;
+        List<MouvementStock> entrees = new ArrayList<>();
+        for (ProduitDTO dto : dtos) {
+            Produit produit = produitMapper.toEntity(dto);
+            produit.setId(null);
+            BigDecimal stock = produit.getStockActuel();
+            // Un seul INSERT par produit: le CUMP d'une entrée initiale est son prix unitaire
+            produit.setCoutUnitaireMoyen(stock.signum() > 0
+                    ? ValorisationUtil.calculateCump(BigDecimal.ZERO, BigDecimal.ZERO, stock, produit.getPrixUnitaire())
+                    : BigDecimal.ZERO);
+            entityManager.persist(produit);
+
+            if (stock.signum() > 0) {
+                entrees.add(MouvementStock.builder()
+                        .dateMouvement(maintenant)
+                        .type(TypeMouvement.ENTREE)
+                        .quantite(stock)
+                        .coutUnitaire(produit.getPrixUnitaire())
+                        .produit(produit)
+                        .commentaire("Entrée initiale produit (import)")
+                        .build());
+                if (fifo) {
+                    fifoLotEngine.entree(produit.getId(), stock, produit.getPrixUnitaire(), maintenant);
+                }
+            }
+        }
+        // Produits puis mouvements: chaque table reste dans un même batch JDBC
+        entrees.forEach(entityManager::persist);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private void insererFournisseurs(List<FournisseurDTO> dtos) {
+        for (FournisseurDTO dto : dtos) {
+            Fournisseur fournisseur = fournisseurMapper.toEntity(dto);
+            fournisseur.setId(null);
+            entityManager.persist(fournisseur);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private record Ligne<D>(long numero, D dto) {
+    }
+
+    private static final class Rapport {
+        private long lignesLues;
+        private long importees;
+        private final Map<Long, String> rejets = new HashMap<>();
+
+        private void rejeter(long ligne, String message) {
+            rejets.merge(ligne, message, (a, b) -> a + "; " + b);
+        }
+
+        private boolean estRejetee(long ligne) {
+            return rejets.containsKey(ligne);
+        }
+
+        private ImportRapportDTO toDTO() {
+            List<ImportErreurDTO> erreurs = rejets.entrySet().stream()
+                    .sorted(Map.Entry.comparingByKey())
+                    .map(e -> new ImportErreurDTO(e.getKey(), e.getValue()))
+                    .collect(Collectors.toList());
+            return ImportRapportDTO.builder()
+                    .lignesLues(lignesLues)
+                    .importees(importees)
+                    .rejetees(erreurs.size())
+                    .erreurs(erreurs)
+                    .build();
+        }
+    }
+}
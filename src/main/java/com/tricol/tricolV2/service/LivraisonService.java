@@ -0,0 +1,14 @@
+package com.tricol.tricolV2.service;
+
+import com.tricol.tricolV2.dto.LivraisonJobDTO;
+
+import java.util.Optional;
+
+public interface LivraisonService {
+    boolean isAsyncEnabled();
+
+    LivraisonJobDTO planifier(Long commandeId);
+    Optional<LivraisonJobDTO> getJob(Long commandeId);
+
+    void executer(Long jobId);
+}
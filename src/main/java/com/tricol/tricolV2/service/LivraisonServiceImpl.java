@@ -0,0 +1,198 @@
+package com.tricol.tricolV2.service;
+
+import com.tricol.tricolV2.config.LivraisonConfig;
+import com.tricol.tricolV2.dto.LivraisonJobDTO;
+import com.tricol.tricolV2.entity.CommandeFournisseur;
+import com.tricol.tricolV2.entity.LivraisonJob;
+import com.tricol.tricolV2.entity.enums.StatutCommande;
+import com.tricol.tricolV2.entity.enums.StatutLivraison;
+import com.tricol.tricolV2.exception.BusinessException;
+import com.tricol.tricolV2.exception.NotFoundException;
+import com.tricol.tricolV2.repository.CommandeFournisseurRepository;
+import com.tricol.tricolV2.repository.LivraisonJobRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Service
+public class LivraisonServiceImpl implements LivraisonService {
+
+    private static final int MAX_ERREUR = 500;
+
+    private final LivraisonJobRepository jobRepository;
+    private final CommandeFournisseurRepository commandeRepository;
+    private final CommandeFournisseurService commandeService;
+    private final TaskExecutor livraisonExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean asyncEnabled;
+    private final int maxTentatives;
+    private final Duration sweepInterval;
+    private final Duration delaiBlocage;
+
+    public LivraisonServiceImpl(LivraisonJobRepository jobRepository,
+                                CommandeFournisseurRepository commandeRepository,
+                                CommandeFournisseurService commandeService,
+                                @Qualifier(LivraisonConfig.LIVRAISON_EXECUTOR) TaskExecutor livraisonExecutor,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${app.livraison.async:false}") boolean asyncEnabled,
+                                @Value("${app.livraison.max-tentatives:3}") int maxTentatives,
+                                @Value("${app.livraison.sweep-interval:PT30S}") Duration sweepInterval,
+                                @Value("${app.livraison.delai-blocage:PT10M}") Duration delaiBlocage) {
+        this.jobRepository = jobRepository;
+        this.commandeRepository = commandeRepository;
+        this.commandeService = commandeService;
+        this.livraisonExecutor = livraisonExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.asyncEnabled = asyncEnabled;
+        this.maxTentatives = maxTentatives;
+        this.sweepInterval = sweepInterval;
+        this.delaiBlocage = delaiBlocage;
+    }
+
+    @Override
+    public boolean isAsyncEnabled() {
+        return asyncEnabled;
+    }
+
+    @Override
+    @Transactional
+    public LivraisonJobDTO planifier(Long commandeId) {
+        CommandeFournisseur commande = commandeRepository.findById(commandeId)
+                .orElseThrow(() -> new NotFoundException("Commande non trouvée avec l'id : " + commandeId));
+
+        // Idempotent: un job par commande. Un job en attente ou en cours est renvoyé tel quel. Un job en échec
+        // est réarmé, de même qu'un job terminé dont la commande est depuis sortie de LIVREE (updateStatut).
+        Optional<LivraisonJob> existant = jobRepository.findByCommandeId(commandeId);
+        if (existant.isPresent()) {
+            LivraisonJob job = existant.get();
+            if (job.getStatut() == StatutLivraison.ECHEC
+                    || (job.getStatut() == StatutLivraison.TERMINEE && commande.getStatut() != StatutCommande.LIVREE)) {
+                job.setStatut(StatutLivraison.EN_ATTENTE);
+                job.setTentatives(0);
+                job.setDerniereErreur(null);
+                job.setDateMaj(LocalDateTime.now());
+                apresCommit(job.getId());
+            }
+            return toDto(job);
+        }
+
+        if (commande.getStatut() == StatutCommande.LIVREE) {
+            throw new BusinessException("La commande " + commandeId + " est déjà livrée");
+        }
+
+        LocalDateTime maintenant = LocalDateTime.now();
+        LivraisonJob job = jobRepository.save(LivraisonJob.builder()
+                .commandeId(commandeId)
+                .statut(StatutLivraison.EN_ATTENTE)
+                .tentatives(0)
+                .dateCreation(maintenant)
+                .dateMaj(maintenant)
+                .build());
+        apresCommit(job.getId());
+        return toDto(job);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<LivraisonJobDTO> getJob(Long commandeId) {
+        return jobRepository.findByCommandeId(commandeId).map(this::toDto);
+    }
+
+    @Override
+    public void executer(Long jobId) {
+        Integer reclame = transactionTemplate.execute(status -> jobRepository.reclamer(jobId, LocalDateTime.now()));
+        if (reclame == null || reclame == 0) {
+            // Déjà pris en charge par un autre worker, ou plus en attente
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> livrer(jobId));
+        } catch (BusinessException e) {
+            // Erreur métier (stock insuffisant...): rejouer ne changera rien, le job attend une relance explicite
+            terminer(jobId, StatutLivraison.ECHEC, e.getMessage());
+        } catch (RuntimeException e) {
+            int tentatives = jobRepository.findById(jobId).map(LivraisonJob::getTentatives).orElse(maxTentatives);
+            StatutLivraison statut = tentatives >= maxTentatives ? StatutLivraison.ECHEC : StatutLivraison.EN_ATTENTE;
+            terminer(jobId, statut, e.getMessage());
+        }
+    }
+
+    // Reprise des jobs que le pool n'a pas pu accepter (file pleine, redémarrage) et des workers interrompus
+    @Scheduled(fixedDelayString = "${app.livraison.sweep-interval:PT30S}")
+    public void balayer() {
+        if (!asyncEnabled) {
+            // Mode synchrone: aucun job n'est planifié par updateStatut, rien à reprendre
+            return;
+        }
+        LocalDateTime maintenant = LocalDateTime.now();
+        LocalDateTime avant = maintenant.minus(delaiBlocage);
+        transactionTemplate.executeWithoutResult(status -> {
+            jobRepository.abandonnerBloques(avant, maxTentatives,
+                    "Worker interrompu à chacune des " + maxTentatives + " tentatives", maintenant);
+            jobRepository.libererBloques(avant, maxTentatives, maintenant);
+        });
+        jobRepository.findTop100ByStatutAndDateMajBeforeOrderByIdAsc(StatutLivraison.EN_ATTENTE, maintenant.minus(sweepInterval))
+                .forEach(job -> soumettre(job.getId()));
+    }
+
+    private void livrer(Long jobId) {
+        LivraisonJob job = jobRepository.findById(jobId)
+                .orElseThrow(() -> new NotFoundException("Job de livraison non trouvé avec l'id : " + jobId));
+
+        // Même chemin que la livraison synchrone: mouvements et statut LIVREE dans la transaction du job,
+        // sans recréer les mouvements d'une commande déjà livrée
+        commandeService.updateStatut(job.getCommandeId(), StatutCommande.LIVREE);
+        jobRepository.marquer(jobId, StatutLivraison.TERMINEE, null, LocalDateTime.now());
+    }
+
+    private void terminer(Long jobId, StatutLivraison statut, String erreur) {
+        String message = erreur != null && erreur.length() > MAX_ERREUR ? erreur.substring(0, MAX_ERREUR) : erreur;
+        transactionTemplate.execute(status -> jobRepository.marquer(jobId, statut, message, LocalDateTime.now()));
+    }
+
+    private void apresCommit(Long jobId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            soumettre(jobId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                soumettre(jobId);
+            }
+        });
+    }
+
+    private void soumettre(Long jobId) {
+        try {
+            livraisonExecutor.execute(() -> executer(jobId));
+        } catch (TaskRejectedException e) {
+            // File pleine: le job reste EN_ATTENTE en base et sera repris par le balayage
+        }
+    }
+
+    private LivraisonJobDTO toDto(LivraisonJob job) {
+        return LivraisonJobDTO.builder()
+                .id(job.getId())
+                .commandeId(job.getCommandeId())
+                .statut(job.getStatut())
+                .tentatives(job.getTentatives())
+                .derniereErreur(job.getDerniereErreur())
+                .dateCreation(job.getDateCreation())
+                .dateMaj(job.getDateMaj())
+                .build();
+    }
+}
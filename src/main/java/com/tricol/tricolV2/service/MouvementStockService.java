@@ -1,5 +1,6 @@
 package com.tricol.tricolV2.service;
 
+import com.tricol.tricolV2.dto.CursorPage;
 import com.tricol.tricolV2.dto.MouvementStockDTO;
 import com.tricol.tricolV2.entity.CommandeFournisseur;
 import com.tricol.tricolV2.entity.enums.TypeMouvement;
@@ -14,4 +15,9 @@ public interface MouvementStockService {
     Page<MouvementStockDTO> getByProduit(Long produitId, Pageable pageable);
     Page<MouvementStockDTO> getByCommande(Long commandeId, Pageable pageable);
     Page<MouvementStockDTO> getByType(TypeMouvement type, Pageable pageable);
+
+    CursorPage<MouvementStockDTO> scroll(String after, int limit);
+    CursorPage<MouvementStockDTO> scrollByProduit(Long produitId, String after, int limit);
+    CursorPage<MouvementStockDTO> scrollByCommande(Long commandeId, String after, int limit);
+    CursorPage<MouvementStockDTO> scrollByType(TypeMouvement type, String after, int limit);
 }
@@ -1,5 +1,7 @@
 package com.tricol.tricolV2.service;
 
+import com.tricol.tricolV2.config.AppProperties;
+import com.tricol.tricolV2.dto.CursorPage;
 import com.tricol.tricolV2.dto.MouvementStockDTO;
 import com.tricol.tricolV2.entity.CommandeFournisseur;
 import com.tricol.tricolV2.entity.LigneCommandeFournisseur;
@@ -9,87 +11,204 @@ import com.tricol.tricolV2.entity.enums.TypeMouvement;
 import com.tricol.tricolV2.repository.MouvementStockRepository;
 import com.tricol.tricolV2.repository.ProduitRepository;
 import com.tricol.tricolV2.exception.BusinessException;
+import com.tricol.tricolV2.util.FifoLayers.Tranche;
+import com.tricol.tricolV2.util.KeysetCursor;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
 
 @Service
 public class MouvementStockServiceImpl implements MouvementStockService {
 
+    private static final int MAX_LIMIT = 500;
+    private static final Sort ORDRE_HISTORIQUE = Sort.by(Sort.Order.desc("dateMouvement"), Sort.Order.desc("id"));
+
     private final MouvementStockRepository mouvementRepository;
     private final ProduitRepository produitRepository;
+    private final AppProperties appProperties;
+    private final FifoLotEngine fifoLotEngine;
+
+    // Métriques par ligne de commande, en complément du timer @Timed de l'allocation entière
+    private final Timer allocationLigne;
+    private final DistributionSummary candidatsParLigne;
+    private final Counter refusStock;
+    private final Counter refusConcurrence;
 
     public MouvementStockServiceImpl(MouvementStockRepository mouvementRepository,
-                                     ProduitRepository produitRepository) {
+                                     ProduitRepository produitRepository,
+                                     AppProperties appProperties,
+                                     FifoLotEngine fifoLotEngine,
+                                     MeterRegistry registry) {
         this.mouvementRepository = mouvementRepository;
         this.produitRepository = produitRepository;
+        this.appProperties = appProperties;
+        this.fifoLotEngine = fifoLotEngine;
+        this.allocationLigne = Timer.builder("tricol.stock.allocation.ligne")
+                .description("Planification de l'allocation d'une ligne de commande")
+                .register(registry);
+        this.candidatsParLigne = DistributionSummary.builder("tricol.stock.allocation.candidats")
+                .description("Produits candidats examinés par ligne de commande")
+                .register(registry);
+        this.refusStock = Counter.builder("tricol.stock.allocation.refus")
+                .tag("motif", "stock-insuffisant")
+                .register(registry);
+        this.refusConcurrence = Counter.builder("tricol.stock.allocation.refus")
+                .tag("motif", "concurrence")
+                .register(registry);
     }
 
     @Override
     @Transactional
+    @Timed(value = "tricol.stock.allocation", description = "Création des sorties de stock d'une commande livrée")
     public void createEntriesForCommande(CommandeFournisseur commande) {
         if (commande == null || commande.getLignes() == null) {
             return;
         }
 
-        for (LigneCommandeFournisseur ligne : commande.getLignes()) {
-            Produit produit = ligne.getProduit();
-            BigDecimal quantiteDemandee = defaultZero(ligne.getQuantite());
+        List<LigneCommandeFournisseur> lignes = commande.getLignes().stream()
+                .filter(l -> defaultZero(l.getQuantite()).compareTo(BigDecimal.ZERO) > 0)
+                .collect(Collectors.toList());
+        if (lignes.isEmpty()) {
+            return;
+        }
 
-            if (quantiteDemandee.compareTo(BigDecimal.ZERO) <= 0) {
-                continue;
-            }
+        // Une seule requête pour les candidats de toutes les lignes, regroupés par nom de produit
+        Set<String> noms = lignes.stream()
+                .map(l -> cleNom(l.getProduit().getNom()))
+                .collect(Collectors.toSet());
+        Map<String, List<Produit>> candidatsParNom = produitRepository.findAllocationCandidates(noms).stream()
+                .collect(Collectors.groupingBy(p -> cleNom(p.getNom()), LinkedHashMap::new, Collectors.toList()));
 
-            BigDecimal restante = quantiteDemandee;
-            var candidats = produitRepository
-                    .findByNomIgnoreCaseAndStockActuelGreaterThanOrderByStockActuelDesc(
-                            produit.getNom(), BigDecimal.ZERO);
+        // Planification en mémoire sur une copie du stock des candidats, de sorte que deux lignes
+        // sur le même produit ne puissent pas allouer deux fois le même stock. Les entités ne sont
+        // pas modifiées: le stock est décrémenté en base par une écriture conditionnelle.
+        Map<Long, BigDecimal> disponibles = new HashMap<>();
+        candidatsParNom.values().forEach(candidats -> candidats.forEach(c ->
+                disponibles.put(c.getId(), defaultZero(c.getStockActuel()))));
+
+        LocalDateTime maintenant = LocalDateTime.now();
+        List<MouvementStock> sorties = new ArrayList<>();
+        Map<Long, BigDecimal> decrements = new LinkedHashMap<>();
+
+        for (LigneCommandeFournisseur ligne : lignes) {
+            long debutLigne = System.nanoTime();
+            Produit produit = ligne.getProduit();
+            BigDecimal quantiteDemandee = defaultZero(ligne.getQuantite());
+            List<Produit> candidats = candidatsParNom.getOrDefault(cleNom(produit.getNom()), List.of());
+            candidatsParLigne.record(candidats.size());
 
             // Pré-vérification: si le stock total disponible < demandé, lever une erreur avant toute sortie
             BigDecimal totalDisponible = candidats.stream()
-                    .map(c -> defaultZero(c.getStockActuel()))
+                    .map(c -> disponibles.get(c.getId()))
                     .reduce(BigDecimal.ZERO, BigDecimal::add);
             if (totalDisponible.compareTo(quantiteDemandee) < 0) {
+                refusStock.increment();
                 throw new BusinessException("La quantité demandée n'est pas disponible en stock pour le produit: " + produit.getNom());
             }
 
+            BigDecimal restante = quantiteDemandee;
             for (Produit candidat : candidats) {
                 if (restante.compareTo(BigDecimal.ZERO) <= 0) break;
 
-                BigDecimal dispo = defaultZero(candidat.getStockActuel());
+                BigDecimal dispo = disponibles.get(candidat.getId());
                 if (dispo.compareTo(BigDecimal.ZERO) <= 0) continue;
 
                 BigDecimal aSortir = dispo.min(restante);
 
-                BigDecimal coutUnitaire = defaultZero(candidat.getPrixUnitaire());
-
-                MouvementStock mouvement = MouvementStock.builder()
-                        .dateMouvement(LocalDateTime.now())
+                sorties.add(MouvementStock.builder()
+                        .dateMouvement(maintenant)
                         .type(TypeMouvement.SORTIE)
                         .quantite(aSortir)
-                        .coutUnitaire(coutUnitaire)
+                        .coutUnitaire(defaultZero(candidat.getPrixUnitaire()))
                         .produit(candidat)
                         .commande(commande)
                         .commentaire("Sortie (allocation multi-produits) commande " + commande.getId())
-                        .build();
-                mouvementRepository.save(mouvement);
+                        .build());
 
-                BigDecimal nouveauStock = dispo.subtract(aSortir);
-                candidat.setStockActuel(nouveauStock.max(BigDecimal.ZERO));
-                produitRepository.save(candidat);
+                disponibles.put(candidat.getId(), dispo.subtract(aSortir));
+                decrements.merge(candidat.getId(), aSortir, BigDecimal::add);
 
                 restante = restante.subtract(aSortir);
             }
 
             if (restante.compareTo(BigDecimal.ZERO) > 0) {
+                refusStock.increment();
                 throw new BusinessException("La quantité demandée n'est pas disponible en stock pour le produit: " + produit.getNom());
             }
+            allocationLigne.record(System.nanoTime() - debutLigne, TimeUnit.NANOSECONDS);
+        }
+
+        // Décrément atomique et conditionnel (stock_actuel >= quantité) en un batch JDBC: une livraison
+        // concurrente qui a consommé le stock entre la lecture et l'écriture fait échouer toute la
+        // transaction au lieu d'écraser son décrément.
+        List<Long> refuses = produitRepository.decrementerStocks(decrements);
+        if (!refuses.isEmpty()) {
+            refusConcurrence.increment();
+            throw new BusinessException("Le stock a été modifié par une autre opération pour les produits: " + refuses
+                    + ". Veuillez réessayer la livraison.");
+        }
+        if (appProperties.getValuationMethod() == AppProperties.ValuationMethod.FIFO) {
+            sorties = valoriserFifo(sorties);
+        }
+        mouvementRepository.saveAll(sorties);
+    }
+
+    // Une sortie par lot consommé, au coût du lot; le stock antérieur aux lots est valorisé au CUMP du produit
+    private List<MouvementStock> valoriserFifo(List<MouvementStock> sorties) {
+        List<MouvementStock> valorisees = new ArrayList<>();
+        for (MouvementStock sortie : sorties) {
+            Produit produit = sortie.getProduit();
+            BigDecimal restante = sortie.getQuantite();
+            for (Tranche tranche : fifoLotEngine.sortie(produit.getId(), sortie.getQuantite())) {
+                valorisees.add(tranche(sortie, tranche.quantite(), tranche.coutUnitaire()));
+                restante = restante.subtract(tranche.quantite());
+            }
+            if (restante.compareTo(BigDecimal.ZERO) > 0) {
+                BigDecimal cout = produit.getCoutUnitaireMoyen() != null && produit.getCoutUnitaireMoyen().signum() > 0
+                        ? produit.getCoutUnitaireMoyen()
+                        : defaultZero(produit.getPrixUnitaire());
+                valorisees.add(tranche(sortie, restante, cout));
+            }
         }
+        sorties.stream().map(m -> m.getProduit().getId()).distinct()
+                .forEach(id -> produitRepository.majCoutUnitaireMoyen(id, fifoLotEngine.coutUnitaireMoyen(id)));
+        return valorisees;
+    }
+
+    private MouvementStock tranche(MouvementStock sortie, BigDecimal quantite, BigDecimal coutUnitaire) {
+        return MouvementStock.builder()
+                .dateMouvement(sortie.getDateMouvement())
+                .type(sortie.getType())
+                .quantite(quantite)
+                .coutUnitaire(coutUnitaire)
+                .produit(sortie.getProduit())
+                .commande(sortie.getCommande())
+                .commentaire(sortie.getCommentaire())
+                .build();
     }
 
     @Override
@@ -117,6 +236,53 @@ public class MouvementStockServiceImpl implements MouvementStockService {
         return mouvementRepository.findByType(type, pageable).map(this::toDto);
     }
 
+    @Override
+    public CursorPage<MouvementStockDTO> scroll(String after, int limit) {
+        return scroll(after, limit, (position, l) -> mouvementRepository.findAllBy(position, ORDRE_HISTORIQUE, l));
+    }
+
+    @Override
+    public CursorPage<MouvementStockDTO> scrollByProduit(Long produitId, String after, int limit) {
+        return scroll(after, limit,
+                (position, l) -> mouvementRepository.findByProduit_Id(produitId, position, ORDRE_HISTORIQUE, l));
+    }
+
+    @Override
+    public CursorPage<MouvementStockDTO> scrollByCommande(Long commandeId, String after, int limit) {
+        return scroll(after, limit,
+                (position, l) -> mouvementRepository.findByCommande_Id(commandeId, position, ORDRE_HISTORIQUE, l));
+    }
+
+    @Override
+    public CursorPage<MouvementStockDTO> scrollByType(TypeMouvement type, String after, int limit) {
+        return scroll(after, limit,
+                (position, l) -> mouvementRepository.findByType(type, position, ORDRE_HISTORIQUE, l));
+    }
+
+    private CursorPage<MouvementStockDTO> scroll(String after, int limit,
+                                                 BiFunction<ScrollPosition, Limit, Window<MouvementStock>> requete) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new BusinessException("La taille de page doit être comprise entre 1 et " + MAX_LIMIT);
+        }
+        ScrollPosition position = ScrollPosition.keyset();
+        if (after != null && !after.isBlank()) {
+            KeysetCursor curseur = KeysetCursor.decode(after);
+            Map<String, Object> cle = new LinkedHashMap<>();
+            cle.put("dateMouvement", curseur.dateMouvement());
+            cle.put("id", curseur.id());
+            position = ScrollPosition.forward(cle);
+        }
+
+        Window<MouvementStock> window = requete.apply(position, Limit.of(limit));
+        List<MouvementStockDTO> content = window.getContent().stream().map(this::toDto).collect(Collectors.toList());
+        String nextCursor = null;
+        if (window.hasNext() && !content.isEmpty()) {
+            MouvementStockDTO dernier = content.get(content.size() - 1);
+            nextCursor = new KeysetCursor(dernier.getDateMouvement(), dernier.getId()).encode();
+        }
+        return new CursorPage<>(content, content.size(), window.hasNext(), nextCursor);
+    }
+
     private MouvementStockDTO toDto(MouvementStock m) {
         return MouvementStockDTO.builder()
                 .id(m.getId())
@@ -133,6 +299,10 @@ public class MouvementStockServiceImpl implements MouvementStockService {
     private BigDecimal defaultZero(BigDecimal value) {
         return Objects.requireNonNullElse(value, BigDecimal.ZERO);
     }
+
+    private String cleNom(String nom) {
+        return nom == null ? "" : nom.toLowerCase(Locale.ROOT);
+    }
 }
 
 
@@ -0,0 +1,65 @@
+package com.tricol.tricolV2.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.tricol.tricolV2.config.CacheConfig;
+import com.tricol.tricolV2.dto.ProduitCatalogue;
+import com.tricol.tricolV2.repository.ProduitRepository;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Cache en lecture traversante des attributs catalogue des produits (nom, catégorie, prix...).
+ * Les absents d'un lot sont chargés ensemble par une seule requête IN; les ids inconnus ne sont pas
+ * mis en cache. L'invalidation se fait par {@link #evict(Long)} à chaque modification du produit.
+ */
+@Component
+public class ProduitCatalogueCache {
+
+    private final Cache<Object, Object> cache;
+    private final ProduitRepository produitRepository;
+
+    public ProduitCatalogueCache(CacheManager cacheManager, ProduitRepository produitRepository) {
+        this.cache = ((CaffeineCache) cacheManager.getCache(CacheConfig.PRODUIT_CATALOGUE)).getNativeCache();
+        this.produitRepository = produitRepository;
+    }
+
+    public Optional<ProduitCatalogue> get(Long id) {
+        return Optional.ofNullable(getAll(List.of(id)).get(id));
+    }
+
+    public Map<Long, ProduitCatalogue> getAll(Collection<Long> ids) {
+        Map<Object, Object> trouves = cache.getAll(ids, manquants -> produitRepository
+                .findCatalogueByIdIn(manquants.stream().map(Long.class::cast).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(ProduitCatalogue::id, Function.identity())));
+        Map<Long, ProduitCatalogue> resultat = new LinkedHashMap<>();
+        trouves.forEach((id, produit) -> resultat.put((Long) id, (ProduitCatalogue) produit));
+        return resultat;
+    }
+
+    public void evict(Long id) {
+        cache.invalidate(id);
+    }
+
+    public Map<String, Object> stats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> resultat = new LinkedHashMap<>();
+        resultat.put("hitCount", stats.hitCount());
+        resultat.put("missCount", stats.missCount());
+        resultat.put("hitRate", stats.hitRate());
+        resultat.put("loadCount", stats.loadCount());
+        resultat.put("evictionCount", stats.evictionCount());
+        resultat.put("estimatedSize", cache.estimatedSize());
+        return resultat;
+    }
+}
@@ -1,11 +1,13 @@
 package com.tricol.tricolV2.service;
 
 import com.tricol.tricolV2.dto.ProduitDTO;
+import com.tricol.tricolV2.dto.ProduitVersionne;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface ProduitService {
@@ -14,6 +16,8 @@ public interface ProduitService {
     ProduitDTO updateProduit(Long id, ProduitDTO produitDTO);
     void deleteProduit(Long id);
     Optional<ProduitDTO> getProduitById(Long id);
+    Optional<ProduitVersionne> getProduitVersionne(Long id);
+    Optional<String> getProduitVersion(Long id);
     List<ProduitDTO> getAllProduits();
     Page<ProduitDTO> getProduits(Pageable pageable);
     Page<ProduitDTO> searchByNom(String nom, Pageable pageable);
@@ -22,4 +26,6 @@ public interface ProduitService {
     List<ProduitDTO> searchByStockLessThan(BigDecimal stockMin);
     List<ProduitDTO> searchByStockGreaterThan(BigDecimal stockMax);
     Long cout();
+    Map<String, Long> countByCategorie();
+    Map<String, Object> catalogueCacheStats();
 }
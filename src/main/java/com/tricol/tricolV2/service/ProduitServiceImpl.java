@@ -1,7 +1,9 @@
 package com.tricol.tricolV2.service;
 
 import com.tricol.tricolV2.config.AppProperties;
+import com.tricol.tricolV2.config.CacheConfig;
 import com.tricol.tricolV2.dto.ProduitDTO;
+import com.tricol.tricolV2.dto.ProduitVersionne;
 import com.tricol.tricolV2.entity.MouvementStock;
 import com.tricol.tricolV2.entity.Produit;
 import com.tricol.tricolV2.entity.enums.TypeMouvement;
@@ -9,44 +11,86 @@ import com.tricol.tricolV2.exception.NotFoundException;
 import com.tricol.tricolV2.mapper.ProduitMapper;
 import com.tricol.tricolV2.repository.MouvementStockRepository;
 import com.tricol.tricolV2.repository.ProduitRepository;
+import com.tricol.tricolV2.util.IndexTrigrammes;
 import com.tricol.tricolV2.util.ValorisationUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
 public class ProduitServiceImpl implements ProduitService {
 
+    private static final int MAX_TENTATIVES_MAJ = 3;
+
     private final ProduitRepository produitRepository;
     private final MouvementStockRepository mouvementStockRepository;
     private final ProduitMapper produitMapper;
     private final AppProperties appProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final ProduitCatalogueCache produitCatalogueCache;
+    private final FifoLotEngine fifoLotEngine;
+    private final ObjectProvider<RechercheTexteIndex> rechercheIndex;
+    private final Timer valorisationCump;
+    private final Timer valorisationFifo;
 
     public ProduitServiceImpl(ProduitRepository produitRepository,
                               MouvementStockRepository mouvementStockRepository,
                               ProduitMapper produitMapper,
-                              AppProperties appProperties) {
+                              AppProperties appProperties,
+                              PlatformTransactionManager transactionManager,
+                              ProduitCatalogueCache produitCatalogueCache,
+                              FifoLotEngine fifoLotEngine,
+                              ObjectProvider<RechercheTexteIndex> rechercheIndex,
+                              MeterRegistry registry) {
         this.produitRepository = produitRepository;
         this.mouvementStockRepository = mouvementStockRepository;
         this.produitMapper = produitMapper;
         this.appProperties = appProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.produitCatalogueCache = produitCatalogueCache;
+        this.fifoLotEngine = fifoLotEngine;
+        this.rechercheIndex = rechercheIndex;
+        this.valorisationCump = Timer.builder("tricol.valorisation")
+                .description("Valorisation d'une entrée de stock")
+                .tag("methode", "CUMP")
+                .register(registry);
+        this.valorisationFifo = Timer.builder("tricol.valorisation")
+                .description("Valorisation d'une entrée de stock")
+                .tag("methode", "FIFO")
+                .register(registry);
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.PRODUIT_COUNT, allEntries = true)
     public ProduitDTO addProduit(ProduitDTO produitDTO) {
         Produit produit = produitMapper.toEntity(produitDTO);
         Produit saved = produitRepository.save(produit);
 
         BigDecimal qty = defaultZero(saved.getStockActuel());
         if (qty.compareTo(BigDecimal.ZERO) > 0) {
+            LocalDateTime maintenant = LocalDateTime.now();
             MouvementStock mvt = MouvementStock.builder()
-                    .dateMouvement(LocalDateTime.now())
+                    .dateMouvement(maintenant)
                     .type(TypeMouvement.ENTREE)
                     .quantite(qty)
                     .coutUnitaire(defaultZero(saved.getPrixUnitaire()))
@@ -55,7 +99,8 @@ public class ProduitServiceImpl implements ProduitService {
                     .build();
             mouvementStockRepository.save(mvt);
 
-            BigDecimal newAvg = computeAvgCost(BigDecimal.ZERO, BigDecimal.ZERO, qty, defaultZero(saved.getPrixUnitaire()));
+            BigDecimal newAvg = valoriserEntree(saved.getId(), BigDecimal.ZERO, BigDecimal.ZERO, qty,
+                    defaultZero(saved.getPrixUnitaire()), maintenant);
             saved.setCoutUnitaireMoyen(newAvg);
             produitRepository.save(saved);
         }
@@ -64,7 +109,26 @@ public class ProduitServiceImpl implements ProduitService {
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PRODUIT_COUNT, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.PRODUIT_CATALOGUE, key = "#id")
+    })
     public ProduitDTO updateProduit(Long id, ProduitDTO produitDTO) {
+        // Le produit est versionné (@Version): si une livraison décrémente le stock entre la lecture
+        // et l'écriture, la mise à jour est rejouée sur l'état frais pour que le mouvement d'entrée
+        // et le CUMP soient calculés à partir du stock réellement en base.
+        for (int tentative = 1; ; tentative++) {
+            try {
+                return transactionTemplate.execute(status -> doUpdateProduit(id, produitDTO));
+            } catch (ObjectOptimisticLockingFailureException e) {
+                if (tentative >= MAX_TENTATIVES_MAJ) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private ProduitDTO doUpdateProduit(Long id, ProduitDTO produitDTO) {
         Produit existing = produitRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("Produit non trouvé avec l'id : " + id));
 
@@ -80,8 +144,9 @@ public class ProduitServiceImpl implements ProduitService {
 
         BigDecimal delta = newStock.subtract(oldStock);
         if (delta.compareTo(BigDecimal.ZERO) > 0) {
+            LocalDateTime maintenant = LocalDateTime.now();
             MouvementStock mvt = MouvementStock.builder()
-                    .dateMouvement(LocalDateTime.now())
+                    .dateMouvement(maintenant)
                     .type(TypeMouvement.ENTREE)
                     .quantite(delta)
                     .coutUnitaire(defaultZero(updated.getPrixUnitaire()))
@@ -91,24 +156,60 @@ public class ProduitServiceImpl implements ProduitService {
             mouvementStockRepository.save(mvt);
 
             BigDecimal currentAvg = defaultZero(updated.getCoutUnitaireMoyen());
-            BigDecimal newAvg = computeAvgCost(oldStock, currentAvg, delta, defaultZero(updated.getPrixUnitaire()));
+            BigDecimal newAvg = valoriserEntree(id, oldStock, currentAvg, delta,
+                    defaultZero(updated.getPrixUnitaire()), maintenant);
             updated.setCoutUnitaireMoyen(newAvg);
             produitRepository.save(updated);
+        } else if (delta.compareTo(BigDecimal.ZERO) < 0 && isFifo()) {
+            // Baisse de stock manuelle: les lots les plus anciens sont retirés
+            fifoLotEngine.sortie(id, delta.negate());
+            updated.setCoutUnitaireMoyen(fifoLotEngine.coutUnitaireMoyen(id));
+            produitRepository.save(updated);
         }
 
         return produitMapper.toDTO(updated);
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PRODUIT_COUNT, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.PRODUIT_CATALOGUE, key = "#id")
+    })
     public void deleteProduit(Long id) {
         Produit existing = produitRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("Produit non trouvé avec l'id : " + id));
         produitRepository.delete(existing);
+        fifoLotEngine.invalider(id);
     }
 
     @Override
     public Optional<ProduitDTO> getProduitById(Long id) {
-        return produitRepository.findById(id).map(produitMapper::toDTO);
+        return getProduitVersionne(id).map(ProduitVersionne::produit);
+    }
+
+    @Override
+    public Optional<ProduitVersionne> getProduitVersionne(Long id) {
+        // Attributs catalogue depuis le cache, stock et CUMP toujours lus en base (et l'existence avec eux).
+        // La version réunit celle du stock et celle de l'entrée catalogue: une entrée pas encore évincée
+        // après une modification donne une version qui ne validera plus une fois l'entrée rechargée.
+        return produitRepository.findStockById(id)
+                .flatMap(stock -> produitCatalogueCache.get(id).map(catalogue -> new ProduitVersionne(
+                        new ProduitDTO(
+                                catalogue.id(),
+                                catalogue.nom(),
+                                catalogue.description(),
+                                catalogue.prixUnitaire(),
+                                catalogue.categorie(),
+                                stock.getStockActuel(),
+                                stock.getCoutUnitaireMoyen()),
+                        ProduitVersionne.version(stock.getVersion(), catalogue.version()))));
+    }
+
+    @Override
+    public Optional<String> getProduitVersion(Long id) {
+        return produitRepository.findVersionById(id)
+                .flatMap(version -> produitCatalogueCache.get(id)
+                        .map(catalogue -> ProduitVersionne.version(version, catalogue.version())));
     }
 
     @Override
@@ -125,13 +226,31 @@ public class ProduitServiceImpl implements ProduitService {
 
     @Override
     public Page<ProduitDTO> searchByNom(String nom, Pageable pageable) {
-        return produitRepository.findByNomContainingIgnoreCase(nom, pageable).map(produitMapper::toDTO);
+        RechercheTexteIndex index = rechercheIndex.getIfAvailable();
+        return Optional.ofNullable(index).flatMap(i -> i.produitsParNom(nom, pageable))
+                .map(resultat -> pageClassee(resultat, pageable))
+                .orElseGet(() -> produitRepository.findByNomContainingIgnoreCase(nom, pageable).map(produitMapper::toDTO));
     }
 
     @Override
     public Page<ProduitDTO> searchByCategorie(String categorie, Pageable pageable) {
-        return produitRepository.findByCategorieContainingIgnoreCase(categorie, pageable)
-                .map(produitMapper::toDTO);
+        RechercheTexteIndex index = rechercheIndex.getIfAvailable();
+        return Optional.ofNullable(index).flatMap(i -> i.produitsParCategorie(categorie, pageable))
+                .map(resultat -> pageClassee(resultat, pageable))
+                .orElseGet(() -> produitRepository.findByCategorieContainingIgnoreCase(categorie, pageable)
+                        .map(produitMapper::toDTO));
+    }
+
+    // Page dans l'ordre de l'index; un produit supprimé depuis le chargement de l'index est ignoré
+    private Page<ProduitDTO> pageClassee(IndexTrigrammes.Resultat resultat, Pageable pageable) {
+        Map<Long, Produit> parId = produitRepository.findAllById(resultat.ids()).stream()
+                .collect(Collectors.toMap(Produit::getId, p -> p));
+        List<ProduitDTO> contenu = resultat.ids().stream()
+                .map(parId::get)
+                .filter(Objects::nonNull)
+                .map(produitMapper::toDTO)
+                .toList();
+        return new PageImpl<>(contenu, pageable, resultat.total());
     }
 
     @Override
@@ -153,21 +272,47 @@ public class ProduitServiceImpl implements ProduitService {
                 .collect(Collectors.toList());
     }
 
-    private BigDecimal computeAvgCost(BigDecimal currentQty,
-                                      BigDecimal currentAvgCost,
-                                      BigDecimal incomingQty,
-                                      BigDecimal incomingUnitCost) {
-        AppProperties.ValuationMethod method = appProperties.getValuationMethod();
-        if (method == AppProperties.ValuationMethod.CUMP) {
-            return ValorisationUtil.calculateCump(currentQty, currentAvgCost, incomingQty, incomingUnitCost);
+    private BigDecimal valoriserEntree(Long produitId,
+                                       BigDecimal currentQty,
+                                       BigDecimal currentAvgCost,
+                                       BigDecimal incomingQty,
+                                       BigDecimal incomingUnitCost,
+                                       LocalDateTime date) {
+        if (!isFifo()) {
+            return valorisationCump.record(() ->
+                    ValorisationUtil.calculateCump(currentQty, currentAvgCost, incomingQty, incomingUnitCost));
         }
-        return incomingUnitCost;
+        // FIFO: l'entrée ouvre un lot, le coût moyen est celui des couches restantes
+        return valorisationFifo.record(() -> {
+            fifoLotEngine.entree(produitId, incomingQty, incomingUnitCost, date);
+            return fifoLotEngine.coutUnitaireMoyen(produitId);
+        });
+    }
+
+    private boolean isFifo() {
+        return appProperties.getValuationMethod() == AppProperties.ValuationMethod.FIFO;
     }
 
     private BigDecimal defaultZero(BigDecimal value) {
         return value == null ? BigDecimal.ZERO : value;
     }
-    public Long cout(){
-       return produitRepository.findAll().stream().count();
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.PRODUIT_COUNT, key = "'total'")
+    public Long cout() {
+        return produitRepository.count();
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.PRODUIT_COUNT, key = "'categories'")
+    public Map<String, Long> countByCategorie() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        produitRepository.countByCategorie().forEach(c -> counts.put(c.getCategorie(), c.getTotal()));
+        return Collections.unmodifiableMap(counts);
+    }
+
+    @Override
+    public Map<String, Object> catalogueCacheStats() {
+        return produitCatalogueCache.stats();
     }
 }
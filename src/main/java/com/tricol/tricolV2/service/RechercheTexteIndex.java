@@ -0,0 +1,202 @@
+package com.tricol.tricolV2.service;
+
+import com.tricol.tricolV2.entity.Fournisseur;
+import com.tricol.tricolV2.entity.Produit;
+import com.tricol.tricolV2.util.IndexTrigrammes;
+import com.tricol.tricolV2.util.IndexTrigrammes.Resultat;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Index de trigrammes en mémoire sur Produit.nom, Produit.categorie et Fournisseur.societe, qui remplace
+ * les {@code LOWER(x) LIKE '%q%'} des recherches par sous-chaîne. Chargé depuis la base au démarrage puis
+ * tenu à jour par des listeners Hibernate post-commit: une transaction annulée ne touche pas l'index.
+ * Les écritures JDBC directes (stock, CUMP) ne modifient pas les champs indexés.
+ * Tant que l'index n'est pas chargé, ou pour une requête de moins de 3 caractères, les méthodes renvoient
+ * {@link Optional#empty()} et l'appelant se rabat sur la requête SQL. Chaque instance tient son propre index:
+ * une écriture faite par une autre instance n'y apparaît qu'au prochain démarrage.
+ */
+@Component
+public class RechercheTexteIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(RechercheTexteIndex.class);
+
+    private static final int FETCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Verrouille nomsProduits = new Verrouille();
+    private final Verrouille categoriesProduits = new Verrouille();
+    private final Verrouille societesFournisseurs = new Verrouille();
+    private volatile boolean pret;
+
+    public RechercheTexteIndex(EntityManagerFactory entityManagerFactory, JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        EventListenerRegistry registre = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        Synchronisation synchronisation = new Synchronisation();
+        registre.appendListeners(EventType.POST_COMMIT_INSERT, synchronisation);
+        registre.appendListeners(EventType.POST_COMMIT_UPDATE, synchronisation);
+        registre.appendListeners(EventType.POST_COMMIT_DELETE, synchronisation);
+    }
+
+    // Verrous tenus pendant toute la lecture: un commit concurrent est appliqué après, jamais écrasé
+    @EventListener(ApplicationReadyEvent.class)
+    public void charger() {
+        long debut = System.nanoTime();
+        nomsProduits.ecrire(() -> categoriesProduits.ecrire(() ->
+                parcourir("SELECT id, nom, categorie FROM produit", rs -> {
+                    long id = rs.getLong(1);
+                    nomsProduits.index.indexer(id, rs.getString(2));
+                    categoriesProduits.index.indexer(id, rs.getString(3));
+                })));
+        societesFournisseurs.ecrire(() ->
+                parcourir("SELECT id, societe FROM fournisseur", rs ->
+                        societesFournisseurs.index.indexer(rs.getLong(1), rs.getString(2))));
+        pret = true;
+        log.info("Index de recherche chargé: {} produits, {} fournisseurs en {} ms",
+                nomsProduits.lire(nomsProduits.index::taille),
+                societesFournisseurs.lire(societesFournisseurs.index::taille),
+                (System.nanoTime() - debut) / 1_000_000);
+    }
+
+    private void parcourir(String sql, RowCallbackHandler handler) {
+        // Lecture par curseur côté serveur (useCursorFetch=true sur MySQL): pas de table entière en mémoire
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setFetchSize(FETCH_SIZE);
+            return ps;
+        }, handler);
+    }
+
+    public Optional<Resultat> produitsParNom(String nom, Pageable pageable) {
+        return rechercher(nomsProduits, nom, pageable);
+    }
+
+    public Optional<Resultat> produitsParCategorie(String categorie, Pageable pageable) {
+        return rechercher(categoriesProduits, categorie, pageable);
+    }
+
+    /**
+     * Ids de tous les fournisseurs dont la société contient {@code societe}, ou vide si la requête n'est
+     * pas servie par l'index ou si plus de {@code max} fournisseurs correspondent.
+     */
+    public Optional<List<Long>> fournisseursParSociete(String societe, int max) {
+        if (!servie(societe)) {
+            return Optional.empty();
+        }
+        Resultat resultat = societesFournisseurs.lire(() -> societesFournisseurs.index.rechercher(societe, 0, max));
+        return resultat.total() > max ? Optional.empty() : Optional.of(resultat.ids());
+    }
+
+    private Optional<Resultat> rechercher(Verrouille cible, String requete, Pageable pageable) {
+        // Un tri explicite demandé par l'appelant prime sur le classement de l'index
+        if (!servie(requete) || pageable.getSort().isSorted()) {
+            return Optional.empty();
+        }
+        return Optional.of(cible.lire(() ->
+                cible.index.rechercher(requete, pageable.getOffset(), pageable.getPageSize())));
+    }
+
+    private boolean servie(String requete) {
+        return pret && requete != null && IndexTrigrammes.normaliser(requete).length() >= IndexTrigrammes.LONGUEUR_MIN;
+    }
+
+    private final class Synchronisation
+            implements PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+        @Override
+        public void onPostInsert(PostInsertEvent event) {
+            indexer(event.getEntity());
+        }
+
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            indexer(event.getEntity());
+        }
+
+        @Override
+        public void onPostDelete(PostDeleteEvent event) {
+            long id = ((Number) event.getId()).longValue();
+            if (event.getEntity() instanceof Produit) {
+                nomsProduits.ecrire(() -> nomsProduits.index.retirer(id));
+                categoriesProduits.ecrire(() -> categoriesProduits.index.retirer(id));
+            } else if (event.getEntity() instanceof Fournisseur) {
+                societesFournisseurs.ecrire(() -> societesFournisseurs.index.retirer(id));
+            }
+        }
+
+        private void indexer(Object entite) {
+            if (entite instanceof Produit p) {
+                nomsProduits.ecrire(() -> nomsProduits.index.indexer(p.getId(), p.getNom()));
+                categoriesProduits.ecrire(() -> categoriesProduits.index.indexer(p.getId(), p.getCategorie()));
+            } else if (entite instanceof Fournisseur f) {
+                societesFournisseurs.ecrire(() -> societesFournisseurs.index.indexer(f.getId(), f.getSociete()));
+            }
+        }
+
+        @Override
+        public boolean requiresPostCommitHandling(EntityPersister persister) {
+            Class<?> type = persister.getMappedClass();
+            return type == Produit.class || type == Fournisseur.class;
+        }
+
+        @Override
+        public void onPostInsertCommitFailed(PostInsertEvent event) {
+        }
+
+        @Override
+        public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        }
+
+        @Override
+        public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        }
+    }
+
+    private static final class Verrouille {
+
+        private final IndexTrigrammes index = new IndexTrigrammes();
+        private final ReentrantReadWriteLock verrou = new ReentrantReadWriteLock();
+
+        private <T> T lire(Supplier<T> lecture) {
+            verrou.readLock().lock();
+            try {
+                return lecture.get();
+            } finally {
+                verrou.readLock().unlock();
+            }
+        }
+
+        private void ecrire(Runnable ecriture) {
+            verrou.writeLock().lock();
+            try {
+                ecriture.run();
+            } finally {
+                verrou.writeLock().unlock();
+            }
+        }
+    }
+}
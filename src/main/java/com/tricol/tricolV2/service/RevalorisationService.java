@@ -0,0 +1,11 @@
+package com.tricol.tricolV2.service;
+
+import com.tricol.tricolV2.dto.RevalorisationDTO;
+
+import java.util.Optional;
+
+public interface RevalorisationService {
+    RevalorisationDTO lancer();
+
+    Optional<RevalorisationDTO> getEtat();
+}
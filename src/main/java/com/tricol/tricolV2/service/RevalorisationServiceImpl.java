@@ -0,0 +1,256 @@
+package com.tricol.tricolV2.service;
+
+import com.tricol.tricolV2.config.AppProperties;
+import com.tricol.tricolV2.config.RevalorisationConfig;
+import com.tricol.tricolV2.dto.RevalorisationDTO;
+import com.tricol.tricolV2.entity.enums.StatutRevalorisation;
+import com.tricol.tricolV2.entity.enums.TypeMouvement;
+import com.tricol.tricolV2.exception.BusinessException;
+import com.tricol.tricolV2.repository.MouvementStockRepository;
+import com.tricol.tricolV2.repository.ProduitRepository;
+import com.tricol.tricolV2.util.FixedPoint;
+import com.tricol.tricolV2.util.ValorisationUtil;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.tricol.tricolV2.util.FixedPoint.ECHELLE_COUT_MOYEN;
+import static com.tricol.tricolV2.util.FixedPoint.ECHELLE_QUANTITE;
+
+@Service
+public class RevalorisationServiceImpl implements RevalorisationService {
+
+    private final ProduitRepository produitRepository;
+    private final MouvementStockRepository mouvementRepository;
+    private final AppProperties appProperties;
+    private final ForkJoinPool pool;
+    private final int taillePartition;
+    private final int tailleBatch;
+    private final AtomicReference<Execution> courante = new AtomicReference<>();
+
+    public RevalorisationServiceImpl(ProduitRepository produitRepository,
+                                     MouvementStockRepository mouvementRepository,
+                                     AppProperties appProperties,
+                                     @Qualifier(RevalorisationConfig.REVALORISATION_POOL) ForkJoinPool pool,
+                                     @Value("${app.stock.revalorisation.taille-partition:500}") int taillePartition,
+                                     @Value("${app.stock.revalorisation.taille-batch:500}") int tailleBatch) {
+        this.produitRepository = produitRepository;
+        this.mouvementRepository = mouvementRepository;
+        this.appProperties = appProperties;
+        this.pool = pool;
+        this.taillePartition = taillePartition;
+        this.tailleBatch = tailleBatch;
+    }
+
+    @Override
+    public RevalorisationDTO lancer() {
+        if (appProperties.getValuationMethod() == AppProperties.ValuationMethod.FIFO) {
+            throw new BusinessException("La revalorisation CUMP n'est pas disponible en méthode FIFO: "
+                    + "le coût moyen y est celui des lots restants");
+        }
+        // Borne haute du rejeu: un mouvement créé pendant le job recalcule lui-même le CUMP de son produit
+        Execution execution = new Execution(mouvementRepository.dernierIdMouvement(), pool.getParallelism());
+        Execution precedente = courante.get();
+        if ((precedente != null && precedente.statut == StatutRevalorisation.EN_COURS)
+                || !courante.compareAndSet(precedente, execution)) {
+            throw new BusinessException("Une revalorisation est déjà en cours");
+        }
+        pool.execute(new Revalorisation(execution));
+        return execution.toDTO();
+    }
+
+    @Override
+    public Optional<RevalorisationDTO> getEtat() {
+        return Optional.ofNullable(courante.get()).map(Execution::toDTO);
+    }
+
+    private final class Revalorisation extends RecursiveAction {
+        private final Execution execution;
+
+        private Revalorisation(Execution execution) {
+            this.execution = execution;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                long[] ids = produitRepository.findAllIds().stream().mapToLong(Long::longValue).toArray();
+                execution.produitsTotal = ids.length;
+                if (ids.length > 0) {
+                    // Au moins 4 partitions par worker pour équilibrer des produits aux ledgers inégaux
+                    int seuil = Math.max(1, Math.min(taillePartition, ids.length / (pool.getParallelism() * 4)));
+                    new Partition(execution, ids, 0, ids.length, seuil).invoke();
+                }
+                execution.terminer(null);
+            } catch (RuntimeException e) {
+                execution.terminer(e);
+            }
+        }
+    }
+
+    private final class Partition extends RecursiveAction {
+        private final Execution execution;
+        private final long[] ids;
+        private final int debut;
+        private final int fin;
+        private final int seuil;
+
+        private Partition(Execution execution, long[] ids, int debut, int fin, int seuil) {
+            this.execution = execution;
+            this.ids = ids;
+            this.debut = debut;
+            this.fin = fin;
+            this.seuil = seuil;
+        }
+
+        @Override
+        protected void compute() {
+            if (fin - debut > seuil) {
+                int milieu = (debut + fin) >>> 1;
+                invokeAll(new Partition(execution, ids, debut, milieu, seuil),
+                        new Partition(execution, ids, milieu, fin, seuil));
+                return;
+            }
+
+            // Un seul passage ordonné (produit_id, date_mouvement): le CUMP d'un produit est émis dès qu'on passe au suivant
+            Map<Long, BigDecimal> couts = new HashMap<>();
+            Pli pli = new Pli();
+            long lus = mouvementRepository.parcourirLedger(ids[debut], ids[fin - 1], execution.dernierMouvement,
+                    (produitId, type, quantite, coutUnitaire) -> {
+                        if (produitId != pli.produitId) {
+                            pli.emettre(couts);
+                            pli.reinitialiser(produitId);
+                        }
+                        pli.appliquer(type, quantite, coutUnitaire);
+                    });
+            pli.emettre(couts);
+
+            int majs = produitRepository.majCoutsUnitairesMoyens(couts, execution.dernierMouvement, tailleBatch);
+            execution.produitsTraites.addAndGet(fin - debut);
+            execution.mouvementsLus.addAndGet(lus);
+            execution.produitsMisAJour.addAndGet(majs);
+            execution.produitsIgnores.addAndGet(couts.size() - majs);
+        }
+    }
+
+    /**
+     * CUMP d'un produit replié sur son ledger, en virgule fixe tant que les valeurs tiennent dans un
+     * {@code long}, puis en BigDecimal. Mêmes règles que le rejeu de stock-at: AJUSTEMENT n'est pas rejoué.
+     */
+    private static final class Pli {
+        private long produitId = -1;
+        private long quantite;
+        private long cump;
+        private BigDecimal quantiteExacte;
+        private BigDecimal cumpExact;
+
+        private void reinitialiser(long produitId) {
+            this.produitId = produitId;
+            quantite = 0L;
+            cump = 0L;
+            quantiteExacte = null;
+            cumpExact = null;
+        }
+
+        private void appliquer(TypeMouvement type, BigDecimal quantiteMvt, BigDecimal coutUnitaire) {
+            if (quantiteExacte == null) {
+                try {
+                    appliquerEchelonne(type, quantiteMvt, coutUnitaire);
+                    return;
+                } catch (ArithmeticException e) {
+                    quantiteExacte = FixedPoint.versBigDecimal(quantite, ECHELLE_QUANTITE);
+                    cumpExact = FixedPoint.versBigDecimal(cump, ECHELLE_COUT_MOYEN);
+                }
+            }
+            if (type == TypeMouvement.ENTREE) {
+                cumpExact = ValorisationUtil.calculateCump(quantiteExacte, cumpExact, quantiteMvt, coutUnitaire);
+                quantiteExacte = quantiteExacte.add(quantiteMvt);
+            } else if (type == TypeMouvement.SORTIE) {
+                quantiteExacte = quantiteExacte.subtract(quantiteMvt);
+            }
+        }
+
+        // L'état n'est modifié qu'une fois tous les calculs réussis: un débordement le laisse intact
+        private void appliquerEchelonne(TypeMouvement type, BigDecimal quantiteMvt, BigDecimal coutUnitaire) {
+            long qte = FixedPoint.versLong(quantiteMvt, ECHELLE_QUANTITE);
+            if (type == TypeMouvement.ENTREE) {
+                long total = Math.addExact(quantite, qte);
+                long nouveauCump = qte <= 0 ? cump
+                        : total == 0 ? 0L
+                        : ValorisationUtil.calculateCumpScaled(quantite, cump, qte,
+                                FixedPoint.versLong(coutUnitaire, ECHELLE_COUT_MOYEN));
+                quantite = total;
+                cump = nouveauCump;
+            } else if (type == TypeMouvement.SORTIE) {
+                quantite = Math.subtractExact(quantite, qte);
+            }
+        }
+
+        private void emettre(Map<Long, BigDecimal> couts) {
+            if (produitId >= 0) {
+                couts.put(produitId, cumpExact != null ? cumpExact
+                        : FixedPoint.versBigDecimal(cump, ECHELLE_COUT_MOYEN));
+            }
+        }
+    }
+
+    private static final class Execution {
+        private final long dernierMouvement;
+        private final int parallelisme;
+        private final LocalDateTime dateDebut = LocalDateTime.now();
+        private final AtomicLong produitsTraites = new AtomicLong();
+        private final AtomicLong produitsMisAJour = new AtomicLong();
+        private final AtomicLong produitsIgnores = new AtomicLong();
+        private final AtomicLong mouvementsLus = new AtomicLong();
+        private volatile long produitsTotal;
+        private volatile StatutRevalorisation statut = StatutRevalorisation.EN_COURS;
+        private volatile LocalDateTime dateFin;
+        private volatile String erreur;
+
+        private Execution(long dernierMouvement, int parallelisme) {
+            this.dernierMouvement = dernierMouvement;
+            this.parallelisme = parallelisme;
+        }
+
+        private void terminer(RuntimeException e) {
+            if (e != null) {
+                erreur = e.getMessage() == null ? e.getClass().getName() : e.getMessage();
+            }
+            dateFin = LocalDateTime.now();
+            statut = e == null ? StatutRevalorisation.TERMINEE : StatutRevalorisation.ECHEC;
+        }
+
+        private RevalorisationDTO toDTO() {
+            // statut lu avant dateFin: écrits dans l'ordre inverse par terminer()
+            StatutRevalorisation etat = statut;
+            LocalDateTime fin = dateFin;
+            long lus = mouvementsLus.get();
+            long ms = Math.max(1, Duration.between(dateDebut, fin != null ? fin : LocalDateTime.now()).toMillis());
+            return RevalorisationDTO.builder()
+                    .statut(etat)
+                    .dateDebut(dateDebut)
+                    .dateFin(fin)
+                    .parallelisme(parallelisme)
+                    .dernierMouvement(dernierMouvement)
+                    .produitsTotal(produitsTotal)
+                    .produitsTraites(produitsTraites.get())
+                    .produitsMisAJour(produitsMisAJour.get())
+                    .produitsIgnores(produitsIgnores.get())
+                    .mouvementsLus(lus)
+                    .mouvementsParSeconde(lus * 1000 / ms)
+                    .erreur(erreur)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.tricol.tricolV2.service;
+
+import com.tricol.tricolV2.dto.StatsDTO;
+import com.tricol.tricolV2.dto.StatsFournisseurDTO;
+import com.tricol.tricolV2.dto.StatsMensuelleDTO;
+import com.tricol.tricolV2.dto.StatsStatutDTO;
+import com.tricol.tricolV2.entity.enums.StatutCommande;
+
+public interface StatsService {
+    int rafraichir();
+
+    StatsDTO<StatsFournisseurDTO> parFournisseur(StatutCommande statut);
+
+    StatsDTO<StatsStatutDTO> parStatut();
+
+    StatsDTO<StatsMensuelleDTO> mensuel(Long fournisseurId);
+}
@@ -0,0 +1,58 @@
+package com.tricol.tricolV2.service;
+
+import com.tricol.tricolV2.dto.StatsDTO;
+import com.tricol.tricolV2.dto.StatsFournisseurDTO;
+import com.tricol.tricolV2.dto.StatsMensuelleDTO;
+import com.tricol.tricolV2.dto.StatsStatutDTO;
+import com.tricol.tricolV2.entity.enums.StatutCommande;
+import com.tricol.tricolV2.repository.CommandeFournisseurRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Statistiques des commandes servies depuis la table d'agrégats stats_commande: le coût d'une lecture dépend
+ * du nombre de fournisseurs et de mois, pas de l'historique des commandes. Les chiffres ont au plus
+ * {@code app.stats.rafraichissement} de retard; {@code calculeLe} l'indique dans chaque réponse.
+ */
+@Service
+public class StatsServiceImpl implements StatsService {
+
+    private final CommandeFournisseurRepository commandeRepository;
+
+    public StatsServiceImpl(CommandeFournisseurRepository commandeRepository) {
+        this.commandeRepository = commandeRepository;
+    }
+
+    @Override
+    @Transactional
+    @Scheduled(fixedDelayString = "${app.stats.rafraichissement:PT5M}")
+    public int rafraichir() {
+        return commandeRepository.rafraichirStats(LocalDateTime.now());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public StatsDTO<StatsFournisseurDTO> parFournisseur(StatutCommande statut) {
+        return stats(commandeRepository.statsParFournisseur(statut));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public StatsDTO<StatsStatutDTO> parStatut() {
+        return stats(commandeRepository.statsParStatut());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public StatsDTO<StatsMensuelleDTO> mensuel(Long fournisseurId) {
+        return stats(commandeRepository.statsMensuelles(fournisseurId));
+    }
+
+    private <T> StatsDTO<T> stats(List<T> lignes) {
+        return new StatsDTO<>(commandeRepository.statsCalculeesLe().orElse(null), lignes);
+    }
+}
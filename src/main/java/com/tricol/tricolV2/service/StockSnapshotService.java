@@ -0,0 +1,11 @@
+package com.tricol.tricolV2.service;
+
+import com.tricol.tricolV2.dto.StockAtDTO;
+
+import java.time.LocalDateTime;
+
+public interface StockSnapshotService {
+    StockAtDTO stockAt(Long produitId, LocalDateTime date);
+
+    int checkpoint();
+}
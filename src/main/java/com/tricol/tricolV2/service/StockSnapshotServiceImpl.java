@@ -0,0 +1,164 @@
+package com.tricol.tricolV2.service;
+
+import com.tricol.tricolV2.dto.StockAtDTO;
+import com.tricol.tricolV2.entity.StockSnapshot;
+import com.tricol.tricolV2.entity.enums.TypeMouvement;
+import com.tricol.tricolV2.exception.NotFoundException;
+import com.tricol.tricolV2.repository.MouvementStockRepository;
+import com.tricol.tricolV2.repository.MouvementStockRepository.LigneLedger;
+import com.tricol.tricolV2.repository.ProduitRepository;
+import com.tricol.tricolV2.repository.StockSnapshotRepository;
+import com.tricol.tricolV2.util.ValorisationUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@Service
+public class StockSnapshotServiceImpl implements StockSnapshotService {
+
+    // Borne basse du ledger quand aucun point de contrôle n'existe
+    private static final LocalDateTime ORIGINE = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final StockSnapshotRepository snapshotRepository;
+    private final MouvementStockRepository mouvementRepository;
+    private final ProduitRepository produitRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int intervalle;
+    private final Duration delai;
+
+    public StockSnapshotServiceImpl(StockSnapshotRepository snapshotRepository,
+                                    MouvementStockRepository mouvementRepository,
+                                    ProduitRepository produitRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${app.stock.snapshot-intervalle:10000}") int intervalle,
+                                    @Value("${app.stock.snapshot-delai:PT5M}") Duration delai) {
+        this.snapshotRepository = snapshotRepository;
+        this.mouvementRepository = mouvementRepository;
+        this.produitRepository = produitRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.intervalle = intervalle;
+        this.delai = delai;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public StockAtDTO stockAt(Long produitId, LocalDateTime date) {
+        if (!produitRepository.existsById(produitId)) {
+            throw new NotFoundException("Produit non trouvé avec l'id : " + produitId);
+        }
+
+        // Point de contrôle le plus proche avant la date, puis rejeu de la queue de mouvements qui le suit
+        Optional<StockSnapshot> snapshot = snapshotRepository
+                .findFirstByProduitIdAndDateSnapshotLessThanEqualOrderByDateSnapshotDesc(produitId, date);
+        Etat etat = snapshot.map(s -> new Etat(s.getQuantite(), s.getCoutUnitaireMoyen()))
+                .orElseGet(() -> new Etat(BigDecimal.ZERO, BigDecimal.ZERO));
+        LocalDateTime depuis = snapshot.map(StockSnapshot::getDateSnapshot).orElse(ORIGINE);
+
+        long rejoues = 0;
+        try (Stream<LigneLedger> ledger = mouvementRepository.streamLedger(produitId, depuis, date)) {
+            for (Iterator<LigneLedger> it = ledger.iterator(); it.hasNext(); rejoues++) {
+                etat.appliquer(it.next());
+            }
+        }
+
+        return StockAtDTO.builder()
+                .produitId(produitId)
+                .date(date)
+                .quantite(etat.quantite)
+                .coutUnitaireMoyen(etat.coutUnitaireMoyen)
+                .dateSnapshot(snapshot.map(StockSnapshot::getDateSnapshot).orElse(null))
+                .mouvementsRejoues(rejoues)
+                .build();
+    }
+
+    @Override
+    @Scheduled(cron = "${app.stock.snapshot-cron:0 0 2 * * *}")
+    public int checkpoint() {
+        // Les mouvements des dernières minutes sont laissés à la queue: une transaction encore ouverte
+        // peut insérer un mouvement daté d'avant la borne après le passage du point de contrôle.
+        LocalDateTime jusqua = LocalDateTime.now().minus(delai);
+        int ecrits = 0;
+        for (Long produitId : produitRepository.findAllIds()) {
+            Integer n = transactionTemplate.execute(status -> checkpoint(produitId, jusqua));
+            ecrits += n == null ? 0 : n;
+        }
+        return ecrits;
+    }
+
+    private int checkpoint(Long produitId, LocalDateTime jusqua) {
+        Optional<StockSnapshot> dernier = snapshotRepository.findFirstByProduitIdOrderByDateSnapshotDesc(produitId);
+        LocalDateTime depuis = dernier.map(StockSnapshot::getDateSnapshot).orElse(ORIGINE);
+        if (!depuis.isBefore(jusqua)) {
+            return 0;
+        }
+        Etat etat = dernier.map(s -> new Etat(s.getQuantite(), s.getCoutUnitaireMoyen()))
+                .orElseGet(() -> new Etat(BigDecimal.ZERO, BigDecimal.ZERO));
+
+        // Un point de contrôle tous les `intervalle` mouvements: la queue rejouée par stockAt reste bornée,
+        // y compris dans l'historique lors du premier passage sur un ledger existant. Un point n'est posé
+        // qu'entre deux dates distinctes pour couvrir tous les mouvements de sa date.
+        List<StockSnapshot> snapshots = new ArrayList<>();
+        LocalDateTime dateCourante = null;
+        int depuisDernier = 0;
+        try (Stream<LigneLedger> ledger = mouvementRepository.streamLedger(produitId, depuis, jusqua)) {
+            for (Iterator<LigneLedger> it = ledger.iterator(); it.hasNext(); ) {
+                LigneLedger mouvement = it.next();
+                if (depuisDernier >= intervalle && !mouvement.getDateMouvement().equals(dateCourante)) {
+                    snapshots.add(etat.snapshot(produitId, dateCourante));
+                    depuisDernier = 0;
+                }
+                etat.appliquer(mouvement);
+                dateCourante = mouvement.getDateMouvement();
+                depuisDernier++;
+            }
+        }
+        if (depuisDernier > 0) {
+            snapshots.add(etat.snapshot(produitId, dateCourante));
+        }
+        snapshotRepository.saveAll(snapshots);
+        return snapshots.size();
+    }
+
+    private static final class Etat {
+        private BigDecimal quantite;
+        private BigDecimal coutUnitaireMoyen;
+
+        private Etat(BigDecimal quantite, BigDecimal coutUnitaireMoyen) {
+            this.quantite = quantite;
+            this.coutUnitaireMoyen = coutUnitaireMoyen;
+        }
+
+        // Coût moyen pondéré du ledger quelle que soit la méthode: les couches FIFO ne sont pas historisées
+        private void appliquer(LigneLedger mouvement) {
+            if (mouvement.getType() == TypeMouvement.ENTREE) {
+                coutUnitaireMoyen = ValorisationUtil.calculateCump(quantite, coutUnitaireMoyen,
+                        mouvement.getQuantite(), mouvement.getCoutUnitaire());
+                quantite = quantite.add(mouvement.getQuantite());
+            } else if (mouvement.getType() == TypeMouvement.SORTIE) {
+                quantite = quantite.subtract(mouvement.getQuantite());
+            }
+            // AJUSTEMENT: quantité non signée et jamais produite par l'application, il n'est pas rejoué
+        }
+
+        private StockSnapshot snapshot(Long produitId, LocalDateTime date) {
+            return StockSnapshot.builder()
+                    .produitId(produitId)
+                    .dateSnapshot(date)
+                    .quantite(quantite)
+                    .coutUnitaireMoyen(coutUnitaireMoyen)
+                    .build();
+        }
+    }
+}
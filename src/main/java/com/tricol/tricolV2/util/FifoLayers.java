@@ -0,0 +1,164 @@
+package com.tricol.tricolV2.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Couches FIFO d'un produit: lots rangés dans des tableaux parallèles (id / quantité / coût) avec totaux
+ * tenus à jour. Une entrée ajoute en queue, une sortie avance la tête en O(couches consommées).
+ * <p>
+ * Les tableaux sont partagés entre une instance et ses copies, qui ne les modifient jamais sous leur propre
+ * fenêtre [tete, fin): une sortie ne fait qu'avancer la tête et garder à part le reste du lot entamé, une
+ * entrée écrit au-delà de la fin. {@link #copie()} est donc en O(1). Seule la dernière instance à avoir
+ * ajouté un lot peut ajouter en place; les autres, ou une file pleine, recopient d'abord leur fenêtre dans
+ * des tableaux neufs. Les lots consommés restent référencés jusqu'à cette recopie. Non thread-safe:
+ * l'appelant synchronise par produit.
+ */
+public class FifoLayers {
+
+    private static final int CAPACITE_INITIALE = 8;
+
+    public record Tranche(Long lotId, BigDecimal quantite, BigDecimal coutUnitaire) {
+    }
+
+    private Lots lots = new Lots(CAPACITE_INITIALE);
+    private int tete;
+    private int fin;
+    // Reste du lot de tête s'il est entamé: le tableau partagé garde sa quantité d'origine
+    private BigDecimal resteTete;
+
+    private BigDecimal quantiteTotale = BigDecimal.ZERO;
+    private BigDecimal valeurTotale = BigDecimal.ZERO;
+
+    public void ajouter(Long lotId, BigDecimal quantite, BigDecimal coutUnitaire) {
+        if (quantite.signum() <= 0) {
+            return;
+        }
+        if (fin == lots.ids.length || !lots.reserver(fin)) {
+            recopier();
+            lots.reserver(fin);
+        }
+        lots.ids[fin] = lotId;
+        lots.quantites[fin] = quantite;
+        lots.couts[fin] = coutUnitaire;
+        fin++;
+        quantiteTotale = quantiteTotale.add(quantite);
+        valeurTotale = valeurTotale.add(quantite.multiply(coutUnitaire));
+    }
+
+    /**
+     * Consomme {@code quantite} depuis les lots les plus anciens. Si les couches ne couvrent pas toute
+     * la quantité, seules les tranches disponibles sont renvoyées: le reste est à valoriser par l'appelant.
+     */
+    public List<Tranche> consommer(BigDecimal quantite) {
+        List<Tranche> tranches = new ArrayList<>();
+        BigDecimal restante = quantite;
+        while (restante.signum() > 0 && tete < fin) {
+            BigDecimal dispo = quantiteTete();
+            BigDecimal prise = dispo.min(restante);
+            BigDecimal cout = lots.couts[tete];
+            tranches.add(new Tranche(lots.ids[tete], prise, cout));
+
+            quantiteTotale = quantiteTotale.subtract(prise);
+            valeurTotale = valeurTotale.subtract(prise.multiply(cout));
+            restante = restante.subtract(prise);
+
+            if (prise.compareTo(dispo) == 0) {
+                tete++;
+                resteTete = null;
+            } else {
+                resteTete = dispo.subtract(prise);
+            }
+        }
+        if (tete == fin) {
+            // Évite la dérive d'arrondi sur les totaux une fois la file vide
+            quantiteTotale = BigDecimal.ZERO;
+            valeurTotale = BigDecimal.ZERO;
+        }
+        return tranches;
+    }
+
+    // Copie indépendante en O(1): les consommations et entrées de l'une ne sont pas vues par l'autre
+    public FifoLayers copie() {
+        FifoLayers copie = new FifoLayers();
+        copie.lots = lots;
+        copie.tete = tete;
+        copie.fin = fin;
+        copie.resteTete = resteTete;
+        copie.quantiteTotale = quantiteTotale;
+        copie.valeurTotale = valeurTotale;
+        return copie;
+    }
+
+    public BigDecimal quantiteTotale() {
+        return quantiteTotale;
+    }
+
+    public BigDecimal valeurTotale() {
+        return valeurTotale;
+    }
+
+    // Coût unitaire moyen du stock restant, valorisé lot par lot
+    public BigDecimal coutUnitaireMoyen() {
+        if (quantiteTotale.signum() <= 0) {
+            return BigDecimal.ZERO.setScale(4, RoundingMode.HALF_UP);
+        }
+        return valeurTotale.divide(quantiteTotale, 4, RoundingMode.HALF_UP);
+    }
+
+    public int nombreCouches() {
+        return fin - tete;
+    }
+
+    private BigDecimal quantiteTete() {
+        return resteTete != null ? resteTete : lots.quantites[tete];
+    }
+
+    // Fenêtre recopiée en tête de tableaux neufs, que cette instance est seule à voir
+    private void recopier() {
+        int taille = fin - tete;
+        Lots neufs = new Lots(Math.max(CAPACITE_INITIALE, taille * 2));
+        System.arraycopy(lots.ids, tete, neufs.ids, 0, taille);
+        System.arraycopy(lots.quantites, tete, neufs.quantites, 0, taille);
+        System.arraycopy(lots.couts, tete, neufs.couts, 0, taille);
+        if (resteTete != null) {
+            neufs.quantites[0] = resteTete;
+            resteTete = null;
+        }
+        neufs.fin = taille;
+        lots = neufs;
+        tete = 0;
+        fin = taille;
+    }
+
+    private static final class Lots {
+
+        private final Long[] ids;
+        private final BigDecimal[] quantites;
+        private final BigDecimal[] couts;
+        // Fin la plus avancée parmi les instances qui partagent ces tableaux
+        private int fin;
+
+        private Lots(int capacite) {
+            ids = new Long[capacite];
+            quantites = new BigDecimal[capacite];
+            couts = new BigDecimal[capacite];
+        }
+
+        // Réserve la case suivante pour l'instance qui s'arrête à finInstance, si aucune autre n'a écrit au-delà
+        private synchronized boolean reserver(int finInstance) {
+            if (fin != finInstance) {
+                return false;
+            }
+            fin++;
+            return true;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "FifoLayers{couches=" + nombreCouches() + ", quantite=" + quantiteTotale + ", valeur=" + valeurTotale + "}";
+    }
+}
@@ -0,0 +1,99 @@
+package com.tricol.tricolV2.util;
+
+import java.math.BigDecimal;
+
+/**
+ * Arithmétique décimale en virgule fixe sur des {@code long} mis à l'échelle (valeur × 10^échelle),
+ * alignée sur les colonnes DECIMAL(15,2) des montants et quantités et DECIMAL(19,4) des coûts moyens.
+ * Les arrondis sont HALF_UP et exacts (mêmes résultats que {@link BigDecimal}). Tout dépassement de
+ * capacité, ou une conversion qui perdrait des décimales, lève {@link ArithmeticException}: l'appelant
+ * retombe alors sur le calcul en {@link BigDecimal}.
+ */
+public final class FixedPoint {
+
+    public static final int ECHELLE_MONTANT = 2;
+    public static final int ECHELLE_QUANTITE = 2;
+    public static final int ECHELLE_COUT_MOYEN = 4;
+
+    private static final long[] PUISSANCES = new long[19];
+
+    static {
+        PUISSANCES[0] = 1L;
+        for (int i = 1; i < PUISSANCES.length; i++) {
+            PUISSANCES[i] = PUISSANCES[i - 1] * 10;
+        }
+    }
+
+    private FixedPoint() {
+    }
+
+    /**
+     * Valeur mise à l'échelle {@code echelle}; {@code null} vaut 0. Lève {@link ArithmeticException} si la
+     * valeur ne tient pas dans un {@code long} ou porte des décimales non nulles au-delà de l'échelle.
+     */
+    public static long versLong(BigDecimal valeur, int echelle) {
+        if (valeur == null) {
+            return 0L;
+        }
+        // Valeur non mise à l'échelle, lue sans passer par BigInteger tant qu'elle tient dans un long
+        long nonEchelonne = valeur.scaleByPowerOfTen(valeur.scale()).longValueExact();
+        int ecart = echelle - valeur.scale();
+        if (ecart >= 0) {
+            return Math.multiplyExact(nonEchelonne, puissance(ecart));
+        }
+        long diviseur = puissance(-ecart);
+        if (nonEchelonne % diviseur != 0) {
+            throw new ArithmeticException("Arrondi nécessaire pour l'échelle " + echelle);
+        }
+        return nonEchelonne / diviseur;
+    }
+
+    public static BigDecimal versBigDecimal(long valeur, int echelle) {
+        return BigDecimal.valueOf(valeur, echelle);
+    }
+
+    /** Ramène {@code valeur} de l'échelle {@code de} à l'échelle {@code vers}, arrondi HALF_UP. */
+    public static long arrondir(long valeur, int de, int vers) {
+        if (vers >= de) {
+            return Math.multiplyExact(valeur, puissance(vers - de));
+        }
+        return diviserArrondi(valeur, puissance(de - vers));
+    }
+
+    /** Produit {@code a × b} exprimé à l'échelle {@code echelle}, arrondi HALF_UP. */
+    public static long multiplier(long a, int echelleA, long b, int echelleB, int echelle) {
+        return arrondir(Math.multiplyExact(a, b), echelleA + echelleB, echelle);
+    }
+
+    /** Quotient {@code numerateur / denominateur} exprimé à l'échelle {@code echelle}, arrondi HALF_UP. */
+    public static long diviser(long numerateur, int echelleNumerateur,
+                               long denominateur, int echelleDenominateur,
+                               int echelle) {
+        // Un seul arrondi: on aligne le numérateur (ou le dénominateur) avant de diviser
+        int ecart = echelle + echelleDenominateur - echelleNumerateur;
+        if (ecart >= 0) {
+            return diviserArrondi(Math.multiplyExact(numerateur, puissance(ecart)), denominateur);
+        }
+        return diviserArrondi(numerateur, Math.multiplyExact(denominateur, puissance(-ecart)));
+    }
+
+    static long diviserArrondi(long numerateur, long denominateur) {
+        if (denominateur == 0) {
+            throw new ArithmeticException("Division par zéro");
+        }
+        long quotient = numerateur / denominateur;
+        long reste = Math.absExact(numerateur % denominateur);
+        if (reste != 0 && reste >= Math.absExact(denominateur) - reste) {
+            // Demi ou plus: on s'éloigne de zéro
+            quotient += (numerateur ^ denominateur) < 0 ? -1 : 1;
+        }
+        return quotient;
+    }
+
+    private static long puissance(int exposant) {
+        if (exposant >= PUISSANCES.length) {
+            throw new ArithmeticException("Échelle hors limites: 10^" + exposant);
+        }
+        return PUISSANCES[exposant];
+    }
+}
@@ -0,0 +1,34 @@
+package com.tricol.tricolV2.util;
+
+import com.tricol.tricolV2.exception.BusinessException;
+import org.springframework.http.MediaType;
+
+public enum ImportFormat {
+    // Tableau JSON ou suite d'objets (NDJSON): lus élément par élément dans les deux cas
+    JSON("application/json"),
+    NDJSON("application/x-ndjson"),
+    CSV("text/csv");
+
+    private final String contentType;
+
+    ImportFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public static ImportFormat fromContentType(String value) {
+        if (value != null) {
+            MediaType type = MediaType.parseMediaType(value);
+            for (ImportFormat format : values()) {
+                if (MediaType.parseMediaType(format.contentType).equalsTypeAndSubtype(type)) {
+                    return format;
+                }
+            }
+        }
+        throw new BusinessException("Format d'import non supporté : " + value
+                + " (valeurs possibles : application/json, application/x-ndjson, text/csv)");
+    }
+}
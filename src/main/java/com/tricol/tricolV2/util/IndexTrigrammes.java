@@ -0,0 +1,346 @@
+package com.tricol.tricolV2.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.regex.Pattern;
+
+/**
+ * Index inversé de trigrammes pour la recherche de sous-chaîne: chaque trigramme du texte normalisé
+ * (minuscules, sans accents, espaces réduits) pointe vers la liste triée des emplacements qui le contiennent.
+ * Une recherche parcourt la plus courte des listes de ses trigrammes, l'intersecte avec la suivante puis
+ * vérifie la sous-chaîne sur le texte indexé. Les textes sont rangés bout à bout dans un seul tableau de
+ * caractères, dans l'ordre des emplacements: la vérification le lit séquentiellement au lieu de suivre
+ * un objet String par candidat. Non thread-safe: l'appelant synchronise.
+ */
+public class IndexTrigrammes {
+
+    public static final int LONGUEUR_MIN = 3;
+
+    private static final Pattern DIACRITIQUES = Pattern.compile("\\p{M}+");
+    private static final Pattern ESPACES = Pattern.compile("\\s+");
+
+    public record Resultat(List<Long> ids, long total) {
+    }
+
+    private record Candidat(long id, int rang, int longueur) {
+    }
+
+    private static final Comparator<Candidat> ORDRE = Comparator.comparingInt(Candidat::rang)
+            .thenComparingInt(Candidat::longueur)
+            .thenComparingLong(Candidat::id);
+
+    private final Map<Long, Integer> emplacements = new HashMap<>();
+    private final Map<Long, Postings> postings = new HashMap<>();
+
+    // Par emplacement: id, puis position et longueur du texte dans l'arène (longueur -1: emplacement libre)
+    private long[] ids = new long[16];
+    private int[] debuts = new int[16];
+    private int[] longueurs = new int[16];
+    private int nbEmplacements;
+    private int[] libres = new int[16];
+    private int nbLibres;
+
+    private char[] arene = new char[256];
+    private int fin;
+    private int caracteresMorts;
+
+    public static String normaliser(String texte) {
+        String sansAccents = DIACRITIQUES.matcher(Normalizer.normalize(texte, Normalizer.Form.NFD)).replaceAll("");
+        return ESPACES.matcher(sansAccents.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    public int taille() {
+        return emplacements.size();
+    }
+
+    /**
+     * Indexe ou réindexe {@code id}; un texte null le retire. Seuls les trigrammes qui diffèrent de
+     * l'ancien texte sont touchés.
+     */
+    public void indexer(long id, String texte) {
+        if (texte == null) {
+            retirer(id);
+            return;
+        }
+        String nouveau = normaliser(texte);
+        Integer existant = emplacements.get(id);
+        String ancien = existant == null ? null : texte(existant);
+        if (nouveau.equals(ancien)) {
+            return;
+        }
+        int emplacement = existant != null ? existant : allouer(id);
+        ecrireTexte(emplacement, nouveau);
+
+        long[] anciens = ancien == null ? new long[0] : trigrammes(ancien);
+        long[] nouveaux = trigrammes(nouveau);
+        for (long t : anciens) {
+            if (Arrays.binarySearch(nouveaux, t) < 0) {
+                retirerPosting(t, emplacement);
+            }
+        }
+        for (long t : nouveaux) {
+            if (Arrays.binarySearch(anciens, t) < 0) {
+                postings.computeIfAbsent(t, k -> new Postings()).ajouter(emplacement);
+            }
+        }
+    }
+
+    public void retirer(long id) {
+        Integer emplacement = emplacements.remove(id);
+        if (emplacement == null) {
+            return;
+        }
+        for (long t : trigrammes(texte(emplacement))) {
+            retirerPosting(t, emplacement);
+        }
+        caracteresMorts += longueurs[emplacement];
+        longueurs[emplacement] = -1;
+        if (nbLibres == libres.length) {
+            libres = Arrays.copyOf(libres, nbLibres * 2);
+        }
+        libres[nbLibres++] = emplacement;
+    }
+
+    /**
+     * Ids dont le texte contient {@code requete}, classés: égalité, préfixe, début de mot, puis ailleurs;
+     * à rang égal le texte le plus court puis l'id le plus petit. Seuls {@code offset + limite} candidats
+     * sont gardés en tas pendant le parcours.
+     *
+     * @throws IllegalArgumentException si la requête normalisée fait moins de {@link #LONGUEUR_MIN} caractères
+     */
+    public Resultat rechercher(String requete, long offset, int limite) {
+        String normalisee = normaliser(requete);
+        if (normalisee.length() < LONGUEUR_MIN) {
+            throw new IllegalArgumentException("Requête trop courte pour l'index de trigrammes : " + requete);
+        }
+        List<Postings> listes = new ArrayList<>();
+        for (long t : trigrammes(normalisee)) {
+            Postings p = postings.get(t);
+            if (p == null) {
+                return new Resultat(List.of(), 0);
+            }
+            listes.add(p);
+        }
+        listes.sort(Comparator.comparingInt(p -> p.taille));
+        Postings plusCourte = listes.get(0);
+        Postings suivante = listes.size() > 1 ? listes.get(1) : null;
+
+        char[] q = normalisee.toCharArray();
+        int garder = (int) Math.min(Integer.MAX_VALUE - 1, offset + limite);
+        PriorityQueue<Candidat> meilleurs = new PriorityQueue<>(Math.max(1, Math.min(garder, 1024)) + 1,
+                ORDRE.reversed());
+        long total = 0;
+        int curseur = 0;
+        for (int i = 0; i < plusCourte.taille; i++) {
+            int emplacement = plusCourte.emplacements[i];
+            if (suivante != null) {
+                curseur = suivante.chercherDepuis(curseur, emplacement);
+                if (curseur >= suivante.taille || suivante.emplacements[curseur] != emplacement) {
+                    continue;
+                }
+            }
+            int rang = rang(emplacement, q);
+            if (rang < 0) {
+                continue;
+            }
+            total++;
+            if (garder == 0) {
+                continue;
+            }
+            long id = ids[emplacement];
+            int longueur = longueurs[emplacement];
+            if (meilleurs.size() < garder) {
+                meilleurs.add(new Candidat(id, rang, longueur));
+            } else if (precede(rang, longueur, id, meilleurs.peek())) {
+                meilleurs.poll();
+                meilleurs.add(new Candidat(id, rang, longueur));
+            }
+        }
+
+        List<Candidat> tries = new ArrayList<>(meilleurs);
+        tries.sort(ORDRE);
+        List<Long> page = new ArrayList<>();
+        for (int i = (int) Math.min(offset, tries.size()); i < tries.size(); i++) {
+            page.add(tries.get(i).id());
+        }
+        return new Resultat(page, total);
+    }
+
+    // ORDRE sans allouer de candidat: la plupart ne battent pas le pire des meilleurs déjà gardés
+    private static boolean precede(int rang, int longueur, long id, Candidat pire) {
+        if (rang != pire.rang()) {
+            return rang < pire.rang();
+        }
+        if (longueur != pire.longueur()) {
+            return longueur < pire.longueur();
+        }
+        return id < pire.id();
+    }
+
+    /** 0 égalité, 1 préfixe, 2 début de mot, 3 ailleurs, -1 si le texte ne contient pas {@code q}. */
+    private int rang(int emplacement, char[] q) {
+        int debut = debuts[emplacement];
+        int longueur = longueurs[emplacement];
+        int rang = -1;
+        for (int p = 0; p + q.length <= longueur; p++) {
+            if (!contientA(debut + p, q)) {
+                continue;
+            }
+            if (p == 0) {
+                return longueur == q.length ? 0 : 1;
+            }
+            if (!Character.isLetterOrDigit(arene[debut + p - 1])) {
+                return 2;
+            }
+            rang = 3;
+        }
+        return rang;
+    }
+
+    private boolean contientA(int position, char[] q) {
+        for (int k = 0; k < q.length; k++) {
+            if (arene[position + k] != q[k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String texte(int emplacement) {
+        return new String(arene, debuts[emplacement], longueurs[emplacement]);
+    }
+
+    private int allouer(long id) {
+        int emplacement;
+        if (nbLibres > 0) {
+            emplacement = libres[--nbLibres];
+        } else {
+            if (nbEmplacements == ids.length) {
+                ids = Arrays.copyOf(ids, nbEmplacements * 2);
+                debuts = Arrays.copyOf(debuts, nbEmplacements * 2);
+                longueurs = Arrays.copyOf(longueurs, nbEmplacements * 2);
+            }
+            emplacement = nbEmplacements++;
+        }
+        ids[emplacement] = id;
+        longueurs[emplacement] = -1;
+        emplacements.put(id, emplacement);
+        return emplacement;
+    }
+
+    /** Écrit en fin d'arène; l'ancien texte devient mort et l'arène est compactée quand les morts dominent. */
+    private void ecrireTexte(int emplacement, String texte) {
+        if (longueurs[emplacement] >= 0) {
+            caracteresMorts += longueurs[emplacement];
+            longueurs[emplacement] = -1;
+        }
+        if (caracteresMorts > fin / 2 && caracteresMorts > 4096) {
+            compacter();
+        }
+        if (fin + texte.length() > arene.length) {
+            arene = Arrays.copyOf(arene, Math.max(arene.length * 2, fin + texte.length()));
+        }
+        texte.getChars(0, texte.length(), arene, fin);
+        debuts[emplacement] = fin;
+        longueurs[emplacement] = texte.length();
+        fin += texte.length();
+    }
+
+    // Recopie les textes vivants dans l'ordre des emplacements, l'ordre de parcours des recherches
+    private void compacter() {
+        char[] compacte = new char[Math.max(256, (fin - caracteresMorts) * 2)];
+        int position = 0;
+        for (int e = 0; e < nbEmplacements; e++) {
+            if (longueurs[e] < 0) {
+                continue;
+            }
+            System.arraycopy(arene, debuts[e], compacte, position, longueurs[e]);
+            debuts[e] = position;
+            position += longueurs[e];
+        }
+        arene = compacte;
+        fin = position;
+        caracteresMorts = 0;
+    }
+
+    /** Trigrammes distincts et triés du texte normalisé, chacun codé sur 48 bits (3 caractères UTF-16). */
+    private static long[] trigrammes(String texte) {
+        if (texte.length() < LONGUEUR_MIN) {
+            return new long[0];
+        }
+        long[] codes = new long[texte.length() - LONGUEUR_MIN + 1];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = ((long) texte.charAt(i) << 32) | ((long) texte.charAt(i + 1) << 16) | texte.charAt(i + 2);
+        }
+        Arrays.sort(codes);
+        int distincts = 0;
+        for (int i = 0; i < codes.length; i++) {
+            if (i == 0 || codes[i] != codes[i - 1]) {
+                codes[distincts++] = codes[i];
+            }
+        }
+        return Arrays.copyOf(codes, distincts);
+    }
+
+    private void retirerPosting(long trigramme, int emplacement) {
+        Postings p = postings.get(trigramme);
+        if (p != null && p.retirer(emplacement) && p.taille == 0) {
+            postings.remove(trigramme);
+        }
+    }
+
+    /** Liste triée d'emplacements: ajout en O(1) amorti en fin de liste, O(n) pour un emplacement réutilisé. */
+    private static final class Postings {
+
+        private int[] emplacements = new int[4];
+        private int taille;
+
+        void ajouter(int emplacement) {
+            if (taille > 0 && emplacements[taille - 1] >= emplacement) {
+                int i = Arrays.binarySearch(emplacements, 0, taille, emplacement);
+                if (i >= 0) {
+                    return;
+                }
+                inserer(-i - 1, emplacement);
+                return;
+            }
+            inserer(taille, emplacement);
+        }
+
+        boolean retirer(int emplacement) {
+            int i = Arrays.binarySearch(emplacements, 0, taille, emplacement);
+            if (i < 0) {
+                return false;
+            }
+            System.arraycopy(emplacements, i + 1, emplacements, i, taille - i - 1);
+            taille--;
+            return true;
+        }
+
+        /** Premier indice {@code >= depuis} dont l'emplacement est {@code >= emplacement} (recherche galopante). */
+        int chercherDepuis(int depuis, int emplacement) {
+            int borne = 1;
+            while (depuis + borne < taille && emplacements[depuis + borne] < emplacement) {
+                borne <<= 1;
+            }
+            int i = Arrays.binarySearch(emplacements, depuis, Math.min(depuis + borne + 1, taille), emplacement);
+            return i >= 0 ? i : -i - 1;
+        }
+
+        private void inserer(int i, int emplacement) {
+            if (taille == emplacements.length) {
+                emplacements = Arrays.copyOf(emplacements, taille * 2);
+            }
+            System.arraycopy(emplacements, i, emplacements, i + 1, taille - i);
+            emplacements[i] = emplacement;
+            taille++;
+        }
+    }
+}
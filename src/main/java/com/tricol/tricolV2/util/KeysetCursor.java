@@ -0,0 +1,35 @@
+package com.tricol.tricolV2.util;
+
+import com.tricol.tricolV2.exception.BusinessException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position dans l'historique des mouvements, triés par (dateMouvement desc, id desc).
+ * Sérialisée en base64 url-safe pour que le client la manipule comme un jeton opaque.
+ */
+public record KeysetCursor(LocalDateTime dateMouvement, Long id) {
+
+    private static final char SEPARATEUR = '|';
+
+    public String encode() {
+        String brut = dateMouvement.toString() + SEPARATEUR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(brut.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String cursor) {
+        try {
+            String brut = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = brut.lastIndexOf(SEPARATEUR);
+            if (sep < 0) {
+                throw new IllegalArgumentException(brut);
+            }
+            return new KeysetCursor(LocalDateTime.parse(brut.substring(0, sep)), Long.valueOf(brut.substring(sep + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BusinessException("Curseur de pagination invalide : " + cursor);
+        }
+    }
+}
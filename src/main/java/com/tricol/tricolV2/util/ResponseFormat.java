@@ -0,0 +1,57 @@
+package com.tricol.tricolV2.util;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.List;
+
+public enum ResponseFormat {
+    // Même ordre que les convertisseurs: JSON reste le format servi sans Accept ou pour */*
+    JSON(MediaType.APPLICATION_JSON, null),
+    SMILE(new MediaType("application", "x-jackson-smile"), "smile"),
+    CBOR(MediaType.APPLICATION_CBOR, "cbor");
+
+    private final MediaType mediaType;
+    private final String suffixe;
+
+    ResponseFormat(MediaType mediaType, String suffixe) {
+        this.mediaType = mediaType;
+        this.suffixe = suffixe;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /** ETag fort d'une version dans ce format: deux représentations d'une même ressource n'ont pas le même. */
+    public String etag(long version) {
+        return etag(String.valueOf(version));
+    }
+
+    public String etag(String version) {
+        return suffixe == null ? version : version + "-" + suffixe;
+    }
+
+    /** Format que la négociation de contenu retiendra pour cet en-tête Accept. */
+    public static ResponseFormat fromAccept(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return JSON;
+        }
+        List<MediaType> types;
+        try {
+            types = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return JSON;
+        }
+        MimeTypeUtils.sortBySpecificity(types);
+        for (MediaType type : types) {
+            for (ResponseFormat format : values()) {
+                if (type.isCompatibleWith(format.mediaType)) {
+                    return format;
+                }
+            }
+        }
+        return JSON;
+    }
+}
@@ -0,0 +1,135 @@
+package com.tricol.tricolV2.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Trie de préfixes immuable par nœud: chaque nœud porte ses lettres triées, ses enfants et les ids dont un
+ * terme s'y termine, en tableaux plutôt qu'en maps. Une écriture recopie le seul chemin du terme et publie
+ * une nouvelle racine: les lectures ne prennent aucun verrou et voient toujours un trie cohérent.
+ * Les écritures doivent être sérialisées par l'appelant.
+ */
+public class TriePrefixes {
+
+    private static final Noeud VIDE = new Noeud(new char[0], new Noeud[0], new long[0]);
+
+    private volatile Noeud racine = VIDE;
+
+    public void ajouter(String terme, long id) {
+        racine = ajouter(racine, terme, 0, id);
+    }
+
+    public void retirer(String terme, long id) {
+        Noeud nouvelle = retirer(racine, terme, 0, id);
+        racine = nouvelle == null ? VIDE : nouvelle;
+    }
+
+    /**
+     * Au plus {@code limite} ids distincts dont un terme commence par {@code prefixe}: d'abord ceux dont le
+     * terme est exactement le préfixe, puis dans l'ordre alphabétique des termes.
+     */
+    public List<Long> rechercher(String prefixe, int limite) {
+        Noeud noeud = racine;
+        for (int i = 0; i < prefixe.length() && noeud != null; i++) {
+            int k = Arrays.binarySearch(noeud.lettres, prefixe.charAt(i));
+            noeud = k >= 0 ? noeud.enfants[k] : null;
+        }
+        if (noeud == null) {
+            return List.of();
+        }
+        Set<Long> ids = new LinkedHashSet<>();
+        collecter(noeud, ids, limite);
+        return new ArrayList<>(ids);
+    }
+
+    private static void collecter(Noeud noeud, Set<Long> ids, int limite) {
+        for (int i = 0; i < noeud.ids.length && ids.size() < limite; i++) {
+            ids.add(noeud.ids[i]);
+        }
+        for (int i = 0; i < noeud.enfants.length && ids.size() < limite; i++) {
+            collecter(noeud.enfants[i], ids, limite);
+        }
+    }
+
+    private static Noeud ajouter(Noeud noeud, String terme, int i, long id) {
+        if (i == terme.length()) {
+            int k = Arrays.binarySearch(noeud.ids, id);
+            if (k >= 0) {
+                return noeud;
+            }
+            return new Noeud(noeud.lettres, noeud.enfants, inserer(noeud.ids, -k - 1, id));
+        }
+        char lettre = terme.charAt(i);
+        int k = Arrays.binarySearch(noeud.lettres, lettre);
+        if (k >= 0) {
+            Noeud enfant = ajouter(noeud.enfants[k], terme, i + 1, id);
+            if (enfant == noeud.enfants[k]) {
+                return noeud;
+            }
+            Noeud[] enfants = noeud.enfants.clone();
+            enfants[k] = enfant;
+            return new Noeud(noeud.lettres, enfants, noeud.ids);
+        }
+        int position = -k - 1;
+        char[] lettres = new char[noeud.lettres.length + 1];
+        System.arraycopy(noeud.lettres, 0, lettres, 0, position);
+        lettres[position] = lettre;
+        System.arraycopy(noeud.lettres, position, lettres, position + 1, noeud.lettres.length - position);
+        Noeud[] enfants = new Noeud[noeud.enfants.length + 1];
+        System.arraycopy(noeud.enfants, 0, enfants, 0, position);
+        enfants[position] = ajouter(VIDE, terme, i + 1, id);
+        System.arraycopy(noeud.enfants, position, enfants, position + 1, noeud.enfants.length - position);
+        return new Noeud(lettres, enfants, noeud.ids);
+    }
+
+    /** Le nœud sans {@code id} pour ce terme, ou null s'il devient vide (élagué par le parent). */
+    private static Noeud retirer(Noeud noeud, String terme, int i, long id) {
+        if (i == terme.length()) {
+            int k = Arrays.binarySearch(noeud.ids, id);
+            if (k < 0) {
+                return noeud;
+            }
+            long[] ids = new long[noeud.ids.length - 1];
+            System.arraycopy(noeud.ids, 0, ids, 0, k);
+            System.arraycopy(noeud.ids, k + 1, ids, k, ids.length - k);
+            return ids.length == 0 && noeud.enfants.length == 0 ? null : new Noeud(noeud.lettres, noeud.enfants, ids);
+        }
+        int k = Arrays.binarySearch(noeud.lettres, terme.charAt(i));
+        if (k < 0) {
+            return noeud;
+        }
+        Noeud enfant = retirer(noeud.enfants[k], terme, i + 1, id);
+        if (enfant == noeud.enfants[k]) {
+            return noeud;
+        }
+        if (enfant != null) {
+            Noeud[] enfants = noeud.enfants.clone();
+            enfants[k] = enfant;
+            return new Noeud(noeud.lettres, enfants, noeud.ids);
+        }
+        if (noeud.enfants.length == 1 && noeud.ids.length == 0) {
+            return null;
+        }
+        char[] lettres = new char[noeud.lettres.length - 1];
+        System.arraycopy(noeud.lettres, 0, lettres, 0, k);
+        System.arraycopy(noeud.lettres, k + 1, lettres, k, lettres.length - k);
+        Noeud[] enfants = new Noeud[noeud.enfants.length - 1];
+        System.arraycopy(noeud.enfants, 0, enfants, 0, k);
+        System.arraycopy(noeud.enfants, k + 1, enfants, k, enfants.length - k);
+        return new Noeud(lettres, enfants, noeud.ids);
+    }
+
+    private static long[] inserer(long[] ids, int position, long id) {
+        long[] resultat = new long[ids.length + 1];
+        System.arraycopy(ids, 0, resultat, 0, position);
+        resultat[position] = id;
+        System.arraycopy(ids, position, resultat, position + 1, ids.length - position);
+        return resultat;
+    }
+
+    private record Noeud(char[] lettres, Noeud[] enfants, long[] ids) {
+    }
+}
@@ -3,26 +3,85 @@ package com.tricol.tricolV2.util;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 
+import static com.tricol.tricolV2.util.FixedPoint.ECHELLE_COUT_MOYEN;
+import static com.tricol.tricolV2.util.FixedPoint.ECHELLE_MONTANT;
+import static com.tricol.tricolV2.util.FixedPoint.ECHELLE_QUANTITE;
+
 public class ValorisationUtil {
 
+    private static final BigDecimal ZERO_MONTANT = BigDecimal.ZERO.setScale(2, RoundingMode.HALF_UP);
+
     public static BigDecimal calculateCump(BigDecimal currentQty,
                                            BigDecimal currentAvgCost,
                                            BigDecimal incomingQty,
                                            BigDecimal incomingUnitCost) {
+        if (incomingQty == null || incomingQty.signum() <= 0) {
+            return currentAvgCost == null ? BigDecimal.ZERO : currentAvgCost;
+        }
+        // Calcul en virgule fixe; BigDecimal seulement si une valeur déborde ou a trop de décimales
+        try {
+            long qte = FixedPoint.versLong(currentQty, ECHELLE_QUANTITE);
+            long qteEntree = FixedPoint.versLong(incomingQty, ECHELLE_QUANTITE);
+            if (Math.addExact(qte, qteEntree) == 0) {
+                return ZERO_MONTANT;
+            }
+            long cump = calculateCumpScaled(qte,
+                    FixedPoint.versLong(currentAvgCost, ECHELLE_COUT_MOYEN),
+                    qteEntree,
+                    FixedPoint.versLong(incomingUnitCost, ECHELLE_COUT_MOYEN));
+            return FixedPoint.versBigDecimal(cump, ECHELLE_COUT_MOYEN);
+        } catch (ArithmeticException e) {
+            return calculateCumpExact(currentQty, currentAvgCost, incomingQty, incomingUnitCost);
+        }
+    }
+
+    /**
+     * CUMP sur valeurs mises à l'échelle: quantités à {@link FixedPoint#ECHELLE_QUANTITE}, coûts et
+     * résultat à {@link FixedPoint#ECHELLE_COUT_MOYEN}. Lève {@link ArithmeticException} en cas de
+     * dépassement ou si la quantité totale est nulle.
+     */
+    public static long calculateCumpScaled(long currentQty,
+                                           long currentAvgCost,
+                                           long incomingQty,
+                                           long incomingUnitCost) {
+        if (incomingQty <= 0) {
+            return currentAvgCost;
+        }
+        long totalCost = Math.addExact(Math.multiplyExact(currentAvgCost, currentQty),
+                Math.multiplyExact(incomingUnitCost, incomingQty));
+        long totalQty = Math.addExact(currentQty, incomingQty);
+        return FixedPoint.diviser(totalCost, ECHELLE_COUT_MOYEN + ECHELLE_QUANTITE,
+                totalQty, ECHELLE_QUANTITE, ECHELLE_COUT_MOYEN);
+    }
+
+    /** Montant d'une ligne {@code prixUnitaire × quantite} à 2 décimales, arrondi HALF_UP. */
+    public static BigDecimal montantLigne(BigDecimal prixUnitaire, BigDecimal quantite) {
+        BigDecimal pu = prixUnitaire == null ? BigDecimal.ZERO : prixUnitaire;
+        BigDecimal qte = quantite == null ? BigDecimal.ZERO : quantite;
+        try {
+            return FixedPoint.versBigDecimal(FixedPoint.multiplier(
+                    FixedPoint.versLong(pu, ECHELLE_MONTANT), ECHELLE_MONTANT,
+                    FixedPoint.versLong(qte, ECHELLE_QUANTITE), ECHELLE_QUANTITE,
+                    ECHELLE_MONTANT), ECHELLE_MONTANT);
+        } catch (ArithmeticException e) {
+            return pu.multiply(qte).setScale(2, RoundingMode.HALF_UP);
+        }
+    }
+
+    private static BigDecimal calculateCumpExact(BigDecimal currentQty,
+                                                 BigDecimal currentAvgCost,
+                                                 BigDecimal incomingQty,
+                                                 BigDecimal incomingUnitCost) {
         BigDecimal safeCurrentQty = currentQty == null ? BigDecimal.ZERO : currentQty;
         BigDecimal safeCurrentAvg = currentAvgCost == null ? BigDecimal.ZERO : currentAvgCost;
         BigDecimal safeIncomingQty = incomingQty == null ? BigDecimal.ZERO : incomingQty;
         BigDecimal safeIncomingCost = incomingUnitCost == null ? BigDecimal.ZERO : incomingUnitCost;
 
-        if (safeIncomingQty.compareTo(BigDecimal.ZERO) <= 0) {
-            return safeCurrentAvg;
-        }
-
         BigDecimal totalCost = safeCurrentAvg.multiply(safeCurrentQty)
                 .add(safeIncomingCost.multiply(safeIncomingQty));
         BigDecimal totalQty = safeCurrentQty.add(safeIncomingQty);
         if (totalQty.compareTo(BigDecimal.ZERO) == 0) {
-            return BigDecimal.ZERO.setScale(2, RoundingMode.HALF_UP);
+            return ZERO_MONTANT;
         }
         return totalCost.divide(totalQty, 4, RoundingMode.HALF_UP).setScale(4, RoundingMode.HALF_UP);
     }
@@ -36,9 +36,19 @@ class FournisseurControllerIT {
 
         FournisseurDTO created = objectMapper.readValue(response, FournisseurDTO.class);
 
-        mockMvc.perform(get("/api/v2/fournisseurs/" + created.getId()))
+        String etag = mockMvc.perform(get("/api/v2/fournisseurs/" + created.getId()))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.societe", is("Societe A")));
+                .andExpect(header().string("Cache-Control", "no-cache"))
+                .andExpect(jsonPath("$.societe", is("Societe A")))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/v2/fournisseurs/" + created.getId()).header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(get("/api/v2/fournisseurs/paged"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", containsString("stale-while-revalidate=")))
+                .andExpect(header().exists("ETag"));
 
         dto.setSociete("Societe B");
         String updateBody = objectMapper.writeValueAsString(dto);
@@ -48,6 +58,10 @@ class FournisseurControllerIT {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.societe", is("Societe B")));
 
+        mockMvc.perform(get("/api/v2/fournisseurs/" + created.getId()).header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(etag)));
+
         mockMvc.perform(get("/api/v2/fournisseurs/searchBySociete/Societe"))
                 .andExpect(status().isOk());
 
@@ -2,8 +2,12 @@ package com.tricol.tricolV2.integration.controller;
 
 import com.tricol.tricolV2.controller.CommandeFournisseure;
 import com.tricol.tricolV2.dto.CommandeFournisseurDTO;
+import com.tricol.tricolV2.dto.LivraisonJobDTO;
 import com.tricol.tricolV2.entity.enums.StatutCommande;
+import com.tricol.tricolV2.entity.enums.StatutLivraison;
 import com.tricol.tricolV2.service.CommandeFournisseurServiceImpl;
+import com.tricol.tricolV2.service.ExportService;
+import com.tricol.tricolV2.service.LivraisonService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -16,6 +20,8 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -29,6 +35,12 @@ public class CommandeFournisseurControllerTest {
     @MockBean
     private CommandeFournisseurServiceImpl commandeFournisseurService;
 
+    @MockBean
+    private ExportService exportService;
+
+    @MockBean
+    private LivraisonService livraisonService;
+
     @Test
     void getAll_commandes_returns_commande_list() throws Exception {
         // Arrange
@@ -67,11 +79,13 @@ public class CommandeFournisseurControllerTest {
         commande.setStatut(StatutCommande.EN_ATTENTE);
         commande.setMontantTotal(new BigDecimal("1200.00"));
 
+        when(commandeFournisseurService.getVersion(1L)).thenReturn(Optional.of(0L));
         when(commandeFournisseurService.getById(1L)).thenReturn(Optional.of(commande));
 
         // Act & Assert
         mockMvc.perform(get("/api/v2/commandes-fournisseur/1"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"0\""))
                 .andExpect(jsonPath("$.id").value(1))
                 .andExpect(jsonPath("$.fournisseurId").value(1))
                 .andExpect(jsonPath("$.statut").value("EN_ATTENTE"))
@@ -98,4 +112,34 @@ public class CommandeFournisseurControllerTest {
                 .andExpect(jsonPath("$.statut").value("LIVREE"))
                 .andExpect(jsonPath("$.montantTotal").value(800.00));
     }
+
+    @Test
+    void updateStatut_livree_en_mode_async_returns_accepted_job() throws Exception {
+        // Arrange
+        LivraisonJobDTO job = LivraisonJobDTO.builder()
+                .id(7L)
+                .commandeId(1L)
+                .statut(StatutLivraison.EN_ATTENTE)
+                .build();
+
+        when(livraisonService.isAsyncEnabled()).thenReturn(true);
+        when(livraisonService.planifier(1L)).thenReturn(job);
+
+        // Act & Assert
+        mockMvc.perform(put("/api/v2/commandes-fournisseur/1/statut")
+                        .param("value", "LIVREE"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/v2/commandes-fournisseur/1/livraison"))
+                .andExpect(jsonPath("$.id").value(7))
+                .andExpect(jsonPath("$.statut").value("EN_ATTENTE"));
+        verify(commandeFournisseurService, never()).updateStatut(1L, StatutCommande.LIVREE);
+    }
+
+    @Test
+    void getLivraison_sans_job_returns_not_found() throws Exception {
+        when(livraisonService.getJob(1L)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/v2/commandes-fournisseur/1/livraison"))
+                .andExpect(status().isNotFound());
+    }
 }
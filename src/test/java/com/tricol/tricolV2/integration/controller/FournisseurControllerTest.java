@@ -3,6 +3,9 @@ package com.tricol.tricolV2.integration.controller;
 
 import com.tricol.tricolV2.controller.FournisseurController;
 import com.tricol.tricolV2.dto.FournisseurDTO;
+import com.tricol.tricolV2.dto.FournisseurSuggestion;
+import com.tricol.tricolV2.service.ExportService;
+import com.tricol.tricolV2.service.ImportService;
 import com.tricol.tricolV2.service.FournisseurService;
 import com.tricol.tricolV2.service.FournisseurServiceImpl;
 import org.junit.jupiter.api.Test;
@@ -28,6 +31,12 @@ public class FournisseurControllerTest {
     @MockBean
     private FournisseurServiceImpl fournisseurService;
 
+    @MockBean
+    private ExportService exportService;
+
+    @MockBean
+    private ImportService importService;
+
 
     @Test
     void  getAll_Fournisseur_Returns_Fournisseur_List() throws Exception {
@@ -37,4 +46,14 @@ public class FournisseurControllerTest {
                 .andExpect(jsonPath("$.length()").value(3));
 
     }
+
+    @Test
+    void suggest_returns_the_projection_with_default_limit() throws Exception {
+        when(fournisseurService.suggest("atl", 10))
+                .thenReturn(List.of(new FournisseurSuggestion(7L, "Atlas Fer", "ICE700000001")));
+        mockMvc.perform(get("/api/v2/fournisseurs/suggest").param("q", "atl")).andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(7))
+                .andExpect(jsonPath("$[0].societe").value("Atlas Fer"))
+                .andExpect(jsonPath("$[0].ice").value("ICE700000001"));
+    }
 }
@@ -1,6 +1,12 @@
 package com.tricol.tricolV2.integration.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.tricol.tricolV2.config.MessageConvertersConfig;
 import com.tricol.tricolV2.controller.MouvementStockController;
+import com.tricol.tricolV2.dto.CursorPage;
 import com.tricol.tricolV2.dto.MouvementStockDTO;
 import com.tricol.tricolV2.entity.enums.TypeMouvement;
 import com.tricol.tricolV2.service.MouvementStockServiceImpl;
@@ -8,6 +14,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -19,6 +26,7 @@ import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
@@ -26,6 +34,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(MouvementStockController.class)
+@Import(MessageConvertersConfig.class)
 public class MouvementStockControllerTest {
 
     @Autowired
@@ -122,4 +131,63 @@ public class MouvementStockControllerTest {
                 .andExpect(jsonPath("$.content[0].type").value("SORTIE"))
                 .andExpect(jsonPath("$.content[0].quantite").value(30.00));
     }
+
+    @Test
+    void scroll_mouvements_returns_slice_and_next_cursor() throws Exception {
+        // Arrange
+        MouvementStockDTO mouvement = MouvementStockDTO.builder()
+                .id(42L)
+                .type(TypeMouvement.ENTREE)
+                .quantite(new BigDecimal("10.00"))
+                .coutUnitaire(new BigDecimal("5.00"))
+                .produitId(1L)
+                .dateMouvement(LocalDateTime.of(2024, 3, 1, 8, 0))
+                .build();
+        CursorPage<MouvementStockDTO> page = new CursorPage<>(List.of(mouvement), 1, true, "curseur-suivant");
+
+        when(mouvementStockService.scroll(eq("curseur"), eq(1))).thenReturn(page);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v2/mouvements/cursor")
+                        .param("after", "curseur")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].id").value(42))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.nextCursor").value("curseur-suivant"));
+    }
+
+    @Test
+    void scroll_mouvements_negocie_cbor_et_smile() throws Exception {
+        // Arrange
+        MouvementStockDTO mouvement = MouvementStockDTO.builder()
+                .id(42L)
+                .type(TypeMouvement.SORTIE)
+                .quantite(new BigDecimal("12.500"))
+                .coutUnitaire(new BigDecimal("3.1250"))
+                .produitId(1L)
+                .dateMouvement(LocalDateTime.of(2024, 3, 1, 8, 0))
+                .build();
+        when(mouvementStockService.scroll(any(), eq(1)))
+                .thenReturn(new CursorPage<>(List.of(mouvement), 1, true, "curseur-suivant"));
+
+        // Act & Assert
+        for (ObjectMapper mapper : List.of(new CBORMapper(), new SmileMapper())) {
+            String type = mapper instanceof CBORMapper ? "application/cbor" : "application/x-jackson-smile";
+            byte[] corps = mockMvc.perform(get("/api/v2/mouvements/cursor")
+                            .param("limit", "1")
+                            .accept(type))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(type))
+                    .andReturn().getResponse().getContentAsByteArray();
+
+            JsonNode page = mapper.readTree(corps);
+            assertEquals(42L, page.at("/content/0/id").asLong());
+            assertEquals("SORTIE", page.at("/content/0/type").asText());
+            assertEquals(0, new BigDecimal("12.500").compareTo(page.at("/content/0/quantite").decimalValue()));
+            assertEquals("2024-03-01T08:00:00", page.at("/content/0/dateMouvement").asText());
+            assertEquals("curseur-suivant", page.at("/nextCursor").asText());
+        }
+    }
 }
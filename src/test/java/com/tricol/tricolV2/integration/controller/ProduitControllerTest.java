@@ -1,20 +1,40 @@
 package com.tricol.tricolV2.integration.controller;
 
 import com.tricol.tricolV2.controller.ProduitController;
+import com.tricol.tricolV2.dto.ImportErreurDTO;
+import com.tricol.tricolV2.dto.ImportRapportDTO;
 import com.tricol.tricolV2.dto.ProduitDTO;
+import com.tricol.tricolV2.dto.ProduitVersionne;
+import com.tricol.tricolV2.dto.StockAtDTO;
+import com.tricol.tricolV2.service.ExportService;
+import com.tricol.tricolV2.service.ImportService;
+import com.tricol.tricolV2.service.StockSnapshotService;
 import com.tricol.tricolV2.service.ProduitServiceImpl;
+import com.tricol.tricolV2.util.ImportFormat;
+import jakarta.servlet.ServletException;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.CannotCreateTransactionException;
 
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTransientConnectionException;
 import java.util.Arrays;
 import java.util.List;
+import java.time.LocalDateTime;
 import java.util.Optional;
 
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -28,6 +48,15 @@ public class ProduitControllerTest {
     @MockBean
     private ProduitServiceImpl produitService;
 
+    @MockBean
+    private ExportService exportService;
+
+    @MockBean
+    private ImportService importService;
+
+    @MockBean
+    private StockSnapshotService stockSnapshotService;
+
     @Test
     void getAll_produits_returns_produit_list() throws Exception {
         // Arrange
@@ -52,6 +81,26 @@ public class ProduitControllerTest {
                 .andExpect(jsonPath("$[1].nom").value("Produit 2"));
     }
 
+    @Test
+    void pool_de_connexions_sature_returns_503_avec_retry_after() throws Exception {
+        when(produitService.getAllProduits()).thenThrow(new CannotCreateTransactionException("Could not open JPA EntityManager",
+                new SQLTransientConnectionException("HikariPool-1 - Connection is not available, request timed out after 2000ms.")));
+
+        mockMvc.perform(get("/api/v2/produits"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.error").value("Service momentanément surchargé, veuillez réessayer"));
+    }
+
+    @Test
+    void base_injoignable_n_est_pas_presentee_comme_une_surcharge() {
+        when(produitService.getAllProduits()).thenThrow(new CannotGetJdbcConnectionException("Failed to obtain JDBC Connection",
+                new SQLTransientConnectionException("HikariPool-1 - Connection is not available, request timed out after 2000ms.",
+                        "08S01", new SQLNonTransientConnectionException("Communications link failure"))));
+
+        assertThrows(ServletException.class, () -> mockMvc.perform(get("/api/v2/produits")));
+    }
+
     @Test
     void getById_produit_returns_produit() throws Exception {
         // Arrange
@@ -61,17 +110,68 @@ public class ProduitControllerTest {
         produit.setDescription("Description Test");
         produit.setPrixUnitaire(new BigDecimal("150.00"));
 
-        when(produitService.getProduitById(1L)).thenReturn(Optional.of(produit));
+        when(produitService.getProduitVersion(1L)).thenReturn(Optional.of("3.1"));
+        when(produitService.getProduitVersionne(1L)).thenReturn(Optional.of(new ProduitVersionne(produit, "3.1")));
 
         // Act & Assert
         mockMvc.perform(get("/api/v2/produits/1"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3.1\""))
+                .andExpect(header().string("Cache-Control", "no-cache"))
                 .andExpect(jsonPath("$.id").value(1))
                 .andExpect(jsonPath("$.nom").value("Produit Test"))
                 .andExpect(jsonPath("$.description").value("Description Test"))
                 .andExpect(jsonPath("$.prixUnitaire").value(150.00));
     }
 
+    @Test
+    void getById_produit_inchange_returns_304_sans_charger_le_produit() throws Exception {
+        when(produitService.getProduitVersion(1L)).thenReturn(Optional.of("3.1"));
+
+        mockMvc.perform(get("/api/v2/produits/1").header("If-None-Match", "\"3.1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"3.1\""))
+                .andExpect(content().string(""));
+
+        verify(produitService, never()).getProduitVersionne(any());
+    }
+
+    @Test
+    void getById_produit_etag_suit_les_donnees_du_corps() throws Exception {
+        ProduitDTO produit = new ProduitDTO();
+        produit.setId(1L);
+        produit.setNom("Produit modifié entre-temps");
+        when(produitService.getProduitVersion(1L)).thenReturn(Optional.of("3.1"));
+        when(produitService.getProduitVersionne(1L)).thenReturn(Optional.of(new ProduitVersionne(produit, "4.4")));
+
+        mockMvc.perform(get("/api/v2/produits/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().stringValues("ETag", "\"4.4\""))
+                .andExpect(jsonPath("$.nom").value("Produit modifié entre-temps"));
+    }
+
+    @Test
+    void getById_produit_etag_distinct_par_format() throws Exception {
+        ProduitDTO produit = new ProduitDTO();
+        produit.setId(1L);
+        produit.setNom("Produit Test");
+        when(produitService.getProduitVersion(1L)).thenReturn(Optional.of("3.1"));
+        when(produitService.getProduitVersionne(1L)).thenReturn(Optional.of(new ProduitVersionne(produit, "3.1")));
+
+        mockMvc.perform(get("/api/v2/produits/1").accept("application/cbor").header("If-None-Match", "\"3.1\""))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/cbor"))
+                .andExpect(header().string("ETag", "\"3.1-cbor\""));
+    }
+
+    @Test
+    void getById_produit_inconnu_returns_404() throws Exception {
+        when(produitService.getProduitVersion(9L)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/v2/produits/9").header("If-None-Match", "\"3.1\""))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void create_produit_returns_created_produit() throws Exception {
         // Arrange
@@ -105,4 +205,46 @@ public class ProduitControllerTest {
                 .andExpect(jsonPath("$.nom").value("Nouveau Produit"))
                 .andExpect(jsonPath("$.prixUnitaire").value(250.00));
     }
+
+    @Test
+    void getStockAt_produit_returns_stock_at_date() throws Exception {
+        // Arrange
+        LocalDateTime date = LocalDateTime.of(2025, 1, 31, 23, 59, 59);
+        StockAtDTO stock = StockAtDTO.builder()
+                .produitId(1L)
+                .date(date)
+                .quantite(new BigDecimal("42.00"))
+                .coutUnitaireMoyen(new BigDecimal("3.5000"))
+                .dateSnapshot(LocalDateTime.of(2025, 1, 31, 2, 0))
+                .mouvementsRejoues(3)
+                .build();
+
+        when(stockSnapshotService.stockAt(1L, date)).thenReturn(stock);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v2/produits/1/stock-at")
+                        .param("date", "2025-01-31T23:59:59"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.produitId").value(1))
+                .andExpect(jsonPath("$.quantite").value(42.00))
+                .andExpect(jsonPath("$.mouvementsRejoues").value(3));
+    }
+
+    @Test
+    void bulk_csv_retourne_le_rapport_d_import() throws Exception {
+        ImportRapportDTO rapport = ImportRapportDTO.builder()
+                .lignesLues(2)
+                .importees(1)
+                .rejetees(1)
+                .erreurs(List.of(new ImportErreurDTO(2, "nom : Le nom du produit est obligatoire")))
+                .build();
+        when(importService.importerProduits(any(InputStream.class), eq(ImportFormat.CSV))).thenReturn(rapport);
+
+        mockMvc.perform(post("/api/v2/produits/bulk")
+                        .contentType("text/csv")
+                        .content("nom,prixUnitaire,categorie,stockActuel\nVis,0.25,Quincaillerie,10\n,1,X,1\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.importees").value(1))
+                .andExpect(jsonPath("$.erreurs[0].ligne").value(2));
+    }
 }
@@ -0,0 +1,217 @@
+package com.tricol.tricolV2.integration.repository;
+
+import com.tricol.tricolV2.entity.Fournisseur;
+import com.tricol.tricolV2.entity.enums.StatutCommande;
+import com.tricol.tricolV2.entity.enums.TypeMouvement;
+import com.tricol.tricolV2.repository.CommandeFournisseurRepository;
+import com.tricol.tricolV2.repository.FournisseurRepository;
+import com.tricol.tricolV2.repository.MouvementStockRepository;
+import com.tricol.tricolV2.repository.ProduitRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérifie par EXPLAIN (H2) que chaque requête des repositories est servie par un index. Le SQL expliqué est
+ * celui qu'Hibernate génère pour la méthode, capturé par un StatementInspector, paramètres non liés.
+ * Les recherches "Containing" (LIKE '%q%') ne peuvent pas l'être et ne figurent pas ici.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.tricol.tricolV2.integration.repository.RepositoryIndexUsageTest$CaptureSql")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class RepositoryIndexUsageTest {
+
+    private static final List<String> SQL = new CopyOnWriteArrayList<>();
+
+    private static final LocalDateTime DEBUT = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final Sort ORDRE_HISTORIQUE = Sort.by(Sort.Order.desc("dateMouvement"), Sort.Order.desc("id"));
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+    @Autowired
+    ProduitRepository produitRepository;
+    @Autowired
+    CommandeFournisseurRepository commandeRepository;
+    @Autowired
+    MouvementStockRepository mouvementRepository;
+    @Autowired
+    FournisseurRepository fournisseurRepository;
+
+    public static class CaptureSql implements StatementInspector {
+
+        @Override
+        public String inspect(String sql) {
+            SQL.add(sql);
+            return sql;
+        }
+    }
+
+    Stream<Arguments> requetes() {
+        Fournisseur fournisseur = fournisseurRepository.findByIce("ICE000000001").orElseThrow();
+        Map<String, Object> cle = new LinkedHashMap<>();
+        cle.put("dateMouvement", DEBUT.plusDays(19));
+        cle.put("id", 100L);
+        return Stream.of(
+                // ProduitRepository
+                requete("findByPrixUnitaireBetween", "idx_produit_prix",
+                        () -> produitRepository.findByPrixUnitaireBetween(BigDecimal.TEN, new BigDecimal("12"),
+                                PageRequest.of(0, 20))),
+                requete("findByStockActuelLessThan", "idx_produit_stock",
+                        () -> produitRepository.findByStockActuelLessThan(new BigDecimal("3"))),
+                requete("findByStockActuelGreaterThan", "idx_produit_stock",
+                        () -> produitRepository.findByStockActuelGreaterThan(new BigDecimal("990"))),
+                requete("countByCategorie", "idx_produit_categorie", () -> produitRepository.countByCategorie()),
+                requete("findAllocationCandidates", "idx_produit_nom_minuscule_stock",
+                        () -> produitRepository.findAllocationCandidates(List.of("produit 1", "produit 2"))),
+                // CommandeFournisseurRepository
+                requete("findByStatut", "idx_commande_statut_date",
+                        () -> commandeRepository.findByStatut(StatutCommande.ANNULEE)),
+                requete("findByStatut (page)", "idx_commande_statut_date",
+                        () -> commandeRepository.findByStatut(StatutCommande.ANNULEE, PageRequest.of(0, 20))),
+                requete("findByDateCommande", "idx_commande_date",
+                        () -> commandeRepository.findByDateCommande(DEBUT.plusHours(14 * 7))),
+                requete("findByDateCommandeBetween", "idx_commande_date",
+                        () -> commandeRepository.findByDateCommandeBetween(DEBUT, DEBUT.plusDays(1))),
+                requete("findByMontantTotalBetween", "idx_commande_montant",
+                        () -> commandeRepository.findByMontantTotalBetween(new BigDecimal("100"),
+                                new BigDecimal("110"))),
+                requete("findByFournisseur", null, () -> commandeRepository.findByFournisseur(fournisseur)),
+                requete("findByFournisseur_IdIn", null, () -> commandeRepository.findByFournisseur_IdIn(
+                        List.of(fournisseur.getId()), PageRequest.of(0, 20))),
+                // MouvementStockRepository
+                requete("findByProduit_Id", null,
+                        () -> mouvementRepository.findByProduit_Id(7L, PageRequest.of(0, 20))),
+                requete("findByCommande_Id", null,
+                        () -> mouvementRepository.findByCommande_Id(3L, PageRequest.of(0, 20))),
+                requete("existsByCommande_Id", null, () -> mouvementRepository.existsByCommande_Id(3L)),
+                requete("findByType", "idx_mouvement_type_date",
+                        () -> mouvementRepository.findByType(TypeMouvement.AJUSTEMENT, PageRequest.of(0, 20))),
+                // findAllBy (keyset) sans filtre n'est pas vérifiable ici: H2 ne parcourt pas un index à
+                // l'envers pour un ORDER BY DESC, contrairement à InnoDB (idx_mouvement_date_id)
+                requete("findByCommande_Id (keyset)", null, () -> mouvementRepository.findByCommande_Id(
+                        3L, ScrollPosition.forward(cle), ORDRE_HISTORIQUE, Limit.of(51))),
+                requete("streamLedger", "idx_mouvement_produit_date", () -> transactionTemplate.execute(statut -> {
+                    try (Stream<MouvementStockRepository.LigneLedger> lignes =
+                                 mouvementRepository.streamLedger(7L, DEBUT, DEBUT.plusDays(30))) {
+                        return lignes.count();
+                    }
+                })),
+                // FournisseurRepository
+                requete("findByVille", "idx_fournisseur_ville", () -> fournisseurRepository.findByVille("Ville 3")),
+                requete("findByIce", null, () -> fournisseurRepository.findByIce("ICE000000003")),
+                requete("findExistingIces", null, () -> fournisseurRepository.findExistingIces(
+                        List.of("ICE000000003", "ICE000000004")))
+        );
+    }
+
+    @BeforeAll
+    void seed() {
+        List<Object[]> fournisseurs = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            fournisseurs.add(new Object[]{"Adresse " + i, "Societe " + i, "Contact", "f" + i + "@tricol.ma",
+                    "0600000000", "Ville " + i, String.format("ICE%09d", i)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO fournisseur (adresse, societe, contact, email, telephone, ville, ice) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)", fournisseurs);
+        Long premierFournisseur = jdbcTemplate.queryForObject("SELECT MIN(id) FROM fournisseur", Long.class);
+
+        List<Object[]> produits = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            produits.add(new Object[]{"Produit " + i, new BigDecimal(i % 500 + 1), "Categorie " + (i % 40),
+                    new BigDecimal(i), new BigDecimal(i % 500 + 1)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO produit (nom, prix_unitaire, categorie, stock_actuel, cout_unitaire_moyen) " +
+                "VALUES (?, ?, ?, ?, ?)", produits);
+        Long premierProduit = jdbcTemplate.queryForObject("SELECT MIN(id) FROM produit", Long.class);
+
+        String[] statuts = {"EN_ATTENTE", "VALIDEE", "LIVREE", "ANNULEE"};
+        List<Object[]> commandes = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            commandes.add(new Object[]{Timestamp.valueOf(DEBUT.plusHours(i * 7L)), statuts[i % 4],
+                    new BigDecimal(i * 3), premierFournisseur + i % 50});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO commande_fournisseur (date_commande, statut, montant_total, fournisseur_id) " +
+                "VALUES (?, ?, ?, ?)", commandes);
+        Long premiereCommande = jdbcTemplate.queryForObject("SELECT MIN(id) FROM commande_fournisseur", Long.class);
+
+        String[] types = {"ENTREE", "SORTIE", "AJUSTEMENT"};
+        List<Object[]> mouvements = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            mouvements.add(new Object[]{Timestamp.valueOf(DEBUT.plusMinutes(i * 13L)), types[i % 3],
+                    BigDecimal.ONE, BigDecimal.TEN, premierProduit + i % 1000, premiereCommande + i % 1000});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO mouvement_stock (date_mouvement, type, quantite, cout_unitaire, produit_id, commande_id) " +
+                "VALUES (?, ?, ?, ?, ?, ?)", mouvements);
+
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @AfterAll
+    void cleanup() {
+        jdbcTemplate.execute("DELETE FROM mouvement_stock");
+        jdbcTemplate.execute("DELETE FROM commande_fournisseur");
+        jdbcTemplate.execute("DELETE FROM produit");
+        jdbcTemplate.execute("DELETE FROM fournisseur");
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("requetes")
+    void query_uses_an_index(String methode, String index, Runnable appel) {
+        // Sans cache de requêtes ni de second niveau, chaque appel émet son SQL
+        entityManagerFactory.getCache().evictAll();
+        SQL.clear();
+        appel.run();
+        List<String> selects = SQL.stream().filter(sql -> sql.regionMatches(true, 0, "select", 0, 6)).toList();
+        assertThat(selects).as("SQL généré par %s", methode).isNotEmpty();
+
+        // La requête principale puis ses éventuels compléments (count de la page, associations chargées par id)
+        for (int i = 0; i < selects.size(); i++) {
+            String sql = selects.get(i);
+            String plan = String.join("\n", jdbcTemplate.query(con -> con.prepareStatement("EXPLAIN " + sql),
+                    (rs, ligne) -> rs.getString(1)));
+            assertThat(plan)
+                    .as("Plan de %s:%n%s", methode, plan)
+                    .doesNotContainIgnoringCase("tableScan");
+            if (i == 0 && index != null) {
+                assertThat(plan).as("Plan de %s:%n%s", methode, plan).containsIgnoringCase(index);
+            }
+        }
+    }
+
+    // index: celui attendu pour la requête principale, null quand H2 le nomme lui-même (clé étrangère, unicité)
+    private static Arguments requete(String methode, String index, Runnable appel) {
+        return Arguments.of(methode, index, appel);
+    }
+}
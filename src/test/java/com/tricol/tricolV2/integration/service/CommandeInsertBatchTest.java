@@ -0,0 +1,116 @@
+package com.tricol.tricolV2.integration.service;
+
+import com.tricol.tricolV2.config.AppProperties;
+import com.tricol.tricolV2.config.CacheConfig;
+import com.tricol.tricolV2.dto.CommandeFournisseurDTO;
+import com.tricol.tricolV2.dto.LigneCommandeDTO;
+import com.tricol.tricolV2.entity.Fournisseur;
+import com.tricol.tricolV2.entity.Produit;
+import com.tricol.tricolV2.entity.enums.StatutCommande;
+import com.tricol.tricolV2.mapper.CommandeFournisseurMapperImpl;
+import com.tricol.tricolV2.mapper.LigneCommandeMapperImpl;
+import com.tricol.tricolV2.service.CommandeFournisseurService;
+import com.tricol.tricolV2.service.CommandeFournisseurServiceImpl;
+import com.tricol.tricolV2.service.FifoLotEngine;
+import com.tricol.tricolV2.service.MouvementStockServiceImpl;
+import com.tricol.tricolV2.service.ProduitCatalogueCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Avec des ids alloués par séquence (pooled-lo) et le batching JDBC, une commande de N lignes s'écrit
+ * en un nombre constant d'ordres SQL: lecture fournisseur + produits, au plus un appel par séquence,
+ * un INSERT pour la commande et un batch pour ses lignes.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({CommandeFournisseurServiceImpl.class, MouvementStockServiceImpl.class, FifoLotEngine.class, AppProperties.class,
+        ProduitCatalogueCache.class, CacheConfig.class, CommandeFournisseurMapperImpl.class, LigneCommandeMapperImpl.class,
+        SimpleMeterRegistry.class})
+class CommandeInsertBatchTest {
+
+    private static final int PRODUITS = 45;
+    private static final long MAX_REQUETES_PAR_COMMANDE = 6;
+
+    @Autowired
+    CommandeFournisseurService commandeService;
+    @Autowired
+    EntityManager entityManager;
+
+    private Fournisseur fournisseur;
+    private final List<Produit> produits = new ArrayList<>();
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        fournisseur = new Fournisseur();
+        fournisseur.setAdresse("Adresse");
+        fournisseur.setSociete("Batch SARL");
+        fournisseur.setContact("Contact");
+        fournisseur.setEmail("batch@tricol.ma");
+        fournisseur.setTelephone("0600000000");
+        fournisseur.setVille("Ville");
+        fournisseur.setIce("ICE777000001");
+        entityManager.persist(fournisseur);
+        for (int i = 0; i < PRODUITS; i++) {
+            Produit p = new Produit();
+            p.setNom("Produit batch " + i);
+            p.setCategorie("Batch");
+            p.setPrixUnitaire(new BigDecimal("2.50"));
+            p.setStockActuel(BigDecimal.ZERO);
+            entityManager.persist(p);
+            produits.add(p);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void create_writes_lines_in_a_constant_number_of_statements() {
+        long petite = compterCreation(3);
+        long grande = compterCreation(PRODUITS);
+
+        assertThat(petite).isLessThanOrEqualTo(MAX_REQUETES_PAR_COMMANDE);
+        assertThat(grande).as("requêtes SQL pour %d lignes", PRODUITS).isLessThanOrEqualTo(MAX_REQUETES_PAR_COMMANDE);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(PRODUITS + 1L);
+    }
+
+    private long compterCreation(int lignes) {
+        List<LigneCommandeDTO> dtos = new ArrayList<>();
+        for (int i = 0; i < lignes; i++) {
+            dtos.add(LigneCommandeDTO.builder()
+                    .produitId(produits.get(i).getId())
+                    .quantite(BigDecimal.valueOf(i + 1))
+                    .build());
+        }
+        CommandeFournisseurDTO dto = new CommandeFournisseurDTO();
+        dto.setDateCommande(LocalDateTime.now().minusHours(1));
+        dto.setStatut(StatutCommande.EN_ATTENTE);
+        dto.setFournisseurId(fournisseur.getId());
+        dto.setLignes(dtos);
+
+        entityManager.clear();
+        statistics.clear();
+
+        CommandeFournisseurDTO creee = commandeService.create(dto);
+        entityManager.flush();
+
+        assertThat(creee.getLignes()).hasSize(lignes).allSatisfy(l -> assertThat(l.getId()).isNotNull());
+        return statistics.getPrepareStatementCount();
+    }
+}
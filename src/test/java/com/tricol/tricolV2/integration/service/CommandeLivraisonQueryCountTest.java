@@ -0,0 +1,122 @@
+package com.tricol.tricolV2.integration.service;
+
+import com.tricol.tricolV2.config.AppProperties;
+import com.tricol.tricolV2.config.CacheConfig;
+import com.tricol.tricolV2.entity.CommandeFournisseur;
+import com.tricol.tricolV2.entity.Fournisseur;
+import com.tricol.tricolV2.entity.LigneCommandeFournisseur;
+import com.tricol.tricolV2.entity.Produit;
+import com.tricol.tricolV2.entity.enums.StatutCommande;
+import com.tricol.tricolV2.mapper.CommandeFournisseurMapperImpl;
+import com.tricol.tricolV2.mapper.LigneCommandeMapperImpl;
+import com.tricol.tricolV2.service.CommandeFournisseurService;
+import com.tricol.tricolV2.service.CommandeFournisseurServiceImpl;
+import com.tricol.tricolV2.service.FifoLotEngine;
+import com.tricol.tricolV2.service.MouvementStockServiceImpl;
+import com.tricol.tricolV2.service.ProduitCatalogueCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * La livraison d'une commande (updateStatut LIVREE) doit coûter un nombre constant de requêtes: les produits
+ * des lignes sont lus avec la commande, puis tous les candidats à l'allocation en une seule requête.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({CommandeFournisseurServiceImpl.class, MouvementStockServiceImpl.class, FifoLotEngine.class, AppProperties.class,
+        ProduitCatalogueCache.class, CacheConfig.class, CommandeFournisseurMapperImpl.class, LigneCommandeMapperImpl.class,
+        SimpleMeterRegistry.class})
+class CommandeLivraisonQueryCountTest {
+
+    private static final int PRODUITS = 40;
+    private static final long MAX_REQUETES_PAR_LIVRAISON = 6;
+
+    @Autowired
+    CommandeFournisseurService commandeService;
+    @Autowired
+    EntityManager entityManager;
+
+    private Fournisseur fournisseur;
+    private final List<Produit> produits = new ArrayList<>();
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        fournisseur = new Fournisseur();
+        fournisseur.setAdresse("Adresse");
+        fournisseur.setSociete("Livraison SARL");
+        fournisseur.setContact("Contact");
+        fournisseur.setEmail("livraison@tricol.ma");
+        fournisseur.setTelephone("0600000000");
+        fournisseur.setVille("Ville");
+        fournisseur.setIce("ICE888000001");
+        entityManager.persist(fournisseur);
+        for (int i = 0; i < PRODUITS; i++) {
+            Produit p = new Produit();
+            p.setNom("Produit livraison " + i);
+            p.setCategorie("Livraison");
+            p.setPrixUnitaire(new BigDecimal("2.50"));
+            p.setStockActuel(new BigDecimal("100"));
+            entityManager.persist(p);
+            produits.add(p);
+        }
+        entityManager.flush();
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void updateStatut_livree_runs_a_constant_number_of_statements() {
+        long petite = compterLivraison(commande(3));
+        long grande = compterLivraison(commande(PRODUITS));
+
+        assertThat(petite).isLessThanOrEqualTo(MAX_REQUETES_PAR_LIVRAISON);
+        assertThat(grande).as("requêtes SQL pour %d lignes", PRODUITS).isLessThanOrEqualTo(MAX_REQUETES_PAR_LIVRAISON);
+        assertThat(statistics.getEntityFetchCount()).as("produits chargés un par un").isZero();
+    }
+
+    private Long commande(int lignes) {
+        CommandeFournisseur c = new CommandeFournisseur();
+        c.setDateCommande(LocalDateTime.now().minusHours(1));
+        c.setStatut(StatutCommande.EN_ATTENTE);
+        c.setMontantTotal(BigDecimal.TEN);
+        c.setFournisseur(fournisseur);
+        List<LigneCommandeFournisseur> liste = new ArrayList<>();
+        for (int i = 0; i < lignes; i++) {
+            LigneCommandeFournisseur l = new LigneCommandeFournisseur();
+            l.setCommande(c);
+            l.setProduit(produits.get(i));
+            l.setQuantite(BigDecimal.ONE);
+            l.setPrixUnitaire(new BigDecimal("2.50"));
+            l.setMontantLigne(new BigDecimal("2.50"));
+            liste.add(l);
+        }
+        c.setLignes(liste);
+        entityManager.persist(c);
+        entityManager.flush();
+        return c.getId();
+    }
+
+    private long compterLivraison(Long commandeId) {
+        entityManager.clear();
+        statistics.clear();
+
+        commandeService.updateStatut(commandeId, StatutCommande.LIVREE);
+        entityManager.flush();
+
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,143 @@
+package com.tricol.tricolV2.integration.service;
+
+import com.tricol.tricolV2.config.AppProperties;
+import com.tricol.tricolV2.config.CacheConfig;
+import com.tricol.tricolV2.dto.CommandeFournisseurDTO;
+import com.tricol.tricolV2.entity.CommandeFournisseur;
+import com.tricol.tricolV2.entity.Fournisseur;
+import com.tricol.tricolV2.entity.LigneCommandeFournisseur;
+import com.tricol.tricolV2.entity.Produit;
+import com.tricol.tricolV2.entity.enums.StatutCommande;
+import com.tricol.tricolV2.mapper.CommandeFournisseurMapperImpl;
+import com.tricol.tricolV2.mapper.LigneCommandeMapperImpl;
+import com.tricol.tricolV2.service.CommandeFournisseurService;
+import com.tricol.tricolV2.service.CommandeFournisseurServiceImpl;
+import com.tricol.tricolV2.service.FifoLotEngine;
+import com.tricol.tricolV2.service.MouvementStockServiceImpl;
+import com.tricol.tricolV2.service.ProduitCatalogueCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Une page de commandes doit coûter un nombre constant de requêtes (page + count + lignes en lot),
+ * quel que soit le nombre de commandes, de fournisseurs ou de produits qu'elle contient.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({CommandeFournisseurServiceImpl.class, MouvementStockServiceImpl.class, FifoLotEngine.class, AppProperties.class,
+        ProduitCatalogueCache.class, CacheConfig.class, CommandeFournisseurMapperImpl.class, LigneCommandeMapperImpl.class,
+        SimpleMeterRegistry.class})
+class CommandePageQueryCountTest {
+
+    private static final int COMMANDES = 60;
+    private static final int LIGNES_PAR_COMMANDE = 3;
+    private static final long MAX_REQUETES_PAR_PAGE = 3;
+
+    @Autowired
+    CommandeFournisseurService commandeService;
+    @Autowired
+    EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        List<Fournisseur> fournisseurs = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Fournisseur f = new Fournisseur();
+            f.setAdresse("Adresse " + i);
+            f.setSociete("Societe " + i);
+            f.setContact("Contact");
+            f.setEmail("f" + i + "@tricol.ma");
+            f.setTelephone("0600000000");
+            f.setVille("Ville");
+            f.setIce(String.format("ICE%09d", i));
+            entityManager.persist(f);
+            fournisseurs.add(f);
+        }
+        List<Produit> produits = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Produit p = new Produit();
+            p.setNom("Produit " + i);
+            p.setCategorie("Cat");
+            p.setPrixUnitaire(BigDecimal.TEN);
+            p.setStockActuel(BigDecimal.ZERO);
+            entityManager.persist(p);
+            produits.add(p);
+        }
+        LocalDateTime debut = LocalDateTime.of(2024, 2, 1, 9, 0);
+        for (int i = 0; i < COMMANDES; i++) {
+            CommandeFournisseur c = new CommandeFournisseur();
+            c.setDateCommande(debut.plusHours(i));
+            c.setStatut(StatutCommande.EN_ATTENTE);
+            c.setMontantTotal(new BigDecimal("30.00"));
+            c.setFournisseur(fournisseurs.get(i % fournisseurs.size()));
+            List<LigneCommandeFournisseur> lignes = new ArrayList<>();
+            for (int j = 0; j < LIGNES_PAR_COMMANDE; j++) {
+                LigneCommandeFournisseur l = new LigneCommandeFournisseur();
+                l.setCommande(c);
+                l.setProduit(produits.get((i + j) % produits.size()));
+                l.setQuantite(BigDecimal.ONE);
+                l.setPrixUnitaire(BigDecimal.TEN);
+                l.setMontantLigne(BigDecimal.TEN);
+                lignes.add(l);
+            }
+            c.setLignes(lignes);
+            entityManager.persist(c);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void getPaged_runs_a_constant_number_of_statements() {
+        Page<CommandeFournisseurDTO> page = compter(() -> commandeService.getPaged(PageRequest.of(0, 50)));
+
+        assertThat(page.getContent()).hasSize(50);
+        assertThat(page.getContent()).allSatisfy(c -> {
+            assertThat(c.getFournisseurId()).isNotNull();
+            assertThat(c.getLignes()).hasSize(LIGNES_PAR_COMMANDE)
+                    .allSatisfy(l -> assertThat(l.getProduitId()).isNotNull());
+        });
+    }
+
+    @Test
+    void searches_run_a_constant_number_of_statements() {
+        assertThat(compter(() -> commandeService.searchByStatut(StatutCommande.EN_ATTENTE, PageRequest.of(0, 50)))
+                .getContent()).hasSize(50);
+        assertThat(compter(() -> commandeService.searchByFournisseurSociete("societe", PageRequest.of(0, 50)))
+                .getContent()).hasSize(50);
+        assertThat(compter(() -> commandeService.searchByDateBetween(LocalDateTime.of(2024, 2, 1, 0, 0),
+                LocalDateTime.of(2024, 2, 28, 0, 0), PageRequest.of(1, 20))).getContent()).hasSize(20);
+    }
+
+    private <T> T compter(Supplier<T> lecture) {
+        entityManager.clear();
+        statistics.clear();
+
+        T resultat = lecture.get();
+
+        assertThat(statistics.getPrepareStatementCount())
+                .as("requêtes SQL pour une page")
+                .isLessThanOrEqualTo(MAX_REQUETES_PAR_PAGE);
+        return resultat;
+    }
+}
@@ -0,0 +1,152 @@
+package com.tricol.tricolV2.integration.service;
+
+import com.tricol.tricolV2.config.AppProperties;
+import com.tricol.tricolV2.config.CacheConfig;
+import com.tricol.tricolV2.dto.CommandeFournisseurDTO;
+import com.tricol.tricolV2.dto.LigneCommandeDTO;
+import com.tricol.tricolV2.entity.Fournisseur;
+import com.tricol.tricolV2.entity.Produit;
+import com.tricol.tricolV2.entity.enums.StatutCommande;
+import com.tricol.tricolV2.mapper.CommandeFournisseurMapperImpl;
+import com.tricol.tricolV2.mapper.LigneCommandeMapperImpl;
+import com.tricol.tricolV2.repository.CommandeFournisseurRepository;
+import com.tricol.tricolV2.repository.FournisseurRepository;
+import com.tricol.tricolV2.repository.ProduitRepository;
+import com.tricol.tricolV2.service.CommandeFournisseurService;
+import com.tricol.tricolV2.service.CommandeFournisseurServiceImpl;
+import com.tricol.tricolV2.service.FifoLotEngine;
+import com.tricol.tricolV2.service.MouvementStockServiceImpl;
+import com.tricol.tricolV2.service.ProduitCatalogueCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Les ETag de GET /{id} sont tirés de la colonne version: toute modification validée et visible dans le DTO
+ * doit l'incrémenter, y compris le seul remplacement des lignes d'une commande.
+ */
+@DataJpaTest
+@Import({CommandeFournisseurServiceImpl.class, MouvementStockServiceImpl.class, FifoLotEngine.class, AppProperties.class,
+        ProduitCatalogueCache.class, CacheConfig.class, CommandeFournisseurMapperImpl.class, LigneCommandeMapperImpl.class,
+        SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EntiteVersionTest {
+
+    @Autowired
+    CommandeFournisseurService commandeService;
+    @Autowired
+    CommandeFournisseurRepository commandeRepository;
+    @Autowired
+    FournisseurRepository fournisseurRepository;
+    @Autowired
+    ProduitRepository produitRepository;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    private final List<Long> commandes = new ArrayList<>();
+    private final List<Long> produits = new ArrayList<>();
+    private Fournisseur fournisseur;
+
+    @AfterEach
+    void nettoyer() {
+        commandeRepository.deleteAllById(commandes);
+        produitRepository.deleteAllById(produits);
+        if (fournisseur != null) {
+            fournisseurRepository.deleteById(fournisseur.getId());
+        }
+    }
+
+    @Test
+    void remplacer_les_lignes_d_une_commande_incremente_sa_version() {
+        fournisseur = fournisseur();
+        Long vis = produit("Vis");
+        Long ecrou = produit("Ecrou");
+        CommandeFournisseurDTO creee = commandeService.create(commande(fournisseur.getId(), vis));
+        commandes.add(creee.getId());
+        Long avant = commandeService.getVersion(creee.getId()).orElseThrow();
+
+        // Même statut, même date et même montant: seules les lignes changent
+        commandeService.update(creee.getId(), commande(fournisseur.getId(), ecrou));
+
+        assertThat(commandeService.getVersion(creee.getId())).hasValueSatisfying(v -> assertThat(v).isGreaterThan(avant));
+        assertThat(commandeService.getVersion(-1L)).isEmpty();
+    }
+
+    @Test
+    void modifier_un_fournisseur_incremente_sa_version() {
+        fournisseur = fournisseur();
+        Long avant = fournisseurRepository.findVersionById(fournisseur.getId()).orElseThrow();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(statut ->
+                fournisseurRepository.findById(fournisseur.getId()).orElseThrow().setVille("Rabat"));
+
+        assertThat(fournisseurRepository.findVersionById(fournisseur.getId())).contains(avant + 1);
+    }
+
+    @Test
+    void renommer_un_produit_garde_nom_minuscule_a_jour() {
+        Long id = produit("Vis M8");
+        Produit renomme = new TransactionTemplate(transactionManager).execute(statut -> {
+            Produit p = produitRepository.findById(id).orElseThrow();
+            assertThat(p.getNomMinuscule()).isEqualTo("vis m8");
+            p.setNom("Vis INOX M8");
+            p.setStockActuel(BigDecimal.TEN);
+            return p;
+        });
+
+        assertThat(renomme.getNomMinuscule()).isEqualTo("vis inox m8");
+        assertThat(produitRepository.findAllocationCandidates(List.of("vis inox m8")))
+                .extracting(Produit::getId).containsExactly(id);
+        assertThat(produitRepository.findAllocationCandidates(List.of("vis m8"))).isEmpty();
+    }
+
+    private Fournisseur fournisseur() {
+        Fournisseur f = new Fournisseur();
+        f.setAdresse("12 rue de Fès");
+        f.setSociete("Atlas");
+        f.setContact("Contact");
+        f.setEmail("atlas@tricol.ma");
+        f.setTelephone("0600000000");
+        f.setVille("Casablanca");
+        f.setIce("ICE000000042");
+        return fournisseurRepository.save(f);
+    }
+
+    private Long produit(String nom) {
+        Produit p = new Produit();
+        p.setNom(nom);
+        p.setCategorie("Quincaillerie");
+        p.setPrixUnitaire(BigDecimal.TEN);
+        p.setStockActuel(BigDecimal.ZERO);
+        Long id = produitRepository.save(p).getId();
+        produits.add(id);
+        return id;
+    }
+
+    private static CommandeFournisseurDTO commande(Long fournisseurId, Long produitId) {
+        CommandeFournisseurDTO dto = new CommandeFournisseurDTO();
+        dto.setFournisseurId(fournisseurId);
+        dto.setDateCommande(LocalDateTime.of(2024, 3, 1, 10, 0));
+        dto.setStatut(StatutCommande.EN_ATTENTE);
+        dto.setLignes(List.of(LigneCommandeDTO.builder()
+                .produitId(produitId)
+                .quantite(BigDecimal.ONE)
+                .prixUnitaire(BigDecimal.TEN)
+                .build()));
+        return dto;
+    }
+}
@@ -0,0 +1,200 @@
+package com.tricol.tricolV2.integration.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tricol.tricolV2.entity.CommandeFournisseur;
+import com.tricol.tricolV2.entity.Fournisseur;
+import com.tricol.tricolV2.entity.LigneCommandeFournisseur;
+import com.tricol.tricolV2.entity.Produit;
+import com.tricol.tricolV2.entity.enums.StatutCommande;
+import com.tricol.tricolV2.exception.BusinessException;
+import com.tricol.tricolV2.mapper.CommandeFournisseurMapperImpl;
+import com.tricol.tricolV2.mapper.FournisseurMapperImpl;
+import com.tricol.tricolV2.mapper.LigneCommandeMapperImpl;
+import com.tricol.tricolV2.mapper.ProduitMapperImpl;
+import com.tricol.tricolV2.service.ExportService;
+import com.tricol.tricolV2.service.ExportServiceImpl;
+import com.tricol.tricolV2.util.ExportFormat;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({ExportServiceImpl.class, ProduitMapperImpl.class, FournisseurMapperImpl.class,
+        CommandeFournisseurMapperImpl.class, LigneCommandeMapperImpl.class})
+class ExportServiceTest {
+
+    private static final int PRODUITS = 120;
+    private static final int COMMANDES = 250;
+
+    @Autowired
+    ExportService exportService;
+    @Autowired
+    EntityManager entityManager;
+    @Autowired
+    ObjectMapper objectMapper;
+
+    private Produit premier;
+    private Fournisseur fournisseur;
+
+    @BeforeEach
+    void setUp() {
+        Fournisseur f = new Fournisseur();
+        f.setAdresse("1 rue de l'Export");
+        f.setSociete("ExportCorp");
+        f.setContact("Test");
+        f.setEmail("export@corp.com");
+        f.setTelephone("0600000000");
+        f.setVille("Rabat");
+        f.setIce("ICE000000120");
+        entityManager.persist(f);
+        fournisseur = f;
+
+        for (int i = 0; i < PRODUITS; i++) {
+            Produit p = new Produit();
+            p.setNom("Produit " + i);
+            p.setCategorie("Cat" + (i % 3));
+            p.setPrixUnitaire(new BigDecimal("10.00"));
+            p.setStockActuel(new BigDecimal("5"));
+            entityManager.persist(p);
+            if (i == 0) {
+                premier = p;
+            }
+        }
+
+        CommandeFournisseur commande = new CommandeFournisseur();
+        commande.setDateCommande(LocalDateTime.of(2024, 1, 15, 10, 0));
+        commande.setStatut(StatutCommande.EN_ATTENTE);
+        commande.setMontantTotal(new BigDecimal("20.00"));
+        commande.setFournisseur(f);
+        LigneCommandeFournisseur ligne = new LigneCommandeFournisseur();
+        ligne.setCommande(commande);
+        ligne.setProduit(premier);
+        ligne.setQuantite(new BigDecimal("2"));
+        ligne.setPrixUnitaire(new BigDecimal("10.00"));
+        ligne.setMontantLigne(new BigDecimal("20.00"));
+        commande.setLignes(new ArrayList<>(List.of(ligne)));
+        entityManager.persist(commande);
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void export_produits_ndjson_writes_one_json_object_per_line_and_keeps_context_empty() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.exportProduits(ExportFormat.NDJSON, out);
+
+        String[] lignes = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lignes).hasSize(PRODUITS);
+        JsonNode first = objectMapper.readTree(lignes[0]);
+        assertThat(first.get("nom").asText()).isEqualTo("Produit 0");
+        assertThat(first.get("prixUnitaire").decimalValue()).isEqualByComparingTo("10.00");
+        // Chaque entité est détachée après écriture: rien ne reste dans le contexte de persistance
+        assertThat(entityManager.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    }
+
+    @Test
+    void export_produits_csv_writes_header_then_one_row_per_produit() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.exportProduits(ExportFormat.CSV, out);
+
+        String[] lignes = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lignes).hasSize(PRODUITS + 1);
+        assertThat(lignes[0]).contains("id", "nom", "prixUnitaire", "stockActuel");
+        assertThat(lignes[1]).contains("\"Produit 0\"");
+    }
+
+    @Test
+    void export_commandes_keeps_lignes_in_ndjson_and_drops_them_in_csv() throws Exception {
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        exportService.exportCommandes(ExportFormat.NDJSON, ndjson);
+        JsonNode commande = objectMapper.readTree(ndjson.toString(StandardCharsets.UTF_8));
+        assertThat(commande.get("lignes")).hasSize(1);
+        assertThat(commande.get("dateCommande").asText()).isEqualTo("2024-01-15T10:00:00");
+
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        exportService.exportCommandes(ExportFormat.CSV, csv);
+        String[] lignes = csv.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lignes).hasSize(2);
+        assertThat(lignes[0]).contains("fournisseurId").doesNotContain("lignes");
+    }
+
+    @Test
+    void export_commandes_loads_lignes_per_batch_and_not_at_all_in_csv() throws Exception {
+        // 250 commandes au total, deux lignes chacune
+        for (int i = 1; i < COMMANDES; i++) {
+            CommandeFournisseur c = new CommandeFournisseur();
+            c.setDateCommande(LocalDateTime.of(2024, 2, 1, 10, 0).plusHours(i));
+            c.setStatut(StatutCommande.VALIDEE);
+            c.setMontantTotal(new BigDecimal("30.00"));
+            c.setFournisseur(entityManager.getReference(Fournisseur.class, fournisseur.getId()));
+            List<LigneCommandeFournisseur> lignes = new ArrayList<>();
+            for (int j = 0; j < 2; j++) {
+                LigneCommandeFournisseur l = new LigneCommandeFournisseur();
+                l.setCommande(c);
+                l.setProduit(entityManager.getReference(Produit.class, premier.getId()));
+                l.setQuantite(new BigDecimal("1.5"));
+                l.setPrixUnitaire(new BigDecimal("10.00"));
+                l.setMontantLigne(new BigDecimal("15.00"));
+                lignes.add(l);
+            }
+            c.setLignes(lignes);
+            entityManager.persist(c);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        exportService.exportCommandes(ExportFormat.NDJSON, ndjson);
+        assertThat(ndjson.toString(StandardCharsets.UTF_8).split("\n")).hasSize(COMMANDES);
+        // Le curseur des commandes, puis une requête IN de lignes par lot de 100 commandes
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1 + 3);
+
+        statistics.clear();
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        exportService.exportCommandes(ExportFormat.CSV, csv);
+        assertThat(csv.toString(StandardCharsets.UTF_8).split("\n")).hasSize(COMMANDES + 1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void export_fournisseurs_ndjson() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.exportFournisseurs(ExportFormat.NDJSON, out);
+
+        assertThat(objectMapper.readTree(out.toString(StandardCharsets.UTF_8)).get("ice").asText())
+                .isEqualTo("ICE000000120");
+    }
+
+    @Test
+    void unknown_format_is_rejected() {
+        assertThatThrownBy(() -> ExportFormat.from("xml"))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("xml");
+    }
+}
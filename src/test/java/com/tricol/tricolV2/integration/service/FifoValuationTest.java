@@ -0,0 +1,208 @@
+package com.tricol.tricolV2.integration.service;
+
+import com.tricol.tricolV2.config.AppProperties;
+import com.tricol.tricolV2.entity.CommandeFournisseur;
+import com.tricol.tricolV2.entity.Fournisseur;
+import com.tricol.tricolV2.entity.LigneCommandeFournisseur;
+import com.tricol.tricolV2.entity.LotStock;
+import com.tricol.tricolV2.entity.MouvementStock;
+import com.tricol.tricolV2.entity.Produit;
+import com.tricol.tricolV2.entity.enums.StatutCommande;
+import com.tricol.tricolV2.entity.enums.TypeMouvement;
+import com.tricol.tricolV2.repository.CommandeFournisseurRepository;
+import com.tricol.tricolV2.repository.FournisseurRepository;
+import com.tricol.tricolV2.repository.LotStockRepository;
+import com.tricol.tricolV2.repository.MouvementStockRepository;
+import com.tricol.tricolV2.repository.ProduitRepository;
+import com.tricol.tricolV2.service.FifoLotEngine;
+import com.tricol.tricolV2.service.MouvementStockService;
+import com.tricol.tricolV2.service.MouvementStockServiceImpl;
+import com.tricol.tricolV2.util.FifoLayers.Tranche;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import({MouvementStockServiceImpl.class, FifoLotEngine.class, AppProperties.class, SimpleMeterRegistry.class})
+@TestPropertySource(properties = "app.stock.valuation-method=FIFO")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class FifoValuationTest {
+
+    @Autowired
+    MouvementStockService mouvementStockService;
+    @Autowired
+    FifoLotEngine fifoLotEngine;
+    @Autowired
+    LotStockRepository lotRepository;
+    @Autowired
+    ProduitRepository produitRepository;
+    @Autowired
+    FournisseurRepository fournisseurRepository;
+    @Autowired
+    CommandeFournisseurRepository commandeRepository;
+    @Autowired
+    MouvementStockRepository mouvementRepository;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    private Fournisseur fournisseur;
+    private Produit produit;
+
+    @BeforeEach
+    void setUp() {
+        lotRepository.deleteAllInBatch();
+        mouvementRepository.deleteAll();
+        commandeRepository.deleteAll();
+        produitRepository.deleteAll();
+        fournisseurRepository.deleteAll();
+
+        Fournisseur f = new Fournisseur();
+        f.setAdresse("3 rue des Lots");
+        f.setSociete("FifoCorp");
+        f.setContact("Test");
+        f.setEmail("fifo@corp.com");
+        f.setTelephone("0600000002");
+        f.setVille("Tanger");
+        f.setIce("ICE000000012");
+        fournisseur = fournisseurRepository.save(f);
+
+        Produit p = new Produit();
+        p.setNom("Tige");
+        p.setCategorie("Quincaillerie");
+        p.setPrixUnitaire(new BigDecimal("9.00"));
+        p.setStockActuel(new BigDecimal("30"));
+        p.setCoutUnitaireMoyen(new BigDecimal("2.0000"));
+        produit = produitRepository.save(p);
+
+        // Trois lots: 10 à 1.00, 10 à 2.00, 10 à 3.00
+        LocalDateTime date = LocalDateTime.now().minusDays(3);
+        for (int i = 1; i <= 3; i++) {
+            BigDecimal cout = new BigDecimal(i + ".00");
+            LocalDateTime dateLot = date.plusDays(i - 1);
+            transactionTemplate.executeWithoutResult(s ->
+                    fifoLotEngine.entree(produit.getId(), new BigDecimal("10"), cout, dateLot));
+        }
+    }
+
+    @Test
+    void sortie_valorisee_lot_par_lot_et_cump_mis_a_jour() {
+        mouvementStockService.createEntriesForCommande(commande(new BigDecimal("15")));
+
+        List<MouvementStock> sorties = mouvementRepository.findAll().stream()
+                .filter(m -> m.getType() == TypeMouvement.SORTIE)
+                .sorted(Comparator.comparing(MouvementStock::getId))
+                .toList();
+        assertThat(sorties).hasSize(2);
+        assertThat(sorties.get(0).getQuantite()).isEqualByComparingTo("10");
+        assertThat(sorties.get(0).getCoutUnitaire()).isEqualByComparingTo("1.00");
+        assertThat(sorties.get(1).getQuantite()).isEqualByComparingTo("5");
+        assertThat(sorties.get(1).getCoutUnitaire()).isEqualByComparingTo("2.00");
+
+        // Reste 5 à 2.00 et 10 à 3.00
+        Produit apres = produitRepository.findById(produit.getId()).orElseThrow();
+        assertThat(apres.getStockActuel()).isEqualByComparingTo("15");
+        assertThat(apres.getCoutUnitaireMoyen()).isEqualByComparingTo("2.6667");
+        assertThat(lotRepository.findOuverts(produit.getId())).hasSize(2);
+    }
+
+    @Test
+    void couches_rechargees_depuis_la_base_apres_invalidation() {
+        mouvementStockService.createEntriesForCommande(commande(new BigDecimal("12")));
+        fifoLotEngine.invalider(produit.getId());
+
+        mouvementStockService.createEntriesForCommande(commande(new BigDecimal("10")));
+
+        List<MouvementStock> sorties = mouvementRepository.findAll().stream()
+                .filter(m -> m.getType() == TypeMouvement.SORTIE)
+                .sorted(Comparator.comparing(MouvementStock::getId))
+                .toList();
+        // 10 @1, 2 @2 puis 8 @2, 2 @3
+        assertThat(sorties).extracting(MouvementStock::getCoutUnitaire)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal("1.00"), new BigDecimal("2.00"),
+                        new BigDecimal("2.00"), new BigDecimal("3.00"));
+        assertThat(fifoLotEngine.coutUnitaireMoyen(produit.getId())).isEqualByComparingTo("3.0000");
+    }
+
+    @Test
+    void consommation_annulee_jamais_vue_d_une_autre_transaction() throws Exception {
+        CountDownLatch sortieFaite = new CountDownLatch(1);
+        CountDownLatch annuler = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> annulee = pool.submit(() -> transactionTemplate.executeWithoutResult(statut -> {
+                fifoLotEngine.sortie(produit.getId(), new BigDecimal("5"));
+                sortieFaite.countDown();
+                try {
+                    annuler.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                statut.setRollbackOnly();
+            }));
+            assertThat(sortieFaite.await(10, TimeUnit.SECONDS)).isTrue();
+
+            Future<List<Tranche>> concurrente = pool.submit(() -> transactionTemplate.execute(statut ->
+                    fifoLotEngine.sortie(produit.getId(), new BigDecimal("12"))));
+            // En attente du verrou du produit tant que la première transaction n'est pas terminée
+            Thread.sleep(300);
+            assertThat(concurrente).isNotDone();
+            annuler.countDown();
+            annulee.get(10, TimeUnit.SECONDS);
+
+            // Les 5 annulés sont encore dans le premier lot: 10 @1 puis 2 @2
+            List<Tranche> tranches = concurrente.get(10, TimeUnit.SECONDS);
+            assertThat(tranches).extracting(Tranche::quantite)
+                    .usingElementComparator(BigDecimal::compareTo)
+                    .containsExactly(new BigDecimal("10"), new BigDecimal("2"));
+            assertThat(tranches).extracting(Tranche::coutUnitaire)
+                    .usingElementComparator(BigDecimal::compareTo)
+                    .containsExactly(new BigDecimal("1.00"), new BigDecimal("2.00"));
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(lotRepository.findOuverts(produit.getId())).extracting(LotStock::getQuantiteRestante)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal("8"), new BigDecimal("10"));
+        // 8 @2 et 10 @3, tel que publié après le commit
+        assertThat(fifoLotEngine.coutUnitaireMoyen(produit.getId())).isEqualByComparingTo("2.5556");
+    }
+
+    private CommandeFournisseur commande(BigDecimal quantite) {
+        CommandeFournisseur c = new CommandeFournisseur();
+        c.setDateCommande(LocalDateTime.now());
+        c.setStatut(StatutCommande.VALIDEE);
+        c.setMontantTotal(produit.getPrixUnitaire().multiply(quantite));
+        c.setFournisseur(fournisseur);
+
+        LigneCommandeFournisseur l = new LigneCommandeFournisseur();
+        l.setProduit(produit);
+        l.setQuantite(quantite);
+        l.setPrixUnitaire(produit.getPrixUnitaire());
+        l.setMontantLigne(c.getMontantTotal());
+        l.setCommande(c);
+        c.setLignes(new ArrayList<>(List.of(l)));
+        return commandeRepository.save(c);
+    }
+}
@@ -0,0 +1,85 @@
+package com.tricol.tricolV2.integration.service;
+
+import com.tricol.tricolV2.entity.Fournisseur;
+import com.tricol.tricolV2.repository.FournisseurRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cache de second niveau des fournisseurs: une lecture par id ou par ICE déjà servie ne repasse pas par la base,
+ * et une modification validée est visible à la lecture suivante.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class FournisseurCacheTest {
+
+    @Autowired
+    FournisseurRepository fournisseurRepository;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+    private Fournisseur fournisseur;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Fournisseur f = new Fournisseur();
+        f.setAdresse("4 bd Zerktouni");
+        f.setSociete("Atlas Cache");
+        f.setContact("Contact");
+        f.setEmail("cache@tricol.ma");
+        f.setTelephone("0600000000");
+        f.setVille("Casablanca");
+        f.setIce("ICE000000777");
+        fournisseur = fournisseurRepository.save(f);
+    }
+
+    @AfterEach
+    void nettoyer() {
+        fournisseurRepository.deleteById(fournisseur.getId());
+    }
+
+    @Test
+    void findById_est_servi_par_le_cache_de_second_niveau() {
+        fournisseurRepository.findById(fournisseur.getId()).orElseThrow();
+        statistics.clear();
+
+        Fournisseur lu = fournisseurRepository.findById(fournisseur.getId()).orElseThrow();
+
+        assertThat(lu.getSociete()).isEqualTo("Atlas Cache");
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getDomainDataRegionStatistics("fournisseur").getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void findByIce_passe_par_le_cache_de_requetes_et_voit_les_modifications() {
+        fournisseurRepository.findByIce("ICE000000777").orElseThrow();
+        statistics.clear();
+
+        assertThat(fournisseurRepository.findByIce("ICE000000777")).isPresent();
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(statut ->
+                fournisseurRepository.findById(fournisseur.getId()).orElseThrow().setSociete("Atlas Modifiée"));
+
+        assertThat(fournisseurRepository.findByIce("ICE000000777"))
+                .hasValueSatisfying(f -> assertThat(f.getSociete()).isEqualTo("Atlas Modifiée"));
+        assertThat(fournisseurRepository.findVersionById(fournisseur.getId())).contains(1L);
+    }
+}
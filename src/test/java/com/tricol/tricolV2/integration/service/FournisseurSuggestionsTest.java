@@ -0,0 +1,79 @@
+package com.tricol.tricolV2.integration.service;
+
+import com.tricol.tricolV2.dto.FournisseurDTO;
+import com.tricol.tricolV2.dto.FournisseurSuggestion;
+import com.tricol.tricolV2.exception.BusinessException;
+import com.tricol.tricolV2.mapper.FournisseurMapperImpl;
+import com.tricol.tricolV2.service.FournisseurService;
+import com.tricol.tricolV2.service.FournisseurServiceImpl;
+import com.tricol.tricolV2.service.FournisseurSuggestions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@Import({FournisseurServiceImpl.class, FournisseurMapperImpl.class, FournisseurSuggestions.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class FournisseurSuggestionsTest {
+
+    @Autowired
+    FournisseurService fournisseurService;
+
+    private final List<Long> crees = new ArrayList<>();
+
+    @AfterEach
+    void nettoyer() {
+        crees.forEach(fournisseurService::deleteFournisseur);
+    }
+
+    @Test
+    void suggest_suit_creation_modification_et_suppression() {
+        FournisseurDTO atlas = creer("Atlas Suggest Fer", "Casablanca", "ICE700000001");
+        FournisseurDTO sud = creer("Sud Suggest Bois", "Tétouan", "ICE700000002");
+
+        assertThat(fournisseurService.suggest("atlas sug", 10))
+                .containsExactly(new FournisseurSuggestion(atlas.getId(), "Atlas Suggest Fer", "ICE700000001"));
+        // "suggest bois" avant "suggest fer"
+        assertThat(fournisseurService.suggest("suggest", 10)).extracting(FournisseurSuggestion::id)
+                .containsExactly(sud.getId(), atlas.getId());
+        assertThat(fournisseurService.suggest("tetou", 10)).extracting(FournisseurSuggestion::id)
+                .containsExactly(sud.getId());
+        assertThat(fournisseurService.suggest("ice70000000", 1)).hasSize(1);
+
+        atlas.setSociete("Atlas Suggest Acier");
+        fournisseurService.updateFournisseur(atlas.getId(), atlas);
+        assertThat(fournisseurService.suggest("suggest fer", 10)).isEmpty();
+        assertThat(fournisseurService.suggest("suggest ac", 10)).extracting(FournisseurSuggestion::societe)
+                .containsExactly("Atlas Suggest Acier");
+
+        fournisseurService.deleteFournisseur(sud.getId());
+        crees.remove(sud.getId());
+        assertThat(fournisseurService.suggest("sud sugg", 10)).isEmpty();
+        assertThat(fournisseurService.suggest(" ", 10)).isEmpty();
+        assertThatThrownBy(() -> fournisseurService.suggest("atlas", 51)).isInstanceOf(BusinessException.class);
+    }
+
+    private FournisseurDTO creer(String societe, String ville, String ice) {
+        FournisseurDTO dto = new FournisseurDTO();
+        dto.setSociete(societe);
+        dto.setAdresse("Adresse");
+        dto.setContact("Contact");
+        dto.setEmail(ice.toLowerCase() + "@tricol.ma");
+        dto.setTelephone("0600000000");
+        dto.setVille(ville);
+        dto.setIce(ice);
+        FournisseurDTO cree = fournisseurService.addFournisseur(dto);
+        crees.add(cree.getId());
+        return cree;
+    }
+}
@@ -0,0 +1,124 @@
+package com.tricol.tricolV2.integration.service;
+
+import com.tricol.tricolV2.config.AppProperties;
+import com.tricol.tricolV2.dto.ImportErreurDTO;
+import com.tricol.tricolV2.dto.ImportRapportDTO;
+import com.tricol.tricolV2.entity.Fournisseur;
+import com.tricol.tricolV2.entity.MouvementStock;
+import com.tricol.tricolV2.entity.Produit;
+import com.tricol.tricolV2.entity.enums.TypeMouvement;
+import com.tricol.tricolV2.mapper.FournisseurMapperImpl;
+import com.tricol.tricolV2.mapper.ProduitMapperImpl;
+import com.tricol.tricolV2.repository.FournisseurRepository;
+import com.tricol.tricolV2.repository.MouvementStockRepository;
+import com.tricol.tricolV2.repository.ProduitRepository;
+import com.tricol.tricolV2.service.FifoLotEngine;
+import com.tricol.tricolV2.service.ImportService;
+import com.tricol.tricolV2.service.ImportServiceImpl;
+import com.tricol.tricolV2.util.ImportFormat;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ImportAutoConfiguration({JacksonAutoConfiguration.class, ValidationAutoConfiguration.class})
+@Import({ImportServiceImpl.class, ProduitMapperImpl.class, FournisseurMapperImpl.class, FifoLotEngine.class,
+        AppProperties.class})
+@TestPropertySource(properties = "app.import.taille-lot=3")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ImportServiceTest {
+
+    @Autowired
+    ImportService importService;
+    @Autowired
+    ProduitRepository produitRepository;
+    @Autowired
+    MouvementStockRepository mouvementRepository;
+    @Autowired
+    FournisseurRepository fournisseurRepository;
+
+    @Test
+    void importerProduits_json_insere_les_valides_et_rapporte_les_rejets() throws IOException {
+        String json = """
+                [
+                  {"nom": "Vis 4mm", "prixUnitaire": 0.25, "categorie": "Import-json", "stockActuel": 1000},
+                  {"prixUnitaire": 1.00, "categorie": "Import-json", "stockActuel": 5},
+                  {"nom": "Écrou", "prixUnitaire": 0.10, "categorie": "Import-json", "stockActuel": 0},
+                  {"nom": "Rondelle", "prixUnitaire": "abc", "categorie": "Import-json", "stockActuel": 1},
+                  {"nom": "Boulon", "prixUnitaire": 0.40, "categorie": "Import-json", "stockActuel": 250},
+                  {"nom": "Cheville", "prixUnitaire": -1, "categorie": "Import-json", "stockActuel": -3}
+                ]""";
+
+        ImportRapportDTO rapport = importService.importerProduits(flux(json), ImportFormat.JSON);
+
+        assertThat(rapport.getLignesLues()).isEqualTo(6);
+        assertThat(rapport.getImportees()).isEqualTo(3);
+        assertThat(rapport.getRejetees()).isEqualTo(3);
+        assertThat(rapport.getErreurs()).extracting(ImportErreurDTO::getLigne).containsExactly(2L, 4L, 6L);
+        assertThat(rapport.getErreurs().get(0).getMessage()).contains("nom");
+        assertThat(rapport.getErreurs().get(2).getMessage()).contains("prixUnitaire").contains("stockActuel");
+
+        List<Produit> produits = produitRepository.findAll().stream()
+                .filter(p -> "Import-json".equals(p.getCategorie()))
+                .toList();
+        assertThat(produits).extracting(Produit::getNom).containsExactlyInAnyOrder("Vis 4mm", "Écrou", "Boulon");
+        Produit vis = produits.stream().filter(p -> p.getNom().equals("Vis 4mm")).findFirst().orElseThrow();
+        assertThat(vis.getCoutUnitaireMoyen()).isEqualByComparingTo("0.25");
+
+        List<MouvementStock> entrees = mouvementRepository.findAll().stream()
+                .filter(m -> produits.stream().anyMatch(p -> p.getId().equals(m.getProduit().getId())))
+                .toList();
+        // Pas de mouvement pour un produit importé sans stock
+        assertThat(entrees).hasSize(2).allMatch(m -> m.getType() == TypeMouvement.ENTREE);
+    }
+
+    @Test
+    void importerFournisseurs_csv_rejette_les_ice_en_double() throws IOException {
+        Fournisseur existant = new Fournisseur();
+        existant.setAdresse("1 rue du Port");
+        existant.setSociete("Existant");
+        existant.setContact("Contact");
+        existant.setEmail("existant@corp.ma");
+        existant.setTelephone("0600000001");
+        existant.setVille("Tanger");
+        existant.setIce("ICE9000000001");
+        fournisseurRepository.save(existant);
+
+        String csv = """
+                societe,adresse,contact,email,telephone,ville,ice
+                Atlas Fer,2 rue A,Amine,atlas@fer.ma,0600000002,Casablanca,ICE9000000002
+                Doublon Base,3 rue B,Badr,doublon@base.ma,0600000003,Rabat,ICE9000000001
+                Sud Bois,4 rue C,Chama,sud@bois.ma,0600000004,Agadir,ICE9000000004
+                Doublon Fichier,5 rue D,Driss,doublon@fichier.ma,0600000005,Fès,ICE9000000002
+                Sans Email,6 rue E,Ely,,0600000006,Oujda,ICE9000000006
+                """;
+
+        ImportRapportDTO rapport = importService.importerFournisseurs(flux(csv), ImportFormat.CSV);
+
+        assertThat(rapport.getLignesLues()).isEqualTo(5);
+        assertThat(rapport.getImportees()).isEqualTo(2);
+        assertThat(rapport.getErreurs()).extracting(ImportErreurDTO::getLigne).containsExactly(2L, 4L, 5L);
+        assertThat(rapport.getErreurs().get(0).getMessage()).contains("ICE");
+        assertThat(rapport.getErreurs().get(2).getMessage()).contains("email");
+        assertThat(fournisseurRepository.findByIce("ICE9000000004")).isPresent();
+        assertThat(fournisseurRepository.findByIce("ICE9000000002").orElseThrow().getSociete()).isEqualTo("Atlas Fer");
+    }
+
+    private static ByteArrayInputStream flux(String contenu) {
+        return new ByteArrayInputStream(contenu.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,246 @@
+package com.tricol.tricolV2.integration.service;
+
+import com.tricol.tricolV2.config.AppProperties;
+import com.tricol.tricolV2.config.CacheConfig;
+import com.tricol.tricolV2.config.LivraisonConfig;
+import com.tricol.tricolV2.dto.LivraisonJobDTO;
+import com.tricol.tricolV2.entity.CommandeFournisseur;
+import com.tricol.tricolV2.entity.Fournisseur;
+import com.tricol.tricolV2.entity.LigneCommandeFournisseur;
+import com.tricol.tricolV2.entity.LivraisonJob;
+import com.tricol.tricolV2.entity.Produit;
+import com.tricol.tricolV2.entity.enums.StatutCommande;
+import com.tricol.tricolV2.entity.enums.StatutLivraison;
+import com.tricol.tricolV2.exception.BusinessException;
+import com.tricol.tricolV2.mapper.CommandeFournisseurMapperImpl;
+import com.tricol.tricolV2.mapper.LigneCommandeMapperImpl;
+import com.tricol.tricolV2.repository.CommandeFournisseurRepository;
+import com.tricol.tricolV2.repository.FournisseurRepository;
+import com.tricol.tricolV2.repository.LivraisonJobRepository;
+import com.tricol.tricolV2.repository.MouvementStockRepository;
+import com.tricol.tricolV2.repository.ProduitRepository;
+import com.tricol.tricolV2.service.CommandeFournisseurServiceImpl;
+import com.tricol.tricolV2.service.FifoLotEngine;
+import com.tricol.tricolV2.service.LivraisonService;
+import com.tricol.tricolV2.service.LivraisonServiceImpl;
+import com.tricol.tricolV2.service.MouvementStockServiceImpl;
+import com.tricol.tricolV2.service.ProduitCatalogueCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@Import({CommandeFournisseurServiceImpl.class, MouvementStockServiceImpl.class, FifoLotEngine.class, AppProperties.class,
+        ProduitCatalogueCache.class, CacheConfig.class, CommandeFournisseurMapperImpl.class, LigneCommandeMapperImpl.class,
+        LivraisonServiceImpl.class, LivraisonConfig.class, SimpleMeterRegistry.class})
+@TestPropertySource(properties = {"app.livraison.async=true", "app.livraison.workers=2"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LivraisonAsyncTest {
+
+    @Autowired
+    LivraisonService livraisonService;
+    @Autowired
+    LivraisonJobRepository jobRepository;
+    @Autowired
+    ProduitRepository produitRepository;
+    @Autowired
+    FournisseurRepository fournisseurRepository;
+    @Autowired
+    CommandeFournisseurRepository commandeRepository;
+    @Autowired
+    MouvementStockRepository mouvementRepository;
+
+    private Fournisseur fournisseur;
+
+    @BeforeEach
+    void setUp() {
+        jobRepository.deleteAll();
+        mouvementRepository.deleteAll();
+        commandeRepository.deleteAll();
+        produitRepository.deleteAll();
+        fournisseurRepository.deleteAll();
+
+        Fournisseur f = new Fournisseur();
+        f.setAdresse("2 rue des Quais");
+        f.setSociete("LivraisonCorp");
+        f.setContact("Test");
+        f.setEmail("livraison@corp.com");
+        f.setTelephone("0600000001");
+        f.setVille("Rabat");
+        f.setIce("ICE000000010");
+        fournisseur = fournisseurRepository.save(f);
+    }
+
+    @Test
+    void planifier_livre_la_commande_en_arriere_plan() throws Exception {
+        Produit produit = produitRepository.save(produit("Boulon", new BigDecimal("10")));
+        CommandeFournisseur commande = commande(produit, new BigDecimal("4"));
+
+        LivraisonJobDTO job = livraisonService.planifier(commande.getId());
+        assertThat(job.getCommandeId()).isEqualTo(commande.getId());
+
+        LivraisonJobDTO fini = attendreFin(commande.getId());
+        assertThat(fini.getStatut()).isEqualTo(StatutLivraison.TERMINEE);
+        assertThat(fini.getTentatives()).isEqualTo(1);
+        assertThat(commandeRepository.findById(commande.getId()).orElseThrow().getStatut())
+                .isEqualTo(StatutCommande.LIVREE);
+        assertThat(produitRepository.findById(produit.getId()).orElseThrow().getStockActuel())
+                .isEqualByComparingTo("6");
+    }
+
+    @Test
+    void planifier_est_idempotent_par_commande() throws Exception {
+        Produit produit = produitRepository.save(produit("Rondelle", new BigDecimal("10")));
+        CommandeFournisseur commande = commande(produit, new BigDecimal("3"));
+
+        LivraisonJobDTO premier = livraisonService.planifier(commande.getId());
+        LivraisonJobDTO second = livraisonService.planifier(commande.getId());
+        attendreFin(commande.getId());
+        LivraisonJobDTO troisieme = livraisonService.planifier(commande.getId());
+
+        assertThat(second.getId()).isEqualTo(premier.getId());
+        assertThat(troisieme.getId()).isEqualTo(premier.getId());
+        assertThat(troisieme.getStatut()).isEqualTo(StatutLivraison.TERMINEE);
+        assertThat(jobRepository.count()).isEqualTo(1);
+        assertThat(mouvementRepository.count()).isEqualTo(1);
+        assertThat(produitRepository.findById(produit.getId()).orElseThrow().getStockActuel())
+                .isEqualByComparingTo("7");
+    }
+
+    @Test
+    void stock_insuffisant_passe_en_echec_puis_relance_reussit() throws Exception {
+        Produit produit = produitRepository.save(produit("Cheville", new BigDecimal("2")));
+        CommandeFournisseur commande = commande(produit, new BigDecimal("5"));
+
+        livraisonService.planifier(commande.getId());
+        LivraisonJobDTO echec = attendreFin(commande.getId());
+        assertThat(echec.getStatut()).isEqualTo(StatutLivraison.ECHEC);
+        assertThat(echec.getDerniereErreur()).contains("Cheville");
+        assertThat(commandeRepository.findById(commande.getId()).orElseThrow().getStatut())
+                .isEqualTo(StatutCommande.VALIDEE);
+        assertThat(mouvementRepository.count()).isZero();
+
+        Produit reappro = produitRepository.findById(produit.getId()).orElseThrow();
+        reappro.setStockActuel(new BigDecimal("8"));
+        produitRepository.save(reappro);
+
+        livraisonService.planifier(commande.getId());
+        LivraisonJobDTO relance = attendreFin(commande.getId());
+        assertThat(relance.getStatut()).isEqualTo(StatutLivraison.TERMINEE);
+        assertThat(relance.getDerniereErreur()).isNull();
+        assertThat(produitRepository.findById(produit.getId()).orElseThrow().getStockActuel())
+                .isEqualByComparingTo("3");
+    }
+
+    @Test
+    void planifier_refuse_une_commande_deja_livree_sans_job() {
+        Produit produit = produitRepository.save(produit("Clou", new BigDecimal("10")));
+        CommandeFournisseur commande = commande(produit, BigDecimal.ONE);
+        commandeRepository.findById(commande.getId()).ifPresent(c -> {
+            c.setStatut(StatutCommande.LIVREE);
+            commandeRepository.save(c);
+        });
+
+        assertThatThrownBy(() -> livraisonService.planifier(commande.getId()))
+                .isInstanceOf(BusinessException.class);
+        assertThat(jobRepository.count()).isZero();
+    }
+
+    @Test
+    void job_termine_rearme_si_la_commande_n_est_plus_livree() throws Exception {
+        Produit produit = produitRepository.save(produit("Vis", new BigDecimal("10")));
+        CommandeFournisseur commande = commande(produit, new BigDecimal("2"));
+        livraisonService.planifier(commande.getId());
+        attendreFin(commande.getId());
+
+        CommandeFournisseur revenue = commandeRepository.findById(commande.getId()).orElseThrow();
+        revenue.setStatut(StatutCommande.VALIDEE);
+        commandeRepository.save(revenue);
+
+        LivraisonJobDTO rearme = livraisonService.planifier(commande.getId());
+        assertThat(rearme.getStatut()).isEqualTo(StatutLivraison.EN_ATTENTE);
+        assertThat(attendreFin(commande.getId()).getStatut()).isEqualTo(StatutLivraison.TERMINEE);
+        assertThat(commandeRepository.findById(commande.getId()).orElseThrow().getStatut())
+                .isEqualTo(StatutCommande.LIVREE);
+        // Les mouvements de la première livraison ne sont pas recréés, comme en synchrone
+        assertThat(mouvementRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void balayage_abandonne_les_jobs_bloques_a_la_derniere_tentative() {
+        Produit produit = produitRepository.save(produit("Écrou", new BigDecimal("10")));
+        LocalDateTime ancien = LocalDateTime.now().minusHours(1);
+        LivraisonJob rejouable = jobRepository.save(jobBloque(commande(produit, BigDecimal.ONE), 1, ancien));
+        LivraisonJob epuise = jobRepository.save(jobBloque(commande(produit, BigDecimal.ONE), 3, ancien));
+
+        ((LivraisonServiceImpl) livraisonService).balayer();
+
+        assertThat(jobRepository.findById(rejouable.getId()).orElseThrow().getStatut())
+                .isEqualTo(StatutLivraison.EN_ATTENTE);
+        LivraisonJob abandonne = jobRepository.findById(epuise.getId()).orElseThrow();
+        assertThat(abandonne.getStatut()).isEqualTo(StatutLivraison.ECHEC);
+        assertThat(abandonne.getDerniereErreur()).contains("interrompu");
+    }
+
+    private LivraisonJob jobBloque(CommandeFournisseur commande, int tentatives, LocalDateTime dateMaj) {
+        return LivraisonJob.builder()
+                .commandeId(commande.getId())
+                .statut(StatutLivraison.EN_COURS)
+                .tentatives(tentatives)
+                .dateCreation(dateMaj)
+                .dateMaj(dateMaj)
+                .build();
+    }
+
+    private LivraisonJobDTO attendreFin(Long commandeId) throws InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            LivraisonJobDTO job = livraisonService.getJob(commandeId).orElseThrow();
+            if (job.getStatut() == StatutLivraison.TERMINEE || job.getStatut() == StatutLivraison.ECHEC) {
+                return job;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Livraison non terminée pour la commande " + commandeId);
+    }
+
+    private Produit produit(String nom, BigDecimal stock) {
+        Produit p = new Produit();
+        p.setNom(nom);
+        p.setCategorie("Quincaillerie");
+        p.setPrixUnitaire(new BigDecimal("1.50"));
+        p.setStockActuel(stock);
+        p.setCoutUnitaireMoyen(new BigDecimal("1.50"));
+        return p;
+    }
+
+    private CommandeFournisseur commande(Produit produit, BigDecimal quantite) {
+        CommandeFournisseur c = new CommandeFournisseur();
+        c.setDateCommande(LocalDateTime.now());
+        c.setStatut(StatutCommande.VALIDEE);
+        c.setMontantTotal(produit.getPrixUnitaire().multiply(quantite));
+        c.setFournisseur(fournisseur);
+
+        LigneCommandeFournisseur l = new LigneCommandeFournisseur();
+        l.setProduit(produit);
+        l.setQuantite(quantite);
+        l.setPrixUnitaire(produit.getPrixUnitaire());
+        l.setMontantLigne(c.getMontantTotal());
+        l.setCommande(c);
+        c.setLignes(new ArrayList<>(List.of(l)));
+        return commandeRepository.save(c);
+    }
+}
@@ -0,0 +1,99 @@
+package com.tricol.tricolV2.integration.service;
+
+import com.tricol.tricolV2.config.AppProperties;
+import com.tricol.tricolV2.config.CacheConfig;
+import com.tricol.tricolV2.config.MetricsConfig;
+import com.tricol.tricolV2.config.SqlParRequeteInspector;
+import com.tricol.tricolV2.dto.CommandeFournisseurDTO;
+import com.tricol.tricolV2.dto.LigneCommandeDTO;
+import com.tricol.tricolV2.entity.Fournisseur;
+import com.tricol.tricolV2.entity.Produit;
+import com.tricol.tricolV2.entity.enums.StatutCommande;
+import com.tricol.tricolV2.mapper.CommandeFournisseurMapperImpl;
+import com.tricol.tricolV2.mapper.LigneCommandeMapperImpl;
+import com.tricol.tricolV2.service.CommandeFournisseurService;
+import com.tricol.tricolV2.service.CommandeFournisseurServiceImpl;
+import com.tricol.tricolV2.service.FifoLotEngine;
+import com.tricol.tricolV2.service.MouvementStockServiceImpl;
+import com.tricol.tricolV2.service.ProduitCatalogueCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.metrics.MetricsAspectsAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.export.simple.SimpleMetricsExportAutoConfiguration;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "management.observations.annotations.enabled=true")
+@ImportAutoConfiguration({AopAutoConfiguration.class, MetricsAutoConfiguration.class,
+        SimpleMetricsExportAutoConfiguration.class, MetricsAspectsAutoConfiguration.class})
+@Import({CommandeFournisseurServiceImpl.class, MouvementStockServiceImpl.class, FifoLotEngine.class, AppProperties.class,
+        ProduitCatalogueCache.class, CacheConfig.class, CommandeFournisseurMapperImpl.class, LigneCommandeMapperImpl.class,
+        MetricsConfig.class})
+class MetriquesTest {
+
+    @Autowired
+    CommandeFournisseurService commandeService;
+    @Autowired
+    SqlParRequeteInspector sqlParRequete;
+    @Autowired
+    MeterRegistry registry;
+    @Autowired
+    EntityManager entityManager;
+
+    @Test
+    void creation_et_livraison_alimentent_les_timers_et_le_compte_sql() {
+        Fournisseur fournisseur = new Fournisseur();
+        fournisseur.setAdresse("Adresse");
+        fournisseur.setSociete("Metriques SARL");
+        fournisseur.setContact("Contact");
+        fournisseur.setEmail("metriques@tricol.ma");
+        fournisseur.setTelephone("0600000000");
+        fournisseur.setVille("Ville");
+        fournisseur.setIce("ICE888000001");
+        entityManager.persist(fournisseur);
+        Produit produit = new Produit();
+        produit.setNom("Produit métriques");
+        produit.setCategorie("Metriques");
+        produit.setPrixUnitaire(new BigDecimal("4.00"));
+        produit.setStockActuel(new BigDecimal("50"));
+        entityManager.persist(produit);
+        entityManager.flush();
+
+        CommandeFournisseurDTO dto = new CommandeFournisseurDTO();
+        dto.setDateCommande(LocalDateTime.now().minusHours(1));
+        dto.setStatut(StatutCommande.EN_ATTENTE);
+        dto.setFournisseurId(fournisseur.getId());
+        dto.setLignes(List.of(LigneCommandeDTO.builder().produitId(produit.getId()).quantite(new BigDecimal("5")).build()));
+
+        MockHttpServletRequest requete = new MockHttpServletRequest("POST", "/api/v2/commandes-fournisseur");
+        requete.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/v2/commandes-fournisseur");
+        sqlParRequete.preHandle(requete, new MockHttpServletResponse(), null);
+        CommandeFournisseurDTO creee = commandeService.create(dto);
+        entityManager.flush();
+        sqlParRequete.afterCompletion(requete, new MockHttpServletResponse(), null, null);
+
+        commandeService.updateStatut(creee.getId(), StatutCommande.LIVREE);
+
+        assertThat(registry.get("tricol.commande").tag("operation", "creation").timer().count()).isEqualTo(1);
+        assertThat(registry.get("tricol.commande").tag("operation", "statut").timer().count()).isEqualTo(1);
+        assertThat(registry.get("tricol.stock.allocation").timer().count()).isEqualTo(1);
+        assertThat(registry.get("tricol.stock.allocation.candidats").summary().totalAmount()).isGreaterThanOrEqualTo(1);
+        assertThat(registry.get("tricol.mapper").tag("methode", "toEntity").timers()).isNotEmpty();
+        assertThat(registry.get("tricol.http.sql").tag("uri", "/api/v2/commandes-fournisseur").summary().totalAmount())
+                .isGreaterThan(0);
+    }
+}
@@ -0,0 +1,131 @@
+package com.tricol.tricolV2.integration.service;
+
+import com.tricol.tricolV2.config.AppProperties;
+import com.tricol.tricolV2.dto.CursorPage;
+import com.tricol.tricolV2.dto.MouvementStockDTO;
+import com.tricol.tricolV2.entity.MouvementStock;
+import com.tricol.tricolV2.entity.Produit;
+import com.tricol.tricolV2.entity.enums.TypeMouvement;
+import com.tricol.tricolV2.exception.BusinessException;
+import com.tricol.tricolV2.repository.MouvementStockRepository;
+import com.tricol.tricolV2.repository.ProduitRepository;
+import com.tricol.tricolV2.service.MouvementStockService;
+import com.tricol.tricolV2.service.FifoLotEngine;
+import com.tricol.tricolV2.service.MouvementStockServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@Import({MouvementStockServiceImpl.class, FifoLotEngine.class, AppProperties.class, SimpleMeterRegistry.class})
+class MouvementKeysetPaginationTest {
+
+    private static final int MOUVEMENTS = 250;
+
+    @Autowired
+    MouvementStockService mouvementStockService;
+    @Autowired
+    MouvementStockRepository mouvementRepository;
+    @Autowired
+    ProduitRepository produitRepository;
+
+    private Produit vis;
+
+    @BeforeEach
+    void setUp() {
+        mouvementRepository.deleteAllInBatch();
+        vis = produitRepository.save(produit("Vis"));
+        Produit ecrou = produitRepository.save(produit("Ecrou"));
+
+        // Plusieurs mouvements partagent la même date: l'id doit départager sans doublon ni trou
+        LocalDateTime debut = LocalDateTime.of(2024, 3, 1, 8, 0);
+        List<MouvementStock> mouvements = new ArrayList<>();
+        TypeMouvement[] types = TypeMouvement.values();
+        for (int i = 0; i < MOUVEMENTS; i++) {
+            mouvements.add(MouvementStock.builder()
+                    .dateMouvement(debut.plusMinutes(i / 7))
+                    .type(types[i % types.length])
+                    .quantite(BigDecimal.ONE)
+                    .coutUnitaire(BigDecimal.TEN)
+                    .produit(i % 2 == 0 ? vis : ecrou)
+                    .build());
+        }
+        mouvementRepository.saveAll(mouvements);
+    }
+
+    @Test
+    void scroll_visits_every_mouvement_once_in_date_then_id_descending_order() {
+        List<Long> vus = parcourir(after -> mouvementStockService.scroll(after, 40));
+
+        List<Long> attendus = mouvementRepository
+                .findAll(Sort.by(Sort.Order.desc("dateMouvement"), Sort.Order.desc("id"))).stream()
+                .map(MouvementStock::getId)
+                .toList();
+        assertThat(vus).hasSize(MOUVEMENTS).containsExactlyElementsOf(attendus);
+    }
+
+    @Test
+    void scroll_keeps_the_existing_filters() {
+        List<Long> parProduit = parcourir(after -> mouvementStockService.scrollByProduit(vis.getId(), after, 30));
+        assertThat(parProduit).hasSize(MOUVEMENTS / 2)
+                .allSatisfy(id -> assertThat(mouvementRepository.findById(id).orElseThrow().getProduit().getId())
+                        .isEqualTo(vis.getId()));
+
+        List<Long> sorties = parcourir(after -> mouvementStockService.scrollByType(TypeMouvement.SORTIE, after, 30));
+        assertThat(sorties).isNotEmpty()
+                .allSatisfy(id -> assertThat(mouvementRepository.findById(id).orElseThrow().getType())
+                        .isEqualTo(TypeMouvement.SORTIE));
+    }
+
+    @Test
+    void last_page_has_no_next_cursor() {
+        CursorPage<MouvementStockDTO> page = mouvementStockService.scroll(null, MOUVEMENTS);
+
+        assertThat(page.getContent()).hasSize(MOUVEMENTS);
+        assertThat(page.isHasNext()).isFalse();
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void invalid_cursor_or_limit_is_rejected() {
+        assertThatThrownBy(() -> mouvementStockService.scroll("pas-un-curseur", 10))
+                .isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> mouvementStockService.scroll(null, 0))
+                .isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> mouvementStockService.scroll(null, 501))
+                .isInstanceOf(BusinessException.class);
+    }
+
+    private List<Long> parcourir(Function<String, CursorPage<MouvementStockDTO>> page) {
+        List<Long> ids = new ArrayList<>();
+        String after = null;
+        do {
+            CursorPage<MouvementStockDTO> courante = page.apply(after);
+            courante.getContent().forEach(m -> ids.add(m.getId()));
+            after = courante.getNextCursor();
+        } while (after != null);
+        return ids;
+    }
+
+    private Produit produit(String nom) {
+        Produit p = new Produit();
+        p.setNom(nom);
+        p.setCategorie("Quincaillerie");
+        p.setPrixUnitaire(BigDecimal.TEN);
+        p.setStockActuel(BigDecimal.ZERO);
+        return p;
+    }
+}
@@ -0,0 +1,156 @@
+package com.tricol.tricolV2.integration.service;
+
+import com.tricol.tricolV2.config.AppProperties;
+import com.tricol.tricolV2.config.CacheConfig;
+import com.tricol.tricolV2.dto.ProduitCatalogue;
+import com.tricol.tricolV2.dto.ProduitDTO;
+import com.tricol.tricolV2.dto.ProduitVersionne;
+import com.tricol.tricolV2.entity.Produit;
+import com.tricol.tricolV2.mapper.ProduitMapper;
+import com.tricol.tricolV2.repository.MouvementStockRepository;
+import com.tricol.tricolV2.repository.ProduitRepository;
+import com.tricol.tricolV2.service.FifoLotEngine;
+import com.tricol.tricolV2.service.ProduitCatalogueCache;
+import com.tricol.tricolV2.service.ProduitService;
+import com.tricol.tricolV2.service.ProduitServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(classes = {CacheConfig.class, ProduitServiceImpl.class, ProduitCatalogueCache.class,
+        SimpleMeterRegistry.class})
+class ProduitCatalogueCacheTest {
+
+    @Autowired
+    ProduitService produitService;
+    @Autowired
+    ProduitCatalogueCache produitCatalogueCache;
+    @Autowired
+    CacheManager cacheManager;
+
+    @MockBean
+    ProduitRepository produitRepository;
+    @MockBean
+    MouvementStockRepository mouvementStockRepository;
+    @MockBean
+    ProduitMapper produitMapper;
+    @MockBean
+    AppProperties appProperties;
+    @MockBean
+    PlatformTransactionManager transactionManager;
+    @MockBean
+    FifoLotEngine fifoLotEngine;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(CacheConfig.PRODUIT_CATALOGUE).clear();
+        when(produitRepository.findCatalogueByIdIn(anyCollection())).thenAnswer(inv -> {
+            Collection<Long> ids = inv.getArgument(0);
+            return ids.stream().filter(id -> id < 100).map(ProduitCatalogueCacheTest::catalogue).toList();
+        });
+    }
+
+    @Test
+    void getAll_loads_only_missing_ids_in_one_query_and_never_caches_unknown_ids() {
+        long hits = (long) produitCatalogueCache.stats().get("hitCount");
+        long misses = (long) produitCatalogueCache.stats().get("missCount");
+
+        assertThat(produitCatalogueCache.getAll(List.of(1L, 2L))).containsOnlyKeys(1L, 2L);
+        assertThat(produitCatalogueCache.getAll(List.of(1L, 2L, 3L, 404L))).containsOnlyKeys(1L, 2L, 3L);
+        assertThat(produitCatalogueCache.getAll(List.of(1L, 2L, 3L))).containsOnlyKeys(1L, 2L, 3L);
+
+        verify(produitRepository).findCatalogueByIdIn(Set.of(1L, 2L));
+        verify(produitRepository).findCatalogueByIdIn(Set.of(3L, 404L));
+        verifyNoMoreInteractions(produitRepository);
+        // 0 + 2 + 3 succès, 2 + 2 + 0 absences
+        assertThat((long) produitCatalogueCache.stats().get("hitCount") - hits).isEqualTo(5L);
+        assertThat((long) produitCatalogueCache.stats().get("missCount") - misses).isEqualTo(4L);
+    }
+
+    @Test
+    void getProduitById_serves_catalogue_from_cache_but_always_reads_stock_from_database() {
+        when(produitRepository.findStockById(1L)).thenReturn(
+                Optional.of(stock("10", "4.00", 1L)), Optional.of(stock("7", "4.50", 2L)));
+
+        ProduitDTO premier = produitService.getProduitById(1L).orElseThrow();
+        ProduitDTO second = produitService.getProduitById(1L).orElseThrow();
+
+        assertThat(premier.getNom()).isEqualTo("Produit 1");
+        assertThat(premier.getStockActuel()).isEqualByComparingTo("10");
+        assertThat(second.getStockActuel()).isEqualByComparingTo("7");
+        assertThat(second.getCoutUnitaireMoyen()).isEqualByComparingTo("4.50");
+        verify(produitRepository, times(2)).findStockById(1L);
+        verify(produitRepository, times(1)).findCatalogueByIdIn(anyCollection());
+    }
+
+    @Test
+    void version_suit_l_entree_catalogue_qui_a_servi_au_corps() {
+        // Renommage validé (version 2) mais entrée catalogue pas encore évincée
+        when(produitRepository.findStockById(1L)).thenReturn(Optional.of(stock("10", "4.00", 2L)));
+        when(produitRepository.findVersionById(1L)).thenReturn(Optional.of(2L));
+        produitCatalogueCache.get(1L);
+
+        ProduitVersionne perime = produitService.getProduitVersionne(1L).orElseThrow();
+        assertThat(perime.produit().getNom()).isEqualTo("Produit 1");
+        assertThat(perime.version()).isEqualTo("2.1");
+
+        when(produitRepository.findCatalogueByIdIn(Set.of(1L))).thenReturn(List.of(
+                new ProduitCatalogue(1L, "Produit renommé", null, "Cat", new BigDecimal("12.00"), 2L)));
+        produitCatalogueCache.evict(1L);
+
+        // L'ETag du corps périmé ne valide plus une fois l'entrée rechargée
+        assertThat(produitService.getProduitVersion(1L)).contains("2.2");
+        ProduitVersionne frais = produitService.getProduitVersionne(1L).orElseThrow();
+        assertThat(frais.produit().getNom()).isEqualTo("Produit renommé");
+        assertThat(frais.version()).isEqualTo("2.2");
+    }
+
+    @Test
+    void delete_evicts_the_catalogue_entry() {
+        produitCatalogueCache.get(1L);
+        when(produitRepository.findById(1L)).thenReturn(Optional.of(new Produit()));
+
+        produitService.deleteProduit(1L);
+        produitCatalogueCache.get(1L);
+
+        verify(produitRepository, times(2)).findCatalogueByIdIn(Set.of(1L));
+    }
+
+    private static ProduitCatalogue catalogue(Long id) {
+        return new ProduitCatalogue(id, "Produit " + id, null, "Cat", new BigDecimal("12.00"), 1L);
+    }
+
+    private static ProduitRepository.StockCourant stock(String quantite, String cump, long version) {
+        return new ProduitRepository.StockCourant() {
+            @Override
+            public BigDecimal getStockActuel() {
+                return new BigDecimal(quantite);
+            }
+
+            @Override
+            public BigDecimal getCoutUnitaireMoyen() {
+                return new BigDecimal(cump);
+            }
+
+            @Override
+            public Long getVersion() {
+                return version;
+            }
+        };
+    }
+}
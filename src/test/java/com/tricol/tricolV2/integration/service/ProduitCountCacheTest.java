@@ -0,0 +1,75 @@
+package com.tricol.tricolV2.integration.service;
+
+import com.tricol.tricolV2.config.AppProperties;
+import com.tricol.tricolV2.config.CacheConfig;
+import com.tricol.tricolV2.entity.Produit;
+import com.tricol.tricolV2.mapper.ProduitMapper;
+import com.tricol.tricolV2.repository.MouvementStockRepository;
+import com.tricol.tricolV2.repository.ProduitRepository;
+import com.tricol.tricolV2.service.FifoLotEngine;
+import com.tricol.tricolV2.service.ProduitCatalogueCache;
+import com.tricol.tricolV2.service.ProduitService;
+import com.tricol.tricolV2.service.ProduitServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(classes = {CacheConfig.class, ProduitServiceImpl.class, ProduitCatalogueCache.class,
+        SimpleMeterRegistry.class})
+class ProduitCountCacheTest {
+
+    @Autowired
+    ProduitService produitService;
+
+    @MockBean
+    ProduitRepository produitRepository;
+    @MockBean
+    MouvementStockRepository mouvementStockRepository;
+    @MockBean
+    ProduitMapper produitMapper;
+    @MockBean
+    AppProperties appProperties;
+    @MockBean
+    PlatformTransactionManager transactionManager;
+    @MockBean
+    FifoLotEngine fifoLotEngine;
+
+    @Test
+    void count_is_served_from_cache_until_a_write_invalidates_it() {
+        when(produitRepository.count()).thenReturn(3L, 2L);
+        Produit produit = new Produit();
+        when(produitRepository.findById(1L)).thenReturn(Optional.of(produit));
+
+        assertThat(produitService.cout()).isEqualTo(3L);
+        assertThat(produitService.cout()).isEqualTo(3L);
+        verify(produitRepository, times(1)).count();
+
+        produitService.deleteProduit(1L);
+
+        assertThat(produitService.cout()).isEqualTo(2L);
+        verify(produitRepository, times(2)).count();
+        verify(produitRepository, never()).findAll();
+    }
+
+    @Test
+    void category_counts_come_from_group_by_and_are_cached() {
+        ProduitRepository.CategorieCount outillage = mock(ProduitRepository.CategorieCount.class);
+        when(outillage.getCategorie()).thenReturn("Outillage");
+        when(outillage.getTotal()).thenReturn(4L);
+        when(produitRepository.countByCategorie()).thenReturn(List.of(outillage));
+
+        assertThat(produitService.countByCategorie()).containsEntry("Outillage", 4L);
+        assertThat(produitService.countByCategorie()).containsEntry("Outillage", 4L);
+
+        verify(produitRepository, times(1)).countByCategorie();
+    }
+}
@@ -0,0 +1,182 @@
+package com.tricol.tricolV2.integration.service;
+
+import com.tricol.tricolV2.config.AppProperties;
+import com.tricol.tricolV2.config.CacheConfig;
+import com.tricol.tricolV2.dto.ProduitDTO;
+import com.tricol.tricolV2.entity.Produit;
+import com.tricol.tricolV2.mapper.ProduitMapperImpl;
+import com.tricol.tricolV2.repository.ProduitRepository;
+import com.tricol.tricolV2.service.FifoLotEngine;
+import com.tricol.tricolV2.service.ProduitCatalogueCache;
+import com.tricol.tricolV2.service.ProduitService;
+import com.tricol.tricolV2.service.ProduitServiceImpl;
+import com.tricol.tricolV2.service.RechercheTexteIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import({ProduitServiceImpl.class, ProduitMapperImpl.class, AppProperties.class, ProduitCatalogueCache.class,
+        CacheConfig.class, FifoLotEngine.class, RechercheTexteIndex.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RechercheTexteIndexTest {
+
+    private static final AtomicReference<Runnable> PENDANT_LECTURE = new AtomicReference<>();
+
+    // Exécute le crochet armé par le test à la première ligne lue par l'index
+    @TestConfiguration
+    static class LectureInstrumentee {
+
+        @Bean
+        JdbcTemplate jdbcTemplate(DataSource dataSource) {
+            return new JdbcTemplate(dataSource) {
+                @Override
+                public void query(PreparedStatementCreator psc, RowCallbackHandler rch) {
+                    super.query(psc, rs -> {
+                        Runnable crochet = PENDANT_LECTURE.getAndSet(null);
+                        if (crochet != null) {
+                            crochet.run();
+                        }
+                        rch.processRow(rs);
+                    });
+                }
+            };
+        }
+    }
+
+    @Autowired
+    RechercheTexteIndex rechercheIndex;
+    @Autowired
+    ProduitService produitService;
+    @Autowired
+    ProduitRepository produitRepository;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    private final List<Long> crees = new ArrayList<>();
+
+    @AfterEach
+    void nettoyer() {
+        produitRepository.deleteAllById(crees);
+    }
+
+    @Test
+    void l_index_suit_les_ecritures_validees_et_ignore_les_annulees() {
+        Produit vis = produit("Vis trigramme 4mm", "Quincaillerie-trigramme");
+        assertThat(ids("trigramme")).containsExactly(vis.getId());
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(statut ->
+                produitRepository.findById(vis.getId()).orElseThrow().setNom("Boulon trigramme"));
+        assertThat(ids("vis trigr")).isEmpty();
+        assertThat(ids("boulon trigr")).containsExactly(vis.getId());
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(statut -> {
+            Produit annule = new Produit();
+            annule.setNom("Cheville trigramme");
+            annule.setCategorie("Quincaillerie-trigramme");
+            annule.setPrixUnitaire(BigDecimal.ONE);
+            annule.setStockActuel(BigDecimal.ZERO);
+            produitRepository.saveAndFlush(annule);
+            statut.setRollbackOnly();
+        });
+        assertThat(ids("cheville")).isEmpty();
+
+        produitRepository.deleteById(vis.getId());
+        crees.remove(vis.getId());
+        assertThat(ids("trigramme")).isEmpty();
+    }
+
+    @Test
+    void searchByNom_pagine_dans_l_ordre_de_l_index() {
+        Produit milieu = produit("Contre-écrou classe", "Visserie-classe");
+        Produit prefixe = produit("Écrou classé M8", "Visserie-classe");
+        Produit exact = produit("ecrou classe", "Visserie-classe");
+
+        Page<ProduitDTO> premiere = produitService.searchByNom("Ecrou Classe", PageRequest.of(0, 2));
+        assertThat(premiere.getTotalElements()).isEqualTo(3);
+        assertThat(premiere.getContent()).extracting(ProduitDTO::getId).containsExactly(exact.getId(), prefixe.getId());
+        assertThat(produitService.searchByNom("ecrou classe", PageRequest.of(1, 2)).getContent())
+                .extracting(ProduitDTO::getId).containsExactly(milieu.getId());
+        assertThat(produitService.searchByCategorie("serie-cla", PageRequest.of(0, 10)).getTotalElements())
+                .isEqualTo(3);
+
+        // Un tri explicite passe par la requête SQL
+        Page<ProduitDTO> triee = produitService.searchByNom("crou clas", PageRequest.of(0, 10, Sort.by("nom")));
+        assertThat(triee.getTotalElements()).isEqualTo(3);
+        assertThat(triee.getContent().get(0).getId()).isEqualTo(milieu.getId());
+    }
+
+    @Test
+    void une_suppression_validee_pendant_le_chargement_n_est_pas_ecrasee() throws Exception {
+        Produit garde = produit("Pince chargement", "Outillage-chargement");
+        Produit supprime = produit("Tenaille chargement", "Outillage-chargement");
+        ExecutorService concurrent = Executors.newSingleThreadExecutor();
+        List<Future<?>> suppression = new ArrayList<>();
+
+        // La suppression est validée pendant la lecture des produits, avant que le curseur n'atteigne sa ligne
+        PENDANT_LECTURE.set(() -> {
+            suppression.add(concurrent.submit(() -> produitRepository.deleteById(supprime.getId())));
+            try {
+                suppression.get(0).get(500, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException attendu) {
+                // Le listener post-commit attend la fin du chargement
+            } catch (InterruptedException | ExecutionException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        try {
+            rechercheIndex.charger();
+            suppression.get(0).get(5, TimeUnit.SECONDS);
+        } finally {
+            PENDANT_LECTURE.set(null);
+            concurrent.shutdownNow();
+        }
+        crees.remove(supprime.getId());
+
+        assertThat(ids("chargement")).containsExactly(garde.getId());
+    }
+
+    private List<Long> ids(String requete) {
+        return rechercheIndex.produitsParNom(requete, PageRequest.of(0, 10)).orElseThrow().ids();
+    }
+
+    private Produit produit(String nom, String categorie) {
+        Produit produit = new Produit();
+        produit.setNom(nom);
+        produit.setCategorie(categorie);
+        produit.setPrixUnitaire(new BigDecimal("1.00"));
+        produit.setStockActuel(BigDecimal.ZERO);
+        Produit saved = produitRepository.save(produit);
+        crees.add(saved.getId());
+        return saved;
+    }
+}
@@ -0,0 +1,158 @@
+package com.tricol.tricolV2.integration.service;
+
+import com.tricol.tricolV2.config.AppProperties;
+import com.tricol.tricolV2.config.RevalorisationConfig;
+import com.tricol.tricolV2.dto.RevalorisationDTO;
+import com.tricol.tricolV2.entity.MouvementStock;
+import com.tricol.tricolV2.entity.Produit;
+import com.tricol.tricolV2.entity.enums.StatutRevalorisation;
+import com.tricol.tricolV2.entity.enums.TypeMouvement;
+import com.tricol.tricolV2.repository.MouvementStockRepository;
+import com.tricol.tricolV2.repository.ProduitRepository;
+import com.tricol.tricolV2.repository.StockSnapshotRepository;
+import com.tricol.tricolV2.service.RevalorisationService;
+import com.tricol.tricolV2.service.RevalorisationServiceImpl;
+import com.tricol.tricolV2.util.ValorisationUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import({RevalorisationServiceImpl.class, RevalorisationConfig.class, AppProperties.class})
+@TestPropertySource(properties = {"app.stock.revalorisation.parallelisme=2",
+        "app.stock.revalorisation.taille-partition=2", "app.stock.revalorisation.taille-batch=3"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RevalorisationTest {
+
+    private static final int PRODUITS = 7;
+
+    @Autowired
+    RevalorisationService revalorisationService;
+    @Autowired
+    ProduitRepository produitRepository;
+    @Autowired
+    MouvementStockRepository mouvementRepository;
+    @Autowired
+    StockSnapshotRepository snapshotRepository;
+
+    private final List<Produit> produits = new ArrayList<>();
+    private Produit sansMouvement;
+
+    @BeforeEach
+    void setUp() {
+        snapshotRepository.deleteAllInBatch();
+        mouvementRepository.deleteAllInBatch();
+
+        // CUMP volontairement faux en base: le job doit le recalculer depuis le ledger
+        LocalDateTime debut = LocalDateTime.now().minusDays(10).withNano(0);
+        List<MouvementStock> mouvements = new ArrayList<>();
+        for (int p = 0; p < PRODUITS; p++) {
+            Produit produit = produitRepository.save(produit("Revalorisé " + p));
+            produits.add(produit);
+            for (int i = 0; i < 20 + p * 5; i++) {
+                boolean entree = i % 3 != 2;
+                mouvements.add(MouvementStock.builder()
+                        .dateMouvement(debut.plusHours(i))
+                        .type(entree ? TypeMouvement.ENTREE : TypeMouvement.SORTIE)
+                        .quantite(new BigDecimal(entree ? 10 + (i + p) % 7 : 4 + i % 3))
+                        .coutUnitaire(new BigDecimal("1.00").add(new BigDecimal((i * (p + 1)) % 17).movePointLeft(1)))
+                        .produit(produit)
+                        .build());
+            }
+        }
+        mouvementRepository.saveAll(mouvements);
+        sansMouvement = produitRepository.save(produit("Sans mouvement"));
+    }
+
+    @Test
+    void lancer_recalcule_le_cump_de_chaque_produit() throws InterruptedException {
+        RevalorisationDTO lance = revalorisationService.lancer();
+        assertThat(lance.getStatut()).isEqualTo(StatutRevalorisation.EN_COURS);
+
+        RevalorisationDTO etat = attendreFin();
+
+        assertThat(etat.getStatut()).isEqualTo(StatutRevalorisation.TERMINEE);
+        assertThat(etat.getProduitsTraites()).isEqualTo(etat.getProduitsTotal());
+        assertThat(etat.getMouvementsLus()).isEqualTo(mouvementRepository.count());
+        assertThat(etat.getProduitsIgnores()).isZero();
+        for (Produit produit : produits) {
+            assertThat(produitRepository.findById(produit.getId()).orElseThrow().getCoutUnitaireMoyen())
+                    .as("CUMP de %s", produit.getNom())
+                    .isEqualByComparingTo(rejeu(produit.getId()));
+        }
+        assertThat(produitRepository.findById(sansMouvement.getId()).orElseThrow().getCoutUnitaireMoyen())
+                .isEqualByComparingTo("99.00");
+    }
+
+    @Test
+    void majCoutsUnitairesMoyens_ignore_un_produit_mouvemente_apres_la_borne() {
+        Produit produit = produits.get(0);
+        long borne = mouvementRepository.dernierIdMouvement() - 1;
+
+        int majs = produitRepository.majCoutsUnitairesMoyens(
+                Map.of(produit.getId(), new BigDecimal("1.2345"), produits.get(1).getId(), new BigDecimal("2.5")),
+                borne, 500);
+
+        // Le dernier mouvement inséré appartient au dernier produit: les deux premiers sont mis à jour
+        assertThat(majs).isEqualTo(2);
+        majs = produitRepository.majCoutsUnitairesMoyens(
+                Map.of(produits.get(PRODUITS - 1).getId(), new BigDecimal("3")), borne, 500);
+        assertThat(majs).isZero();
+        assertThat(produitRepository.findById(produits.get(PRODUITS - 1).getId()).orElseThrow().getCoutUnitaireMoyen())
+                .isEqualByComparingTo("99.00");
+    }
+
+    private RevalorisationDTO attendreFin() throws InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            RevalorisationDTO etat = revalorisationService.getEtat().orElseThrow();
+            if (etat.getStatut() != StatutRevalorisation.EN_COURS) {
+                return etat;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("La revalorisation ne s'est pas terminée");
+    }
+
+    private BigDecimal rejeu(Long produitId) {
+        BigDecimal quantite = BigDecimal.ZERO;
+        BigDecimal cump = BigDecimal.ZERO;
+        List<MouvementStock> mouvements = mouvementRepository.findAll().stream()
+                .filter(m -> m.getProduit().getId().equals(produitId))
+                .sorted((a, b) -> a.getDateMouvement().equals(b.getDateMouvement())
+                        ? a.getId().compareTo(b.getId())
+                        : a.getDateMouvement().compareTo(b.getDateMouvement()))
+                .toList();
+        for (MouvementStock m : mouvements) {
+            if (m.getType() == TypeMouvement.ENTREE) {
+                cump = ValorisationUtil.calculateCump(quantite, cump, m.getQuantite(), m.getCoutUnitaire());
+                quantite = quantite.add(m.getQuantite());
+            } else {
+                quantite = quantite.subtract(m.getQuantite());
+            }
+        }
+        return cump;
+    }
+
+    private static Produit produit(String nom) {
+        Produit p = new Produit();
+        p.setNom(nom);
+        p.setCategorie("Revalorisation");
+        p.setPrixUnitaire(new BigDecimal("2.00"));
+        p.setStockActuel(BigDecimal.ZERO);
+        p.setCoutUnitaireMoyen(new BigDecimal("99.00"));
+        return p;
+    }
+}
@@ -0,0 +1,116 @@
+package com.tricol.tricolV2.integration.service;
+
+import com.tricol.tricolV2.dto.StatsDTO;
+import com.tricol.tricolV2.dto.StatsFournisseurDTO;
+import com.tricol.tricolV2.dto.StatsMensuelleDTO;
+import com.tricol.tricolV2.dto.StatsStatutDTO;
+import com.tricol.tricolV2.entity.CommandeFournisseur;
+import com.tricol.tricolV2.entity.Fournisseur;
+import com.tricol.tricolV2.entity.enums.StatutCommande;
+import com.tricol.tricolV2.service.StatsService;
+import com.tricol.tricolV2.service.StatsServiceImpl;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest
+@Import(StatsServiceImpl.class)
+class StatsServiceTest {
+
+    @Autowired
+    StatsService statsService;
+    @Autowired
+    EntityManager entityManager;
+
+    private Fournisseur atlas;
+    private Fournisseur sud;
+
+    @BeforeEach
+    void setUp() {
+        atlas = fournisseur("Atlas Fer", "ICE600000001");
+        sud = fournisseur("Sud Bois", "ICE600000002");
+        commande(atlas, LocalDateTime.of(2024, 1, 5, 10, 0), StatutCommande.LIVREE, "100.00");
+        commande(atlas, LocalDateTime.of(2024, 1, 20, 10, 0), StatutCommande.LIVREE, "50.50");
+        commande(atlas, LocalDateTime.of(2024, 2, 3, 10, 0), StatutCommande.ANNULEE, "400.00");
+        commande(sud, LocalDateTime.of(2024, 1, 31, 23, 59), StatutCommande.EN_ATTENTE, "75.00");
+        commande(sud, LocalDateTime.of(2024, 3, 1, 0, 0), StatutCommande.LIVREE, "300.00");
+        entityManager.flush();
+    }
+
+    @Test
+    void rafraichir_agrege_par_fournisseur_statut_et_mois() {
+        // fournisseur x mois x statut: atlas/01/LIVREE, atlas/02/ANNULEE, sud/01/EN_ATTENTE, sud/03/LIVREE
+        assertThat(statsService.rafraichir()).isEqualTo(4);
+
+        StatsDTO<StatsFournisseurDTO> parFournisseur = statsService.parFournisseur(null);
+        assertThat(parFournisseur.getCalculeLe()).isNotNull();
+        assertThat(parFournisseur.getLignes()).extracting(StatsFournisseurDTO::getSociete)
+                .containsExactly("Atlas Fer", "Sud Bois");
+        assertThat(parFournisseur.getLignes().get(0).getNombreCommandes()).isEqualTo(3);
+        assertThat(parFournisseur.getLignes().get(0).getMontantTotal()).isEqualByComparingTo("550.50");
+
+        List<StatsFournisseurDTO> livrees = statsService.parFournisseur(StatutCommande.LIVREE).getLignes();
+        assertThat(livrees).extracting(StatsFournisseurDTO::getSociete).containsExactly("Sud Bois", "Atlas Fer");
+        assertThat(livrees.get(1).getMontantTotal()).isEqualByComparingTo("150.50");
+
+        assertThat(statsService.parStatut().getLignes())
+                .extracting(StatsStatutDTO::getStatut, StatsStatutDTO::getNombreCommandes)
+                .containsExactlyInAnyOrder(
+                        tuple(StatutCommande.LIVREE, 3L),
+                        tuple(StatutCommande.ANNULEE, 1L),
+                        tuple(StatutCommande.EN_ATTENTE, 1L));
+
+        List<StatsMensuelleDTO> mensuel = statsService.mensuel(null).getLignes();
+        assertThat(mensuel).extracting(StatsMensuelleDTO::getMois).containsExactly(1, 2, 3);
+        assertThat(mensuel.get(0).getNombreCommandes()).isEqualTo(3);
+        assertThat(mensuel.get(0).getMontantTotal()).isEqualByComparingTo("225.50");
+        assertThat(statsService.mensuel(sud.getId()).getLignes()).extracting(StatsMensuelleDTO::getMois)
+                .containsExactly(1, 3);
+    }
+
+    @Test
+    void les_lectures_ne_voient_une_nouvelle_commande_qu_apres_rafraichissement() {
+        statsService.rafraichir();
+        commande(sud, LocalDateTime.of(2024, 3, 15, 9, 0), StatutCommande.LIVREE, "1000.00");
+        entityManager.flush();
+
+        assertThat(statsService.parFournisseur(null).getLignes().get(0).getSociete()).isEqualTo("Atlas Fer");
+
+        statsService.rafraichir();
+        StatsFournisseurDTO premier = statsService.parFournisseur(null).getLignes().get(0);
+        assertThat(premier.getSociete()).isEqualTo("Sud Bois");
+        assertThat(premier.getMontantTotal()).isEqualByComparingTo("1375.00");
+    }
+
+    private Fournisseur fournisseur(String societe, String ice) {
+        Fournisseur f = new Fournisseur();
+        f.setAdresse("Adresse");
+        f.setSociete(societe);
+        f.setContact("Contact");
+        f.setEmail(ice.toLowerCase() + "@tricol.ma");
+        f.setTelephone("0600000000");
+        f.setVille("Ville");
+        f.setIce(ice);
+        entityManager.persist(f);
+        return f;
+    }
+
+    private void commande(Fournisseur fournisseur, LocalDateTime date, StatutCommande statut, String montant) {
+        CommandeFournisseur c = new CommandeFournisseur();
+        c.setFournisseur(fournisseur);
+        c.setDateCommande(date);
+        c.setStatut(statut);
+        c.setMontantTotal(new BigDecimal(montant));
+        entityManager.persist(c);
+    }
+}
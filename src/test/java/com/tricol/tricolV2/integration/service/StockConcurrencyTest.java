@@ -0,0 +1,178 @@
+package com.tricol.tricolV2.integration.service;
+
+import com.tricol.tricolV2.config.AppProperties;
+import com.tricol.tricolV2.entity.CommandeFournisseur;
+import com.tricol.tricolV2.entity.Fournisseur;
+import com.tricol.tricolV2.entity.LigneCommandeFournisseur;
+import com.tricol.tricolV2.entity.Produit;
+import com.tricol.tricolV2.entity.enums.StatutCommande;
+import com.tricol.tricolV2.entity.enums.TypeMouvement;
+import com.tricol.tricolV2.exception.BusinessException;
+import com.tricol.tricolV2.repository.CommandeFournisseurRepository;
+import com.tricol.tricolV2.repository.FournisseurRepository;
+import com.tricol.tricolV2.repository.MouvementStockRepository;
+import com.tricol.tricolV2.repository.ProduitRepository;
+import com.tricol.tricolV2.service.MouvementStockService;
+import com.tricol.tricolV2.service.FifoLotEngine;
+import com.tricol.tricolV2.service.MouvementStockServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import({MouvementStockServiceImpl.class, FifoLotEngine.class, AppProperties.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StockConcurrencyTest {
+
+    private static final int LIVRAISONS = 64;
+
+    @Autowired
+    MouvementStockService mouvementStockService;
+    @Autowired
+    ProduitRepository produitRepository;
+    @Autowired
+    FournisseurRepository fournisseurRepository;
+    @Autowired
+    CommandeFournisseurRepository commandeRepository;
+    @Autowired
+    MouvementStockRepository mouvementRepository;
+
+    private Fournisseur fournisseur;
+
+    @BeforeEach
+    void setUp() {
+        mouvementRepository.deleteAll();
+        commandeRepository.deleteAll();
+        produitRepository.deleteAll();
+        fournisseurRepository.deleteAll();
+
+        Fournisseur f = new Fournisseur();
+        f.setAdresse("1 rue du Stock");
+        f.setSociete("StressCorp");
+        f.setContact("Test");
+        f.setEmail("stress@corp.com");
+        f.setTelephone("0600000000");
+        f.setVille("Casablanca");
+        f.setIce("ICE000000064");
+        fournisseur = fournisseurRepository.save(f);
+    }
+
+    @Test
+    void concurrent_deliveries_never_lose_stock_updates() throws Exception {
+        Produit produit = produitRepository.save(produit("Vis", new BigDecimal("200")));
+
+        Resultat resultat = livrerEnParallele(produit, new BigDecimal("2"));
+
+        assertThat(resultat.succes()).isEqualTo(LIVRAISONS);
+        Produit apres = produitRepository.findById(produit.getId()).orElseThrow();
+        assertThat(apres.getStockActuel()).isEqualByComparingTo("72");
+        assertThat(sommeSorties()).isEqualByComparingTo("128");
+    }
+
+    @Test
+    void concurrent_deliveries_never_oversell_scarce_stock() throws Exception {
+        Produit produit = produitRepository.save(produit("Ecrou", new BigDecimal("50")));
+
+        Resultat resultat = livrerEnParallele(produit, BigDecimal.ONE);
+
+        assertThat(resultat.succes()).isEqualTo(50);
+        assertThat(resultat.refus()).isEqualTo(LIVRAISONS - 50);
+        Produit apres = produitRepository.findById(produit.getId()).orElseThrow();
+        assertThat(apres.getStockActuel()).isEqualByComparingTo("0");
+        assertThat(sommeSorties()).isEqualByComparingTo("50");
+    }
+
+    private Resultat livrerEnParallele(Produit produit, BigDecimal quantite) throws Exception {
+        List<CommandeFournisseur> commandes = new ArrayList<>();
+        for (int i = 0; i < LIVRAISONS; i++) {
+            commandes.add(commande(produit, quantite));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(LIVRAISONS);
+        CountDownLatch depart = new CountDownLatch(1);
+        AtomicInteger succes = new AtomicInteger();
+        AtomicInteger refus = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (CommandeFournisseur commande : commandes) {
+            futures.add(pool.submit(() -> {
+                depart.await();
+                // Une livraison refusée doit l'être pour stock insuffisant, jamais par une mise à jour perdue
+                for (int tentative = 0; tentative < 20; tentative++) {
+                    try {
+                        mouvementStockService.createEntriesForCommande(commande);
+                        succes.incrementAndGet();
+                        return null;
+                    } catch (BusinessException e) {
+                        if (produitRepository.findById(produit.getId()).orElseThrow()
+                                .getStockActuel().compareTo(quantite) < 0) {
+                            refus.incrementAndGet();
+                            return null;
+                        }
+                    }
+                }
+                throw new IllegalStateException("Livraison non aboutie après 20 tentatives");
+            }));
+        }
+        depart.countDown();
+        for (Future<?> f : futures) {
+            f.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+        return new Resultat(succes.get(), refus.get());
+    }
+
+    private BigDecimal sommeSorties() {
+        return mouvementRepository.findAll().stream()
+                .filter(m -> m.getType() == TypeMouvement.SORTIE)
+                .map(m -> m.getQuantite())
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private Produit produit(String nom, BigDecimal stock) {
+        Produit p = new Produit();
+        p.setNom(nom);
+        p.setCategorie("Quincaillerie");
+        p.setPrixUnitaire(new BigDecimal("1.50"));
+        p.setStockActuel(stock);
+        p.setCoutUnitaireMoyen(new BigDecimal("1.50"));
+        return p;
+    }
+
+    private CommandeFournisseur commande(Produit produit, BigDecimal quantite) {
+        CommandeFournisseur c = new CommandeFournisseur();
+        c.setDateCommande(LocalDateTime.now());
+        c.setStatut(StatutCommande.VALIDEE);
+        c.setMontantTotal(produit.getPrixUnitaire().multiply(quantite));
+        c.setFournisseur(fournisseur);
+
+        LigneCommandeFournisseur l = new LigneCommandeFournisseur();
+        l.setProduit(produit);
+        l.setQuantite(quantite);
+        l.setPrixUnitaire(produit.getPrixUnitaire());
+        l.setMontantLigne(c.getMontantTotal());
+        l.setCommande(c);
+        c.setLignes(new ArrayList<>(List.of(l)));
+        return commandeRepository.save(c);
+    }
+
+    private record Resultat(int succes, int refus) {
+    }
+}
@@ -0,0 +1,148 @@
+package com.tricol.tricolV2.integration.service;
+
+import com.tricol.tricolV2.dto.StockAtDTO;
+import com.tricol.tricolV2.entity.MouvementStock;
+import com.tricol.tricolV2.entity.Produit;
+import com.tricol.tricolV2.entity.enums.TypeMouvement;
+import com.tricol.tricolV2.exception.NotFoundException;
+import com.tricol.tricolV2.repository.MouvementStockRepository;
+import com.tricol.tricolV2.repository.ProduitRepository;
+import com.tricol.tricolV2.repository.StockSnapshotRepository;
+import com.tricol.tricolV2.service.StockSnapshotService;
+import com.tricol.tricolV2.service.StockSnapshotServiceImpl;
+import com.tricol.tricolV2.util.ValorisationUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@Import(StockSnapshotServiceImpl.class)
+@TestPropertySource(properties = {"app.stock.snapshot-intervalle=50", "app.stock.snapshot-delai=PT0S"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StockSnapshotTest {
+
+    private static final int MOUVEMENTS = 240;
+
+    @Autowired
+    StockSnapshotService stockSnapshotService;
+    @Autowired
+    StockSnapshotRepository snapshotRepository;
+    @Autowired
+    ProduitRepository produitRepository;
+    @Autowired
+    MouvementStockRepository mouvementRepository;
+
+    private Produit produit;
+    private LocalDateTime debut;
+
+    @BeforeEach
+    void setUp() {
+        snapshotRepository.deleteAllInBatch();
+        mouvementRepository.deleteAllInBatch();
+
+        Produit p = new Produit();
+        p.setNom("Ledger");
+        p.setCategorie("Quincaillerie");
+        p.setPrixUnitaire(new BigDecimal("2.00"));
+        p.setStockActuel(BigDecimal.ZERO);
+        p.setCoutUnitaireMoyen(BigDecimal.ZERO);
+        produit = produitRepository.save(p);
+
+        // Alternance d'entrées à coûts variables et de sorties, une par heure; deux mouvements par date
+        // toutes les 10 heures pour vérifier qu'un point de contrôle ne coupe pas une même date
+        debut = LocalDateTime.now().minusDays(30).withNano(0);
+        List<MouvementStock> mouvements = new ArrayList<>();
+        for (int i = 0; i < MOUVEMENTS; i++) {
+            boolean entree = i % 3 != 2;
+            mouvements.add(MouvementStock.builder()
+                    .dateMouvement(debut.plusHours(i - (i % 10 == 1 ? 1 : 0)))
+                    .type(entree ? TypeMouvement.ENTREE : TypeMouvement.SORTIE)
+                    .quantite(new BigDecimal(entree ? 10 + i % 7 : 5 + i % 4))
+                    .coutUnitaire(new BigDecimal("1.00").add(new BigDecimal(i % 13).movePointLeft(1)))
+                    .produit(produit)
+                    .build());
+        }
+        mouvementRepository.saveAll(mouvements);
+    }
+
+    @Test
+    void stockAt_depuis_les_points_de_controle_egale_le_rejeu_complet() {
+        int ecrits = stockSnapshotService.checkpoint();
+
+        assertThat(ecrits).isGreaterThanOrEqualTo(MOUVEMENTS / 50);
+        assertThat(snapshotRepository.countByProduitId(produit.getId())).isEqualTo(ecrits);
+
+        for (int heure : new int[]{0, 1, 49, 50, 51, 120, 199, MOUVEMENTS - 1, MOUVEMENTS + 5}) {
+            LocalDateTime date = debut.plusHours(heure).plusMinutes(30);
+            StockAtDTO stock = stockSnapshotService.stockAt(produit.getId(), date);
+            Attendu attendu = rejeuComplet(date);
+
+            assertThat(stock.getQuantite()).as("quantité à %s", date).isEqualByComparingTo(attendu.quantite());
+            assertThat(stock.getCoutUnitaireMoyen()).as("CUMP à %s", date).isEqualByComparingTo(attendu.cump());
+            assertThat(stock.getMouvementsRejoues()).isLessThanOrEqualTo(51);
+        }
+    }
+
+    @Test
+    void stockAt_sans_point_de_controle_rejoue_tout_le_ledger() {
+        LocalDateTime date = debut.plusHours(MOUVEMENTS);
+
+        StockAtDTO stock = stockSnapshotService.stockAt(produit.getId(), date);
+
+        assertThat(stock.getDateSnapshot()).isNull();
+        assertThat(stock.getMouvementsRejoues()).isEqualTo(MOUVEMENTS);
+        assertThat(stock.getQuantite()).isEqualByComparingTo(rejeuComplet(date).quantite());
+    }
+
+    @Test
+    void checkpoint_est_incremental() {
+        int premier = stockSnapshotService.checkpoint();
+        int second = stockSnapshotService.checkpoint();
+
+        assertThat(premier).isPositive();
+        assertThat(second).isZero();
+    }
+
+    @Test
+    void stockAt_produit_inconnu_leve_not_found() {
+        assertThatThrownBy(() -> stockSnapshotService.stockAt(-1L, LocalDateTime.now()))
+                .isInstanceOf(NotFoundException.class);
+    }
+
+    private Attendu rejeuComplet(LocalDateTime date) {
+        BigDecimal quantite = BigDecimal.ZERO;
+        BigDecimal cump = BigDecimal.ZERO;
+        List<MouvementStock> mouvements = mouvementRepository.findAll().stream()
+                .filter(m -> m.getProduit().getId().equals(produit.getId()))
+                .filter(m -> !m.getDateMouvement().isAfter(date))
+                .sorted((a, b) -> a.getDateMouvement().equals(b.getDateMouvement())
+                        ? a.getId().compareTo(b.getId())
+                        : a.getDateMouvement().compareTo(b.getDateMouvement()))
+                .toList();
+        for (MouvementStock m : mouvements) {
+            if (m.getType() == TypeMouvement.ENTREE) {
+                cump = ValorisationUtil.calculateCump(quantite, cump, m.getQuantite(), m.getCoutUnitaire());
+                quantite = quantite.add(m.getQuantite());
+            } else {
+                quantite = quantite.subtract(m.getQuantite());
+            }
+        }
+        return new Attendu(quantite, cump);
+    }
+
+    private record Attendu(BigDecimal quantite, BigDecimal cump) {
+    }
+}
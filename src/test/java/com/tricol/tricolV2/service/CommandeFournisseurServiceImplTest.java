@@ -2,6 +2,7 @@ package com.tricol.tricolV2.service;
 
 import com.tricol.tricolV2.dto.CommandeFournisseurDTO;
 import com.tricol.tricolV2.dto.LigneCommandeDTO;
+import com.tricol.tricolV2.dto.ProduitCatalogue;
 import com.tricol.tricolV2.entity.CommandeFournisseur;
 import com.tricol.tricolV2.entity.Fournisseur;
 import com.tricol.tricolV2.entity.LigneCommandeFournisseur;
@@ -25,8 +26,13 @@ import org.springframework.data.domain.PageRequest;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -42,6 +48,7 @@ class CommandeFournisseurServiceImplTest {
     @Mock CommandeFournisseurMapper commandeMapper;
     @Mock LigneCommandeMapper ligneMapper;
     @Mock MouvementStockService mouvementStockService;
+    @Mock ProduitCatalogueCache produitCatalogue;
 
     @InjectMocks
     CommandeFournisseurServiceImpl service;
@@ -68,7 +75,8 @@ class CommandeFournisseurServiceImplTest {
         Produit produit = new Produit();
         produit.setId(10L);
         produit.setPrixUnitaire(new BigDecimal("25.00"));
-        when(produitRepo.findById(10L)).thenReturn(Optional.of(produit));
+        when(produitCatalogue.getAll(Set.of(10L))).thenReturn(catalogue(produit));
+        when(produitRepo.getReferenceById(10L)).thenReturn(produit);
 
         when(commandeRepo.save(any(CommandeFournisseur.class))).thenAnswer(inv -> inv.getArgument(0));
 
@@ -83,6 +91,50 @@ class CommandeFournisseurServiceImplTest {
         CommandeFournisseurDTO res = service.create(in);
 
         assertThat(res.getMontantTotal()).isEqualByComparingTo(new BigDecimal("75.00"));
+        verify(produitRepo, never()).findById(any());
+    }
+
+    @Test
+    void create_should_resolve_all_products_in_one_query_for_large_orders() {
+        when(fournisseurRepo.findById(1L)).thenReturn(Optional.of(new Fournisseur()));
+        CommandeFournisseurDTO in = new CommandeFournisseurDTO(null, LocalDateTime.now(), StatutCommande.EN_ATTENTE, null, 1L, List.of());
+
+        List<LigneCommandeFournisseur> lignes = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            lignes.add(ligne(10L + i % 3, "2"));
+        }
+        CommandeFournisseur entity = new CommandeFournisseur();
+        entity.setLignes(lignes);
+        when(commandeMapper.toEntity(in)).thenReturn(entity);
+        when(produitCatalogue.getAll(Set.of(10L, 11L, 12L)))
+                .thenReturn(catalogue(produit(10L, "1.00"), produit(11L, "2.00"), produit(12L, "3.50")));
+        when(produitRepo.getReferenceById(anyLong())).thenAnswer(inv -> produit(inv.getArgument(0), "0"));
+        when(commandeRepo.save(any(CommandeFournisseur.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        service.create(in);
+
+        // 100 lignes par produit, quantité 2: 100 * 2 * (1.00 + 2.00 + 3.50)
+        assertThat(entity.getMontantTotal()).isEqualByComparingTo(new BigDecimal("1300.00"));
+        assertThat(entity.getLignes()).allSatisfy(l -> assertThat(l.getMontantLigne()).isNotNull());
+        assertThat(entity.getLignes()).extracting(l -> l.getProduit().getId()).containsOnly(10L, 11L, 12L);
+        verify(produitCatalogue, times(1)).getAll(any());
+        verify(produitRepo, never()).findById(any());
+    }
+
+    @Test
+    void create_should_report_every_missing_product_at_once() {
+        when(fournisseurRepo.findById(1L)).thenReturn(Optional.of(new Fournisseur()));
+        CommandeFournisseurDTO in = new CommandeFournisseurDTO(null, LocalDateTime.now(), StatutCommande.EN_ATTENTE, null, 1L, List.of());
+
+        CommandeFournisseur entity = new CommandeFournisseur();
+        entity.setLignes(List.of(ligne(10L, "1"), ligne(20L, "1"), ligne(30L, "1")));
+        when(commandeMapper.toEntity(in)).thenReturn(entity);
+        when(produitCatalogue.getAll(Set.of(10L, 20L, 30L))).thenReturn(catalogue(produit(20L, "5.00")));
+
+        NotFoundException ex = assertThrows(NotFoundException.class, () -> service.create(in));
+
+        assertThat(ex.getMessage()).contains("10", "30").doesNotContain("20");
+        verify(commandeRepo, never()).save(any());
     }
 
     @Test
@@ -90,7 +142,7 @@ class CommandeFournisseurServiceImplTest {
         CommandeFournisseur existing = new CommandeFournisseur();
         existing.setId(5L);
         existing.setStatut(StatutCommande.EN_ATTENTE);
-        when(commandeRepo.findById(5L)).thenReturn(Optional.of(existing));
+        when(commandeRepo.findAvecLignesEtProduitsById(5L)).thenReturn(Optional.of(existing));
         when(mouvementStockService.movementsExistForCommande(5L)).thenReturn(false);
         when(commandeRepo.save(any())).thenAnswer(inv -> inv.getArgument(0));
         when(commandeMapper.toDTO(any())).thenReturn(new CommandeFournisseurDTO());
@@ -103,7 +155,7 @@ class CommandeFournisseurServiceImplTest {
 
     @Test
     void update_should_throw_when_not_found() {
-        when(commandeRepo.findById(99L)).thenReturn(Optional.empty());
+        when(commandeRepo.findForUpdateById(99L)).thenReturn(Optional.empty());
         assertThrows(NotFoundException.class, () -> service.update(99L, new CommandeFournisseurDTO()));
     }
 
@@ -115,4 +167,25 @@ class CommandeFournisseurServiceImplTest {
         Page<CommandeFournisseurDTO> res = service.getPaged(pageable);
         assertThat(res.getTotalElements()).isEqualTo(1);
     }
-}
\ No newline at end of file
+
+    private static LigneCommandeFournisseur ligne(Long produitId, String quantite) {
+        LigneCommandeFournisseur ligne = new LigneCommandeFournisseur();
+        ligne.setProduit(new Produit());
+        ligne.getProduit().setId(produitId);
+        ligne.setQuantite(new BigDecimal(quantite));
+        return ligne;
+    }
+
+    private static Map<Long, ProduitCatalogue> catalogue(Produit... produits) {
+        return Arrays.stream(produits).collect(Collectors.toMap(Produit::getId, p ->
+                new ProduitCatalogue(p.getId(), p.getNom(), p.getDescription(), p.getCategorie(), p.getPrixUnitaire(),
+                        p.getVersion())));
+    }
+
+    private static Produit produit(Long id, String prix) {
+        Produit produit = new Produit();
+        produit.setId(id);
+        produit.setPrixUnitaire(new BigDecimal(prix));
+        return produit;
+    }
+}
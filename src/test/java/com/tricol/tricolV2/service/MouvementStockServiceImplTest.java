@@ -1,21 +1,28 @@
 package com.tricol.tricolV2.service;
 
+import com.tricol.tricolV2.config.AppProperties;
 import com.tricol.tricolV2.entity.CommandeFournisseur;
 import com.tricol.tricolV2.entity.LigneCommandeFournisseur;
+import com.tricol.tricolV2.entity.MouvementStock;
 import com.tricol.tricolV2.entity.Produit;
 import com.tricol.tricolV2.entity.enums.TypeMouvement;
 import com.tricol.tricolV2.exception.BusinessException;
 import com.tricol.tricolV2.repository.MouvementStockRepository;
 import com.tricol.tricolV2.repository.ProduitRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -28,10 +35,20 @@ class MouvementStockServiceImplTest {
     MouvementStockRepository mouvementRepo;
     @Mock
     ProduitRepository produitRepo;
+    @Mock
+    AppProperties appProperties;
+    @Mock
+    FifoLotEngine fifoLotEngine;
+
+    @Spy
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
 
     @InjectMocks
     MouvementStockServiceImpl service;
 
+    @Captor
+    ArgumentCaptor<Iterable<MouvementStock>> mouvementCaptor;
+
     @Test
     void createEntriesForCommande_should_throw_when_insufficient_stock() {
         Produit p = new Produit();
@@ -46,15 +63,17 @@ class MouvementStockServiceImplTest {
         c.setId(1L);
         c.setLignes(List.of(l));
 
-        when(produitRepo.findByNomIgnoreCaseAndStockActuelGreaterThanOrderByStockActuelDesc(eq("X"), any()))
+        when(produitRepo.findAllocationCandidates(Set.of("x")))
                 .thenReturn(List.of());
 
         assertThrows(BusinessException.class, () -> service.createEntriesForCommande(c));
         verifyNoInteractions(mouvementRepo);
+        assertThat(meterRegistry.get("tricol.stock.allocation.refus").tag("motif", "stock-insuffisant")
+                .counter().count()).isEqualTo(1);
     }
 
     @Test
-    void createEntriesForCommande_should_create_movements_and_update_stock() {
+    void createEntriesForCommande_should_create_movements_and_decrement_stock() {
         Produit pReq = new Produit();
         pReq.setNom("X");
         LigneCommandeFournisseur l = new LigneCommandeFournisseur();
@@ -77,16 +96,13 @@ class MouvementStockServiceImplTest {
         stockB.setStockActuel(new BigDecimal("5"));
         stockB.setPrixUnitaire(new BigDecimal("2.50"));
 
-        when(produitRepo.findByNomIgnoreCaseAndStockActuelGreaterThanOrderByStockActuelDesc(eq("X"), any()))
+        when(produitRepo.findAllocationCandidates(Set.of("x")))
                 .thenReturn(List.of(stockB, stockA));
 
         service.createEntriesForCommande(c);
 
-        verify(mouvementRepo, times(2)).save(any());
-        ArgumentCaptor<Produit> produitCaptor = ArgumentCaptor.forClass(Produit.class);
-        verify(produitRepo, atLeast(2)).save(produitCaptor.capture());
-        assertThat(produitCaptor.getAllValues())
-                .extracting(Produit::getStockActuel)
-                .containsExactlyInAnyOrder(new BigDecimal("0"), new BigDecimal("3"));
+        verify(mouvementRepo).saveAll(mouvementCaptor.capture());
+        assertThat(mouvementCaptor.getValue()).hasSize(2);
+        verify(produitRepo).decrementerStocks(Map.of(2L, new BigDecimal("5"), 1L, new BigDecimal("2")));
     }
 }
\ No newline at end of file
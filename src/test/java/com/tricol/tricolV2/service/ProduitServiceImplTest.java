@@ -7,21 +7,27 @@ import com.tricol.tricolV2.entity.Produit;
 import com.tricol.tricolV2.mapper.ProduitMapper;
 import com.tricol.tricolV2.repository.MouvementStockRepository;
 import com.tricol.tricolV2.repository.ProduitRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -36,6 +42,13 @@ class ProduitServiceImplTest {
     ProduitMapper produitMapper;
     @Mock
     AppProperties appProperties;
+    @Mock
+    PlatformTransactionManager transactionManager;
+    @Mock
+    FifoLotEngine fifoLotEngine;
+
+    @Spy
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
 
     @InjectMocks
     ProduitServiceImpl service;
@@ -69,9 +82,44 @@ class ProduitServiceImplTest {
 
         assertThat(result.getId()).isEqualTo(1L);
         verify(mouvementStockRepository).save(any(MouvementStock.class));
+        verify(fifoLotEngine).entree(eq(1L), eq(new BigDecimal("5")), eq(new BigDecimal("10.00")), any());
         verify(produitRepository, atLeastOnce()).save(any(Produit.class));
     }
 
+    @Test
+    void updateProduit_should_retry_on_concurrent_stock_change() {
+        Produit existing = new Produit();
+        existing.setId(1L);
+        existing.setPrixUnitaire(new BigDecimal("10.00"));
+        existing.setStockActuel(new BigDecimal("5"));
+        when(produitRepository.findById(1L)).thenReturn(Optional.of(existing));
+        when(produitRepository.save(any(Produit.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Produit.class, 1L))
+                .thenAnswer(inv -> inv.getArgument(0));
+        when(produitMapper.toDTO(any(Produit.class))).thenReturn(new ProduitDTO());
+
+        ProduitDTO changes = new ProduitDTO(1L, "P1", "desc", new BigDecimal("10.00"), "cat", new BigDecimal("5"), null);
+        service.updateProduit(1L, changes);
+
+        verify(produitRepository, times(2)).findById(1L);
+        verify(produitRepository, times(2)).save(existing);
+    }
+
+    @Test
+    void updateProduit_should_give_up_after_bounded_retries() {
+        Produit existing = new Produit();
+        existing.setId(1L);
+        existing.setStockActuel(new BigDecimal("5"));
+        when(produitRepository.findById(1L)).thenReturn(Optional.of(existing));
+        when(produitRepository.save(any(Produit.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Produit.class, 1L));
+
+        ProduitDTO changes = new ProduitDTO(1L, "P1", "desc", new BigDecimal("10.00"), "cat", new BigDecimal("5"), null);
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> service.updateProduit(1L, changes));
+
+        verify(produitRepository, times(3)).findById(1L);
+    }
+
     @Test
     void getProduits_should_map_page() {
         PageRequest pageable = PageRequest.of(0, 5);
@@ -0,0 +1,50 @@
+package com.tricol.tricolV2.unit.service;
+
+import com.tricol.tricolV2.repository.CommandeFournisseurRepository;
+import com.tricol.tricolV2.repository.LivraisonJobRepository;
+import com.tricol.tricolV2.service.CommandeFournisseurService;
+import com.tricol.tricolV2.service.LivraisonServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+
+import static org.mockito.Mockito.*;
+
+public class LivraisonServiceUnitTest {
+
+    @Mock
+    private LivraisonJobRepository jobRepository;
+
+    @Mock
+    private CommandeFournisseurRepository commandeRepository;
+
+    @Mock
+    private CommandeFournisseurService commandeService;
+
+    @Mock
+    private TaskExecutor livraisonExecutor;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    public void balayer_ne_fait_rien_en_mode_synchrone() {
+        LivraisonServiceImpl livraisonService = new LivraisonServiceImpl(jobRepository, commandeRepository,
+                commandeService, livraisonExecutor, transactionManager, false, 3,
+                Duration.ofSeconds(30), Duration.ofMinutes(10));
+
+        livraisonService.balayer();
+
+        verifyNoInteractions(jobRepository, transactionManager, livraisonExecutor);
+    }
+}
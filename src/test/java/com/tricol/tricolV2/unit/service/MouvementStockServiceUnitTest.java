@@ -1,5 +1,6 @@
 package com.tricol.tricolV2.unit.service;
 
+import com.tricol.tricolV2.config.AppProperties;
 import com.tricol.tricolV2.dto.MouvementStockDTO;
 import com.tricol.tricolV2.entity.CommandeFournisseur;
 import com.tricol.tricolV2.entity.LigneCommandeFournisseur;
@@ -9,12 +10,17 @@ import com.tricol.tricolV2.entity.enums.TypeMouvement;
 import com.tricol.tricolV2.exception.BusinessException;
 import com.tricol.tricolV2.repository.MouvementStockRepository;
 import com.tricol.tricolV2.repository.ProduitRepository;
+import com.tricol.tricolV2.service.FifoLotEngine;
 import com.tricol.tricolV2.service.MouvementStockServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -22,8 +28,11 @@ import org.springframework.data.domain.Pageable;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -36,9 +45,21 @@ public class MouvementStockServiceUnitTest {
     @Mock
     private ProduitRepository produitRepository;
 
+    @Mock
+    private AppProperties appProperties;
+
+    @Mock
+    private FifoLotEngine fifoLotEngine;
+
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private MouvementStockServiceImpl mouvementStockService;
 
+    @Captor
+    private ArgumentCaptor<Map<Long, BigDecimal>> decrementsCaptor;
+
     private CommandeFournisseur commande;
     private Produit produit;
     private LigneCommandeFournisseur ligne;
@@ -79,37 +100,86 @@ public class MouvementStockServiceUnitTest {
     @Test
     public void createEntriesForCommande_success_creates_mouvements() {
         // Arrange
-        when(produitRepository.findByNomIgnoreCaseAndStockActuelGreaterThanOrderByStockActuelDesc(
-                produit.getNom(), BigDecimal.ZERO))
+        when(produitRepository.findAllocationCandidates(Set.of("produit test")))
                 .thenReturn(Arrays.asList(produit));
-        when(mouvementStockRepository.save(any(MouvementStock.class))).thenReturn(mouvement);
-        when(produitRepository.save(any(Produit.class))).thenReturn(produit);
 
         // Act
         mouvementStockService.createEntriesForCommande(commande);
 
         // Assert
-        verify(produitRepository, times(1))
-                .findByNomIgnoreCaseAndStockActuelGreaterThanOrderByStockActuelDesc(produit.getNom(), BigDecimal.ZERO);
-        verify(mouvementStockRepository, times(1)).save(any(MouvementStock.class));
-        verify(produitRepository, times(1)).save(any(Produit.class));
+        verify(produitRepository, times(1)).findAllocationCandidates(Set.of("produit test"));
+        verify(produitRepository, times(1)).decrementerStocks(Map.of(1L, new BigDecimal("10.00")));
+        verify(mouvementStockRepository, times(1)).saveAll(anyIterable());
+    }
+
+    @Test
+    public void createEntriesForCommande_concurrentDecrementRefused_throws_BusinessException() {
+        // Arrange: le stock a été consommé par une autre livraison entre la lecture et l'écriture
+        when(produitRepository.findAllocationCandidates(Set.of("produit test")))
+                .thenReturn(Arrays.asList(produit));
+        when(produitRepository.decrementerStocks(anyMap())).thenReturn(List.of(1L));
+
+        // Act & Assert
+        assertThrows(BusinessException.class, () ->
+            mouvementStockService.createEntriesForCommande(commande));
+
+        verify(mouvementStockRepository, never()).saveAll(any());
     }
 
     @Test
     public void createEntriesForCommande_insufficientStock_throws_BusinessException() {
         // Arrange
         produit.setStockActuel(new BigDecimal("5.00")); // Stock insuffisant
-        when(produitRepository.findByNomIgnoreCaseAndStockActuelGreaterThanOrderByStockActuelDesc(
-                produit.getNom(), BigDecimal.ZERO))
+        when(produitRepository.findAllocationCandidates(Set.of("produit test")))
                 .thenReturn(Arrays.asList(produit));
 
         // Act & Assert
         assertThrows(BusinessException.class, () -> 
             mouvementStockService.createEntriesForCommande(commande));
         
-        verify(produitRepository, times(1))
-                .findByNomIgnoreCaseAndStockActuelGreaterThanOrderByStockActuelDesc(produit.getNom(), BigDecimal.ZERO);
-        verify(mouvementStockRepository, never()).save(any());
+        verify(produitRepository, times(1)).findAllocationCandidates(Set.of("produit test"));
+        verify(produitRepository, never()).decrementerStocks(any());
+        verify(mouvementStockRepository, never()).saveAll(any());
+    }
+
+    @Test
+    public void createEntriesForCommande_largeOrder_uses_constant_round_trips() {
+        // Arrange: 300 lignes réparties sur 30 noms de produit, 2 candidats par nom
+        List<Produit> candidats = new ArrayList<>();
+        List<LigneCommandeFournisseur> lignes = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            String nom = "Produit " + (i % 30);
+            if (i < 30) {
+                for (int c = 0; c < 2; c++) {
+                    Produit candidat = new Produit();
+                    candidat.setId((long) (i * 2 + c + 1));
+                    candidat.setNom(nom);
+                    candidat.setStockActuel(new BigDecimal("100"));
+                    candidat.setPrixUnitaire(new BigDecimal("10.00"));
+                    candidats.add(candidat);
+                }
+            }
+            Produit demande = new Produit();
+            demande.setNom(nom);
+            LigneCommandeFournisseur l = new LigneCommandeFournisseur();
+            l.setProduit(demande);
+            l.setQuantite(new BigDecimal("15"));
+            lignes.add(l);
+        }
+        commande.setLignes(lignes);
+        when(produitRepository.findAllocationCandidates(anyCollection())).thenReturn(candidats);
+
+        // Act
+        mouvementStockService.createEntriesForCommande(commande);
+
+        // Assert: 1 requête de candidats + 2 écritures groupées, quel que soit le nombre de lignes
+        verify(produitRepository, times(1)).findAllocationCandidates(anyCollection());
+        verify(produitRepository, times(1)).decrementerStocks(decrementsCaptor.capture());
+        verify(mouvementStockRepository, times(1)).saveAll(anyIterable());
+        verifyNoMoreInteractions(produitRepository, mouvementStockRepository);
+        BigDecimal totalDecremente = decrementsCaptor.getValue().values().stream()
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertEquals(0, totalDecremente.compareTo(new BigDecimal("4500")));
     }
 
     @Test
@@ -7,7 +7,9 @@ import com.tricol.tricolV2.exception.NotFoundException;
 import com.tricol.tricolV2.mapper.ProduitMapper;
 import com.tricol.tricolV2.repository.MouvementStockRepository;
 import com.tricol.tricolV2.repository.ProduitRepository;
+import com.tricol.tricolV2.service.FifoLotEngine;
 import com.tricol.tricolV2.service.ProduitServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -18,6 +20,7 @@ import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import org.mockito.Spy;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -36,6 +39,12 @@ public class ProduitServiceUnitTest {
     @Mock
     private AppProperties appProperties;
 
+    @Mock
+    private FifoLotEngine fifoLotEngine;
+
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private ProduitServiceImpl produitService;
 
@@ -0,0 +1,115 @@
+package com.tricol.tricolV2.unit.util;
+
+import com.tricol.tricolV2.util.FifoLayers;
+import com.tricol.tricolV2.util.FifoLayers.Tranche;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FifoLayersTest {
+
+    @Test
+    void consommer_prend_les_lots_les_plus_anciens_en_premier() {
+        FifoLayers couches = new FifoLayers();
+        couches.ajouter(1L, new BigDecimal("10"), new BigDecimal("2.00"));
+        couches.ajouter(2L, new BigDecimal("5"), new BigDecimal("3.00"));
+
+        List<Tranche> tranches = couches.consommer(new BigDecimal("12"));
+
+        assertEquals(2, tranches.size());
+        assertEquals(new Tranche(1L, new BigDecimal("10"), new BigDecimal("2.00")), tranches.get(0));
+        assertEquals(2L, tranches.get(1).lotId());
+        assertEquals(0, tranches.get(1).quantite().compareTo(new BigDecimal("2")));
+        assertEquals(1, couches.nombreCouches());
+        assertEquals(0, couches.quantiteTotale().compareTo(new BigDecimal("3")));
+        assertEquals(0, couches.coutUnitaireMoyen().compareTo(new BigDecimal("3.0000")));
+    }
+
+    @Test
+    void coutUnitaireMoyen_valorise_les_couches_restantes() {
+        FifoLayers couches = new FifoLayers();
+        couches.ajouter(1L, new BigDecimal("10"), new BigDecimal("1.00"));
+        couches.ajouter(2L, new BigDecimal("30"), new BigDecimal("3.00"));
+
+        assertEquals(0, couches.coutUnitaireMoyen().compareTo(new BigDecimal("2.5000")));
+        couches.consommer(new BigDecimal("10"));
+        assertEquals(0, couches.coutUnitaireMoyen().compareTo(new BigDecimal("3.0000")));
+    }
+
+    @Test
+    void consommer_au_dela_des_couches_renvoie_la_part_couverte() {
+        FifoLayers couches = new FifoLayers();
+        couches.ajouter(1L, new BigDecimal("4"), new BigDecimal("2.00"));
+
+        List<Tranche> tranches = couches.consommer(new BigDecimal("6"));
+
+        assertEquals(1, tranches.size());
+        assertEquals(0, tranches.get(0).quantite().compareTo(new BigDecimal("4")));
+        assertEquals(0, couches.nombreCouches());
+        assertEquals(0, couches.quantiteTotale().signum());
+        assertEquals(0, couches.coutUnitaireMoyen().signum());
+    }
+
+    @Test
+    void file_circulaire_conserve_l_ordre_apres_agrandissement() {
+        FifoLayers couches = new FifoLayers();
+        // Fait tourner la tête avant de dépasser la capacité initiale
+        for (long id = 1; id <= 6; id++) {
+            couches.ajouter(id, BigDecimal.ONE, BigDecimal.valueOf(id));
+        }
+        couches.consommer(new BigDecimal("4"));
+        for (long id = 7; id <= 20; id++) {
+            couches.ajouter(id, BigDecimal.ONE, BigDecimal.valueOf(id));
+        }
+
+        List<Tranche> tranches = couches.consommer(new BigDecimal("16"));
+
+        assertEquals(16, tranches.size());
+        for (int i = 0; i < tranches.size(); i++) {
+            assertEquals(5L + i, tranches.get(i).lotId());
+        }
+        assertEquals(0, couches.nombreCouches());
+    }
+
+    @Test
+    void copie_independante_de_l_original() {
+        FifoLayers couches = new FifoLayers();
+        couches.ajouter(1L, new BigDecimal("10"), new BigDecimal("1.00"));
+        couches.ajouter(2L, new BigDecimal("10"), new BigDecimal("2.00"));
+
+        FifoLayers copie = couches.copie();
+        copie.consommer(new BigDecimal("15"));
+        copie.ajouter(3L, new BigDecimal("5"), new BigDecimal("3.00"));
+
+        assertEquals(2, couches.nombreCouches());
+        assertEquals(0, couches.quantiteTotale().compareTo(new BigDecimal("20")));
+        assertEquals(1L, couches.consommer(BigDecimal.ONE).get(0).lotId());
+        assertEquals(2, copie.nombreCouches());
+        assertEquals(0, copie.quantiteTotale().compareTo(new BigDecimal("10")));
+    }
+
+    @Test
+    void copies_partagent_les_lots_sans_s_ecraser() {
+        FifoLayers couches = new FifoLayers();
+        couches.ajouter(1L, new BigDecimal("10"), new BigDecimal("1.00"));
+        couches.ajouter(2L, new BigDecimal("10"), new BigDecimal("2.00"));
+
+        FifoLayers copie = couches.copie();
+        copie.consommer(new BigDecimal("12"));
+        copie.ajouter(3L, new BigDecimal("5"), new BigDecimal("3.00"));
+        // L'original n'est plus le dernier à avoir ajouté: il ne doit pas écraser le lot 3 de la copie
+        couches.ajouter(4L, new BigDecimal("7"), new BigDecimal("4.00"));
+
+        List<Tranche> original = couches.consommer(new BigDecimal("27"));
+        assertEquals(List.of(1L, 2L, 4L), original.stream().map(Tranche::lotId).toList());
+        assertEquals(0, original.get(1).quantite().compareTo(new BigDecimal("10")));
+
+        List<Tranche> deCopie = copie.consommer(new BigDecimal("13"));
+        assertEquals(List.of(2L, 3L), deCopie.stream().map(Tranche::lotId).toList());
+        assertEquals(0, deCopie.get(0).quantite().compareTo(new BigDecimal("8")));
+        assertEquals(0, copie.nombreCouches());
+    }
+}
@@ -0,0 +1,67 @@
+package com.tricol.tricolV2.unit.util;
+
+import com.tricol.tricolV2.util.FixedPoint;
+import com.tricol.tricolV2.util.ValorisationUtil;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FixedPointTest {
+
+    @Test
+    void versLong_met_a_l_echelle_et_refuse_les_decimales_perdues() {
+        assertEquals(1250L, FixedPoint.versLong(new BigDecimal("12.5"), 2));
+        assertEquals(1250L, FixedPoint.versLong(new BigDecimal("12.5000"), 2));
+        assertEquals(100000L, FixedPoint.versLong(new BigDecimal("1E+3"), 2));
+        assertEquals(0L, FixedPoint.versLong(null, 4));
+        assertThrows(ArithmeticException.class, () -> FixedPoint.versLong(new BigDecimal("12.345"), 2));
+        assertThrows(ArithmeticException.class, () -> FixedPoint.versLong(new BigDecimal("1E+30"), 2));
+    }
+
+    @Test
+    void diviser_arrondit_half_up_en_s_eloignant_de_zero() {
+        // 1 / 8 = 0.125 -> 0.13 ; -1 / 8 -> -0.13 ; 1 / 3 -> 0.33
+        assertEquals(13L, FixedPoint.diviser(1, 0, 8, 0, 2));
+        assertEquals(-13L, FixedPoint.diviser(-1, 0, 8, 0, 2));
+        assertEquals(33L, FixedPoint.diviser(1, 0, 3, 0, 2));
+        assertEquals(-12L, FixedPoint.arrondir(-1249, 3, 1));
+        assertThrows(ArithmeticException.class, () -> FixedPoint.diviser(1, 0, 0, 0, 2));
+        assertThrows(ArithmeticException.class, () -> FixedPoint.multiplier(Long.MAX_VALUE, 2, 10, 0, 2));
+    }
+
+    @Test
+    void calculateCump_identique_au_calcul_bigdecimal() {
+        Random random = new Random(7);
+        for (int i = 0; i < 10_000; i++) {
+            BigDecimal qte = BigDecimal.valueOf(random.nextInt(1_000_000), 2);
+            BigDecimal cump = BigDecimal.valueOf(random.nextInt(10_000_000), 4);
+            BigDecimal qteEntree = BigDecimal.valueOf(1 + random.nextInt(100_000), 2);
+            BigDecimal cout = BigDecimal.valueOf(random.nextInt(1_000_000), 2);
+
+            BigDecimal attendu = cump.multiply(qte).add(cout.multiply(qteEntree))
+                    .divide(qte.add(qteEntree), 4, RoundingMode.HALF_UP);
+            assertEquals(attendu, ValorisationUtil.calculateCump(qte, cump, qteEntree, cout));
+        }
+    }
+
+    @Test
+    void repli_bigdecimal_hors_capacite_ou_hors_echelle() {
+        BigDecimal grand = new BigDecimal("90000000000000000");
+        assertEquals(new BigDecimal("2.0000"),
+                ValorisationUtil.calculateCump(grand, new BigDecimal("1"), grand, new BigDecimal("3")));
+        assertEquals(new BigDecimal("1.6667"),
+                ValorisationUtil.calculateCump(new BigDecimal("2"), new BigDecimal("1.00001"),
+                        new BigDecimal("4"), new BigDecimal("2")));
+        assertEquals(new BigDecimal("0.00"),
+                ValorisationUtil.calculateCump(new BigDecimal("-5"), new BigDecimal("2"),
+                        new BigDecimal("5"), new BigDecimal("3")));
+
+        assertEquals(new BigDecimal("1.23"), ValorisationUtil.montantLigne(new BigDecimal("0.41"), new BigDecimal("3")));
+        assertEquals(new BigDecimal("0.01"), ValorisationUtil.montantLigne(new BigDecimal("0.005"), BigDecimal.ONE));
+        assertEquals(new BigDecimal("0.00"), ValorisationUtil.montantLigne(null, BigDecimal.TEN));
+    }
+}
@@ -0,0 +1,72 @@
+package com.tricol.tricolV2.unit.util;
+
+import com.tricol.tricolV2.util.IndexTrigrammes;
+import com.tricol.tricolV2.util.IndexTrigrammes.Resultat;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IndexTrigrammesTest {
+
+    @Test
+    void rechercher_trouve_les_sous_chaines_sans_casse_ni_accents() {
+        IndexTrigrammes index = new IndexTrigrammes();
+        index.indexer(1L, "Écrou M8");
+        index.indexer(2L, "Vis à bois");
+        index.indexer(3L, "Tournevis  cruciforme");
+
+        assertEquals(List.of(2L, 3L), index.rechercher("VIS", 0, 10).ids());
+        assertEquals(List.of(1L), index.rechercher("ecrou", 0, 10).ids());
+        assertEquals(List.of(3L), index.rechercher("vis cru", 0, 10).ids());
+        assertEquals(0, index.rechercher("vis m8", 0, 10).total());
+        assertThrows(IllegalArgumentException.class, () -> index.rechercher(" v ", 0, 10));
+    }
+
+    @Test
+    void rechercher_classe_egalite_prefixe_debut_de_mot_puis_milieu_et_pagine() {
+        IndexTrigrammes index = new IndexTrigrammes();
+        index.indexer(10L, "Contrevis");
+        index.indexer(11L, "Boite de vis");
+        index.indexer(12L, "Vis 4mm");
+        index.indexer(13L, "Vis");
+        index.indexer(14L, "Vis 10mm inox");
+
+        Resultat premiere = index.rechercher("vis", 0, 2);
+        assertEquals(List.of(13L, 12L), premiere.ids());
+        assertEquals(5, premiere.total());
+        assertEquals(List.of(14L, 11L, 10L), index.rechercher("vis", 2, 10).ids());
+        assertEquals(List.of(), index.rechercher("vis", 5, 10).ids());
+    }
+
+    @Test
+    void indexer_remplace_l_ancien_texte_et_retirer_supprime() {
+        IndexTrigrammes index = new IndexTrigrammes();
+        index.indexer(5L, "Cheville");
+        index.indexer(4L, "Chevron");
+        index.indexer(5L, "Boulon");
+
+        assertEquals(List.of(4L), index.rechercher("chev", 0, 10).ids());
+        assertEquals(List.of(5L), index.rechercher("boulon", 0, 10).ids());
+
+        index.retirer(5L);
+        index.indexer(4L, null);
+        assertEquals(0, index.rechercher("boulon", 0, 10).total());
+        assertEquals(0, index.rechercher("chev", 0, 10).total());
+        assertEquals(0, index.taille());
+    }
+
+    @Test
+    void reindexations_repetees_compactent_sans_perdre_de_texte() {
+        IndexTrigrammes index = new IndexTrigrammes();
+        index.indexer(1L, "Vis stable");
+        for (int i = 0; i < 2000; i++) {
+            index.indexer(2L, "Boulon version " + i);
+        }
+
+        assertEquals(List.of(1L), index.rechercher("vis stab", 0, 10).ids());
+        assertEquals(List.of(2L), index.rechercher("version 1999", 0, 10).ids());
+        assertEquals(0, index.rechercher("version 1998", 0, 10).total());
+    }
+}
@@ -0,0 +1,26 @@
+package com.tricol.tricolV2.unit.util;
+
+import com.tricol.tricolV2.util.ResponseFormat;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ResponseFormatTest {
+
+    @Test
+    void fromAccept_suit_la_negociation_de_contenu() {
+        assertEquals(ResponseFormat.JSON, ResponseFormat.fromAccept(null));
+        assertEquals(ResponseFormat.JSON, ResponseFormat.fromAccept("*/*"));
+        assertEquals(ResponseFormat.JSON, ResponseFormat.fromAccept("application/json, application/cbor"));
+        assertEquals(ResponseFormat.CBOR, ResponseFormat.fromAccept("application/cbor"));
+        assertEquals(ResponseFormat.SMILE, ResponseFormat.fromAccept("application/json;q=0.5, application/x-jackson-smile"));
+        assertEquals(ResponseFormat.JSON, ResponseFormat.fromAccept("pas un type"));
+    }
+
+    @Test
+    void etag_distingue_les_formats() {
+        assertEquals("7", ResponseFormat.JSON.etag(7));
+        assertEquals("7-cbor", ResponseFormat.CBOR.etag(7));
+        assertEquals("7-smile", ResponseFormat.SMILE.etag(7));
+    }
+}
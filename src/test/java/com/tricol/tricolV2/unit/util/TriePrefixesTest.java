@@ -0,0 +1,57 @@
+package com.tricol.tricolV2.unit.util;
+
+import com.tricol.tricolV2.util.TriePrefixes;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TriePrefixesTest {
+
+    @Test
+    void rechercher_renvoie_le_terme_exact_puis_l_ordre_alphabetique_sans_doublon() {
+        TriePrefixes trie = new TriePrefixes();
+        trie.ajouter("atlas fer", 1L);
+        trie.ajouter("atlas", 2L);
+        trie.ajouter("atelier bois", 3L);
+        trie.ajouter("fer", 1L);
+        trie.ajouter("atlas", 1L);
+
+        assertEquals(List.of(3L, 1L, 2L), trie.rechercher("at", 10));
+        assertEquals(List.of(1L, 2L), trie.rechercher("atlas", 10));
+        assertEquals(List.of(3L), trie.rechercher("at", 1));
+        assertEquals(List.of(), trie.rechercher("bois", 10));
+    }
+
+    @Test
+    void retirer_elague_les_branches_vides_sans_toucher_les_autres_ids() {
+        TriePrefixes trie = new TriePrefixes();
+        trie.ajouter("sud bois", 4L);
+        trie.ajouter("sud", 5L);
+
+        trie.retirer("sud bois", 4L);
+        assertEquals(List.of(5L), trie.rechercher("su", 10));
+        assertEquals(List.of(), trie.rechercher("sud b", 10));
+
+        trie.retirer("sud", 5L);
+        trie.retirer("inconnu", 5L);
+        assertEquals(List.of(), trie.rechercher("s", 10));
+    }
+
+    @Test
+    void retirer_la_moitie_des_ids_ne_garde_que_les_autres() {
+        TriePrefixes trie = new TriePrefixes();
+        for (long id = 1; id <= 1000; id++) {
+            trie.ajouter("ice" + id, id);
+        }
+        List<Long> avant = trie.rechercher("ice1", 2000);
+
+        for (long id = 1; id <= 1000; id += 2) {
+            trie.retirer("ice" + id, id);
+        }
+
+        assertEquals(112, avant.size());
+        assertEquals(56, trie.rechercher("ice1", 2000).size());
+    }
+}